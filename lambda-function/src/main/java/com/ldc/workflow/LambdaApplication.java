@@ -1,10 +1,12 @@
 package com.ldc.workflow;
 
+import com.ldc.workflow.config.WorkflowRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 /**
  * Spring Boot application entry point for Lambda functions.
@@ -21,9 +23,13 @@ import org.springframework.context.annotation.ComponentScan;
  * 3. Configure spring.cloud.function.definition to specify handler
  * 4. Use environment variables for configuration
  * 5. Initialize AWS clients as beans for reuse across invocations
+ *
+ * The Maven profile "native" builds this application ahead-of-time into a GraalVM
+ * native executable, started by NativeLambdaBootstrap on a custom runtime.
  */
 @SpringBootApplication
 @ComponentScan(basePackages = { "com.ldc.workflow" })
+@ImportRuntimeHints(WorkflowRuntimeHints.class)
 public class LambdaApplication {
 
     public static void main(String[] args) {
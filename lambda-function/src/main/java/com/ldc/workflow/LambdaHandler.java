@@ -4,6 +4,8 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ldc.workflow.util.LambdaPayloadCodec;
+import com.ldc.workflow.util.WorkflowJson;
 import org.springframework.boot.SpringApplication;
 import org.springframework.context.ApplicationContext;
 import org.slf4j.Logger;
@@ -11,24 +13,28 @@ import org.slf4j.LoggerFactory;
 
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
 
 /**
  * AWS Lambda handler for LDC Loan Review Workflow.
  * 
  * This handler initializes Spring Boot context and routes requests to appropriate handlers.
  * It implements the AWS Lambda RequestStreamHandler interface to avoid JSON deserialization issues.
+ * Payloads are parsed from and written to the invocation streams without intermediate
+ * copies, and logged payloads are capped at workflow.logging.payload.max.chars.
  */
 public class LambdaHandler implements RequestStreamHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(LambdaHandler.class);
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectMapper objectMapper = WorkflowJson.mapper();
     private static ApplicationContext applicationContext;
+    private static LambdaPayloadCodec payloadCodec;
 
     static {
         try {
             logger.info("Initializing Spring Boot application context");
             applicationContext = SpringApplication.run(LambdaApplication.class);
+            payloadCodec = new LambdaPayloadCodec(objectMapper, applicationContext.getEnvironment()
+                    .getProperty("workflow.logging.payload.max.chars", Integer.class, 2048));
             logger.info("Spring Boot application context initialized successfully");
         } catch (Exception e) {
             logger.error("Failed to initialize Spring Boot application context", e);
@@ -39,11 +45,9 @@ public class LambdaHandler implements RequestStreamHandler {
     @Override
     public void handleRequest(InputStream input, OutputStream output, Context context) {
         try {
-            // Read input stream and parse JSON
-            String inputStr = new String(input.readAllBytes(), StandardCharsets.UTF_8);
-            logger.info("Lambda handler invoked with input: {}", inputStr);
-            
-            JsonNode inputNode = objectMapper.readTree(inputStr);
+            // Parse JSON straight from the input stream
+            JsonNode inputNode = payloadCodec.read(input);
+            logger.info("Lambda handler invoked with input: {}", payloadCodec.forLog(inputNode));
             
             // Get the loan review router bean from Spring context
             com.ldc.workflow.handlers.LoanReviewRouter router = 
@@ -52,24 +56,38 @@ public class LambdaHandler implements RequestStreamHandler {
             // Route the request to the appropriate handler
             JsonNode response = router.apply(inputNode);
             
-            logger.info("Lambda handler returning response: {}", response);
+            logger.info("Lambda handler returning response: {}", payloadCodec.forLog(response));
             
-            // Write response to output stream
-            String responseStr = objectMapper.writeValueAsString(response);
-            output.write(responseStr.getBytes(StandardCharsets.UTF_8));
-            output.flush();
+            // Write response straight to the output stream
+            payloadCodec.write(response, output);
         } catch (Exception e) {
             logger.error("Error processing Lambda request", e);
             try {
                 JsonNode errorResponse = objectMapper.createObjectNode()
                     .put("error", e.getMessage())
                     .put("errorType", e.getClass().getSimpleName());
-                String errorStr = objectMapper.writeValueAsString(errorResponse);
-                output.write(errorStr.getBytes(StandardCharsets.UTF_8));
-                output.flush();
+                payloadCodec.write(errorResponse, output);
             } catch (Exception ex) {
                 logger.error("Failed to write error response", ex);
             }
+        } finally {
+            flushAuditTrail();
+        }
+    }
+
+    /**
+     * Write audit events still queued before Lambda freezes the sandbox, since the
+     * background flush thread does not run while frozen. Skipped when nothing is pending.
+     */
+    private void flushAuditTrail() {
+        try {
+            com.ldc.workflow.service.AuditTrailWriter auditTrailWriter =
+                applicationContext.getBean(com.ldc.workflow.service.AuditTrailWriter.class);
+            if (auditTrailWriter.getPendingEventCount() > 0) {
+                auditTrailWriter.flush();
+            }
+        } catch (Exception e) {
+            logger.error("Failed to flush audit trail", e);
         }
     }
 }
@@ -0,0 +1,91 @@
+package com.ldc.workflow;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ldc.workflow.util.WorkflowJson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+/**
+ * Lambda custom runtime loop for the native executable (Maven profile "native").
+ *
+ * Polls the Lambda Runtime API for the next invocation and passes it to LambdaHandler,
+ * so the native build parses, routes, logs and flushes the audit trail exactly like the
+ * JVM build. LambdaHandler already turns handler failures into error responses; only
+ * failures outside it are reported on the invocation error endpoint.
+ */
+public final class NativeLambdaBootstrap {
+
+    private static final Logger logger = LoggerFactory.getLogger(NativeLambdaBootstrap.class);
+    private static final ObjectMapper objectMapper = WorkflowJson.mapper();
+
+    private static final String RUNTIME_API_VERSION = "2018-06-01";
+    private static final String HEADER_REQUEST_ID = "Lambda-Runtime-Aws-Request-Id";
+    private static final String HEADER_TRACE_ID = "Lambda-Runtime-Trace-Id";
+    private static final String HEADER_ERROR_TYPE = "Lambda-Runtime-Function-Error-Type";
+    private static final String TRACE_ID_PROPERTY = "com.amazonaws.xray.traceHeader";
+
+    private NativeLambdaBootstrap() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String runtimeApi = System.getenv("AWS_LAMBDA_RUNTIME_API");
+        if (runtimeApi == null || runtimeApi.isEmpty()) {
+            throw new IllegalStateException("AWS_LAMBDA_RUNTIME_API is not set; not running on a Lambda custom runtime");
+        }
+        String runtimeUrl = "http://" + runtimeApi + "/" + RUNTIME_API_VERSION + "/runtime";
+        // The Runtime API only speaks HTTP/1.1
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        LambdaHandler handler;
+        try {
+            handler = new LambdaHandler();
+        } catch (Throwable e) {
+            logger.error("Failed to initialize Lambda handler", e);
+            post(client, runtimeUrl + "/init/error", errorBody(e), e);
+            throw e;
+        }
+
+        while (true) {
+            // Blocks until Lambda delivers the next invocation
+            HttpResponse<InputStream> next = client.send(
+                    HttpRequest.newBuilder(URI.create(runtimeUrl + "/invocation/next")).GET().build(),
+                    HttpResponse.BodyHandlers.ofInputStream());
+            String requestId = next.headers().firstValue(HEADER_REQUEST_ID)
+                    .orElseThrow(() -> new IllegalStateException("Invocation without " + HEADER_REQUEST_ID));
+            next.headers().firstValue(HEADER_TRACE_ID)
+                    .ifPresent(traceId -> System.setProperty(TRACE_ID_PROPERTY, traceId));
+
+            String invocationUrl = runtimeUrl + "/invocation/" + requestId;
+            try (InputStream input = next.body()) {
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                handler.handleRequest(input, output, null);
+                post(client, invocationUrl + "/response", output.toByteArray(), null);
+            } catch (Exception e) {
+                logger.error("Failed to process invocation {}", requestId, e);
+                post(client, invocationUrl + "/error", errorBody(e), e);
+            }
+        }
+    }
+
+    private static void post(HttpClient client, String url, byte[] body, Throwable error) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        if (error != null) {
+            request.header(HEADER_ERROR_TYPE, error.getClass().getSimpleName());
+        }
+        client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+    }
+
+    private static byte[] errorBody(Throwable error) throws Exception {
+        return objectMapper.writeValueAsBytes(objectMapper.createObjectNode()
+                .put("errorMessage", String.valueOf(error.getMessage()))
+                .put("errorType", error.getClass().getSimpleName()));
+    }
+}
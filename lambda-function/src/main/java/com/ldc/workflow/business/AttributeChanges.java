@@ -0,0 +1,124 @@
+package com.ldc.workflow.business;
+
+import com.ldc.workflow.types.AttributeDecision;
+import com.ldc.workflow.types.LoanAttribute;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The result of merging attribute decision updates into a loan's attributes by Name.
+ *
+ * An update whose name matches existing attributes changes their decision in place;
+ * any other update is appended. Attributes not named in the updates are kept. Besides
+ * the merged list, the changes record which elements changed, which were appended and
+ * how each decision count moved, so the write can patch just those elements and adjust
+ * the stored counters instead of rewriting the list.
+ */
+public final class AttributeChanges {
+
+    private final List<LoanAttribute> merged;
+    private final List<Integer> changedIndexes;
+    private final List<LoanAttribute> appended;
+    private final int[] countDeltas;
+
+    private AttributeChanges(List<LoanAttribute> merged, List<Integer> changedIndexes, List<LoanAttribute> appended,
+            int[] countDeltas) {
+        this.merged = merged;
+        this.changedIndexes = changedIndexes;
+        this.appended = appended;
+        this.countDeltas = countDeltas;
+    }
+
+    /**
+     * Merge updates into the current attributes. Neither list is modified. When an
+     * update names several existing attributes, all of them take its decision; when the
+     * updates name an attribute twice, the later update wins.
+     */
+    public static AttributeChanges merge(List<LoanAttribute> current, List<LoanAttribute> updates) {
+        List<LoanAttribute> merged = new ArrayList<>(current != null ? current.size() : 0);
+        Map<String, List<Integer>> indexesByName = new HashMap<>();
+        if (current != null) {
+            for (LoanAttribute attribute : current) {
+                if (attribute.getAttributeName() != null) {
+                    indexesByName.computeIfAbsent(attribute.getAttributeName(), name -> new ArrayList<>(1))
+                            .add(merged.size());
+                }
+                merged.add(new LoanAttribute(attribute.getAttributeName(), attribute.getAttributeDecision()));
+            }
+        }
+        int existing = merged.size();
+
+        int[] countDeltas = new int[AttributeDecision.count()];
+        boolean[] changed = new boolean[existing];
+        for (LoanAttribute update : updates) {
+            String name = update.getAttributeName();
+            String decision = update.getAttributeDecision();
+            List<Integer> indexes = name != null ? indexesByName.get(name) : null;
+            if (indexes == null) {
+                if (name != null) {
+                    indexesByName.put(name, new ArrayList<>(List.of(merged.size())));
+                }
+                merged.add(new LoanAttribute(name, decision));
+                countDeltas[AttributeDecision.parse(decision).ordinal()]++;
+                continue;
+            }
+            for (int index : indexes) {
+                LoanAttribute attribute = merged.get(index);
+                if (Objects.equals(attribute.getAttributeDecision(), decision)) {
+                    continue;
+                }
+                countDeltas[AttributeDecision.parse(attribute.getAttributeDecision()).ordinal()]--;
+                countDeltas[AttributeDecision.parse(decision).ordinal()]++;
+                attribute.setAttributeDecision(decision);
+                if (index < existing) {
+                    changed[index] = true;
+                }
+            }
+        }
+
+        List<Integer> changedIndexes = new ArrayList<>();
+        for (int i = 0; i < existing; i++) {
+            if (changed[i]) {
+                changedIndexes.add(i);
+            }
+        }
+        return new AttributeChanges(merged, changedIndexes, List.copyOf(merged.subList(existing, merged.size())),
+                countDeltas);
+    }
+
+    /**
+     * The attributes after the merge.
+     */
+    public List<LoanAttribute> merged() {
+        return merged;
+    }
+
+    /**
+     * Positions, in the original list, of the attributes whose decision changed.
+     */
+    public List<Integer> changedIndexes() {
+        return changedIndexes;
+    }
+
+    /**
+     * Attributes added at the end of the list.
+     */
+    public List<LoanAttribute> appended() {
+        return appended;
+    }
+
+    /**
+     * How many attributes with this decision were gained (positive) or lost (negative).
+     */
+    public int countDelta(AttributeDecision decision) {
+        return countDeltas[decision.ordinal()];
+    }
+
+    public boolean isEmpty() {
+        return changedIndexes.isEmpty() && appended.isEmpty();
+    }
+}
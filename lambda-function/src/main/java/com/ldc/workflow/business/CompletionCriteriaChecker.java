@@ -1,12 +1,13 @@
 package com.ldc.workflow.business;
 
+import com.ldc.workflow.types.AttributeDecision;
 import com.ldc.workflow.types.LoanAttribute;
-import com.ldc.workflow.constants.WorkflowConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Checks if loan decision is complete based on completion criteria.
@@ -28,19 +29,19 @@ public class CompletionCriteriaChecker {
      * DetermineLoanStatus
      */
     public boolean isLoanDecisionComplete(String loanDecision, List<LoanAttribute> attributes) {
-        // Check if all attributes are non-null and non-Pending
-        if (attributes == null || attributes.isEmpty()) {
+        return isLoanDecisionComplete(loanDecision, DecisionSummary.of(attributes));
+    }
+
+    /**
+     * Check if loan decision is complete from decision counts already computed for the loan.
+     */
+    public boolean isLoanDecisionComplete(String loanDecision, DecisionSummary summary) {
+        if (summary.isEmpty()) {
             logger.debug("No attributes provided - considered complete (edge case)");
             return true; // Empty attributes = immediate decision
         }
 
-        boolean allAttributesComplete = attributes.stream()
-                .allMatch(attr -> {
-                    String decision = attr.getAttributeDecision();
-                    return decision != null && !WorkflowConstants.STATUS_PENDING.equals(decision);
-                });
-
-        if (!allAttributesComplete) {
+        if (!summary.isComplete()) {
             logger.debug("Not all attributes are complete (some are null or Pending)");
             return false;
         }
@@ -58,10 +59,7 @@ public class CompletionCriteriaChecker {
         }
 
         return attributes.stream()
-                .filter(attr -> {
-                    String decision = attr.getAttributeDecision();
-                    return decision == null || WorkflowConstants.STATUS_PENDING.equals(decision);
-                })
+                .filter(attr -> AttributeDecision.parse(attr.getAttributeDecision()) == AttributeDecision.PENDING)
                 .toList();
     }
 
@@ -69,17 +67,29 @@ public class CompletionCriteriaChecker {
      * Get a human-readable message about why the loan decision is not complete.
      */
     public String getIncompleteReason(String loanDecision, List<LoanAttribute> attributes) {
+        return getIncompleteReason(loanDecision, DecisionSummary.of(attributes));
+    }
+
+    /**
+     * Get a human-readable message about why the loan decision is not complete, from
+     * decision counts already computed for the loan.
+     */
+    public String getIncompleteReason(String loanDecision, DecisionSummary summary) {
         if (loanDecision == null || loanDecision.trim().isEmpty()) {
             return "Loan decision is not set";
         }
 
-        List<LoanAttribute> incompleteAttrs = getIncompleteAttributes(attributes);
-        if (!incompleteAttrs.isEmpty()) {
-            String incompleteNames = incompleteAttrs.stream()
-                    .map(LoanAttribute::getAttributeName)
-                    .reduce((a, b) -> a + ", " + b)
-                    .orElse(WorkflowConstants.DEFAULT_UNKNOWN);
-            return "The following attributes are incomplete (Pending or null): " + incompleteNames;
+        List<String> incompleteNames = summary.pendingAttributeNames();
+        if (!incompleteNames.isEmpty()) {
+            return "The following attributes are incomplete (Pending or null): "
+                    + incompleteNames.stream()
+                            .map(name -> name != null ? name : "null")
+                            .collect(Collectors.joining(", "));
+        }
+        int pending = summary.count(AttributeDecision.PENDING);
+        if (pending > 0) {
+            // Summary read from the stored counters, which do not keep names
+            return pending + " of " + summary.total() + " attributes are incomplete (Pending or null)";
         }
 
         return "Loan decision is complete";
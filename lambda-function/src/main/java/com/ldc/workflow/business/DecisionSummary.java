@@ -0,0 +1,121 @@
+package com.ldc.workflow.business;
+
+import com.ldc.workflow.types.AttributeDecision;
+import com.ldc.workflow.types.LoanAttribute;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts of a loan's attribute decisions, computed in one pass over the attribute
+ * list. Completion and status rules read these counts instead of scanning the
+ * list again for each question. Names of pending attributes are kept for the
+ * incomplete reason.
+ */
+public final class DecisionSummary {
+
+    private static final DecisionSummary EMPTY = new DecisionSummary(new int[AttributeDecision.count()], 0,
+            List.of());
+
+    private final int[] counts;
+    private final int total;
+    private final List<String> pendingNames;
+
+    private DecisionSummary(int[] counts, int total, List<String> pendingNames) {
+        this.counts = counts;
+        this.total = total;
+        this.pendingNames = pendingNames;
+    }
+
+    public static DecisionSummary of(List<LoanAttribute> attributes) {
+        if (attributes == null || attributes.isEmpty()) {
+            return EMPTY;
+        }
+        int[] counts = new int[AttributeDecision.count()];
+        List<String> pendingNames = null;
+        for (LoanAttribute attribute : attributes) {
+            AttributeDecision decision = AttributeDecision.parse(attribute.getAttributeDecision());
+            counts[decision.ordinal()]++;
+            if (decision == AttributeDecision.PENDING) {
+                if (pendingNames == null) {
+                    pendingNames = new ArrayList<>();
+                }
+                pendingNames.add(attribute.getAttributeName());
+            }
+        }
+        return new DecisionSummary(counts, attributes.size(), pendingNames != null ? pendingNames : List.of());
+    }
+
+    /**
+     * Summary from counts stored with the loan (see workflow_state.pending_count and
+     * siblings). Decisions outside the known set make up the rest of the total. Pending
+     * attribute names are not stored, so {@link #pendingAttributeNames()} is empty.
+     */
+    public static DecisionSummary fromCounts(int total, int pending, int approved, int rejected, int reclass,
+            int repurchase) {
+        int[] counts = new int[AttributeDecision.count()];
+        counts[AttributeDecision.PENDING.ordinal()] = pending;
+        counts[AttributeDecision.APPROVED.ordinal()] = approved;
+        counts[AttributeDecision.REJECTED.ordinal()] = rejected;
+        counts[AttributeDecision.RECLASS.ordinal()] = reclass;
+        counts[AttributeDecision.REPURCHASE.ordinal()] = repurchase;
+        counts[AttributeDecision.OTHER.ordinal()] = total - pending - approved - rejected - reclass - repurchase;
+        return new DecisionSummary(counts, total, List.of());
+    }
+
+    public int count(AttributeDecision decision) {
+        return counts[decision.ordinal()];
+    }
+
+    public int total() {
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return total == 0;
+    }
+
+    /**
+     * True when no attribute is null or Pending (including when there are none).
+     */
+    public boolean isComplete() {
+        return count(AttributeDecision.PENDING) == 0;
+    }
+
+    public boolean allApproved() {
+        return total > 0 && count(AttributeDecision.APPROVED) == total;
+    }
+
+    public boolean allRejected() {
+        return total > 0 && count(AttributeDecision.REJECTED) == total;
+    }
+
+    public boolean hasApprovedAndRejected() {
+        return count(AttributeDecision.APPROVED) > 0 && count(AttributeDecision.REJECTED) > 0;
+    }
+
+    public boolean hasRepurchase() {
+        return count(AttributeDecision.REPURCHASE) > 0;
+    }
+
+    public boolean hasReclass() {
+        return count(AttributeDecision.RECLASS) > 0;
+    }
+
+    /**
+     * Names of the attributes whose decision is null or Pending, in list order. Empty
+     * for a summary built {@link #fromCounts}.
+     */
+    public List<String> pendingAttributeNames() {
+        return pendingNames;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("DecisionSummary{total=").append(total);
+        for (AttributeDecision decision : AttributeDecision.values()) {
+            builder.append(", ").append(decision.name().toLowerCase()).append('=').append(count(decision));
+        }
+        return builder.append('}').toString();
+    }
+}
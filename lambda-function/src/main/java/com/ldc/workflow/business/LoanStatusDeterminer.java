@@ -1,5 +1,6 @@
 package com.ldc.workflow.business;
 
+import com.ldc.workflow.types.AttributeDecision;
 import com.ldc.workflow.types.LoanAttribute;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,7 +10,8 @@ import java.util.List;
 
 /**
  * Determines the final loan status based on attribute decisions.
- * Implements the business logic for status determination.
+ * Implements the business logic for status determination over a
+ * {@link DecisionSummary}, so the attributes are scanned once.
  */
 @Component
 public class LoanStatusDeterminer {
@@ -27,35 +29,26 @@ public class LoanStatusDeterminer {
      * - At least one Reclass → "Reclass Approved" (TBD: final business rules)
      */
     public String determineStatus(List<LoanAttribute> attributes) {
-        if (attributes == null || attributes.isEmpty()) {
+        return determineStatus(DecisionSummary.of(attributes));
+    }
+
+    /**
+     * Determine the loan status from decision counts already computed for the loan.
+     */
+    public String determineStatus(DecisionSummary summary) {
+        if (summary.isEmpty()) {
             logger.warn("No attributes provided for status determination");
             return "Unknown";
         }
 
-        // Count decisions
-        int approvedCount = 0;
-        int rejectedCount = 0;
-        int reclassCount = 0;
-        int repurchaseCount = 0;
-        int pendingCount = 0;
-
-        for (LoanAttribute attr : attributes) {
-            String decision = attr.getAttributeDecision();
-            if (decision == null || "Pending".equals(decision)) {
-                pendingCount++;
-            } else if ("Approved".equals(decision)) {
-                approvedCount++;
-            } else if ("Rejected".equals(decision)) {
-                rejectedCount++;
-            } else if ("Reclass".equals(decision)) {
-                reclassCount++;
-            } else if ("Repurchase".equals(decision)) {
-                repurchaseCount++;
-            }
-        }
+        int approvedCount = summary.count(AttributeDecision.APPROVED);
+        int rejectedCount = summary.count(AttributeDecision.REJECTED);
+        int reclassCount = summary.count(AttributeDecision.RECLASS);
+        int repurchaseCount = summary.count(AttributeDecision.REPURCHASE);
 
-        logger.debug("Status determination: approved={}, rejected={}, reclass={}, repurchase={}, pending={}", 
-                approvedCount, rejectedCount, reclassCount, repurchaseCount, pendingCount);
+        logger.debug("Status determination: approved={}, rejected={}, reclass={}, repurchase={}, pending={}",
+                approvedCount, rejectedCount, reclassCount, repurchaseCount,
+                summary.count(AttributeDecision.PENDING));
 
         // Determine status based on rules
         // TBD: Repurchase and Reclass rules - using simple priority for now
@@ -74,12 +67,12 @@ public class LoanStatusDeterminer {
             return "Partially Approved";
         }
 
-        if (approvedCount > 0 && rejectedCount == 0 && reclassCount == 0 && repurchaseCount == 0) {
+        if (approvedCount > 0) {
             logger.info("Loan status determined as: Approved");
             return "Approved";
         }
 
-        if (rejectedCount > 0 && approvedCount == 0 && reclassCount == 0 && repurchaseCount == 0) {
+        if (rejectedCount > 0) {
             logger.info("Loan status determined as: Rejected");
             return "Rejected";
         }
@@ -92,57 +85,34 @@ public class LoanStatusDeterminer {
      * Check if all attributes are approved.
      */
     public boolean areAllApproved(List<LoanAttribute> attributes) {
-        if (attributes == null || attributes.isEmpty()) {
-            return false;
-        }
-        return attributes.stream()
-                .allMatch(attr -> "Approved".equals(attr.getAttributeDecision()));
+        return DecisionSummary.of(attributes).allApproved();
     }
 
     /**
      * Check if all attributes are rejected.
      */
     public boolean areAllRejected(List<LoanAttribute> attributes) {
-        if (attributes == null || attributes.isEmpty()) {
-            return false;
-        }
-        return attributes.stream()
-                .allMatch(attr -> "Rejected".equals(attr.getAttributeDecision()));
+        return DecisionSummary.of(attributes).allRejected();
     }
 
     /**
      * Check if at least one attribute is approved and at least one is rejected.
      */
     public boolean hasApprovedAndRejected(List<LoanAttribute> attributes) {
-        if (attributes == null || attributes.isEmpty()) {
-            return false;
-        }
-        boolean hasApproved = attributes.stream()
-                .anyMatch(attr -> "Approved".equals(attr.getAttributeDecision()));
-        boolean hasRejected = attributes.stream()
-                .anyMatch(attr -> "Rejected".equals(attr.getAttributeDecision()));
-        return hasApproved && hasRejected;
+        return DecisionSummary.of(attributes).hasApprovedAndRejected();
     }
 
     /**
      * Check if at least one attribute has repurchase decision.
      */
     public boolean hasRepurchase(List<LoanAttribute> attributes) {
-        if (attributes == null || attributes.isEmpty()) {
-            return false;
-        }
-        return attributes.stream()
-                .anyMatch(attr -> "Repurchase".equals(attr.getAttributeDecision()));
+        return DecisionSummary.of(attributes).hasRepurchase();
     }
 
     /**
      * Check if at least one attribute has reclass decision.
      */
     public boolean hasReclass(List<LoanAttribute> attributes) {
-        if (attributes == null || attributes.isEmpty()) {
-            return false;
-        }
-        return attributes.stream()
-                .anyMatch(attr -> "Reclass".equals(attr.getAttributeDecision()));
+        return DecisionSummary.of(attributes).hasReclass();
     }
 }
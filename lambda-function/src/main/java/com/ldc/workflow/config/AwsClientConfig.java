@@ -1,9 +1,15 @@
 package com.ldc.workflow.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.services.sfn.SfnAsyncClient;
 import software.amazon.awssdk.services.ssm.SsmClient;
 
+import java.time.Duration;
+
 /**
  * Configuration for AWS SDK v2 clients.
  * 
@@ -26,4 +32,36 @@ public class AwsClientConfig {
         return SsmClient.builder().build();
     }
 
+    /**
+     * Non-blocking HTTP client shared by the async AWS clients. maxConcurrency caps the
+     * open connections; further requests wait for one to free up instead of opening
+     * more, and keep-alive lets warm invocations reuse them.
+     */
+    @Bean(destroyMethod = "close")
+    public SdkAsyncHttpClient sdkAsyncHttpClient(
+            @Value("${workflow.stepfunctions.max-concurrency:64}") int maxConcurrency,
+            @Value("${workflow.stepfunctions.max-pending-acquires:1000}") int maxPendingAcquires,
+            @Value("${workflow.stepfunctions.connection-acquire-timeout-millis:10000}") long acquireTimeoutMillis,
+            @Value("${workflow.stepfunctions.connection-max-idle-millis:60000}") long maxIdleMillis) {
+        return NettyNioAsyncHttpClient.builder()
+                .maxConcurrency(maxConcurrency)
+                .maxPendingConnectionAcquires(maxPendingAcquires)
+                .connectionAcquisitionTimeout(Duration.ofMillis(acquireTimeoutMillis))
+                .connectionMaxIdleTime(Duration.ofMillis(maxIdleMillis))
+                .tcpKeepAlive(true)
+                .build();
+    }
+
+    /**
+     * Step Functions client; StartExecution and task-token callbacks return futures so
+     * batch handlers can keep many calls in flight on a few connections.
+     */
+    @Bean(destroyMethod = "close")
+    public SfnAsyncClient sfnAsyncClient(SdkAsyncHttpClient sdkAsyncHttpClient) {
+        // AWS SDK v2 automatically handles credentials from Lambda environment
+        return SfnAsyncClient.builder()
+                .httpClient(sdkAsyncHttpClient)
+                .build();
+    }
+
 }
@@ -1,6 +1,9 @@
 package com.ldc.workflow.config;
 
-import org.springframework.boot.context.properties.ConfigurationProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,12 +13,23 @@ import javax.sql.DataSource;
 /**
  * DataSource configuration for Lambda environment.
  * Reads database credentials from environment variables.
+ * Pool suspension is enabled so SnapStartPrimer can close pooled connections
+ * before a checkpoint and reopen them after restore.
+ * Pool size, timeouts and driver settings come from {@link DataSourcePoolProperties}.
+ *
+ * When DATABASE_REPLICA_URL is set, a second read-only pool is opened against the
+ * replica and both are wrapped in a {@link ReadReplicaRoutingDataSource}; only reads
+ * marked by WorkflowStateRepository use it.
  */
 @Configuration
 public class DataSourceConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceConfig.class);
+
     @Bean
-    public DataSource dataSource() {
+    public DataSource dataSource(DataSourcePoolProperties poolProperties,
+            @Value("${spring.application.name:ldc-loan-review-lambda}") String applicationName,
+            @Value("${workflow.callback.transport:memory}") String callbackTransport) {
         String url = System.getenv("DATABASE_URL");
         String username = System.getenv("DATABASE_USER");
         String password = System.getenv("DATABASE_PASSWORD");
@@ -31,11 +45,71 @@ public class DataSourceConfig {
             password = "postgres";
         }
 
-        return DataSourceBuilder.create()
+        String functionName = System.getenv("AWS_LAMBDA_FUNCTION_NAME");
+        String poolApplicationName = functionName != null ? functionName : applicationName;
+        HikariDataSource dataSource = createPool(url, username, password);
+        configurePool(dataSource, poolProperties, poolApplicationName);
+
+        if (poolProperties.isExternalPooler() && "postgres".equals(callbackTransport)) {
+            logger.warn("Callback transport 'postgres' holds a LISTEN session, which {} does not support "
+                    + "in transaction pooling; use a direct connection or the memory transport",
+                    poolProperties.getPooler());
+        }
+        logger.info("Configured connection pool - pooler: {}, maximumPoolSize: {}, prepareThreshold: {}",
+                poolProperties.getPooler(), dataSource.getMaximumPoolSize(),
+                dataSource.getDataSourceProperties().get("prepareThreshold"));
+
+        String replicaUrl = System.getenv("DATABASE_REPLICA_URL");
+        if (replicaUrl == null || replicaUrl.isEmpty()) {
+            return dataSource;
+        }
+        HikariDataSource replica = createPool(replicaUrl, username, password);
+        configurePool(replica, poolProperties, poolApplicationName);
+        replica.setPoolName("workflow-replica-pool");
+        replica.setReadOnly(true);
+        // Most invocations never read from the replica; open its connection on first use
+        replica.setMinimumIdle(0);
+        logger.info("Routing marked reads to read replica");
+        return new ReadReplicaRoutingDataSource(dataSource, replica);
+    }
+
+    private HikariDataSource createPool(String url, String username, String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
                 .url(url)
                 .username(username)
                 .password(password)
                 .driverClassName("org.postgresql.Driver")
                 .build();
+        dataSource.setAllowPoolSuspension(true);
+        return dataSource;
+    }
+
+    /**
+     * Apply pool sizing, timeouts and PgJDBC driver properties.
+     */
+    public static void configurePool(HikariDataSource dataSource, DataSourcePoolProperties pool,
+            String applicationName) {
+        dataSource.setPoolName("workflow-pool");
+        dataSource.setMaximumPoolSize(pool.getMaximumPoolSize());
+        dataSource.setMinimumIdle(Math.min(pool.getMinimumIdle(), pool.getMaximumPoolSize()));
+        dataSource.setConnectionTimeout(pool.getConnectionTimeoutMillis());
+        dataSource.setValidationTimeout(pool.getValidationTimeoutMillis());
+        dataSource.setIdleTimeout(pool.getIdleTimeoutMillis());
+        dataSource.setMaxLifetime(pool.getMaxLifetimeMillis());
+        dataSource.setKeepaliveTime(pool.getKeepaliveTimeMillis());
+
+        // Named server-side statements are bound to one backend session, which a
+        // transaction-pooling proxy does not keep; 0 sends unnamed statements only
+        int prepareThreshold = pool.isExternalPooler() ? 0 : pool.getPrepareThreshold();
+        dataSource.addDataSourceProperty("prepareThreshold", String.valueOf(prepareThreshold));
+        dataSource.addDataSourceProperty("preparedStatementCacheQueries",
+                String.valueOf(pool.getPreparedStatementCacheQueries()));
+        dataSource.addDataSourceProperty("reWriteBatchedInserts", String.valueOf(pool.isReWriteBatchedInserts()));
+        dataSource.addDataSourceProperty("socketTimeout", String.valueOf(pool.getSocketTimeoutSeconds()));
+        dataSource.addDataSourceProperty("connectTimeout",
+                String.valueOf(Math.max(1, pool.getConnectionTimeoutMillis() / 1000)));
+        dataSource.addDataSourceProperty("tcpKeepAlive", "true");
+        dataSource.addDataSourceProperty("ApplicationName", applicationName);
     }
 }
@@ -0,0 +1,147 @@
+package com.ldc.workflow.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Connection pool settings for the workflow DataSource (workflow.datasource.pool.*).
+ *
+ * Defaults are sized for Lambda: each container serves one invocation at a time, so
+ * it needs one connection for the handler and one for background work (audit flush,
+ * callback publish). Thousands of containers share one Postgres, so the total is
+ * containers x maximumPoolSize.
+ *
+ * The sandbox is frozen between invocations, so keepalive pings cannot run; idle
+ * connections are validated on borrow instead, and after a SnapStart restore by
+ * SnapStartPrimer.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "workflow.datasource.pool")
+public class DataSourcePoolProperties {
+
+    /**
+     * What the JDBC URL points at.
+     */
+    public enum Pooler {
+        /** Postgres itself; server-side prepared statements are used. */
+        DIRECT,
+        /** PgBouncer in transaction pooling mode; named prepared statements are disabled. */
+        PGBOUNCER,
+        /** RDS Proxy; named prepared statements are disabled to avoid session pinning. */
+        RDS_PROXY
+    }
+
+    private Pooler pooler = Pooler.DIRECT;
+    private int maximumPoolSize = 2;
+    private int minimumIdle = 1;
+    private long connectionTimeoutMillis = 5000;
+    private long validationTimeoutMillis = 2000;
+    private long idleTimeoutMillis = 300000;
+    private long maxLifetimeMillis = 900000;
+    private long keepaliveTimeMillis = 0;
+    private int prepareThreshold = 1;
+    private int preparedStatementCacheQueries = 256;
+    private boolean reWriteBatchedInserts = true;
+    private int socketTimeoutSeconds = 30;
+
+    public boolean isExternalPooler() {
+        return pooler != Pooler.DIRECT;
+    }
+
+    // Getters and Setters
+    public Pooler getPooler() {
+        return pooler;
+    }
+
+    public void setPooler(Pooler pooler) {
+        this.pooler = pooler;
+    }
+
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    public void setMaximumPoolSize(int maximumPoolSize) {
+        this.maximumPoolSize = maximumPoolSize;
+    }
+
+    public int getMinimumIdle() {
+        return minimumIdle;
+    }
+
+    public void setMinimumIdle(int minimumIdle) {
+        this.minimumIdle = minimumIdle;
+    }
+
+    public long getConnectionTimeoutMillis() {
+        return connectionTimeoutMillis;
+    }
+
+    public void setConnectionTimeoutMillis(long connectionTimeoutMillis) {
+        this.connectionTimeoutMillis = connectionTimeoutMillis;
+    }
+
+    public long getValidationTimeoutMillis() {
+        return validationTimeoutMillis;
+    }
+
+    public void setValidationTimeoutMillis(long validationTimeoutMillis) {
+        this.validationTimeoutMillis = validationTimeoutMillis;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    public long getMaxLifetimeMillis() {
+        return maxLifetimeMillis;
+    }
+
+    public void setMaxLifetimeMillis(long maxLifetimeMillis) {
+        this.maxLifetimeMillis = maxLifetimeMillis;
+    }
+
+    public long getKeepaliveTimeMillis() {
+        return keepaliveTimeMillis;
+    }
+
+    public void setKeepaliveTimeMillis(long keepaliveTimeMillis) {
+        this.keepaliveTimeMillis = keepaliveTimeMillis;
+    }
+
+    public int getPrepareThreshold() {
+        return prepareThreshold;
+    }
+
+    public void setPrepareThreshold(int prepareThreshold) {
+        this.prepareThreshold = prepareThreshold;
+    }
+
+    public int getPreparedStatementCacheQueries() {
+        return preparedStatementCacheQueries;
+    }
+
+    public void setPreparedStatementCacheQueries(int preparedStatementCacheQueries) {
+        this.preparedStatementCacheQueries = preparedStatementCacheQueries;
+    }
+
+    public boolean isReWriteBatchedInserts() {
+        return reWriteBatchedInserts;
+    }
+
+    public void setReWriteBatchedInserts(boolean reWriteBatchedInserts) {
+        this.reWriteBatchedInserts = reWriteBatchedInserts;
+    }
+
+    public int getSocketTimeoutSeconds() {
+        return socketTimeoutSeconds;
+    }
+
+    public void setSocketTimeoutSeconds(int socketTimeoutSeconds) {
+        this.socketTimeoutSeconds = socketTimeoutSeconds;
+    }
+}
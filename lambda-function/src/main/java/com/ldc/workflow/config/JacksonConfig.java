@@ -0,0 +1,25 @@
+package com.ldc.workflow.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ldc.workflow.util.WorkflowJson;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Configuration for Jackson.
+ *
+ * Exposes the shared WorkflowJson mapper as the application ObjectMapper, so beans
+ * that inject an ObjectMapper and classes that use WorkflowJson directly share one
+ * set of serializer caches. The caches are warmed while the context starts.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    @Primary
+    public ObjectMapper objectMapper() {
+        WorkflowJson.warmUp();
+        return WorkflowJson.mapper();
+    }
+}
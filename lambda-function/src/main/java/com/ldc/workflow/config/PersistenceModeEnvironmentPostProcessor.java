@@ -0,0 +1,53 @@
+package com.ldc.workflow.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Excludes the JPA autoconfiguration when {@code workflow.persistence.mode=jdbc}.
+ *
+ * In that mode JdbcWorkflowStateStore does all workflow state SQL, so the Hibernate
+ * EntityManagerFactory and Spring Data repositories are never built. The transaction
+ * manager then comes from DataSourceTransactionManagerAutoConfiguration. Any existing
+ * {@code spring.autoconfigure.exclude} entries are kept.
+ */
+public class PersistenceModeEnvironmentPostProcessor implements EnvironmentPostProcessor, Ordered {
+
+    static final String MODE_PROPERTY = "workflow.persistence.mode";
+    static final String MODE_JDBC = "jdbc";
+    static final String EXCLUDE_PROPERTY = "spring.autoconfigure.exclude";
+    static final List<String> JPA_AUTO_CONFIGURATIONS = List.of(
+            "org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration");
+
+    private static final String PROPERTY_SOURCE_NAME = "workflowPersistenceMode";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        if (!MODE_JDBC.equalsIgnoreCase(environment.getProperty(MODE_PROPERTY, "jpa").trim())) {
+            return;
+        }
+        Set<String> excludes = new LinkedHashSet<>(Binder.get(environment)
+                .bind(EXCLUDE_PROPERTY, String[].class)
+                .map(List::of)
+                .orElse(List.of()));
+        excludes.addAll(JPA_AUTO_CONFIGURATIONS);
+        environment.getPropertySources().addFirst(new MapPropertySource(PROPERTY_SOURCE_NAME,
+                Map.of(EXCLUDE_PROPERTY, String.join(",", excludes))));
+    }
+
+    @Override
+    public int getOrder() {
+        // After application properties are loaded, so the mode can be set there
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,85 @@
+package com.ldc.workflow.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * DataSource that sends marked reads to a Postgres read replica.
+ *
+ * Everything goes to the primary unless the caller wraps a read in
+ * {@link #readFromReplica(Supplier)} and no transaction is active; a transaction keeps
+ * the primary connection it started with. Callers only mark reads that tolerate
+ * replication lag, and WorkflowStateRepository keeps loans written in the current unit
+ * of work on the primary.
+ *
+ * Created by DataSourceConfig only when a replica URL is configured; without it the
+ * marker is a no-op.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+
+    private static final ThreadLocal<Boolean> replicaRead = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final DataSource replica;
+
+    public ReadReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        this.primary = primary;
+        this.replica = replica;
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Run a read with connections taken from the replica.
+     */
+    public static <T> T readFromReplica(Supplier<T> read) {
+        Boolean previous = replicaRead.get();
+        replicaRead.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            if (previous == null) {
+                replicaRead.remove();
+            } else {
+                replicaRead.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Whether a connection taken now on this thread would come from the replica.
+     */
+    public static boolean isReplicaRead() {
+        return Boolean.TRUE.equals(replicaRead.get())
+                && !TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public DataSource getReplica() {
+        return replica;
+    }
+
+    /**
+     * The underlying pools, primary first.
+     */
+    public List<DataSource> getTargets() {
+        return List.of(primary, replica);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return isReplicaRead() ? REPLICA : PRIMARY;
+    }
+}
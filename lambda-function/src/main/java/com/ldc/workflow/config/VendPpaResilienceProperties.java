@@ -0,0 +1,108 @@
+package com.ldc.workflow.config;
+
+import com.ldc.workflow.util.CircuitBreaker;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker and bulkhead settings for the Vend PPA client (vend.ppa.resilience.*).
+ *
+ * Breaker state is per container: each warm container learns about an outage from
+ * its own calls, so the window is kept small enough to trip within a few invocations.
+ * The bulkhead caps concurrent calls from one container, which matters for multi-
+ * threaded callers; with one invocation per container it is rarely reached.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "vend.ppa.resilience")
+public class VendPpaResilienceProperties {
+
+    private int windowSize = 20;
+    private int minimumCalls = 10;
+    private int failureRateThreshold = 50;
+    private int slowCallRateThreshold = 80;
+    private long slowCallDurationMillis = 5000;
+    private long openDurationSeconds = 30;
+    private int halfOpenProbes = 2;
+    private int maxConcurrentCalls = 8;
+    private long maxWaitMillis = 0;
+
+    public CircuitBreaker.Settings toCircuitBreakerSettings() {
+        return new CircuitBreaker.Settings(windowSize, minimumCalls, failureRateThreshold, slowCallRateThreshold,
+                Duration.ofMillis(slowCallDurationMillis), Duration.ofSeconds(openDurationSeconds), halfOpenProbes);
+    }
+
+    // Getters and Setters
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public void setWindowSize(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    public void setMinimumCalls(int minimumCalls) {
+        this.minimumCalls = minimumCalls;
+    }
+
+    public int getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public void setFailureRateThreshold(int failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+    }
+
+    public int getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    public void setSlowCallRateThreshold(int slowCallRateThreshold) {
+        this.slowCallRateThreshold = slowCallRateThreshold;
+    }
+
+    public long getSlowCallDurationMillis() {
+        return slowCallDurationMillis;
+    }
+
+    public void setSlowCallDurationMillis(long slowCallDurationMillis) {
+        this.slowCallDurationMillis = slowCallDurationMillis;
+    }
+
+    public long getOpenDurationSeconds() {
+        return openDurationSeconds;
+    }
+
+    public void setOpenDurationSeconds(long openDurationSeconds) {
+        this.openDurationSeconds = openDurationSeconds;
+    }
+
+    public int getHalfOpenProbes() {
+        return halfOpenProbes;
+    }
+
+    public void setHalfOpenProbes(int halfOpenProbes) {
+        this.halfOpenProbes = halfOpenProbes;
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+        this.maxConcurrentCalls = maxConcurrentCalls;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    public void setMaxWaitMillis(long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+    }
+}
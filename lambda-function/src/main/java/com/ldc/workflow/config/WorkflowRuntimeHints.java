@@ -0,0 +1,56 @@
+package com.ldc.workflow.config;
+
+import com.ldc.workflow.entity.StateTransitionEntity;
+import com.ldc.workflow.entity.WorkflowStateEntity;
+import com.ldc.workflow.repository.DecisionCounts;
+import com.ldc.workflow.types.Attribute;
+import com.ldc.workflow.types.AuditEvent;
+import com.ldc.workflow.types.LoanAttribute;
+import com.ldc.workflow.types.LoanPpaRequest;
+import com.ldc.workflow.types.LoanPpaResponse;
+import com.ldc.workflow.types.StateTransition;
+import com.ldc.workflow.types.WorkflowContext;
+import com.ldc.workflow.types.WorkflowState;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * GraalVM native-image hints for types that are only reached reflectively.
+ *
+ * The workflow types are bound by Jackson through WorkflowJson, which AOT processing
+ * cannot see, so their constructors, accessors and nested types are registered here.
+ * The JPA entities are registered in full for Hibernate, along with DecisionCounts,
+ * which JPQL instantiates through its constructor. Only used by the native
+ * build (Maven profile "native"); the JVM build ignores these hints.
+ */
+public class WorkflowRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final Class<?>[] JSON_TYPES = {
+            Attribute.class,
+            AuditEvent.class,
+            LoanAttribute.class,
+            LoanPpaRequest.class,
+            LoanPpaResponse.class,
+            StateTransition.class,
+            WorkflowContext.class,
+            WorkflowState.class
+    };
+
+    private static final Class<?>[] ENTITY_TYPES = {
+            StateTransitionEntity.class,
+            WorkflowStateEntity.class
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // Walks getters, setters, fields and nested types such as LoanPpaRequest.Attribute
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), JSON_TYPES);
+        for (Class<?> entityType : ENTITY_TYPES) {
+            hints.reflection().registerType(entityType, MemberCategory.values());
+        }
+        hints.reflection().registerType(DecisionCounts.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.resources().registerPattern("schema.sql");
+    }
+}
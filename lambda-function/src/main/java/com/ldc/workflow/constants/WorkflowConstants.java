@@ -45,17 +45,28 @@ public final class WorkflowConstants {
     public static final String KEY_NAME = "Name";
     public static final String KEY_DECISION = "Decision";
     public static final String KEY_RESUMED_ACTION = "ResumedAction";
+    public static final String KEY_EVENT_TYPE = "EventType";
+    public static final String KEY_REQUESTS = "Requests";
+    public static final String KEY_RESULTS = "Results";
+    public static final String KEY_RESUMED = "Resumed";
 
     // Handler Types
     public static final String HANDLER_REVIEW_TYPE_VALIDATION = "reviewTypeValidation";
     public static final String HANDLER_COMPLETION_CRITERIA = "completionCriteria";
     public static final String HANDLER_LOAN_STATUS_DETERMINATION = "loanStatusDetermination";
     public static final String HANDLER_VEND_PPA_INTEGRATION = "vendPpaIntegration";
+    public static final String HANDLER_VEND_PPA_OUTBOX_DRAIN = "vendPpaOutboxDrain";
+    public static final String HANDLER_DECISION_COUNTS_RECONCILE = "decisionCountsReconcile";
+    public static final String HANDLER_LOAN_ATTRIBUTE_BACKFILL = "loanAttributeBackfill";
+    public static final String HANDLER_ATTRIBUTE_ENCODING_MIGRATION = "attributeEncodingMigration";
     public static final String HANDLER_AUDIT_TRAIL = "auditTrail";
     public static final String HANDLER_REGISTER_CALLBACK = "registerCallback";
     public static final String HANDLER_LOAN_DECISION_UPDATE_API = "loanDecisionUpdateApi";
     public static final String HANDLER_REVIEW_TYPE_UPDATE_API = "reviewTypeUpdateApi";
     public static final String HANDLER_START_PPA_REVIEW_API = "startPpaReviewApi";
+    public static final String HANDLER_BATCH_START_PPA_REVIEW_API = "batchStartPpaReviewApi";
+    public static final String HANDLER_BULK_LOAN_DECISION_UPDATE_API = "bulkLoanDecisionUpdateApi";
+    public static final String HANDLER_ATTRIBUTE_DECISION_SEARCH_API = "attributeDecisionSearchApi";
 
     // Loan Decisions / Status
     public static final String DECISION_APPROVED = "Approved";
@@ -102,6 +113,10 @@ public final class WorkflowConstants {
     // JSON Keys (additional)
     public static final String KEY_WORKFLOWS = "workflows";
 
+    // Audit Statuses
+    public static final String AUDIT_STATUS_SUCCESS = "SUCCESS";
+    public static final String AUDIT_STATUS_FAILED = "FAILED";
+
     // Resumed Actions
     public static final String ACTION_REVIEW_TYPE_UPDATE = "ReviewTypeUpdate";
 }
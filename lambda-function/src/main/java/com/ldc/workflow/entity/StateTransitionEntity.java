@@ -0,0 +1,110 @@
+package com.ldc.workflow.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * JPA Entity for the append-only state transition history of a workflow.
+ * Rows are only ever inserted; a step writes just the transitions it added.
+ */
+@Entity
+@Table(name = "state_transition", indexes = {
+        @Index(name = "idx_transition_request_loan", columnList = "request_number,loan_number,id")
+})
+public class StateTransitionEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "request_number", nullable = false)
+    private String requestNumber;
+
+    @Column(name = "loan_number", nullable = false)
+    private String loanNumber;
+
+    @Column(name = "workflow_state_name", nullable = false)
+    private String workflowStateName;
+
+    @Column(name = "workflow_state_user_id")
+    private String workflowStateUserId;
+
+    @Column(name = "start_date_time")
+    private Instant startDateTime;
+
+    @Column(name = "end_date_time")
+    private Instant endDateTime;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    // Constructors
+    public StateTransitionEntity() {
+        this.createdAt = Instant.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getRequestNumber() {
+        return requestNumber;
+    }
+
+    public void setRequestNumber(String requestNumber) {
+        this.requestNumber = requestNumber;
+    }
+
+    public String getLoanNumber() {
+        return loanNumber;
+    }
+
+    public void setLoanNumber(String loanNumber) {
+        this.loanNumber = loanNumber;
+    }
+
+    public String getWorkflowStateName() {
+        return workflowStateName;
+    }
+
+    public void setWorkflowStateName(String workflowStateName) {
+        this.workflowStateName = workflowStateName;
+    }
+
+    public String getWorkflowStateUserId() {
+        return workflowStateUserId;
+    }
+
+    public void setWorkflowStateUserId(String workflowStateUserId) {
+        this.workflowStateUserId = workflowStateUserId;
+    }
+
+    public Instant getStartDateTime() {
+        return startDateTime;
+    }
+
+    public void setStartDateTime(Instant startDateTime) {
+        this.startDateTime = startDateTime;
+    }
+
+    public Instant getEndDateTime() {
+        return endDateTime;
+    }
+
+    public void setEndDateTime(Instant endDateTime) {
+        this.endDateTime = endDateTime;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -55,6 +55,25 @@ public class WorkflowStateEntity {
     @org.hibernate.annotations.JdbcTypeCode(org.hibernate.type.SqlTypes.JSON)
     private com.fasterxml.jackson.databind.JsonNode attributes;
 
+    // Attribute decision counters, written with attributes so completion checks skip the JSON
+    @Column(name = "attribute_count")
+    private Integer attributeCount;
+
+    @Column(name = "pending_count")
+    private Integer pendingCount;
+
+    @Column(name = "approved_count")
+    private Integer approvedCount;
+
+    @Column(name = "rejected_count")
+    private Integer rejectedCount;
+
+    @Column(name = "reclass_count")
+    private Integer reclassCount;
+
+    @Column(name = "repurchase_count")
+    private Integer repurchaseCount;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
@@ -172,6 +191,54 @@ public class WorkflowStateEntity {
         this.attributes = attributes;
     }
 
+    public Integer getAttributeCount() {
+        return attributeCount;
+    }
+
+    public void setAttributeCount(Integer attributeCount) {
+        this.attributeCount = attributeCount;
+    }
+
+    public Integer getPendingCount() {
+        return pendingCount;
+    }
+
+    public void setPendingCount(Integer pendingCount) {
+        this.pendingCount = pendingCount;
+    }
+
+    public Integer getApprovedCount() {
+        return approvedCount;
+    }
+
+    public void setApprovedCount(Integer approvedCount) {
+        this.approvedCount = approvedCount;
+    }
+
+    public Integer getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public void setRejectedCount(Integer rejectedCount) {
+        this.rejectedCount = rejectedCount;
+    }
+
+    public Integer getReclassCount() {
+        return reclassCount;
+    }
+
+    public void setReclassCount(Integer reclassCount) {
+        this.reclassCount = reclassCount;
+    }
+
+    public Integer getRepurchaseCount() {
+        return repurchaseCount;
+    }
+
+    public void setRepurchaseCount(Integer repurchaseCount) {
+        this.repurchaseCount = repurchaseCount;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,86 @@
+package com.ldc.workflow.handlers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ldc.workflow.constants.WorkflowConstants;
+import com.ldc.workflow.repository.LoanAttributeRepository.LoanAttributeMatch;
+import com.ldc.workflow.repository.WorkflowStateRepository;
+import com.ldc.workflow.util.WorkflowJson;
+import com.ldc.workflow.validation.AttributeDecisionValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * API handler for decision-filtered loan searches, e.g. every loan with a Repurchase
+ * attribute or every loan still pending on one attribute. Served by the normalized
+ * loan_attribute table, so workflow.attributes.normalized.enabled must be on.
+ *
+ * Input: Decision, optional Name (attribute name), AfterId (cursor from the previous
+ * page, default 0) and Limit (default and cap workflow.attributes.normalized.search.max.limit).
+ * Output: matching loans in workflow state id order, LastId to pass as the next AfterId,
+ * and HasMore.
+ */
+@Component("attributeDecisionSearchApiHandler")
+public class AttributeDecisionSearchApiHandler implements Function<JsonNode, JsonNode> {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttributeDecisionSearchApiHandler.class);
+    private static final ObjectMapper objectMapper = WorkflowJson.mapper();
+
+    private final WorkflowStateRepository workflowStateRepository;
+    private final AttributeDecisionValidator attributeDecisionValidator;
+    private final int maxLimit;
+
+    public AttributeDecisionSearchApiHandler(WorkflowStateRepository workflowStateRepository,
+            AttributeDecisionValidator attributeDecisionValidator,
+            @Value("${workflow.attributes.normalized.search.max.limit:500}") int maxLimit) {
+        this.workflowStateRepository = workflowStateRepository;
+        this.attributeDecisionValidator = attributeDecisionValidator;
+        this.maxLimit = Math.max(1, maxLimit);
+    }
+
+    @Override
+    public JsonNode apply(JsonNode input) {
+        String decision = input.path(WorkflowConstants.KEY_DECISION).asText(null);
+        String attributeName = input.path(WorkflowConstants.KEY_NAME).asText(null);
+        long afterId = input.path("AfterId").asLong(0);
+        int limit = Math.min(maxLimit, Math.max(1, input.path("Limit").asInt(maxLimit)));
+
+        if (decision == null || decision.isEmpty()) {
+            return createErrorResponse("Missing required field: Decision");
+        }
+        if (!attributeDecisionValidator.isValid(decision)) {
+            return createErrorResponse("Invalid attribute decision: " + decision);
+        }
+
+        try {
+            List<LoanAttributeMatch> matches = workflowStateRepository.findByAttributeDecision(attributeName,
+                    decision, afterId, limit);
+            ObjectNode response = objectMapper.createObjectNode().put(WorkflowConstants.KEY_SUCCESS, true);
+            ArrayNode loans = response.putArray("Loans");
+            long lastId = afterId;
+            for (LoanAttributeMatch match : matches) {
+                loans.addObject()
+                        .put(WorkflowConstants.KEY_REQUEST_NUMBER, match.requestNumber())
+                        .put(WorkflowConstants.KEY_LOAN_NUMBER, match.loanNumber());
+                lastId = match.workflowStateId();
+            }
+            return response.put("LastId", lastId).put("HasMore", matches.size() == limit);
+        } catch (Exception e) {
+            logger.error("Error searching loans by attribute decision {}", decision, e);
+            return createErrorResponse("Failed to search loans: " + e.getMessage());
+        }
+    }
+
+    private JsonNode createErrorResponse(String error) {
+        return objectMapper.createObjectNode()
+                .put(WorkflowConstants.KEY_SUCCESS, false)
+                .put(WorkflowConstants.KEY_ERROR, error);
+    }
+}
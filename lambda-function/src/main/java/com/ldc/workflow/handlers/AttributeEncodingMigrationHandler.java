@@ -0,0 +1,61 @@
+package com.ldc.workflow.handlers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ldc.workflow.constants.WorkflowConstants;
+import com.ldc.workflow.service.AttributeEncodingMigrator;
+import com.ldc.workflow.util.WorkflowJson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Lambda handler that rewrites stored workflow_state attributes in the format set by
+ * workflow.attributes.compact.enabled.
+ *
+ * Input: optional AfterId (resume cursor, default 0) and MaxSeconds (defaults to
+ * workflow.attributes.compact.migration.budget.seconds).
+ * Output: rows found in the other format, rows rewritten, the cursor reached and
+ * whether the whole table was covered.
+ */
+@Component("attributeEncodingMigrationHandler")
+public class AttributeEncodingMigrationHandler implements Function<JsonNode, JsonNode> {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttributeEncodingMigrationHandler.class);
+    private static final ObjectMapper objectMapper = WorkflowJson.mapper();
+
+    private final AttributeEncodingMigrator migrator;
+    private final long budgetSeconds;
+
+    public AttributeEncodingMigrationHandler(AttributeEncodingMigrator migrator,
+            @Value("${workflow.attributes.compact.migration.budget.seconds:45}") long budgetSeconds) {
+        this.migrator = migrator;
+        this.budgetSeconds = budgetSeconds;
+    }
+
+    @Override
+    public JsonNode apply(JsonNode input) {
+        long afterId = input.path("AfterId").asLong(0);
+        long seconds = input.path("MaxSeconds").asLong(budgetSeconds);
+        try {
+            AttributeEncodingMigrator.MigrationResult result = migrator.migrate(afterId,
+                    Duration.ofSeconds(seconds));
+            return objectMapper.createObjectNode()
+                    .put(WorkflowConstants.KEY_SUCCESS, true)
+                    .put("Found", result.found())
+                    .put("Rewritten", result.rewritten())
+                    .put("LastId", result.lastId())
+                    .put("Complete", result.complete())
+                    .put("ElapsedMillis", result.elapsed().toMillis());
+        } catch (Exception e) {
+            logger.error("Error migrating attribute encoding", e);
+            return objectMapper.createObjectNode()
+                    .put(WorkflowConstants.KEY_SUCCESS, false)
+                    .put(WorkflowConstants.KEY_ERROR, "Failed to migrate attribute encoding: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.ldc.workflow.handlers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ldc.workflow.constants.WorkflowConstants;
+import com.ldc.workflow.service.AuditTrailWriter;
+import com.ldc.workflow.types.AuditEvent;
+import com.ldc.workflow.util.WorkflowJson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.function.Function;
+
+/**
+ * Lambda handler for explicit audit events sent by the state machine.
+ *
+ * Input: RequestNumber, LoanNumber, optional TaskNumber, EventType,
+ * CurrentWorkflowStage, Status and Error.
+ * The event is queued on the AuditTrailWriter; it is written with the next batch.
+ */
+@Component("auditTrailHandler")
+public class AuditTrailHandler implements Function<JsonNode, JsonNode> {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditTrailHandler.class);
+    private static final ObjectMapper objectMapper = WorkflowJson.mapper();
+
+    private final AuditTrailWriter auditTrailWriter;
+
+    public AuditTrailHandler(AuditTrailWriter auditTrailWriter) {
+        this.auditTrailWriter = auditTrailWriter;
+    }
+
+    @Override
+    public JsonNode apply(JsonNode input) {
+        String requestNumber = input.path(WorkflowConstants.KEY_REQUEST_NUMBER).asText(WorkflowConstants.DEFAULT_UNKNOWN);
+        String loanNumber = input.path(WorkflowConstants.KEY_LOAN_NUMBER).asText(WorkflowConstants.DEFAULT_UNKNOWN);
+
+        auditTrailWriter.record(new AuditEvent(
+                requestNumber,
+                loanNumber,
+                input.path(WorkflowConstants.KEY_TASK_NUMBER).asText(null),
+                input.path(WorkflowConstants.KEY_EVENT_TYPE).asText(WorkflowConstants.HANDLER_AUDIT_TRAIL),
+                input.path(WorkflowConstants.KEY_CURRENT_WORKFLOW_STAGE).asText(null),
+                input.path(WorkflowConstants.KEY_STATUS).asText(null),
+                input,
+                null,
+                input.path(WorkflowConstants.KEY_ERROR).asText(null),
+                Instant.now()));
+        logger.debug("Audit event queued for Request: {}, Loan: {}", requestNumber, loanNumber);
+
+        return objectMapper.createObjectNode()
+                .put(WorkflowConstants.KEY_SUCCESS, true)
+                .put(WorkflowConstants.KEY_REQUEST_NUMBER, requestNumber)
+                .put(WorkflowConstants.KEY_LOAN_NUMBER, loanNumber);
+    }
+}
@@ -0,0 +1,277 @@
+package com.ldc.workflow.handlers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ldc.workflow.constants.WorkflowConstants;
+import com.ldc.workflow.repository.WorkflowStateBatchRepository;
+import com.ldc.workflow.service.StepFunctionsService;
+import com.ldc.workflow.types.LoanPpaRequest;
+import com.ldc.workflow.types.WorkflowState;
+import com.ldc.workflow.util.WorkflowJson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * Handler for the batch startPPAreview API operation.
+ * Starts PPA reviews for many loans in one invocation:
+ * - one workflow_state query to skip loans that already have a RUNNING execution
+ * - one JDBC batch write of the initial states, before any execution starts, so a callback
+ *   from an early execution is never overwritten by the batch
+ * - Step Function executions pipelined on the async client, at most workflow.batch.start.parallelism
+ *   in flight at once
+ *
+ * Each item is validated exactly like a single startPPAreview request. The response
+ * carries one result per input item, in input order.
+ */
+@Component("batchStartPPAreview")
+public class BatchStartPpaReviewApiHandler implements Function<JsonNode, JsonNode> {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchStartPpaReviewApiHandler.class);
+    private final ObjectMapper objectMapper;
+    private final StartPpaReviewApiHandler startPpaReviewApiHandler;
+    private final StepFunctionsService stepFunctionsService;
+    private final WorkflowStateBatchRepository workflowStateBatchRepository;
+    private final int parallelism;
+    private final int maxBatchSize;
+
+    public BatchStartPpaReviewApiHandler(ObjectMapper objectMapper,
+            StartPpaReviewApiHandler startPpaReviewApiHandler,
+            StepFunctionsService stepFunctionsService,
+            WorkflowStateBatchRepository workflowStateBatchRepository,
+            @Value("${workflow.batch.start.parallelism:64}") int parallelism,
+            @Value("${workflow.batch.start.max.size:1000}") int maxBatchSize) {
+        this.objectMapper = objectMapper;
+        this.startPpaReviewApiHandler = startPpaReviewApiHandler;
+        this.stepFunctionsService = stepFunctionsService;
+        this.workflowStateBatchRepository = workflowStateBatchRepository;
+        this.parallelism = Math.max(1, parallelism);
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Override
+    public JsonNode apply(JsonNode input) {
+        try {
+            JsonNode requests = input.path(WorkflowConstants.KEY_REQUESTS);
+            if (!requests.isArray() || requests.isEmpty()) {
+                return createErrorResponse("Missing required field: " + WorkflowConstants.KEY_REQUESTS);
+            }
+            if (requests.size() > maxBatchSize) {
+                return createErrorResponse("Batch of " + requests.size() + " requests exceeds the maximum of "
+                        + maxBatchSize + "; split it across invocations");
+            }
+
+            logger.info("Batch start PPA review API handler invoked for {} requests", requests.size());
+
+            List<BatchItem> items = new ArrayList<>(requests.size());
+            List<BatchItem> candidates = new ArrayList<>();
+            Set<String> batchKeys = new HashSet<>();
+            for (JsonNode requestNode : requests) {
+                BatchItem item = parseItem(requestNode);
+                items.add(item);
+                if (item.error != null) {
+                    continue;
+                }
+                if (!batchKeys.add(item.key())) {
+                    item.error = "Duplicate request in batch for this loan";
+                    continue;
+                }
+                candidates.add(item);
+            }
+
+            // Requirement 1.2 for the whole batch in a single query
+            Set<String> runningKeys = findRunningKeys(candidates);
+            List<BatchItem> toStart = new ArrayList<>(candidates.size());
+            for (BatchItem item : candidates) {
+                if (runningKeys.contains(item.key())) {
+                    item.error = "Active workflow execution already exists for this loan. " +
+                            "Only one execution per loan is allowed at a time.";
+                } else {
+                    toStart.add(item);
+                }
+            }
+
+            Instant writtenAt = persistInitialStates(toStart);
+            if (writtenAt != null) {
+                startExecutions(toStart);
+                deleteNotStarted(toStart, writtenAt);
+            }
+
+            return createBatchResponse(items);
+        } catch (Exception e) {
+            logger.error("Error in batch start PPA review API handler", e);
+            return createErrorResponse("Internal error: " + e.getMessage());
+        }
+    }
+
+    private BatchItem parseItem(JsonNode requestNode) {
+        BatchItem item = new BatchItem(requestNode);
+        try {
+            item.request = WorkflowJson.loanPpaRequestReader().readValue(requestNode);
+        } catch (Exception e) {
+            item.error = "Invalid request format: " + e.getMessage();
+            return item;
+        }
+        item.error = startPpaReviewApiHandler.validateRequest(item.request);
+        return item;
+    }
+
+    private Set<String> findRunningKeys(List<BatchItem> candidates) {
+        List<String> requestNumbers = new ArrayList<>(candidates.size());
+        List<String> loanNumbers = new ArrayList<>(candidates.size());
+        for (BatchItem item : candidates) {
+            requestNumbers.add(item.request.getRequestNumber());
+            loanNumbers.add(item.request.getLoanNumber());
+        }
+        return workflowStateBatchRepository.findRunningKeys(requestNumbers, loanNumbers);
+    }
+
+    /**
+     * Start one Step Function execution per item (Requirement 1.3). Requests are issued
+     * from this thread without waiting for responses, keeping at most {@code parallelism}
+     * in flight. A failed start is reported on its item and does not affect the others.
+     */
+    private void startExecutions(List<BatchItem> toStart) {
+        String stateMachineArn = startPpaReviewApiHandler.getStateMachineArn();
+        Semaphore inFlight = new Semaphore(parallelism);
+        List<CompletableFuture<Void>> starts = new ArrayList<>(toStart.size());
+        for (BatchItem item : toStart) {
+            inFlight.acquireUninterruptibly();
+            CompletableFuture<String> start;
+            try {
+                start = stepFunctionsService.startExecutionAsync(
+                        stateMachineArn,
+                        startPpaReviewApiHandler.buildExecutionName(item.request),
+                        WorkflowJson.loanPpaRequestWriter().writeValueAsString(item.request));
+            } catch (Exception e) {
+                start = CompletableFuture.failedFuture(e);
+            }
+            starts.add(start.handle((executionArn, error) -> {
+                inFlight.release();
+                if (error != null) {
+                    Throwable cause = StepFunctionsService.unwrap(error);
+                    logger.error("Failed to start Step Function execution for RequestNumber: {}, LoanNumber: {}",
+                            item.request.getRequestNumber(), item.request.getLoanNumber(), cause);
+                    item.error = "Failed to start workflow execution: " + cause.getMessage();
+                } else {
+                    item.executionArn = executionArn;
+                }
+                return null;
+            }));
+        }
+        CompletableFuture.allOf(starts.toArray(new CompletableFuture[0])).join();
+        logger.info("Started {} of {} Step Function executions", toStart.stream()
+                .filter(item -> item.executionArn != null).count(), toStart.size());
+    }
+
+    /**
+     * Persist initial workflow states for the loans about to start in one batch
+     * (Requirement 1.9). A row left by a finished execution is reset to the initial state,
+     * like the single start path does. If the write fails, no execution is started.
+     *
+     * @return the updated_at of the written rows, or null if the write failed
+     */
+    private Instant persistInitialStates(List<BatchItem> toStart) {
+        List<WorkflowState> states = new ArrayList<>(toStart.size());
+        for (BatchItem item : toStart) {
+            states.add(startPpaReviewApiHandler.buildInitialState(item.request, null));
+        }
+        try {
+            return workflowStateBatchRepository.insertOrReset(states);
+        } catch (Exception e) {
+            logger.error("Failed to persist {} workflow states", states.size(), e);
+            for (BatchItem item : toStart) {
+                item.error = "Failed to persist workflow state: " + e.getMessage();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Remove the rows written for executions that failed to start.
+     */
+    private void deleteNotStarted(List<BatchItem> toStart, Instant writtenAt) {
+        List<String> requestNumbers = new ArrayList<>();
+        List<String> loanNumbers = new ArrayList<>();
+        for (BatchItem item : toStart) {
+            if (item.executionArn == null) {
+                requestNumbers.add(item.request.getRequestNumber());
+                loanNumbers.add(item.request.getLoanNumber());
+            }
+        }
+        try {
+            workflowStateBatchRepository.deleteNotStarted(requestNumbers, loanNumbers, writtenAt);
+        } catch (Exception e) {
+            logger.error("Failed to delete {} workflow states that never started", requestNumbers.size(), e);
+            // Continue - the start errors are already reported per item
+        }
+    }
+
+    private JsonNode createBatchResponse(List<BatchItem> items) {
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put(WorkflowConstants.KEY_SUCCESS, true);
+        ArrayNode results = response.putArray(WorkflowConstants.KEY_RESULTS);
+        for (BatchItem item : items) {
+            ObjectNode result = results.addObject();
+            result.put(WorkflowConstants.KEY_REQUEST_NUMBER, item.requestNumber());
+            result.put(WorkflowConstants.KEY_LOAN_NUMBER, item.loanNumber());
+            result.put(WorkflowConstants.KEY_SUCCESS, item.error == null);
+            if (item.error != null) {
+                result.put(WorkflowConstants.KEY_ERROR, item.error);
+            } else {
+                result.put(WorkflowConstants.KEY_EXECUTION_ID, item.executionArn);
+                result.put(WorkflowConstants.KEY_WORKFLOW_STATE_NAME, WorkflowConstants.STATE_VALIDATE_REVIEW_TYPE);
+                result.put(WorkflowConstants.KEY_STATUS, WorkflowConstants.STATUS_RUNNING);
+            }
+        }
+        return response;
+    }
+
+    private JsonNode createErrorResponse(String errorMessage) {
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put(WorkflowConstants.KEY_SUCCESS, false);
+        response.put(WorkflowConstants.KEY_ERROR, errorMessage);
+        return response;
+    }
+
+    /**
+     * Per-item progress through the batch. Fields are written by at most one
+     * start callback and read after the starts have been joined.
+     */
+    private static class BatchItem {
+        final JsonNode source;
+        LoanPpaRequest request;
+        String executionArn;
+        String error;
+
+        BatchItem(JsonNode source) {
+            this.source = source;
+        }
+
+        String key() {
+            return WorkflowStateBatchRepository.key(request.getRequestNumber(), request.getLoanNumber());
+        }
+
+        String requestNumber() {
+            return request != null ? request.getRequestNumber()
+                    : source.path(WorkflowConstants.KEY_REQUEST_NUMBER).asText(null);
+        }
+
+        String loanNumber() {
+            return request != null ? request.getLoanNumber()
+                    : source.path(WorkflowConstants.KEY_LOAN_NUMBER).asText(null);
+        }
+    }
+}
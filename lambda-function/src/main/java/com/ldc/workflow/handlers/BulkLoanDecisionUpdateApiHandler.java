@@ -0,0 +1,322 @@
+package com.ldc.workflow.handlers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ldc.workflow.business.AttributeChanges;
+import com.ldc.workflow.constants.WorkflowConstants;
+import com.ldc.workflow.repository.WorkflowStateBatchRepository;
+import com.ldc.workflow.repository.WorkflowStateRepository;
+import com.ldc.workflow.service.StepFunctionsService;
+import com.ldc.workflow.types.LoanAttribute;
+import com.ldc.workflow.types.LoanPpaRequest;
+import com.ldc.workflow.types.WorkflowContext;
+import com.ldc.workflow.types.WorkflowState;
+import com.ldc.workflow.util.WorkflowJson;
+import com.ldc.workflow.validation.AttributeDecisionValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * API handler for updating loan and attribute decisions on many loans at once,
+ * e.g. a reviewer clearing a queue.
+ *
+ * Every item is validated before anything is written, all states are loaded with
+ * one query and their decisions written in one batched transaction, and the Step
+ * Functions task tokens are resumed with pipelined async callbacks. Unlike the
+ * single-loan API the response does not wait for Step Functions callbacks; each result
+ * reports whether its execution was resumed.
+ *
+ * Input: {"handlerType": "bulkLoanDecisionUpdateApi", "Requests": [{RequestNumber,
+ * LoanNumber, LoanDecision, Attributes, TaskToken}]}
+ * Output: one result per item, in input order
+ */
+@Component("bulkGetNextStep")
+public class BulkLoanDecisionUpdateApiHandler implements Function<JsonNode, JsonNode> {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkLoanDecisionUpdateApiHandler.class);
+    private static final ObjectMapper objectMapper = WorkflowJson.mapper();
+
+    private final AttributeDecisionValidator attributeDecisionValidator;
+    private final WorkflowStateRepository workflowStateRepository;
+    private final WorkflowStateBatchRepository workflowStateBatchRepository;
+    private final StepFunctionsService stepFunctionsService;
+    private final int parallelism;
+    private final int maxBatchSize;
+
+    public BulkLoanDecisionUpdateApiHandler(AttributeDecisionValidator attributeDecisionValidator,
+            WorkflowStateRepository workflowStateRepository,
+            WorkflowStateBatchRepository workflowStateBatchRepository,
+            StepFunctionsService stepFunctionsService,
+            @Value("${workflow.bulk.decision.parallelism:64}") int parallelism,
+            @Value("${workflow.bulk.decision.max.size:1000}") int maxBatchSize) {
+        this.attributeDecisionValidator = attributeDecisionValidator;
+        this.workflowStateRepository = workflowStateRepository;
+        this.workflowStateBatchRepository = workflowStateBatchRepository;
+        this.stepFunctionsService = stepFunctionsService;
+        this.parallelism = Math.max(1, parallelism);
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Override
+    public JsonNode apply(JsonNode input) {
+        try {
+            JsonNode requests = input.path(WorkflowConstants.KEY_REQUESTS);
+            if (!requests.isArray() || requests.isEmpty()) {
+                return createErrorResponse("Missing required field: " + WorkflowConstants.KEY_REQUESTS);
+            }
+            if (requests.size() > maxBatchSize) {
+                return createErrorResponse("Batch of " + requests.size() + " requests exceeds the maximum of "
+                        + maxBatchSize + "; split it across invocations");
+            }
+
+            logger.info("Bulk Loan Decision Update API handler invoked for {} requests", requests.size());
+
+            // Validate every item before touching the database
+            List<BulkItem> items = new ArrayList<>(requests.size());
+            List<BulkItem> valid = new ArrayList<>();
+            Set<String> batchKeys = new HashSet<>();
+            for (JsonNode requestNode : requests) {
+                BulkItem item = parseItem(requestNode);
+                items.add(item);
+                if (item.error == null && !batchKeys.add(item.key())) {
+                    item.error = "Duplicate request in batch for this loan";
+                }
+                if (item.error == null) {
+                    valid.add(item);
+                }
+            }
+
+            List<BulkItem> loaded = applyDecisions(valid);
+            resumeExecutions(persistStates(loaded));
+
+            return createBatchResponse(items);
+        } catch (Exception e) {
+            logger.error("Error in bulk loan decision update API handler", e);
+            return createErrorResponse("Internal error: " + e.getMessage());
+        }
+    }
+
+    private BulkItem parseItem(JsonNode requestNode) {
+        BulkItem item = new BulkItem(requestNode);
+        try {
+            item.context = WorkflowJson.workflowContextReader().readValue(requestNode);
+        } catch (Exception e) {
+            item.error = "Invalid JSON format";
+            return item;
+        }
+
+        if (item.context.getRequestNumber() == null || item.context.getRequestNumber().isEmpty()) {
+            item.error = "Missing required field: RequestNumber";
+        } else if (item.context.getLoanNumber() == null || item.context.getLoanNumber().isEmpty()) {
+            item.error = "Missing required field: LoanNumber";
+        } else if (item.context.getAttributes() != null) {
+            for (LoanPpaRequest.Attribute attr : item.context.getAttributes()) {
+                if (!attributeDecisionValidator.isValid(attr.getDecision())) {
+                    item.error = "Invalid attribute decision: " + attr.getName();
+                    break;
+                }
+            }
+        }
+        return item;
+    }
+
+    /**
+     * Load all states in one query and apply each item's decisions to its state. Attribute
+     * decisions are merged by Name; the merged lists are written in full by the batch patch.
+     *
+     * @return the items whose state was found
+     */
+    private List<BulkItem> applyDecisions(List<BulkItem> valid) {
+        List<String> requestNumbers = new ArrayList<>(valid.size());
+        List<String> loanNumbers = new ArrayList<>(valid.size());
+        for (BulkItem item : valid) {
+            requestNumbers.add(item.context.getRequestNumber());
+            loanNumbers.add(item.context.getLoanNumber());
+        }
+        Map<String, WorkflowState> states = valid.isEmpty() ? Map.of()
+                : workflowStateRepository.findAllByRequestNumberAndLoanNumber(requestNumbers, loanNumbers);
+
+        List<BulkItem> loaded = new ArrayList<>(valid.size());
+        for (BulkItem item : valid) {
+            WorkflowState state = states.get(item.key());
+            if (state == null) {
+                item.error = "Workflow state not found";
+                continue;
+            }
+
+            String loanDecision = item.context.getLoanDecision();
+            if (loanDecision != null && !loanDecision.isEmpty()) {
+                state.setLoanDecision(loanDecision);
+            }
+            if (item.context.getAttributes() != null && !item.context.getAttributes().isEmpty()) {
+                List<LoanAttribute> updatedAttributes = new ArrayList<>(item.context.getAttributes().size());
+                for (LoanPpaRequest.Attribute attr : item.context.getAttributes()) {
+                    LoanAttribute internalAttr = new LoanAttribute();
+                    internalAttr.setAttributeName(attr.getName());
+                    internalAttr.setAttributeDecision(attr.getDecision());
+                    updatedAttributes.add(internalAttr);
+                }
+                state.setAttributes(AttributeChanges.merge(state.getAttributes(), updatedAttributes).merged());
+            }
+            state.setCurrentWorkflowStage(WorkflowConstants.STAGE_LOAN_DECISION_RECEIVED);
+            item.state = state;
+            loaded.add(item);
+        }
+        return loaded;
+    }
+
+    /**
+     * Write every updated state's decisions in one transaction, guarded by the
+     * updated_at each state was loaded with. An item whose row changed since it was
+     * loaded is reported on its own and not resumed. If the batch fails nothing is
+     * written and no execution is resumed.
+     *
+     * @return the items that were written
+     */
+    private List<BulkItem> persistStates(List<BulkItem> loaded) {
+        List<WorkflowState> states = new ArrayList<>(loaded.size());
+        for (BulkItem item : loaded) {
+            states.add(item.state);
+        }
+        Set<String> conflicts;
+        try {
+            conflicts = workflowStateBatchRepository.patchDecisions(states);
+        } catch (Exception e) {
+            logger.error("Failed to save {} workflow states", states.size(), e);
+            for (BulkItem item : loaded) {
+                item.error = "Failed to save workflow state: " + e.getMessage();
+            }
+            return List.of();
+        }
+
+        List<BulkItem> written = new ArrayList<>(loaded.size());
+        for (BulkItem item : loaded) {
+            if (conflicts.contains(item.key())) {
+                item.error = "Workflow state changed while the batch was applied; retry this loan";
+            } else {
+                written.add(item);
+            }
+        }
+        logger.info("Loan decisions updated for {} loans, {} changed concurrently", written.size(),
+                conflicts.size());
+        return written;
+    }
+
+    /**
+     * Resume each execution, keeping at most {@code parallelism} callbacks in flight.
+     * Input token takes precedence, falling back to the stored one. A failed resume is
+     * reported on its item only.
+     */
+    private void resumeExecutions(List<BulkItem> loaded) {
+        Semaphore inFlight = new Semaphore(parallelism);
+        List<CompletableFuture<Void>> resumes = new ArrayList<>(loaded.size());
+        for (BulkItem item : loaded) {
+            String tokenToUse = item.context.getTaskToken();
+            if (tokenToUse == null || tokenToUse.isEmpty()) {
+                tokenToUse = item.state.getTaskToken();
+            }
+            if (tokenToUse == null || tokenToUse.isEmpty()) {
+                logger.error("No Task Token available for Request: {}, Loan: {}. Workflow will NOT resume!",
+                        item.context.getRequestNumber(), item.context.getLoanNumber());
+                continue;
+            }
+
+            inFlight.acquireUninterruptibly();
+            CompletableFuture<Void> resume;
+            try {
+                ObjectNode outputNode = objectMapper.valueToTree(item.state);
+                outputNode.put(WorkflowConstants.KEY_RESUMED_ACTION, WorkflowConstants.STATE_LOAN_DECISION_UPDATE);
+                resume = stepFunctionsService.sendTaskSuccessAsync(tokenToUse,
+                        objectMapper.writeValueAsString(outputNode));
+            } catch (Exception e) {
+                resume = CompletableFuture.failedFuture(e);
+            }
+            resumes.add(resume.handle((ignored, error) -> {
+                inFlight.release();
+                if (error != null) {
+                    Throwable cause = StepFunctionsService.unwrap(error);
+                    logger.error("FAILED to resume Step Functions for Request: {}, Loan: {}",
+                            item.context.getRequestNumber(), item.context.getLoanNumber(), cause);
+                    item.error = "Failed to resume Step Functions execution: " + cause.getMessage();
+                } else {
+                    item.resumed = true;
+                }
+                return null;
+            }));
+        }
+        CompletableFuture.allOf(resumes.toArray(new CompletableFuture[0])).join();
+        logger.info("Resumed {} of {} Step Functions executions", loaded.stream()
+                .filter(item -> item.resumed).count(), loaded.size());
+    }
+
+    private JsonNode createBatchResponse(List<BulkItem> items) {
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put(WorkflowConstants.KEY_SUCCESS, true);
+        ArrayNode results = response.putArray(WorkflowConstants.KEY_RESULTS);
+        for (BulkItem item : items) {
+            ObjectNode result = results.addObject();
+            result.put(WorkflowConstants.KEY_REQUEST_NUMBER, item.requestNumber());
+            result.put(WorkflowConstants.KEY_LOAN_NUMBER, item.loanNumber());
+            result.put(WorkflowConstants.KEY_SUCCESS, item.error == null);
+            if (item.error != null) {
+                result.put(WorkflowConstants.KEY_ERROR, item.error);
+            } else {
+                result.put(WorkflowConstants.KEY_LOAN_DECISION,
+                        item.state.getLoanDecision() != null ? item.state.getLoanDecision()
+                                : WorkflowConstants.STATUS_PENDING_REVIEW);
+                result.put(WorkflowConstants.KEY_CURRENT_WORKFLOW_STAGE, WorkflowConstants.STAGE_LOAN_DECISION_RECEIVED);
+                result.put(WorkflowConstants.KEY_RESUMED, item.resumed);
+            }
+        }
+        return response;
+    }
+
+    private JsonNode createErrorResponse(String errorMessage) {
+        return objectMapper.createObjectNode()
+                .put(WorkflowConstants.KEY_SUCCESS, false)
+                .put(WorkflowConstants.KEY_ERROR, errorMessage);
+    }
+
+    /**
+     * Per-item progress through the bulk update. Fields are written by at most one
+     * resume callback and read after the resumes have been joined.
+     */
+    private static class BulkItem {
+        final JsonNode source;
+        WorkflowContext context;
+        WorkflowState state;
+        boolean resumed;
+        String error;
+
+        BulkItem(JsonNode source) {
+            this.source = source;
+        }
+
+        String key() {
+            return WorkflowStateBatchRepository.key(context.getRequestNumber(), context.getLoanNumber());
+        }
+
+        String requestNumber() {
+            return context != null ? context.getRequestNumber()
+                    : source.path(WorkflowConstants.KEY_REQUEST_NUMBER).asText(null);
+        }
+
+        String loanNumber() {
+            return context != null ? context.getLoanNumber()
+                    : source.path(WorkflowConstants.KEY_LOAN_NUMBER).asText(null);
+        }
+    }
+}
@@ -3,17 +3,18 @@ package com.ldc.workflow.handlers;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ldc.workflow.business.CompletionCriteriaChecker;
+import com.ldc.workflow.business.DecisionSummary;
 import com.ldc.workflow.constants.WorkflowConstants;
+import com.ldc.workflow.repository.DecisionCounts;
 import com.ldc.workflow.repository.WorkflowStateRepository;
 import com.ldc.workflow.service.WorkflowCallbackService;
-import com.ldc.workflow.types.LoanAttribute;
 import com.ldc.workflow.types.StateTransition;
+import com.ldc.workflow.util.WorkflowJson;
 import java.time.Instant;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
 
@@ -22,6 +23,9 @@ import java.util.function.Function;
  * Checks if loan decision is complete (all attributes non-null/non-Pending and
  * loan decision non-null).
  * 
+ * The check reads the loan's stored decision counters rather than its attributes;
+ * the full state is loaded only once the loan is complete and has to be updated.
+ *
  * Input: JSON with requestNumber, loanNumber, loanDecision, attributes
  * Output: JSON with completion status and blocking reasons if incomplete
  */
@@ -29,7 +33,7 @@ import java.util.function.Function;
 public class CompletionCriteriaHandler implements Function<JsonNode, JsonNode> {
 
     private static final Logger logger = LoggerFactory.getLogger(CompletionCriteriaHandler.class);
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectMapper objectMapper = WorkflowJson.mapper();
 
     private final CompletionCriteriaChecker completionCriteriaChecker;
     private final WorkflowStateRepository workflowStateRepository;
@@ -49,7 +53,7 @@ public class CompletionCriteriaHandler implements Function<JsonNode, JsonNode> {
 
         com.ldc.workflow.types.WorkflowContext context;
         try {
-            context = objectMapper.treeToValue(input, com.ldc.workflow.types.WorkflowContext.class);
+            context = WorkflowJson.workflowContextReader().readValue(input);
         } catch (Exception e) {
             logger.error("Error parsing input JSON", e);
             return createSuccessResponse(WorkflowConstants.DEFAULT_UNKNOWN, WorkflowConstants.DEFAULT_UNKNOWN, false,
@@ -65,32 +69,37 @@ public class CompletionCriteriaHandler implements Function<JsonNode, JsonNode> {
         logger.debug("Checking completion criteria for requestNumber: {}, loanNumber: {}",
                 requestNumber, loanNumber);
 
-        // Fetch from DynamoDB
-        java.util.Optional<com.ldc.workflow.types.WorkflowState> stateOpt = workflowStateRepository
-                .findByRequestNumberAndLoanNumber(requestNumber, loanNumber);
+        // Decide from the stored decision counters; the attributes JSON is not read. The
+        // counters were just written by the decision update API, so they are read from the
+        // primary rather than a replica that may lag behind it
+        java.util.Optional<DecisionCounts> countsOpt = workflowStateRepository
+                .findDecisionCounts(requestNumber, loanNumber);
 
-        if (stateOpt.isEmpty()) {
+        if (countsOpt.isEmpty()) {
             logger.warn("Workflow state not found for completion check. Request: {}", requestNumber);
             // If state not found, we can't be complete.
             return createSuccessResponse(requestNumber, loanNumber, false, List.of("Workflow state not found"));
         }
 
-        com.ldc.workflow.types.WorkflowState state = stateOpt.get();
-        String loanDecision = state.getLoanDecision();
-        List<LoanAttribute> attributes = state.getAttributes();
-        if (attributes == null) {
-            attributes = new ArrayList<>();
-        }
+        String loanDecision = countsOpt.get().loanDecision();
+        DecisionSummary summary = countsOpt.get().toSummary();
 
         // Check completion criteria
         boolean isComplete = completionCriteriaChecker.isLoanDecisionComplete(
-                loanDecision, attributes);
+                loanDecision, summary);
 
         logger.info("Loan decision completion status: {} for requestNumber: {}",
                 isComplete, requestNumber);
 
         // Update workflow state if complete
         if (isComplete) {
+            java.util.Optional<com.ldc.workflow.types.WorkflowState> stateOpt = workflowStateRepository
+                    .findByRequestNumberAndLoanNumber(requestNumber, loanNumber);
+            if (stateOpt.isEmpty()) {
+                logger.warn("Workflow state removed during completion check. Request: {}", requestNumber);
+                return createSuccessResponse(requestNumber, loanNumber, false, List.of("Workflow state not found"));
+            }
+            com.ldc.workflow.types.WorkflowState state = stateOpt.get();
             try {
                 state.setUpdatedAt(java.time.Instant.now().toString());
                 state.setWorkflowStateName(WorkflowConstants.STATE_COMPLETION_CRITERIA_MET);
@@ -104,7 +113,7 @@ public class CompletionCriteriaHandler implements Function<JsonNode, JsonNode> {
                 );
                 state.addStateTransition(transition);
                 
-                workflowStateRepository.save(state);
+                workflowStateRepository.upsert(state);
                 logger.info("Workflow state updated - completion criteria met for requestNumber: {}",
                         requestNumber);
             } catch (Exception e) {
@@ -112,16 +121,13 @@ public class CompletionCriteriaHandler implements Function<JsonNode, JsonNode> {
                 // Continue anyway
             }
 
-            // Notify any waiting API handlers that Step Functions has completed
-            if (workflowCallbackService.hasPendingCallback(requestNumber, loanNumber)) {
-                logger.info("Notifying callback for Request: {}, Loan: {}", requestNumber, loanNumber);
-                workflowCallbackService.notifyCallback(requestNumber, loanNumber, state);
-            }
+            // Notify any waiting API handlers (on this or another instance) that Step Functions has completed
+            workflowCallbackService.notifyCallback(requestNumber, loanNumber, state);
 
             return createSuccessResponse(requestNumber, loanNumber, true, List.of());
         } else {
             String reason = completionCriteriaChecker.getIncompleteReason(
-                    loanDecision, attributes);
+                    loanDecision, summary);
             return createSuccessResponse(requestNumber, loanNumber, false, List.of(reason));
         }
     }
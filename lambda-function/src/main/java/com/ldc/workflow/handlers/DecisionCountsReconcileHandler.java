@@ -0,0 +1,66 @@
+package com.ldc.workflow.handlers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ldc.workflow.constants.WorkflowConstants;
+import com.ldc.workflow.service.DecisionCountsReconciler;
+import com.ldc.workflow.util.WorkflowJson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Lambda handler that checks the workflow_state decision counters against the
+ * attributes JSON, and optionally repairs them.
+ *
+ * Input: optional Repair (default false), AfterId (resume cursor, default 0) and
+ * MaxSeconds (defaults to workflow.decision.counts.reconcile.budget.seconds).
+ * Output: counts of checked, mismatched and repaired rows, the cursor reached, whether
+ * the whole table was covered, and sample mismatched loans.
+ */
+@Component("decisionCountsReconcileHandler")
+public class DecisionCountsReconcileHandler implements Function<JsonNode, JsonNode> {
+
+    private static final Logger logger = LoggerFactory.getLogger(DecisionCountsReconcileHandler.class);
+    private static final ObjectMapper objectMapper = WorkflowJson.mapper();
+
+    private final DecisionCountsReconciler reconciler;
+    private final long budgetSeconds;
+
+    public DecisionCountsReconcileHandler(DecisionCountsReconciler reconciler,
+            @Value("${workflow.decision.counts.reconcile.budget.seconds:45}") long budgetSeconds) {
+        this.reconciler = reconciler;
+        this.budgetSeconds = budgetSeconds;
+    }
+
+    @Override
+    public JsonNode apply(JsonNode input) {
+        boolean repair = input.path("Repair").asBoolean(false);
+        long afterId = input.path("AfterId").asLong(0);
+        long seconds = input.path("MaxSeconds").asLong(budgetSeconds);
+        try {
+            DecisionCountsReconciler.ReconcileResult result = reconciler.reconcile(afterId, repair,
+                    Duration.ofSeconds(seconds));
+            ObjectNode response = objectMapper.createObjectNode()
+                    .put(WorkflowConstants.KEY_SUCCESS, true)
+                    .put("Checked", result.checked())
+                    .put("Mismatched", result.mismatched())
+                    .put("Repaired", result.repaired())
+                    .put("LastId", result.lastId())
+                    .put("Complete", result.complete())
+                    .put("ElapsedMillis", result.elapsed().toMillis());
+            result.samples().forEach(response.putArray("Samples")::add);
+            return response;
+        } catch (Exception e) {
+            logger.error("Error reconciling decision counts", e);
+            return objectMapper.createObjectNode()
+                    .put(WorkflowConstants.KEY_SUCCESS, false)
+                    .put(WorkflowConstants.KEY_ERROR, "Failed to reconcile decision counts: " + e.getMessage());
+        }
+    }
+}
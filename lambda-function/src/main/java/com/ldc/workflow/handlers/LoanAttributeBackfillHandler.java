@@ -0,0 +1,61 @@
+package com.ldc.workflow.handlers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ldc.workflow.constants.WorkflowConstants;
+import com.ldc.workflow.service.LoanAttributeBackfiller;
+import com.ldc.workflow.util.WorkflowJson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Lambda handler that fills (or repairs) the normalized loan_attribute table from the
+ * workflow_state attributes JSON.
+ *
+ * Input: optional AfterId (resume cursor, default 0) and MaxSeconds (defaults to
+ * workflow.attributes.normalized.backfill.budget.seconds).
+ * Output: workflow states covered, loan_attribute rows written, the cursor reached and
+ * whether the whole table was covered.
+ */
+@Component("loanAttributeBackfillHandler")
+public class LoanAttributeBackfillHandler implements Function<JsonNode, JsonNode> {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoanAttributeBackfillHandler.class);
+    private static final ObjectMapper objectMapper = WorkflowJson.mapper();
+
+    private final LoanAttributeBackfiller backfiller;
+    private final long budgetSeconds;
+
+    public LoanAttributeBackfillHandler(LoanAttributeBackfiller backfiller,
+            @Value("${workflow.attributes.normalized.backfill.budget.seconds:45}") long budgetSeconds) {
+        this.backfiller = backfiller;
+        this.budgetSeconds = budgetSeconds;
+    }
+
+    @Override
+    public JsonNode apply(JsonNode input) {
+        long afterId = input.path("AfterId").asLong(0);
+        long seconds = input.path("MaxSeconds").asLong(budgetSeconds);
+        try {
+            LoanAttributeBackfiller.BackfillResult result = backfiller.backfill(afterId,
+                    Duration.ofSeconds(seconds));
+            return objectMapper.createObjectNode()
+                    .put(WorkflowConstants.KEY_SUCCESS, true)
+                    .put("States", result.states())
+                    .put("Written", result.written())
+                    .put("LastId", result.lastId())
+                    .put("Complete", result.complete())
+                    .put("ElapsedMillis", result.elapsed().toMillis());
+        } catch (Exception e) {
+            logger.error("Error backfilling loan attributes", e);
+            return objectMapper.createObjectNode()
+                    .put(WorkflowConstants.KEY_SUCCESS, false)
+                    .put(WorkflowConstants.KEY_ERROR, "Failed to backfill loan attributes: " + e.getMessage());
+        }
+    }
+}
@@ -4,12 +4,14 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ldc.workflow.business.AttributeChanges;
 import com.ldc.workflow.constants.WorkflowConstants;
 import com.ldc.workflow.repository.WorkflowStateRepository;
 import com.ldc.workflow.service.StepFunctionsService;
 import com.ldc.workflow.service.WorkflowCallbackService;
 import com.ldc.workflow.types.LoanAttribute;
 import com.ldc.workflow.types.WorkflowState;
+import com.ldc.workflow.util.WorkflowJson;
 import com.ldc.workflow.validation.AttributeDecisionValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,6 +19,7 @@ import org.springframework.stereotype.Component;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 /**
@@ -32,7 +35,7 @@ import java.util.function.Function;
 public class LoanDecisionUpdateApiHandler implements Function<JsonNode, JsonNode> {
 
     private static final Logger logger = LoggerFactory.getLogger(LoanDecisionUpdateApiHandler.class);
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectMapper objectMapper = WorkflowJson.mapper();
 
     private final AttributeDecisionValidator attributeDecisionValidator;
     private final WorkflowStateRepository workflowStateRepository;
@@ -51,14 +54,22 @@ public class LoanDecisionUpdateApiHandler implements Function<JsonNode, JsonNode
 
     @Override
     public JsonNode apply(JsonNode input) {
+        return applyAsync(input).join();
+    }
+
+    /**
+     * Non-blocking variant of {@link #apply}. After resuming Step Functions the response
+     * is composed on the callback future instead of parking the calling thread.
+     */
+    public CompletableFuture<JsonNode> applyAsync(JsonNode input) {
         // Convert JsonNode to WorkflowContext (Extension of Request + Internal Fields)
         com.ldc.workflow.types.WorkflowContext context;
         try {
-            context = objectMapper.treeToValue(input, com.ldc.workflow.types.WorkflowContext.class);
+            context = WorkflowJson.workflowContextReader().readValue(input);
         } catch (Exception e) {
             logger.error("Error parsing input JSON", e);
-            return createErrorResponse(WorkflowConstants.DEFAULT_UNKNOWN, WorkflowConstants.DEFAULT_UNKNOWN,
-                    "Invalid JSON format");
+            return CompletableFuture.completedFuture(createErrorResponse(
+                    WorkflowConstants.DEFAULT_UNKNOWN, WorkflowConstants.DEFAULT_UNKNOWN, "Invalid JSON format"));
         }
 
         String requestNumber = context.getRequestNumber();
@@ -72,8 +83,8 @@ public class LoanDecisionUpdateApiHandler implements Function<JsonNode, JsonNode
 
             if (loanNumber == null || loanNumber.isEmpty()) {
                 logger.error("Missing required field: LoanNumber");
-                return createErrorResponse(requestNumber, WorkflowConstants.DEFAULT_UNKNOWN,
-                        "Missing required field: LoanNumber");
+                return CompletableFuture.completedFuture(createErrorResponse(requestNumber,
+                        WorkflowConstants.DEFAULT_UNKNOWN, "Missing required field: LoanNumber"));
             }
 
             String loanDecision = context.getLoanDecision();
@@ -91,7 +102,8 @@ public class LoanDecisionUpdateApiHandler implements Function<JsonNode, JsonNode
             if (stateOpt.isEmpty()) {
                 logger.warn("Workflow state not found for requestNumber: {}, loanNumber: {}",
                         requestNumber, loanNumber);
-                return createErrorResponse(requestNumber, loanNumber, "Workflow state not found");
+                return CompletableFuture.completedFuture(
+                        createErrorResponse(requestNumber, loanNumber, "Workflow state not found"));
             }
 
             WorkflowState state = stateOpt.get();
@@ -101,7 +113,8 @@ public class LoanDecisionUpdateApiHandler implements Function<JsonNode, JsonNode
                 state.setLoanDecision(loanDecision);
             }
 
-            // Update attribute decisions if provided
+            // Update attribute decisions if provided; attributes not named in the request are kept
+            AttributeChanges attributeChanges = null;
             // We need to map LoanPpaRequest.Attribute to LoanAttribute (internal type)
             // Or better, update LoanAttribute to match usage, but for now map it.
             if (context.getAttributes() != null && !context.getAttributes().isEmpty()) {
@@ -116,18 +129,23 @@ public class LoanDecisionUpdateApiHandler implements Function<JsonNode, JsonNode
                 for (LoanAttribute attr : updatedAttributes) {
                     if (!attributeDecisionValidator.isValid(attr.getAttributeDecision())) {
                         logger.warn("Invalid attribute decision: {}", attr.getAttributeDecision());
-                        return createErrorResponse(requestNumber, loanNumber,
-                                "Invalid attribute decision: " + attr.getAttributeName());
+                        return CompletableFuture.completedFuture(createErrorResponse(requestNumber, loanNumber,
+                                "Invalid attribute decision: " + attr.getAttributeName()));
                     }
                 }
 
-                state.setAttributes(updatedAttributes);
+                attributeChanges = AttributeChanges.merge(state.getAttributes(), updatedAttributes);
+                state.setAttributes(attributeChanges.merged());
             }
 
             state.setCurrentWorkflowStage(WorkflowConstants.STAGE_LOAN_DECISION_RECEIVED);
 
-            // Save updated state
-            workflowStateRepository.save(state);
+            // Save updated state; attribute updates are merged by Name and written as a patch
+            if (attributeChanges != null) {
+                workflowStateRepository.saveAttributeChanges(state, attributeChanges);
+            } else {
+                workflowStateRepository.save(state);
+            }
             logger.info("Loan decision updated successfully for requestNumber: {}", requestNumber);
 
             // Determine Token to use: Input takes precedence, fallback to DB
@@ -140,21 +158,28 @@ public class LoanDecisionUpdateApiHandler implements Function<JsonNode, JsonNode
             if (tokenToUse != null && !tokenToUse.isEmpty()) {
                 // Resume Step Functions execution and wait for completion
                 logger.info("Resuming Step Functions for Request: {}", requestNumber);
-                resumeStepFunctionsExecution(tokenToUse, state);
+                workflowCallbackService.registerCallback(requestNumber, loanNumber);
+                try {
+                    resumeStepFunctionsExecution(tokenToUse, state);
+                } catch (RuntimeException e) {
+                    workflowCallbackService.cancelCallback(requestNumber, loanNumber);
+                    throw e;
+                }
                 logger.info("Step Functions resumed successfully for Request: {}", requestNumber);
 
-                // Wait for Step Functions to complete processing (with timeout)
-                logger.info("Waiting for Step Functions callback for Request: {}, Loan: {}", 
+                // Complete once Step Functions has processed the update (with timeout)
+                logger.info("Waiting for Step Functions callback for Request: {}, Loan: {}",
                         requestNumber, loanNumber);
-                WorkflowState updatedState = workflowCallbackService.waitForCallback(requestNumber, loanNumber, null);
-
-                if (updatedState != null) {
-                    logger.info("Received updated state from Step Functions for Request: {}", requestNumber);
-                    return createSuccessResponse(requestNumber, loanNumber, updatedState);
-                } else {
-                    logger.warn("Callback timeout for Request: {}. Returning current state.", requestNumber);
-                    return createSuccessResponse(requestNumber, loanNumber, state);
-                }
+                String reqNum = requestNumber;
+                return workflowCallbackService.awaitCallback(requestNumber, loanNumber, null)
+                        .thenApply(updatedState -> {
+                            if (updatedState != null) {
+                                logger.info("Received updated state from Step Functions for Request: {}", reqNum);
+                                return createSuccessResponse(reqNum, loanNumber, updatedState);
+                            }
+                            logger.warn("Callback timeout for Request: {}. Returning current state.", reqNum);
+                            return createSuccessResponse(reqNum, loanNumber, state);
+                        });
             } else {
                 logger.error("CRITICAL: No Task Token available for Request: {}. Workflow will NOT resume! " +
                         "DB token: {}, Input token: {}",
@@ -165,19 +190,20 @@ public class LoanDecisionUpdateApiHandler implements Function<JsonNode, JsonNode
                 // This allows tests to detect the issue via execution status
             }
 
-            return createSuccessResponse(requestNumber, loanNumber, loanDecision);
+            return CompletableFuture.completedFuture(
+                    createSuccessResponse(requestNumber, loanNumber, loanDecision));
         } catch (Exception e) {
             logger.error("Error in loan decision update API handler for Request: " + requestNumber, e);
-            return createErrorResponse(requestNumber,
+            return CompletableFuture.completedFuture(createErrorResponse(requestNumber,
                     (context.getLoanNumber() != null ? context.getLoanNumber() : WorkflowConstants.DEFAULT_UNKNOWN),
-                    "Internal error: " + e.getMessage());
+                    "Internal error: " + e.getMessage()));
         }
     }
 
     private void resumeStepFunctionsExecution(String taskToken, WorkflowState state) {
         try {
             logger.debug("Preparing to send task success for Request: {}", state.getRequestNumber());
-            String output = objectMapper.writeValueAsString(state);
+            String output = WorkflowJson.workflowStateWriter().writeValueAsString(state);
             // Convert to ObjectNode to add transient field
             ObjectNode outputNode = (ObjectNode) objectMapper.readTree(output);
             outputNode.put(WorkflowConstants.KEY_RESUMED_ACTION, WorkflowConstants.STATE_LOAN_DECISION_UPDATE);
@@ -300,9 +326,11 @@ public class LoanDecisionUpdateApiHandler implements Function<JsonNode, JsonNode
             }
 
             // Add state transition history if present
-            if (state.getStateTransitionHistory() != null && !state.getStateTransitionHistory().isEmpty()) {
+            List<com.ldc.workflow.types.StateTransition> transitions = resolveStateTransitionHistory(
+                    requestNumber, loanNumber, state);
+            if (transitions != null && !transitions.isEmpty()) {
                 ArrayNode history = workflow.putArray(WorkflowConstants.KEY_STATE_TRANSITION_HISTORY);
-                for (com.ldc.workflow.types.StateTransition transition : state.getStateTransitionHistory()) {
+                for (com.ldc.workflow.types.StateTransition transition : transitions) {
                     ObjectNode transitionNode = history.addObject();
                     transitionNode.put(WorkflowConstants.KEY_WORKFLOW_STATE_NAME, transition.getWorkflowStateName());
                     transitionNode.put(WorkflowConstants.KEY_WORKFLOW_STATE_USER_ID, transition.getWorkflowStateUserId());
@@ -323,6 +351,24 @@ public class LoanDecisionUpdateApiHandler implements Function<JsonNode, JsonNode
         }
     }
 
+    /**
+     * Recent persisted history (bounded by workflow.history.read.limit), falling back
+     * to the transitions carried on the state if none could be read.
+     */
+    private List<com.ldc.workflow.types.StateTransition> resolveStateTransitionHistory(String requestNumber,
+            String loanNumber, WorkflowState state) {
+        try {
+            List<com.ldc.workflow.types.StateTransition> history = workflowStateRepository
+                    .findRecentStateTransitions(requestNumber, loanNumber);
+            if (history != null && !history.isEmpty()) {
+                return history;
+            }
+        } catch (Exception e) {
+            logger.warn("Could not load state transition history for Request: {}", requestNumber, e);
+        }
+        return state.getStateTransitionHistory();
+    }
+
     private String mapReviewTypeToStep(String reviewType) {
         if (reviewType == null)
             return WorkflowConstants.REVIEW_STEP_SYSTEM;
@@ -0,0 +1,31 @@
+package com.ldc.workflow.handlers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Future-returning entry point for local and container deployments of the router.
+ *
+ * Selected with spring.cloud.function.definition=loanReviewRouterAsync (see
+ * WORKFLOW_FUNCTION_DEFINITION). Update APIs waiting on a Step Functions callback
+ * return an incomplete future instead of parking the host's request thread, so the
+ * host can hold thousands of in-flight waits. The Lambda entry point stays on the
+ * synchronous {@link LoanReviewRouter}.
+ */
+@Component("loanReviewRouterAsync")
+public class LoanReviewAsyncRouter implements Function<JsonNode, CompletableFuture<JsonNode>> {
+
+    private final LoanReviewRouter loanReviewRouter;
+
+    public LoanReviewAsyncRouter(LoanReviewRouter loanReviewRouter) {
+        this.loanReviewRouter = loanReviewRouter;
+    }
+
+    @Override
+    public CompletableFuture<JsonNode> apply(JsonNode input) {
+        return loanReviewRouter.applyAsync(input);
+    }
+}
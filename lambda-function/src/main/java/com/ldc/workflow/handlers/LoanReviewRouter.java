@@ -3,11 +3,18 @@ package com.ldc.workflow.handlers;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ldc.workflow.constants.WorkflowConstants;
+import com.ldc.workflow.repository.WorkflowStateRepository;
+import com.ldc.workflow.service.AuditTrailWriter;
+import com.ldc.workflow.types.AuditEvent;
+import com.ldc.workflow.util.WorkflowJson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 /**
@@ -25,15 +32,46 @@ import java.util.function.Function;
  * - loanStatusDetermination: Determines final loan status
  * - emailNotification: Sends email notifications
  * - vendPpaIntegration: Calls Vend PPA API
+ * - vendPpaOutboxDrain: Delivers queued Vend PPA decisions
+ * - decisionCountsReconcile: Checks (and repairs) stored attribute decision counters
+ * - loanAttributeBackfill: Fills the normalized loan_attribute table from the attributes JSON
+ * - attributeEncodingMigration: Rewrites stored attributes in the configured storage format
  * - sqsHandler: Adds message to SQS queue
- * - auditTrail: Logs state transitions
+ * - auditTrail: Records an explicit audit event
  * - reclassTimerExpiration: Handles reclass timer expiration
+ * - batchStartPpaReviewApi: Starts PPA reviews for an array of loans
+ * - bulkLoanDecisionUpdateApi: Updates decisions for an array of loans
+ * - attributeDecisionSearchApi: Finds loans by attribute decision
+ *
+ * Every routed invocation is also recorded on the audit trail (request, response,
+ * stage and error) through the asynchronous AuditTrailWriter.
  */
 @Component("loanReviewRouter")
 public class LoanReviewRouter implements Function<JsonNode, JsonNode> {
 
     private static final Logger logger = LoggerFactory.getLogger(LoanReviewRouter.class);
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectMapper objectMapper = WorkflowJson.mapper();
+
+    /**
+     * Every handlerType this router dispatches.
+     */
+    public static final Set<String> ROUTES = Set.of(
+            WorkflowConstants.HANDLER_REVIEW_TYPE_VALIDATION,
+            WorkflowConstants.HANDLER_COMPLETION_CRITERIA,
+            WorkflowConstants.HANDLER_LOAN_STATUS_DETERMINATION,
+            WorkflowConstants.HANDLER_VEND_PPA_INTEGRATION,
+            WorkflowConstants.HANDLER_VEND_PPA_OUTBOX_DRAIN,
+            WorkflowConstants.HANDLER_DECISION_COUNTS_RECONCILE,
+            WorkflowConstants.HANDLER_LOAN_ATTRIBUTE_BACKFILL,
+            WorkflowConstants.HANDLER_ATTRIBUTE_ENCODING_MIGRATION,
+            WorkflowConstants.HANDLER_AUDIT_TRAIL,
+            WorkflowConstants.HANDLER_REGISTER_CALLBACK,
+            WorkflowConstants.HANDLER_LOAN_DECISION_UPDATE_API,
+            WorkflowConstants.HANDLER_REVIEW_TYPE_UPDATE_API,
+            WorkflowConstants.HANDLER_START_PPA_REVIEW_API,
+            WorkflowConstants.HANDLER_BATCH_START_PPA_REVIEW_API,
+            WorkflowConstants.HANDLER_BULK_LOAN_DECISION_UPDATE_API,
+            WorkflowConstants.HANDLER_ATTRIBUTE_DECISION_SEARCH_API);
 
     @Autowired(required = false)
     private ReviewTypeValidationHandler reviewTypeValidationHandler;
@@ -47,6 +85,18 @@ public class LoanReviewRouter implements Function<JsonNode, JsonNode> {
     @Autowired(required = false)
     private VendPpaIntegrationHandler vendPpaIntegrationHandler;
 
+    @Autowired(required = false)
+    private VendPpaOutboxDrainHandler vendPpaOutboxDrainHandler;
+
+    @Autowired(required = false)
+    private DecisionCountsReconcileHandler decisionCountsReconcileHandler;
+
+    @Autowired(required = false)
+    private LoanAttributeBackfillHandler loanAttributeBackfillHandler;
+
+    @Autowired(required = false)
+    private AttributeEncodingMigrationHandler attributeEncodingMigrationHandler;
+
     @Autowired(required = false)
     private RegisterCallbackHandler registerCallbackHandler;
 
@@ -59,24 +109,31 @@ public class LoanReviewRouter implements Function<JsonNode, JsonNode> {
     @Autowired(required = false)
     private StartPpaReviewApiHandler startPpaReviewApiHandler;
 
+    @Autowired(required = false)
+    private BatchStartPpaReviewApiHandler batchStartPpaReviewApiHandler;
+
+    @Autowired(required = false)
+    private BulkLoanDecisionUpdateApiHandler bulkLoanDecisionUpdateApiHandler;
+
+    @Autowired(required = false)
+    private AttributeDecisionSearchApiHandler attributeDecisionSearchApiHandler;
+
+    @Autowired(required = false)
+    private AuditTrailHandler auditTrailHandler;
+
+    @Autowired(required = false)
+    private WorkflowStateRepository workflowStateRepository;
+
+    @Autowired(required = false)
+    private AuditTrailWriter auditTrailWriter;
+
     @Override
     public JsonNode apply(JsonNode input) {
-        logger.info("[DEBUG-V2] LoanReviewRouter processing input: {}", input);
+        // One workflow state unit of work per invocation, so a handler loads each row once
+        beginUnitOfWork();
+        String handlerType = null;
         try {
-            String handlerType = null;
-            if (input.has(WorkflowConstants.KEY_HANDLER_TYPE)) {
-                handlerType = input.get(WorkflowConstants.KEY_HANDLER_TYPE).asText();
-            } else {
-                // Infer handler type from payload for API Gateway requests
-                if (input.has(WorkflowConstants.KEY_REVIEW_TYPE) && input.has(WorkflowConstants.KEY_REQUEST_NUMBER)) {
-                    handlerType = WorkflowConstants.HANDLER_START_PPA_REVIEW_API;
-                } else if (input.has(WorkflowConstants.KEY_LOAN_DECISION)
-                        && input.has(WorkflowConstants.KEY_REQUEST_NUMBER)) {
-                    handlerType = WorkflowConstants.HANDLER_LOAN_DECISION_UPDATE_API;
-                } else if (input.has("NewReviewType") && input.has(WorkflowConstants.KEY_REQUEST_NUMBER)) {
-                    handlerType = WorkflowConstants.HANDLER_REVIEW_TYPE_UPDATE_API;
-                }
-            }
+            handlerType = resolveHandlerType(input);
 
             if (handlerType == null) {
                 logger.error("Missing handlerType and unable to infer from payload");
@@ -85,53 +142,209 @@ public class LoanReviewRouter implements Function<JsonNode, JsonNode> {
 
             logger.info("Routing to handler: {}", handlerType);
 
-            return switch (handlerType) {
-                case WorkflowConstants.HANDLER_REVIEW_TYPE_VALIDATION ->
-                    reviewTypeValidationHandler != null ? reviewTypeValidationHandler.apply(input)
-                            : createNotImplementedResponse(WorkflowConstants.HANDLER_REVIEW_TYPE_VALIDATION);
-
-                case WorkflowConstants.HANDLER_COMPLETION_CRITERIA ->
-                    completionCriteriaHandler != null ? completionCriteriaHandler.apply(input)
-                            : createNotImplementedResponse(WorkflowConstants.HANDLER_COMPLETION_CRITERIA);
-                case WorkflowConstants.HANDLER_LOAN_STATUS_DETERMINATION ->
-                    loanStatusDeterminationHandler != null ? loanStatusDeterminationHandler.apply(input)
-                            : createNotImplementedResponse(WorkflowConstants.HANDLER_LOAN_STATUS_DETERMINATION);
-
-                case WorkflowConstants.HANDLER_VEND_PPA_INTEGRATION ->
-                    vendPpaIntegrationHandler != null ? vendPpaIntegrationHandler.apply(input)
-                            : createNotImplementedResponse(WorkflowConstants.HANDLER_VEND_PPA_INTEGRATION);
-
-                /*
-                 * case WorkflowConstants.HANDLER_AUDIT_TRAIL ->
-                 * auditTrailHandler != null ? auditTrailHandler.apply(input)
-                 * : createNotImplementedResponse(WorkflowConstants.HANDLER_AUDIT_TRAIL);
-                 */
-
-                case WorkflowConstants.HANDLER_REGISTER_CALLBACK ->
-                    registerCallbackHandler != null ? registerCallbackHandler.apply(input)
-                            : createNotImplementedResponse(WorkflowConstants.HANDLER_REGISTER_CALLBACK);
-
-                case WorkflowConstants.HANDLER_LOAN_DECISION_UPDATE_API ->
-                    loanDecisionUpdateApiHandler != null ? loanDecisionUpdateApiHandler.apply(input)
-                            : createNotImplementedResponse(WorkflowConstants.HANDLER_LOAN_DECISION_UPDATE_API);
-
-                case WorkflowConstants.HANDLER_REVIEW_TYPE_UPDATE_API ->
-                    reviewTypeUpdateApiHandler != null ? reviewTypeUpdateApiHandler.apply(input)
-                            : createNotImplementedResponse(WorkflowConstants.HANDLER_REVIEW_TYPE_UPDATE_API);
-
-                case WorkflowConstants.HANDLER_START_PPA_REVIEW_API ->
-                    startPpaReviewApiHandler != null ? startPpaReviewApiHandler.apply(input)
-                            : createNotImplementedResponse(WorkflowConstants.HANDLER_START_PPA_REVIEW_API);
-
-                default -> {
-                    logger.error("Unknown handler type: {}", handlerType);
-                    yield createErrorResponse("Unknown handler type: " + handlerType);
-                }
-            };
+            JsonNode response = dispatch(handlerType, input);
+            recordAudit(handlerType, input, response, null);
+            return response;
         } catch (Exception e) {
             logger.error("Error routing request", e);
-            return createErrorResponse("Internal server error: " + e.getMessage());
+            JsonNode response = createErrorResponse("Internal server error: " + e.getMessage());
+            recordAudit(handlerType, input, response, e.getMessage());
+            return response;
+        } finally {
+            endUnitOfWork();
+        }
+    }
+
+    /**
+     * Run a synthetic request through its handler without recording it on the audit
+     * trail. Used to warm the handler graph before a SnapStart checkpoint; callers are
+     * responsible for keeping the handler's side effects out of the database.
+     */
+    public JsonNode prime(JsonNode input) {
+        beginUnitOfWork();
+        try {
+            String handlerType = resolveHandlerType(input);
+            return handlerType != null ? dispatch(handlerType, input)
+                    : createErrorResponse("Missing handlerType and unable to infer from payload");
+        } finally {
+            endUnitOfWork();
+        }
+    }
+
+    private JsonNode dispatch(String handlerType, JsonNode input) {
+        return switch (handlerType) {
+            case WorkflowConstants.HANDLER_REVIEW_TYPE_VALIDATION ->
+                reviewTypeValidationHandler != null ? reviewTypeValidationHandler.apply(input)
+                        : createNotImplementedResponse(WorkflowConstants.HANDLER_REVIEW_TYPE_VALIDATION);
+
+            case WorkflowConstants.HANDLER_COMPLETION_CRITERIA ->
+                completionCriteriaHandler != null ? completionCriteriaHandler.apply(input)
+                        : createNotImplementedResponse(WorkflowConstants.HANDLER_COMPLETION_CRITERIA);
+            case WorkflowConstants.HANDLER_LOAN_STATUS_DETERMINATION ->
+                loanStatusDeterminationHandler != null ? loanStatusDeterminationHandler.apply(input)
+                        : createNotImplementedResponse(WorkflowConstants.HANDLER_LOAN_STATUS_DETERMINATION);
+
+            case WorkflowConstants.HANDLER_VEND_PPA_INTEGRATION ->
+                vendPpaIntegrationHandler != null ? vendPpaIntegrationHandler.apply(input)
+                        : createNotImplementedResponse(WorkflowConstants.HANDLER_VEND_PPA_INTEGRATION);
+
+            case WorkflowConstants.HANDLER_VEND_PPA_OUTBOX_DRAIN ->
+                vendPpaOutboxDrainHandler != null ? vendPpaOutboxDrainHandler.apply(input)
+                        : createNotImplementedResponse(WorkflowConstants.HANDLER_VEND_PPA_OUTBOX_DRAIN);
+
+            case WorkflowConstants.HANDLER_DECISION_COUNTS_RECONCILE ->
+                decisionCountsReconcileHandler != null ? decisionCountsReconcileHandler.apply(input)
+                        : createNotImplementedResponse(WorkflowConstants.HANDLER_DECISION_COUNTS_RECONCILE);
+
+            case WorkflowConstants.HANDLER_LOAN_ATTRIBUTE_BACKFILL ->
+                loanAttributeBackfillHandler != null ? loanAttributeBackfillHandler.apply(input)
+                        : createNotImplementedResponse(WorkflowConstants.HANDLER_LOAN_ATTRIBUTE_BACKFILL);
+            case WorkflowConstants.HANDLER_ATTRIBUTE_ENCODING_MIGRATION ->
+                attributeEncodingMigrationHandler != null ? attributeEncodingMigrationHandler.apply(input)
+                        : createNotImplementedResponse(WorkflowConstants.HANDLER_ATTRIBUTE_ENCODING_MIGRATION);
+
+            case WorkflowConstants.HANDLER_AUDIT_TRAIL ->
+                auditTrailHandler != null ? auditTrailHandler.apply(input)
+                        : createNotImplementedResponse(WorkflowConstants.HANDLER_AUDIT_TRAIL);
+
+            case WorkflowConstants.HANDLER_REGISTER_CALLBACK ->
+                registerCallbackHandler != null ? registerCallbackHandler.apply(input)
+                        : createNotImplementedResponse(WorkflowConstants.HANDLER_REGISTER_CALLBACK);
+
+            case WorkflowConstants.HANDLER_LOAN_DECISION_UPDATE_API ->
+                loanDecisionUpdateApiHandler != null ? loanDecisionUpdateApiHandler.apply(input)
+                        : createNotImplementedResponse(WorkflowConstants.HANDLER_LOAN_DECISION_UPDATE_API);
+
+            case WorkflowConstants.HANDLER_REVIEW_TYPE_UPDATE_API ->
+                reviewTypeUpdateApiHandler != null ? reviewTypeUpdateApiHandler.apply(input)
+                        : createNotImplementedResponse(WorkflowConstants.HANDLER_REVIEW_TYPE_UPDATE_API);
+
+            case WorkflowConstants.HANDLER_START_PPA_REVIEW_API ->
+                startPpaReviewApiHandler != null ? startPpaReviewApiHandler.apply(input)
+                        : createNotImplementedResponse(WorkflowConstants.HANDLER_START_PPA_REVIEW_API);
+
+            case WorkflowConstants.HANDLER_BATCH_START_PPA_REVIEW_API ->
+                batchStartPpaReviewApiHandler != null ? batchStartPpaReviewApiHandler.apply(input)
+                        : createNotImplementedResponse(WorkflowConstants.HANDLER_BATCH_START_PPA_REVIEW_API);
+
+            case WorkflowConstants.HANDLER_BULK_LOAN_DECISION_UPDATE_API ->
+                bulkLoanDecisionUpdateApiHandler != null ? bulkLoanDecisionUpdateApiHandler.apply(input)
+                        : createNotImplementedResponse(WorkflowConstants.HANDLER_BULK_LOAN_DECISION_UPDATE_API);
+
+            case WorkflowConstants.HANDLER_ATTRIBUTE_DECISION_SEARCH_API ->
+                attributeDecisionSearchApiHandler != null ? attributeDecisionSearchApiHandler.apply(input)
+                        : createNotImplementedResponse(WorkflowConstants.HANDLER_ATTRIBUTE_DECISION_SEARCH_API);
+
+            default -> {
+                logger.error("Unknown handler type: {}", handlerType);
+                yield createErrorResponse("Unknown handler type: " + handlerType);
+            }
+        };
+    }
+
+    /**
+     * Non-blocking variant of {@link #apply} for hosts that can complete a response later.
+     * The update APIs that wait on a Step Functions callback complete on the callback
+     * future; all other handlers complete immediately.
+     */
+    public CompletableFuture<JsonNode> applyAsync(JsonNode input) {
+        beginUnitOfWork();
+        try {
+            String handlerType = resolveHandlerType(input);
+
+            if (WorkflowConstants.HANDLER_LOAN_DECISION_UPDATE_API.equals(handlerType)
+                    && loanDecisionUpdateApiHandler != null) {
+                logger.info("Routing to handler: {}", handlerType);
+                return loanDecisionUpdateApiHandler.applyAsync(input).whenComplete((response, error) ->
+                        recordAudit(handlerType, input, response, error != null ? error.getMessage() : null));
+            }
+            if (WorkflowConstants.HANDLER_REVIEW_TYPE_UPDATE_API.equals(handlerType)
+                    && reviewTypeUpdateApiHandler != null) {
+                logger.info("Routing to handler: {}", handlerType);
+                return reviewTypeUpdateApiHandler.applyAsync(input).whenComplete((response, error) ->
+                        recordAudit(handlerType, input, response, error != null ? error.getMessage() : null));
+            }
+        } catch (Exception e) {
+            logger.error("Error routing request", e);
+            return CompletableFuture.completedFuture(createErrorResponse("Internal server error: " + e.getMessage()));
+        } finally {
+            // Handlers only touch the repository before they start waiting on the callback
+            endUnitOfWork();
+        }
+        return CompletableFuture.completedFuture(apply(input));
+    }
+
+    /**
+     * Queue an audit_trail row for a routed invocation. Explicit auditTrail events
+     * are recorded by their handler, so they are not recorded twice.
+     */
+    private void recordAudit(String handlerType, JsonNode input, JsonNode response, String errorMessage) {
+        if (auditTrailWriter == null || WorkflowConstants.HANDLER_AUDIT_TRAIL.equals(handlerType)) {
+            return;
+        }
+
+        JsonNode workflow = response != null && response.has(WorkflowConstants.KEY_WORKFLOWS)
+                ? response.path(WorkflowConstants.KEY_WORKFLOWS).path(0)
+                : response;
+        String error = errorMessage;
+        if (error == null && response != null && response.has(WorkflowConstants.KEY_ERROR)) {
+            error = response.get(WorkflowConstants.KEY_ERROR).asText();
+        }
+        boolean failed = error != null
+                || (response != null && !response.path(WorkflowConstants.KEY_SUCCESS).asBoolean(true));
+
+        String stage = null;
+        if (workflow != null) {
+            stage = workflow.has(WorkflowConstants.KEY_CURRENT_WORKFLOW_STAGE)
+                    ? workflow.get(WorkflowConstants.KEY_CURRENT_WORKFLOW_STAGE).asText()
+                    : workflow.path(WorkflowConstants.KEY_WORKFLOW_STATE_NAME).asText(null);
+        }
+
+        auditTrailWriter.record(new AuditEvent(
+                input.path(WorkflowConstants.KEY_REQUEST_NUMBER).asText(null),
+                input.path(WorkflowConstants.KEY_LOAN_NUMBER).asText(null),
+                input.path(WorkflowConstants.KEY_TASK_NUMBER).asText(null),
+                handlerType != null ? handlerType : WorkflowConstants.DEFAULT_UNKNOWN,
+                stage,
+                failed ? WorkflowConstants.AUDIT_STATUS_FAILED : WorkflowConstants.AUDIT_STATUS_SUCCESS,
+                input,
+                response,
+                error,
+                Instant.now()));
+    }
+
+    private void beginUnitOfWork() {
+        if (workflowStateRepository != null) {
+            workflowStateRepository.beginUnitOfWork();
+        }
+    }
+
+    private void endUnitOfWork() {
+        if (workflowStateRepository != null) {
+            workflowStateRepository.endUnitOfWork();
+        }
+    }
+
+    private String resolveHandlerType(JsonNode input) {
+        if (input.has(WorkflowConstants.KEY_HANDLER_TYPE)) {
+            return input.get(WorkflowConstants.KEY_HANDLER_TYPE).asText();
+        }
+
+        // Infer handler type from payload for API Gateway requests
+        JsonNode requests = input.path(WorkflowConstants.KEY_REQUESTS);
+        if (requests.isArray()) {
+            return requests.path(0).has(WorkflowConstants.KEY_REVIEW_TYPE)
+                    ? WorkflowConstants.HANDLER_BATCH_START_PPA_REVIEW_API
+                    : WorkflowConstants.HANDLER_BULK_LOAN_DECISION_UPDATE_API;
+        } else if (input.has(WorkflowConstants.KEY_REVIEW_TYPE) && input.has(WorkflowConstants.KEY_REQUEST_NUMBER)) {
+            return WorkflowConstants.HANDLER_START_PPA_REVIEW_API;
+        } else if (input.has(WorkflowConstants.KEY_LOAN_DECISION)
+                && input.has(WorkflowConstants.KEY_REQUEST_NUMBER)) {
+            return WorkflowConstants.HANDLER_LOAN_DECISION_UPDATE_API;
+        } else if (input.has("NewReviewType") && input.has(WorkflowConstants.KEY_REQUEST_NUMBER)) {
+            return WorkflowConstants.HANDLER_REVIEW_TYPE_UPDATE_API;
         }
+        return null;
     }
 
     private JsonNode createErrorResponse(String message) {
@@ -2,12 +2,14 @@ package com.ldc.workflow.handlers;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ldc.workflow.business.DecisionSummary;
 import com.ldc.workflow.business.LoanStatusDeterminer;
 import com.ldc.workflow.types.LoanAttribute;
 import com.ldc.workflow.repository.WorkflowStateRepository;
 import com.ldc.workflow.service.WorkflowCallbackService;
 import com.ldc.workflow.constants.WorkflowConstants;
 import com.ldc.workflow.types.StateTransition;
+import com.ldc.workflow.util.WorkflowJson;
 import java.time.Instant;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,7 +29,7 @@ import java.util.function.Function;
 public class LoanStatusDeterminationHandler implements Function<JsonNode, JsonNode> {
 
     private static final Logger logger = LoggerFactory.getLogger(LoanStatusDeterminationHandler.class);
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectMapper objectMapper = WorkflowJson.mapper();
 
     private final LoanStatusDeterminer loanStatusDeterminer;
     private final WorkflowStateRepository workflowStateRepository;
@@ -47,8 +49,7 @@ public class LoanStatusDeterminationHandler implements Function<JsonNode, JsonNo
             logger.info("Loan Status Determination handler invoked");
 
             // Convert JsonNode to WorkflowContext
-            com.ldc.workflow.types.WorkflowContext context = objectMapper.treeToValue(input,
-                    com.ldc.workflow.types.WorkflowContext.class);
+            com.ldc.workflow.types.WorkflowContext context = WorkflowJson.workflowContextReader().readValue(input);
 
             // Extract input fields
             String requestNumber = context.getRequestNumber() != null ? context.getRequestNumber()
@@ -59,7 +60,8 @@ public class LoanStatusDeterminationHandler implements Function<JsonNode, JsonNo
             logger.debug("Determining loan status for requestNumber: {}, loanNumber: {}",
                     requestNumber, loanNumber);
 
-            // Fetch from DynamoDB
+            // Read from the primary: the decisions were just written by another invocation
+            // and the state is written back below
             java.util.Optional<com.ldc.workflow.types.WorkflowState> stateOpt = workflowStateRepository
                     .findByRequestNumberAndLoanNumber(requestNumber, loanNumber);
 
@@ -75,8 +77,10 @@ public class LoanStatusDeterminationHandler implements Function<JsonNode, JsonNo
                         "No attributes found");
             }
 
-            // Determine loan status
-            String loanStatus = loanStatusDeterminer.determineStatus(attributes);
+            // Determine loan status from one pass over the attributes
+            DecisionSummary summary = DecisionSummary.of(attributes);
+            logger.debug("Attribute decisions: {}", summary);
+            String loanStatus = loanStatusDeterminer.determineStatus(summary);
             logger.info("Loan status determined: {} for requestNumber: {}", loanStatus, requestNumber);
 
             // Update workflow state with determined status
@@ -97,7 +101,7 @@ public class LoanStatusDeterminationHandler implements Function<JsonNode, JsonNo
 
             // Save updated state to database
             try {
-                workflowStateRepository.save(state);
+                workflowStateRepository.upsert(state);
                 logger.info("Workflow state updated with loanStatus: {} for requestNumber: {}",
                         loanStatus, requestNumber);
             } catch (Exception e) {
@@ -105,11 +109,8 @@ public class LoanStatusDeterminationHandler implements Function<JsonNode, JsonNo
                 // Continue anyway - status was determined
             }
 
-            // Notify any waiting API handlers that Step Functions has completed
-            if (workflowCallbackService.hasPendingCallback(requestNumber, loanNumber)) {
-                logger.info("Notifying callback for Request: {}, Loan: {}", requestNumber, loanNumber);
-                workflowCallbackService.notifyCallback(requestNumber, loanNumber, state);
-            }
+            // Notify any waiting API handlers (on this or another instance) that Step Functions has completed
+            workflowCallbackService.notifyCallback(requestNumber, loanNumber, state);
 
             // Return success response
             return createSuccessResponse(requestNumber, loanNumber, loanStatus);
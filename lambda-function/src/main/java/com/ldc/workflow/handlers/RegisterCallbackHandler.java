@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ldc.workflow.constants.WorkflowConstants;
 import com.ldc.workflow.repository.WorkflowStateRepository;
 import com.ldc.workflow.types.WorkflowState;
+import com.ldc.workflow.util.WorkflowJson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -20,7 +21,7 @@ import java.util.function.Function;
 public class RegisterCallbackHandler implements Function<JsonNode, JsonNode> {
 
     private static final Logger logger = LoggerFactory.getLogger(RegisterCallbackHandler.class);
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectMapper objectMapper = WorkflowJson.mapper();
     private final WorkflowStateRepository workflowStateRepository;
 
     public RegisterCallbackHandler(WorkflowStateRepository workflowStateRepository) {
@@ -31,7 +32,7 @@ public class RegisterCallbackHandler implements Function<JsonNode, JsonNode> {
     public JsonNode apply(JsonNode input) {
         com.ldc.workflow.types.WorkflowContext context;
         try {
-            context = objectMapper.treeToValue(input, com.ldc.workflow.types.WorkflowContext.class);
+            context = WorkflowJson.workflowContextReader().readValue(input);
         } catch (Exception e) {
             logger.error("Error parsing input JSON", e);
             return createErrorResponse(WorkflowConstants.DEFAULT_UNKNOWN, WorkflowConstants.DEFAULT_UNKNOWN,
@@ -71,7 +72,7 @@ public class RegisterCallbackHandler implements Function<JsonNode, JsonNode> {
             }
 
             // Save updates the entity with the new token
-            workflowStateRepository.save(state);
+            workflowStateRepository.upsert(state);
             logger.info("Successfully saved task token for Request: {}", requestNumber);
 
             return createSuccessResponse(requestNumber, loanNumber);
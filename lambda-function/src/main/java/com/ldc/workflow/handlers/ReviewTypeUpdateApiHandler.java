@@ -8,12 +8,15 @@ import com.ldc.workflow.repository.WorkflowStateRepository;
 import com.ldc.workflow.service.StepFunctionsService;
 import com.ldc.workflow.service.WorkflowCallbackService;
 import com.ldc.workflow.types.WorkflowState;
+import com.ldc.workflow.util.WorkflowJson;
 import com.ldc.workflow.validation.ReviewTypeValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 /**
@@ -27,7 +30,7 @@ import java.util.function.Function;
 public class ReviewTypeUpdateApiHandler implements Function<JsonNode, JsonNode> {
 
     private static final Logger logger = LoggerFactory.getLogger(ReviewTypeUpdateApiHandler.class);
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectMapper objectMapper = WorkflowJson.mapper();
 
     private final ReviewTypeValidator reviewTypeValidator;
     private final WorkflowStateRepository workflowStateRepository;
@@ -46,14 +49,22 @@ public class ReviewTypeUpdateApiHandler implements Function<JsonNode, JsonNode>
 
     @Override
     public JsonNode apply(JsonNode input) {
+        return applyAsync(input).join();
+    }
+
+    /**
+     * Non-blocking variant of {@link #apply}. After resuming Step Functions the response
+     * is composed on the callback future instead of parking the calling thread.
+     */
+    public CompletableFuture<JsonNode> applyAsync(JsonNode input) {
         // Convert JsonNode to WorkflowContext
         com.ldc.workflow.types.WorkflowContext context;
         try {
-            context = objectMapper.treeToValue(input, com.ldc.workflow.types.WorkflowContext.class);
+            context = WorkflowJson.workflowContextReader().readValue(input);
         } catch (Exception e) {
             logger.error("Error parsing input JSON", e);
-            return createErrorResponse(WorkflowConstants.DEFAULT_UNKNOWN, WorkflowConstants.DEFAULT_UNKNOWN,
-                    "Invalid JSON format");
+            return CompletableFuture.completedFuture(createErrorResponse(
+                    WorkflowConstants.DEFAULT_UNKNOWN, WorkflowConstants.DEFAULT_UNKNOWN, "Invalid JSON format"));
         }
 
         try {
@@ -67,9 +78,9 @@ public class ReviewTypeUpdateApiHandler implements Function<JsonNode, JsonNode>
 
             if (requestNumber == null || loanNumber == null || newReviewType == null) {
                 String reqNum = requestNumber != null ? requestNumber : WorkflowConstants.DEFAULT_UNKNOWN;
-                return createErrorResponse(reqNum,
+                return CompletableFuture.completedFuture(createErrorResponse(reqNum,
                         (loanNumber != null ? loanNumber : WorkflowConstants.DEFAULT_UNKNOWN),
-                        "Missing required fields: requestNumber, loanNumber, or newReviewType");
+                        "Missing required fields: requestNumber, loanNumber, or newReviewType"));
             }
 
             // Task Token can be passed via WorkflowContext
@@ -81,8 +92,8 @@ public class ReviewTypeUpdateApiHandler implements Function<JsonNode, JsonNode>
             // Validate new review type
             if (!reviewTypeValidator.isValid(newReviewType)) {
                 logger.warn("Invalid review type: {}", newReviewType);
-                return createErrorResponse(requestNumber, loanNumber,
-                        reviewTypeValidator.getErrorMessage(newReviewType));
+                return CompletableFuture.completedFuture(createErrorResponse(requestNumber, loanNumber,
+                        reviewTypeValidator.getErrorMessage(newReviewType)));
             }
 
             // Retrieve workflow state from PostgreSQL
@@ -92,7 +103,8 @@ public class ReviewTypeUpdateApiHandler implements Function<JsonNode, JsonNode>
             if (stateOpt.isEmpty()) {
                 logger.warn("Workflow state not found for requestNumber: {}, loanNumber: {}",
                         requestNumber, loanNumber);
-                return createErrorResponse(requestNumber, loanNumber, "Workflow state not found");
+                return CompletableFuture.completedFuture(
+                        createErrorResponse(requestNumber, loanNumber, "Workflow state not found"));
             }
 
             WorkflowState state = stateOpt.get();
@@ -113,40 +125,48 @@ public class ReviewTypeUpdateApiHandler implements Function<JsonNode, JsonNode>
             if (tokenToUse != null && !tokenToUse.isEmpty()) {
                 // Resume Step Functions execution and wait for completion
                 logger.info("Resuming Step Functions for Request: {}", requestNumber);
-                resumeStepFunctionsExecution(tokenToUse, state);
+                workflowCallbackService.registerCallback(requestNumber, loanNumber);
+                try {
+                    resumeStepFunctionsExecution(tokenToUse, state);
+                } catch (RuntimeException e) {
+                    workflowCallbackService.cancelCallback(requestNumber, loanNumber);
+                    throw e;
+                }
                 logger.info("Step Functions resumed successfully for Request: {}", requestNumber);
 
-                // Wait for Step Functions to complete processing (with timeout)
+                // Complete once Step Functions has processed the update (with timeout)
                 logger.info("Waiting for Step Functions callback for Request: {}, Loan: {}",
                         requestNumber, loanNumber);
-                WorkflowState updatedState = workflowCallbackService.waitForCallback(requestNumber, loanNumber, null);
-
-                if (updatedState != null) {
-                    logger.info("Received updated state from Step Functions for Request: {}", requestNumber);
-                    return createSuccessResponse(requestNumber, loanNumber, updatedState);
-                } else {
-                    logger.warn("Callback timeout for Request: {}. Returning current state.", requestNumber);
-                    return createSuccessResponse(requestNumber, loanNumber, state);
-                }
+                return workflowCallbackService.awaitCallback(requestNumber, loanNumber, null)
+                        .thenApply(updatedState -> {
+                            if (updatedState != null) {
+                                logger.info("Received updated state from Step Functions for Request: {}",
+                                        requestNumber);
+                                return createSuccessResponse(requestNumber, loanNumber, updatedState);
+                            }
+                            logger.warn("Callback timeout for Request: {}. Returning current state.", requestNumber);
+                            return createSuccessResponse(requestNumber, loanNumber, state);
+                        });
             } else {
                 logger.error("CRITICAL: No Task Token available for Request: {}. Workflow will NOT resume! " +
                         "DB token: {}, Input token: {}",
                         requestNumber,
                         state.getTaskToken(),
                         inputTaskToken);
-                return createErrorResponse(requestNumber, loanNumber,
-                        "No Task Token found. Workflow not ready. Please retry.");
+                return CompletableFuture.completedFuture(createErrorResponse(requestNumber, loanNumber,
+                        "No Task Token found. Workflow not ready. Please retry."));
             }
         } catch (Exception e) {
             logger.error("Error in review type update API handler", e);
-            return createErrorResponse(WorkflowConstants.DEFAULT_UNKNOWN, WorkflowConstants.DEFAULT_UNKNOWN,
-                    "Internal error: " + e.getMessage());
+            return CompletableFuture.completedFuture(createErrorResponse(
+                    WorkflowConstants.DEFAULT_UNKNOWN, WorkflowConstants.DEFAULT_UNKNOWN,
+                    "Internal error: " + e.getMessage()));
         }
     }
 
     private void resumeStepFunctionsExecution(String taskToken, WorkflowState state) {
         try {
-            String output = objectMapper.writeValueAsString(state);
+            String output = WorkflowJson.workflowStateWriter().writeValueAsString(state);
             // Convert to ObjectNode to add transient field
             ObjectNode outputNode = (ObjectNode) objectMapper.readTree(output);
             outputNode.put(WorkflowConstants.KEY_RESUMED_ACTION, WorkflowConstants.ACTION_REVIEW_TYPE_UPDATE);
@@ -270,10 +290,12 @@ public class ReviewTypeUpdateApiHandler implements Function<JsonNode, JsonNode>
             }
 
             // Add state transition history if present
-            if (state.getStateTransitionHistory() != null && !state.getStateTransitionHistory().isEmpty()) {
+            List<com.ldc.workflow.types.StateTransition> transitions = resolveStateTransitionHistory(
+                    requestNumber, loanNumber, state);
+            if (transitions != null && !transitions.isEmpty()) {
                 com.fasterxml.jackson.databind.node.ArrayNode history = workflow
                         .putArray(WorkflowConstants.KEY_STATE_TRANSITION_HISTORY);
-                for (com.ldc.workflow.types.StateTransition transition : state.getStateTransitionHistory()) {
+                for (com.ldc.workflow.types.StateTransition transition : transitions) {
                     com.fasterxml.jackson.databind.node.ObjectNode transitionNode = history.addObject();
                     transitionNode.put(WorkflowConstants.KEY_WORKFLOW_STATE_NAME, transition.getWorkflowStateName());
                     transitionNode.put(WorkflowConstants.KEY_WORKFLOW_STATE_USER_ID,
@@ -297,6 +319,24 @@ public class ReviewTypeUpdateApiHandler implements Function<JsonNode, JsonNode>
         }
     }
 
+    /**
+     * Recent persisted history (bounded by workflow.history.read.limit), falling back
+     * to the transitions carried on the state if none could be read.
+     */
+    private List<com.ldc.workflow.types.StateTransition> resolveStateTransitionHistory(String requestNumber,
+            String loanNumber, WorkflowState state) {
+        try {
+            List<com.ldc.workflow.types.StateTransition> history = workflowStateRepository
+                    .findRecentStateTransitions(requestNumber, loanNumber);
+            if (history != null && !history.isEmpty()) {
+                return history;
+            }
+        } catch (Exception e) {
+            logger.warn("Could not load state transition history for Request: {}", requestNumber, e);
+        }
+        return state.getStateTransitionHistory();
+    }
+
     private String mapReviewTypeToStep(String reviewType) {
         if (reviewType == null)
             return WorkflowConstants.REVIEW_STEP_SYSTEM;
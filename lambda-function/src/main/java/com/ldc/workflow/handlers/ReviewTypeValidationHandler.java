@@ -8,6 +8,7 @@ import com.ldc.workflow.repository.WorkflowStateRepository;
 import com.ldc.workflow.types.LoanPpaRequest;
 import com.ldc.workflow.types.StateTransition;
 import com.ldc.workflow.types.WorkflowState;
+import com.ldc.workflow.util.WorkflowJson;
 import com.ldc.workflow.validation.ReviewTypeValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,7 +31,7 @@ import java.util.function.Function;
 public class ReviewTypeValidationHandler implements Function<JsonNode, JsonNode> {
 
     private static final Logger logger = LoggerFactory.getLogger(ReviewTypeValidationHandler.class);
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectMapper objectMapper = WorkflowJson.mapper();
 
     private final ReviewTypeValidator reviewTypeValidator;
     private final WorkflowStateRepository workflowStateRepository;
@@ -49,7 +50,7 @@ public class ReviewTypeValidationHandler implements Function<JsonNode, JsonNode>
             // Requirement 9: Deserialize and Validate Input
             LoanPpaRequest request;
             try {
-                request = objectMapper.treeToValue(input, LoanPpaRequest.class);
+                request = WorkflowJson.loanPpaRequestReader().readValue(input);
             } catch (Exception e) {
                 logger.error("Invalid request schema", e);
                 return createErrorResponse(WorkflowConstants.DEFAULT_UNKNOWN,
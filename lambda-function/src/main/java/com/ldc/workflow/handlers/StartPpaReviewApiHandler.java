@@ -8,6 +8,7 @@ import com.ldc.workflow.constants.WorkflowConstants;
 import com.ldc.workflow.repository.WorkflowStateRepository;
 import com.ldc.workflow.service.StepFunctionsService;
 import com.ldc.workflow.types.LoanPpaRequest;
+import com.ldc.workflow.util.WorkflowJson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -53,26 +54,15 @@ public class StartPpaReviewApiHandler implements Function<JsonNode, JsonNode> {
             // Deserialize and validate input
             LoanPpaRequest request;
             try {
-                request = objectMapper.treeToValue(input, LoanPpaRequest.class);
+                request = WorkflowJson.loanPpaRequestReader().readValue(input);
             } catch (Exception e) {
                 logger.error("Invalid request schema", e);
                 return createErrorResponse("Invalid request format: " + e.getMessage());
             }
 
-            // Validate required fields (Requirement 1)
-            if (request.getRequestNumber() == null || request.getRequestNumber().isEmpty()) {
-                return createErrorResponse("Missing required field: RequestNumber");
-            }
-            if (request.getLoanNumber() == null || request.getLoanNumber().isEmpty()) {
-                return createErrorResponse("Missing required field: LoanNumber");
-            }
-            if (request.getReviewType() == null || request.getReviewType().isEmpty()) {
-                return createErrorResponse("Missing required field: ReviewType");
-            }
-
-            // Validate ReviewType enum (Requirement 1.5)
-            if (!isValidReviewType(request.getReviewType())) {
-                return createErrorResponse("Invalid ReviewType. Must be one of: LDC, Sec Policy, Conduit");
+            String validationError = validateRequest(request);
+            if (validationError != null) {
+                return createErrorResponse(validationError);
             }
 
             // Check if active execution already exists (Requirement 1.2)
@@ -90,11 +80,10 @@ public class StartPpaReviewApiHandler implements Function<JsonNode, JsonNode> {
             }
 
             // Generate execution name
-            String executionName = "ldc-loan-review-" + request.getRequestNumber() + "-" +
-                    UUID.randomUUID().toString().substring(0, 8);
+            String executionName = buildExecutionName(request);
 
             // Prepare Step Function input payload
-            String stepFunctionInput = objectMapper.writeValueAsString(request);
+            String stepFunctionInput = WorkflowJson.loanPpaRequestWriter().writeValueAsString(request);
 
             // Start Step Function execution (Requirement 1.3)
             String executionArn;
@@ -111,40 +100,7 @@ public class StartPpaReviewApiHandler implements Function<JsonNode, JsonNode> {
 
             // Persist initial workflow state (Requirement 1.9)
             try {
-                com.ldc.workflow.types.WorkflowState state = new com.ldc.workflow.types.WorkflowState();
-                state.setRequestNumber(request.getRequestNumber());
-                state.setLoanNumber(request.getLoanNumber());
-                state.setReviewType(request.getReviewType());
-                state.setExecutionId(executionArn);
-                state.setStatus(WorkflowConstants.STATUS_RUNNING);
-                state.setWorkflowStateName(WorkflowConstants.STATE_VALIDATE_REVIEW_TYPE);
-                state.setCurrentWorkflowStage(WorkflowConstants.STAGE_REVIEW_INITIATED);
-
-                state.setRetryCount(0);
-                state.setCurrentAssignedUsername(
-                        request.getReviewStepUserId() != null ? request.getReviewStepUserId()
-                                : WorkflowConstants.DEFAULT_SYSTEM_USER);
-                state.setCreatedAt(Instant.now().toString());
-                state.setUpdatedAt(Instant.now().toString());
-
-                // Persist initial attributes with Pending status
-                if (request.getAttributes() != null && !request.getAttributes().isEmpty()) {
-                    List<com.ldc.workflow.types.LoanAttribute> initialAttributes = request.getAttributes().stream()
-                            .map(attr -> {
-                                com.ldc.workflow.types.LoanAttribute loanAttr = new com.ldc.workflow.types.LoanAttribute();
-                                loanAttr.setAttributeName(attr.getName());
-                                loanAttr.setAttributeDecision(
-                                        attr.getDecision() != null ? attr.getDecision()
-                                                : WorkflowConstants.STATUS_PENDING);
-                                return loanAttr;
-                            })
-                            .collect(java.util.stream.Collectors.toList());
-                    state.setAttributes(initialAttributes);
-                }
-
-                // Set initial loan decision as "Pending Review"
-                state.setLoanDecision(WorkflowConstants.STATUS_PENDING_REVIEW);
-
+                com.ldc.workflow.types.WorkflowState state = buildInitialState(request, executionArn);
                 workflowStateRepository.save(state);
                 logger.info("Workflow state persisted for RequestNumber: {} with {} attributes",
                         request.getRequestNumber(),
@@ -163,6 +119,76 @@ public class StartPpaReviewApiHandler implements Function<JsonNode, JsonNode> {
         }
     }
 
+    /**
+     * Validate required fields (Requirement 1) and the ReviewType enum (Requirement 1.5).
+     *
+     * @return the error message, or null if the request is valid
+     */
+    String validateRequest(LoanPpaRequest request) {
+        if (request.getRequestNumber() == null || request.getRequestNumber().isEmpty()) {
+            return "Missing required field: RequestNumber";
+        }
+        if (request.getLoanNumber() == null || request.getLoanNumber().isEmpty()) {
+            return "Missing required field: LoanNumber";
+        }
+        if (request.getReviewType() == null || request.getReviewType().isEmpty()) {
+            return "Missing required field: ReviewType";
+        }
+        if (!isValidReviewType(request.getReviewType())) {
+            return "Invalid ReviewType. Must be one of: LDC, Sec Policy, Conduit";
+        }
+        return null;
+    }
+
+    String buildExecutionName(LoanPpaRequest request) {
+        return "ldc-loan-review-" + request.getRequestNumber() + "-" +
+                UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    String getStateMachineArn() {
+        return stateMachineArn;
+    }
+
+    /**
+     * Build the initial workflow state persisted after the execution starts (Requirement 1.9).
+     */
+    com.ldc.workflow.types.WorkflowState buildInitialState(LoanPpaRequest request, String executionArn) {
+        com.ldc.workflow.types.WorkflowState state = new com.ldc.workflow.types.WorkflowState();
+        state.setRequestNumber(request.getRequestNumber());
+        state.setLoanNumber(request.getLoanNumber());
+        state.setReviewType(request.getReviewType());
+        state.setExecutionId(executionArn);
+        state.setStatus(WorkflowConstants.STATUS_RUNNING);
+        state.setWorkflowStateName(WorkflowConstants.STATE_VALIDATE_REVIEW_TYPE);
+        state.setCurrentWorkflowStage(WorkflowConstants.STAGE_REVIEW_INITIATED);
+
+        state.setRetryCount(0);
+        state.setCurrentAssignedUsername(
+                request.getReviewStepUserId() != null ? request.getReviewStepUserId()
+                        : WorkflowConstants.DEFAULT_SYSTEM_USER);
+        state.setCreatedAt(Instant.now().toString());
+        state.setUpdatedAt(Instant.now().toString());
+
+        // Persist initial attributes with Pending status
+        if (request.getAttributes() != null && !request.getAttributes().isEmpty()) {
+            List<com.ldc.workflow.types.LoanAttribute> initialAttributes = request.getAttributes().stream()
+                    .map(attr -> {
+                        com.ldc.workflow.types.LoanAttribute loanAttr = new com.ldc.workflow.types.LoanAttribute();
+                        loanAttr.setAttributeName(attr.getName());
+                        loanAttr.setAttributeDecision(
+                                attr.getDecision() != null ? attr.getDecision()
+                                        : WorkflowConstants.STATUS_PENDING);
+                        return loanAttr;
+                    })
+                    .collect(java.util.stream.Collectors.toList());
+            state.setAttributes(initialAttributes);
+        }
+
+        // Set initial loan decision as "Pending Review"
+        state.setLoanDecision(WorkflowConstants.STATUS_PENDING_REVIEW);
+        return state;
+    }
+
     /**
      * Create success response conforming to loan-ppa-workflow-response.schema.json
      */
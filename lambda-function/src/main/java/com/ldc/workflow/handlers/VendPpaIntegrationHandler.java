@@ -4,15 +4,21 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.ldc.workflow.repository.VendPpaDeliveryRepository.Delivery;
 import com.ldc.workflow.repository.WorkflowStateRepository;
+import com.ldc.workflow.service.VendPpaClient;
+import com.ldc.workflow.service.VendPpaOutbox;
 import com.ldc.workflow.service.WorkflowCallbackService;
 import com.ldc.workflow.types.WorkflowState;
 import com.ldc.workflow.types.StateTransition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.ldc.workflow.constants.WorkflowConstants;
+import com.ldc.workflow.util.WorkflowJson;
 
 import java.time.Instant;
 
@@ -22,6 +28,12 @@ import java.util.function.Function;
 /**
  * Lambda handler for Vend PPA integration.
  * Calls Vend PPA API with loan decision.
+ *
+ * The decision is written to the vend_ppa_delivery outbox in the same transaction
+ * that marks the workflow complete, then sent once on a best-effort basis. If that
+ * send fails the workflow still completes and the outbox drain delivers it later
+ * (see {@link VendPpaOutbox}); if the transaction fails the step fails, so a decision
+ * is never completed without a delivery on record.
  * 
  * Input: JSON with requestNumber, loanNumber, loanDecision, loanStatus,
  * executionId
@@ -31,15 +43,24 @@ import java.util.function.Function;
 public class VendPpaIntegrationHandler implements Function<JsonNode, JsonNode> {
 
     private static final Logger logger = LoggerFactory.getLogger(VendPpaIntegrationHandler.class);
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectMapper objectMapper = WorkflowJson.mapper();
 
     private final WorkflowStateRepository workflowStateRepository;
     private final WorkflowCallbackService workflowCallbackService;
+    private final VendPpaClient vendPpaClient;
+    private final VendPpaOutbox vendPpaOutbox;
+    private final TransactionTemplate transactionTemplate;
 
     public VendPpaIntegrationHandler(WorkflowStateRepository workflowStateRepository,
-            WorkflowCallbackService workflowCallbackService) {
+            WorkflowCallbackService workflowCallbackService,
+            VendPpaClient vendPpaClient,
+            VendPpaOutbox vendPpaOutbox,
+            PlatformTransactionManager transactionManager) {
         this.workflowStateRepository = workflowStateRepository;
         this.workflowCallbackService = workflowCallbackService;
+        this.vendPpaClient = vendPpaClient;
+        this.vendPpaOutbox = vendPpaOutbox;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
@@ -76,45 +97,37 @@ public class VendPpaIntegrationHandler implements Function<JsonNode, JsonNode> {
                     : WorkflowConstants.DEFAULT_UNKNOWN;
             logger.info("Retrieved loan decision from DynamoDB: {}", loanDecision);
 
-            // Call Vend PPA API
+            markCompleted(state);
             JsonNode vendPpaResponse;
-            try {
-                vendPpaResponse = callVendPpaApi(state);
-                logger.info("Vend PPA call completed successfully for loanNumber: {}", loanNumber);
-            } catch (Exception e) {
-                logger.error("Vend PPA API call failed: {}", e.getMessage());
-                // Mock success response to avoid blocking workflow
-                vendPpaResponse = objectMapper.createObjectNode()
-                        .put("Status", "MockSuccess")
-                        .put("Message", "Vend PPA Integration ignored due to error: " + e.getMessage());
-            }
-
-            // Mark workflow as completed
-            try {
-                state.setStatus(WorkflowConstants.STATUS_COMPLETED);
-                state.setWorkflowStateName(WorkflowConstants.STATE_WORKFLOW_COMPLETE);
-                state.setUpdatedAt(java.time.Instant.now().toString());
-                
-                // Append state transition
-                StateTransition transition = new StateTransition(
-                    WorkflowConstants.STATE_WORKFLOW_COMPLETE,
-                    WorkflowConstants.DEFAULT_SYSTEM_USER,
-                    Instant.now().toString(),
-                    Instant.now().toString()
-                );
-                state.addStateTransition(transition);
-                
-                workflowStateRepository.save(state);
-                logger.info("Workflow marked as COMPLETED for requestNumber: {}", requestNumber);
-            } catch (Exception e) {
-                logger.error("Failed to update workflow completion status", e);
+            if (!vendPpaClient.isConfigured()) {
+                // Treat missing env var as a reason to skip without erroring
+                vendPpaResponse = objectMapper.createObjectNode().put("Skipped", "VEND_PPA_ENDPOINT not set");
+                try {
+                    workflowStateRepository.upsert(state);
+                    logger.info("Workflow marked as COMPLETED for requestNumber: {}", requestNumber);
+                } catch (Exception e) {
+                    logger.error("Failed to update workflow completion status", e);
+                }
+            } else {
+                Delivery delivery;
+                try {
+                    delivery = transactionTemplate.execute(status -> {
+                        workflowStateRepository.upsert(state);
+                        return vendPpaOutbox.enqueue(requestNumber, loanNumber, executionId,
+                                buildRequestBody(state));
+                    });
+                    logger.info("Workflow marked as COMPLETED and Vend PPA delivery queued for requestNumber: {}",
+                            requestNumber);
+                } catch (Exception e) {
+                    logger.error("Failed to complete workflow and queue Vend PPA delivery", e);
+                    return createErrorResponse(requestNumber, loanNumber,
+                            "Failed to record Vend PPA delivery: " + e.getMessage());
+                }
+                vendPpaResponse = deliverNow(delivery);
             }
 
-            // Notify any waiting API handlers that Step Functions has completed
-            if (workflowCallbackService.hasPendingCallback(requestNumber, loanNumber)) {
-                logger.info("Notifying callback for Request: {}, Loan: {}", requestNumber, loanNumber);
-                workflowCallbackService.notifyCallback(requestNumber, loanNumber, state);
-            }
+            // Notify any waiting API handlers (on this or another instance) that Step Functions has completed
+            workflowCallbackService.notifyCallback(requestNumber, loanNumber, state);
 
             return createSuccessResponse(requestNumber, loanNumber, vendPpaResponse);
         } catch (Exception e) {
@@ -125,55 +138,59 @@ public class VendPpaIntegrationHandler implements Function<JsonNode, JsonNode> {
         }
     }
 
+    private void markCompleted(WorkflowState state) {
+        state.setStatus(WorkflowConstants.STATUS_COMPLETED);
+        state.setWorkflowStateName(WorkflowConstants.STATE_WORKFLOW_COMPLETE);
+        state.setUpdatedAt(Instant.now().toString());
+
+        // Append state transition
+        StateTransition transition = new StateTransition(
+            WorkflowConstants.STATE_WORKFLOW_COMPLETE,
+            WorkflowConstants.DEFAULT_SYSTEM_USER,
+            Instant.now().toString(),
+            Instant.now().toString()
+        );
+        state.addStateTransition(transition);
+    }
+
+    private ObjectNode buildRequestBody(WorkflowState state) {
+        ObjectNode requestBody = objectMapper.createObjectNode();
+        requestBody.put("requestNumber", state.getRequestNumber());
+        requestBody.put("loanNumber", state.getLoanNumber());
+        requestBody.put("loanDecision", state.getLoanDecision());
+        requestBody.put("reviewType", state.getReviewType());
+        return requestBody;
+    }
+
     /**
-     * Call Vend PPA API.
+     * Best-effort send of a queued delivery. A failure leaves it in the outbox for the
+     * drain, so it does not fail the step.
      */
-    private JsonNode callVendPpaApi(WorkflowState state) {
-        String vendPpaEndpoint = System.getenv("VEND_PPA_ENDPOINT");
-        if (vendPpaEndpoint == null || vendPpaEndpoint.isEmpty()) {
-            // Treat missing env var as a reason to skip without erroring
-            return objectMapper.createObjectNode().put("Skipped", "VEND_PPA_ENDPOINT not set");
-        }
-
+    private JsonNode deliverNow(Delivery delivery) {
         try {
-            logger.debug("Calling Vend PPA API at {} with loan state: requestNumber={}, loanNumber={}",
-                    vendPpaEndpoint, state.getRequestNumber(), state.getLoanNumber());
-
-            // Prepare Request Body
-            ObjectNode requestBody = objectMapper.createObjectNode();
-            requestBody.put("requestNumber", state.getRequestNumber());
-            requestBody.put("loanNumber", state.getLoanNumber());
-            requestBody.put("loanDecision", state.getLoanDecision());
-            requestBody.put("reviewType", state.getReviewType());
-
-            String requestBodyJson = objectMapper.writeValueAsString(requestBody);
-
-            // Use default HttpClient with proper certificate validation
-            // This ensures secure communication with Vend/PPA API
-            java.net.http.HttpClient client = java.net.http.HttpClient.newBuilder()
-                    .build();
-
-            java.net.http.HttpRequest request = java.net.http.HttpRequest.newBuilder()
-                    .uri(java.net.URI.create(vendPpaEndpoint))
-                    .header("Content-Type", "application/json")
-                    .POST(java.net.http.HttpRequest.BodyPublishers.ofString(requestBodyJson))
-                    .build();
-
-            java.net.http.HttpResponse<String> response = client.send(request,
-                    java.net.http.HttpResponse.BodyHandlers.ofString());
-
-            if (response.statusCode() >= 200 && response.statusCode() < 300) {
-                return objectMapper.readTree(response.body());
-            } else {
-                throw new RuntimeException("Vend PPA API returned error status: " + response.statusCode());
-            }
-
+            logger.debug("Calling Vend PPA API with loan state: requestNumber={}, loanNumber={}",
+                    delivery.requestNumber(), delivery.loanNumber());
+            JsonNode response = vendPpaOutbox.deliverNow(delivery);
+            logger.info("Vend PPA call completed successfully for loanNumber: {}", delivery.loanNumber());
+            return response;
         } catch (Exception e) {
-            logger.error("Error calling Vend PPA API", e);
-            throw new RuntimeException("Vend PPA API call failed: " + e.getMessage(), e);
+            logger.warn("Vend PPA delivery for loanNumber: {} queued for retry: {}",
+                    delivery.loanNumber(), e.getMessage());
+            return objectMapper.createObjectNode()
+                    .put("Status", "Queued")
+                    .put("Message", "Vend PPA delivery queued for retry: " + e.getMessage());
         }
     }
 
+    private JsonNode createErrorResponse(String requestNumber, String loanNumber, String error) {
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put(WorkflowConstants.KEY_SUCCESS, false);
+        response.put(WorkflowConstants.KEY_REQUEST_NUMBER, requestNumber);
+        response.put(WorkflowConstants.KEY_LOAN_NUMBER, loanNumber);
+        response.put(WorkflowConstants.KEY_ERROR, error);
+        return response;
+    }
+
     private JsonNode createSuccessResponse(String requestNumber, String loanNumber, JsonNode vendPpaResponse) {
         // Fetch latest state to ensure we return complete info
         Optional<WorkflowState> stateOpt = workflowStateRepository.findByRequestNumberAndLoanNumber(
@@ -0,0 +1,67 @@
+package com.ldc.workflow.handlers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ldc.workflow.constants.WorkflowConstants;
+import com.ldc.workflow.service.VendPpaClient;
+import com.ldc.workflow.service.VendPpaOutbox;
+import com.ldc.workflow.util.WorkflowJson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Lambda handler that delivers queued Vend PPA decisions from the outbox.
+ * Invoked on a schedule by EventBridge.
+ *
+ * Input: optional MaxSeconds, the time to spend draining (defaults to
+ * vend.ppa.outbox.drain.budget.seconds; keep it below the Lambda timeout).
+ * Output: counts of claimed, delivered, retried and failed deliveries.
+ */
+@Component("vendPpaOutboxDrainHandler")
+public class VendPpaOutboxDrainHandler implements Function<JsonNode, JsonNode> {
+
+    private static final Logger logger = LoggerFactory.getLogger(VendPpaOutboxDrainHandler.class);
+    private static final ObjectMapper objectMapper = WorkflowJson.mapper();
+
+    private final VendPpaOutbox vendPpaOutbox;
+    private final VendPpaClient vendPpaClient;
+    private final long budgetSeconds;
+
+    public VendPpaOutboxDrainHandler(VendPpaOutbox vendPpaOutbox, VendPpaClient vendPpaClient,
+            @Value("${vend.ppa.outbox.drain.budget.seconds:45}") long budgetSeconds) {
+        this.vendPpaOutbox = vendPpaOutbox;
+        this.vendPpaClient = vendPpaClient;
+        this.budgetSeconds = budgetSeconds;
+    }
+
+    @Override
+    public JsonNode apply(JsonNode input) {
+        if (!vendPpaClient.isConfigured()) {
+            return objectMapper.createObjectNode()
+                    .put(WorkflowConstants.KEY_SUCCESS, true)
+                    .put("Skipped", "VEND_PPA_ENDPOINT not set");
+        }
+        long seconds = input.path("MaxSeconds").asLong(budgetSeconds);
+        try {
+            VendPpaOutbox.DrainResult result = vendPpaOutbox.drain(Duration.ofSeconds(seconds));
+            return objectMapper.createObjectNode()
+                    .put(WorkflowConstants.KEY_SUCCESS, true)
+                    .put("Claimed", result.claimed())
+                    .put("Delivered", result.delivered())
+                    .put("Retried", result.retried())
+                    .put("Failed", result.failed())
+                    .put("BacklogRemaining", result.backlogRemaining())
+                    .put("ElapsedMillis", result.elapsed().toMillis());
+        } catch (Exception e) {
+            logger.error("Error draining Vend PPA outbox", e);
+            return objectMapper.createObjectNode()
+                    .put(WorkflowConstants.KEY_SUCCESS, false)
+                    .put(WorkflowConstants.KEY_ERROR, "Failed to drain Vend PPA outbox: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.ldc.workflow.repositories;
+
+import com.ldc.workflow.entity.StateTransitionEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Spring Data JPA Repository for StateTransitionEntity.
+ * All reads are bounded by a Pageable so long reclass loops stay cheap to query.
+ */
+@Repository
+public interface StateTransitionJpaRepository extends JpaRepository<StateTransitionEntity, Long> {
+
+    /**
+     * Find transitions for a request and loan, newest first.
+     */
+    List<StateTransitionEntity> findByRequestNumberAndLoanNumberOrderByIdDesc(String requestNumber,
+            String loanNumber, Pageable pageable);
+
+    /**
+     * Find transitions for a request and loan in the order they were recorded.
+     */
+    List<StateTransitionEntity> findByRequestNumberAndLoanNumberOrderByIdAsc(String requestNumber,
+            String loanNumber, Pageable pageable);
+}
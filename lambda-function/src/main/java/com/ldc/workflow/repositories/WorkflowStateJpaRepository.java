@@ -1,11 +1,14 @@
 package com.ldc.workflow.repositories;
 
 import com.ldc.workflow.entity.WorkflowStateEntity;
+import com.ldc.workflow.repository.DecisionCounts;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -38,8 +41,133 @@ public interface WorkflowStateJpaRepository extends JpaRepository<WorkflowStateE
     @Query("SELECT COUNT(w) > 0 FROM WorkflowStateEntity w WHERE w.requestNumber = :requestNumber AND w.loanNumber = :loanNumber AND w.executionStatus = 'Active'")
     boolean existsActiveExecution(@Param("requestNumber") String requestNumber, @Param("loanNumber") String loanNumber);
 
+    /**
+     * Find the workflow states for many request/loan pairs in one query.
+     * The arrays are matched pairwise: requestNumbers[i] goes with loanNumbers[i].
+     */
+    @Query(value = "SELECT w.* FROM workflow_state w "
+            + "JOIN unnest(CAST(:requestNumbers AS text[]), CAST(:loanNumbers AS text[])) "
+            + "AS k(request_number, loan_number) "
+            + "ON w.request_number = k.request_number AND w.loan_number = k.loan_number", nativeQuery = true)
+    List<WorkflowStateEntity> findAllByRequestNumberAndLoanNumberPairs(
+            @Param("requestNumbers") String[] requestNumbers,
+            @Param("loanNumbers") String[] loanNumbers);
+
+    /**
+     * Read the loan decision and attribute decision counters without loading the attributes JSON.
+     */
+    @Query("SELECT new com.ldc.workflow.repository.DecisionCounts(w.loanDecision, w.attributeCount, "
+            + "w.pendingCount, w.approvedCount, w.rejectedCount, w.reclassCount, w.repurchaseCount) "
+            + "FROM WorkflowStateEntity w WHERE w.requestNumber = :requestNumber AND w.loanNumber = :loanNumber")
+    Optional<DecisionCounts> findDecisionCounts(@Param("requestNumber") String requestNumber,
+            @Param("loanNumber") String loanNumber);
+
     /**
      * Find all workflow states by execution status.
      */
     List<WorkflowStateEntity> findByExecutionStatus(String executionStatus);
+
+    /**
+     * Insert or update a workflow state in one round trip using the unique
+     * (request_number, loan_number) index. Null attributes keep the stored value and
+     * counters, matching the read-modify-write save path. Returns the row as written.
+     */
+    @Transactional
+    @Query(value = "INSERT INTO workflow_state (request_number, loan_number, review_type, current_workflow_stage, "
+            + "execution_status, loan_decision, loan_status, current_assigned_username, task_token, attributes, "
+            + "attribute_count, pending_count, approved_count, rejected_count, reclass_count, repurchase_count, "
+            + "created_at, updated_at) "
+            + "VALUES (:requestNumber, :loanNumber, :reviewType, :currentWorkflowStage, :executionStatus, "
+            + ":loanDecision, :loanStatus, :currentAssignedUsername, :taskToken, CAST(:attributes AS jsonb), "
+            + ":attributeCount, :pendingCount, :approvedCount, :rejectedCount, :reclassCount, :repurchaseCount, "
+            + ":updatedAt, :updatedAt) "
+            + "ON CONFLICT (request_number, loan_number) DO UPDATE SET "
+            + "review_type = EXCLUDED.review_type, "
+            + "current_workflow_stage = EXCLUDED.current_workflow_stage, "
+            + "execution_status = EXCLUDED.execution_status, "
+            + "loan_decision = EXCLUDED.loan_decision, "
+            + "loan_status = EXCLUDED.loan_status, "
+            + "current_assigned_username = EXCLUDED.current_assigned_username, "
+            + "task_token = EXCLUDED.task_token, "
+            + "attributes = COALESCE(EXCLUDED.attributes, workflow_state.attributes), "
+            + "attribute_count = COALESCE(EXCLUDED.attribute_count, workflow_state.attribute_count), "
+            + "pending_count = COALESCE(EXCLUDED.pending_count, workflow_state.pending_count), "
+            + "approved_count = COALESCE(EXCLUDED.approved_count, workflow_state.approved_count), "
+            + "rejected_count = COALESCE(EXCLUDED.rejected_count, workflow_state.rejected_count), "
+            + "reclass_count = COALESCE(EXCLUDED.reclass_count, workflow_state.reclass_count), "
+            + "repurchase_count = COALESCE(EXCLUDED.repurchase_count, workflow_state.repurchase_count), "
+            + "updated_at = EXCLUDED.updated_at "
+            + "RETURNING *", nativeQuery = true)
+    WorkflowStateEntity upsert(@Param("requestNumber") String requestNumber,
+            @Param("loanNumber") String loanNumber,
+            @Param("reviewType") String reviewType,
+            @Param("currentWorkflowStage") String currentWorkflowStage,
+            @Param("executionStatus") String executionStatus,
+            @Param("loanDecision") String loanDecision,
+            @Param("loanStatus") String loanStatus,
+            @Param("currentAssignedUsername") String currentAssignedUsername,
+            @Param("taskToken") String taskToken,
+            @Param("attributes") String attributes,
+            @Param("attributeCount") Integer attributeCount,
+            @Param("pendingCount") Integer pendingCount,
+            @Param("approvedCount") Integer approvedCount,
+            @Param("rejectedCount") Integer rejectedCount,
+            @Param("reclassCount") Integer reclassCount,
+            @Param("repurchaseCount") Integer repurchaseCount,
+            @Param("updatedAt") Instant updatedAt);
+
+    /**
+     * Write the scalar columns and patch the attributes of a row still at loadedUpdatedAt:
+     * set Decision on the elements at the given positions, append the new elements and
+     * move the counters. Only the changed elements are sent; with no positions the stored
+     * array is appended to without being rebuilt. Returns the row as written, or empty
+     * when the row changed since it was loaded, has no counters or is not stored as an array.
+     */
+    @Transactional
+    @Query(value = "UPDATE workflow_state w SET "
+            + "review_type = :reviewType, "
+            + "current_workflow_stage = :currentWorkflowStage, "
+            + "execution_status = :executionStatus, "
+            + "loan_decision = :loanDecision, "
+            + "loan_status = :loanStatus, "
+            + "current_assigned_username = :currentAssignedUsername, "
+            + "task_token = :taskToken, "
+            + "attributes = CASE WHEN cardinality(CAST(:indexes AS int[])) = 0 THEN w.attributes ELSE ("
+            + "SELECT COALESCE(jsonb_agg(CASE WHEN p.idx IS NULL THEN e.value "
+            + "ELSE jsonb_set(e.value, ARRAY['Decision'], COALESCE(to_jsonb(p.decision), CAST('null' AS jsonb))) "
+            + "END ORDER BY e.ord), CAST('[]' AS jsonb)) "
+            + "FROM jsonb_array_elements(w.attributes) WITH ORDINALITY AS e(value, ord) "
+            + "LEFT JOIN unnest(CAST(:indexes AS int[]), CAST(:decisions AS text[])) AS p(idx, decision) "
+            + "ON p.idx = e.ord - 1) END || CAST(:appended AS jsonb), "
+            + "attribute_count = w.attribute_count + :attributeDelta, "
+            + "pending_count = w.pending_count + :pendingDelta, "
+            + "approved_count = w.approved_count + :approvedDelta, "
+            + "rejected_count = w.rejected_count + :rejectedDelta, "
+            + "reclass_count = w.reclass_count + :reclassDelta, "
+            + "repurchase_count = w.repurchase_count + :repurchaseDelta, "
+            + "updated_at = :updatedAt "
+            + "WHERE w.request_number = :requestNumber AND w.loan_number = :loanNumber "
+            + "AND w.updated_at = :loadedUpdatedAt AND w.attribute_count IS NOT NULL "
+            + "AND jsonb_typeof(w.attributes) = 'array' "
+            + "RETURNING *", nativeQuery = true)
+    Optional<WorkflowStateEntity> patchAttributes(@Param("requestNumber") String requestNumber,
+            @Param("loanNumber") String loanNumber,
+            @Param("reviewType") String reviewType,
+            @Param("currentWorkflowStage") String currentWorkflowStage,
+            @Param("executionStatus") String executionStatus,
+            @Param("loanDecision") String loanDecision,
+            @Param("loanStatus") String loanStatus,
+            @Param("currentAssignedUsername") String currentAssignedUsername,
+            @Param("taskToken") String taskToken,
+            @Param("indexes") Integer[] indexes,
+            @Param("decisions") String[] decisions,
+            @Param("appended") String appended,
+            @Param("attributeDelta") int attributeDelta,
+            @Param("pendingDelta") int pendingDelta,
+            @Param("approvedDelta") int approvedDelta,
+            @Param("rejectedDelta") int rejectedDelta,
+            @Param("reclassDelta") int reclassDelta,
+            @Param("repurchaseDelta") int repurchaseDelta,
+            @Param("loadedUpdatedAt") Instant loadedUpdatedAt,
+            @Param("updatedAt") Instant updatedAt);
 }
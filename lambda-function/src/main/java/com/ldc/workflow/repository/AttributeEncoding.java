@@ -0,0 +1,156 @@
+package com.ldc.workflow.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ldc.workflow.constants.WorkflowConstants;
+import com.ldc.workflow.types.LoanAttribute;
+import com.ldc.workflow.util.WorkflowJson;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage formats of workflow_state.attributes, and the reader that accepts both.
+ *
+ * Version 1 is the array of {"Name": ..., "Decision": ...} objects LoanAttribute
+ * serializes to. Version 2 (compact) holds the names and decisions as parallel arrays,
+ * {"v": 2, "n": [names], "d": [decisions]}, with each known decision written as its
+ * index in {@link #DECISION_CODES}. A null decision stays null and any other string is
+ * kept as is, so both formats hold the same list, order and duplicate names included.
+ *
+ * Which format is written is chosen by {@code workflow.attributes.compact.enabled};
+ * rows are moved between formats by WorkflowStateBatchRepository#reencodeAttributes.
+ */
+public final class AttributeEncoding {
+
+    public static final int COMPACT_VERSION = 2;
+
+    // Codes are part of the stored format: append new decisions, never reorder
+    private static final List<String> DECISION_CODES = List.of(
+            WorkflowConstants.STATUS_PENDING,
+            WorkflowConstants.DECISION_APPROVED,
+            WorkflowConstants.DECISION_REJECTED,
+            WorkflowConstants.DECISION_RECLASS,
+            WorkflowConstants.DECISION_REPURCHASE);
+
+    private static final Map<String, Integer> CODES_BY_DECISION = new HashMap<>();
+
+    static {
+        for (int code = 0; code < DECISION_CODES.size(); code++) {
+            CODES_BY_DECISION.put(DECISION_CODES.get(code), code);
+        }
+    }
+
+    private static final String VERSION = "v";
+    private static final String NAMES = "n";
+    private static final String DECISIONS = "d";
+
+    /**
+     * Lateral subquery expanding the attributes of workflow_state w, in either format, to
+     * (ord, name, decision) rows; ord counts from 1. Use as
+     * {@code CROSS JOIN LATERAL ... AS e} with the table aliased w.
+     */
+    public static final String ELEMENTS_SQL = "(SELECT v1.ord, v1.value->>'Name' AS name, "
+            + "v1.value->>'Decision' AS decision "
+            + "FROM jsonb_array_elements(CASE WHEN jsonb_typeof(w.attributes) = 'array' THEN w.attributes END) "
+            + "WITH ORDINALITY AS v1(value, ord) "
+            + "UNION ALL SELECT v2.ord, v2.name #>> '{}', CASE jsonb_typeof(v2.code) "
+            + "WHEN 'number' THEN (ARRAY['" + String.join("', '", DECISION_CODES) + "'])[CAST(v2.code AS int) + 1] "
+            + "ELSE v2.code #>> '{}' END "
+            + "FROM ROWS FROM (jsonb_array_elements(w.attributes->'" + NAMES + "'), "
+            + "jsonb_array_elements(w.attributes->'" + DECISIONS + "')) WITH ORDINALITY AS v2(name, code, ord))";
+
+    /**
+     * Number of attributes of workflow_state w, in either format; 0 when there are none.
+     */
+    public static final String LENGTH_SQL = "CASE jsonb_typeof(w.attributes) "
+            + "WHEN 'array' THEN jsonb_array_length(w.attributes) "
+            + "WHEN 'object' THEN jsonb_array_length(w.attributes->'" + NAMES + "') ELSE 0 END";
+
+    private AttributeEncoding() {
+    }
+
+    /**
+     * Encode attributes as a JSON tree, compact or as the version 1 array.
+     */
+    public static JsonNode toTree(List<LoanAttribute> attributes, boolean compact) {
+        if (!compact) {
+            return WorkflowJson.mapper().valueToTree(attributes);
+        }
+        ObjectNode encoded = WorkflowJson.mapper().createObjectNode().put(VERSION, COMPACT_VERSION);
+        ArrayNode names = encoded.putArray(NAMES);
+        ArrayNode decisions = encoded.putArray(DECISIONS);
+        for (LoanAttribute attribute : attributes) {
+            names.add(attribute.getAttributeName());
+            String decision = attribute.getAttributeDecision();
+            Integer code = decision != null ? CODES_BY_DECISION.get(decision) : null;
+            if (code != null) {
+                decisions.add(code);
+            } else {
+                decisions.add(decision);
+            }
+        }
+        return encoded;
+    }
+
+    /**
+     * Encode attributes as JSON text, compact or as the version 1 array.
+     */
+    public static String write(List<LoanAttribute> attributes, boolean compact) throws JsonProcessingException {
+        if (!compact) {
+            return WorkflowJson.loanAttributesWriter().writeValueAsString(attributes);
+        }
+        return WorkflowJson.mapper().writeValueAsString(toTree(attributes, true));
+    }
+
+    /**
+     * Decode stored attributes in either format.
+     *
+     * @throws IllegalArgumentException for an object of an unknown version or with names
+     *         and decisions of different lengths
+     */
+    public static List<LoanAttribute> read(JsonNode attributes) throws IOException {
+        if (!attributes.isObject()) {
+            return WorkflowJson.loanAttributesReader().readValue(attributes);
+        }
+        int version = attributes.path(VERSION).asInt(-1);
+        JsonNode names = attributes.path(NAMES);
+        JsonNode decisions = attributes.path(DECISIONS);
+        if (version != COMPACT_VERSION || names.size() != decisions.size()) {
+            throw new IllegalArgumentException("Unsupported attributes encoding, version " + version);
+        }
+
+        List<LoanAttribute> decoded = new ArrayList<>(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            JsonNode name = names.get(i);
+            decoded.add(new LoanAttribute(name.isNull() ? null : name.asText(), decision(decisions.get(i))));
+        }
+        return decoded;
+    }
+
+    /**
+     * Whether stored attributes are in the compact format.
+     */
+    public static boolean isCompact(JsonNode attributes) {
+        return attributes != null && attributes.isObject();
+    }
+
+    private static String decision(JsonNode value) {
+        if (value.isNull()) {
+            return null;
+        }
+        if (value.isInt()) {
+            int code = value.intValue();
+            if (code < 0 || code >= DECISION_CODES.size()) {
+                throw new IllegalArgumentException("Unknown attribute decision code " + code);
+            }
+            return DECISION_CODES.get(code);
+        }
+        return value.asText();
+    }
+}
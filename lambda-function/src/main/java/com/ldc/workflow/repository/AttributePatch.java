@@ -0,0 +1,31 @@
+package com.ldc.workflow.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.ldc.workflow.business.AttributeChanges;
+import com.ldc.workflow.types.AttributeDecision;
+import com.ldc.workflow.util.WorkflowJson;
+
+/**
+ * The part of an attributes write that differs from the stored row: new decisions for
+ * the elements at the given (zero-based) positions, a JSON array of elements to append,
+ * and how far each decision counter moves.
+ */
+public record AttributePatch(Integer[] indexes, String[] decisions, String appended, int attributeDelta,
+        int pendingDelta, int approvedDelta, int rejectedDelta, int reclassDelta, int repurchaseDelta) {
+
+    public static AttributePatch of(AttributeChanges changes) throws JsonProcessingException {
+        Integer[] indexes = changes.changedIndexes().toArray(new Integer[0]);
+        String[] decisions = new String[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            decisions[i] = changes.merged().get(indexes[i]).getAttributeDecision();
+        }
+        return new AttributePatch(indexes, decisions,
+                WorkflowJson.loanAttributesWriter().writeValueAsString(changes.appended()),
+                changes.appended().size(),
+                changes.countDelta(AttributeDecision.PENDING),
+                changes.countDelta(AttributeDecision.APPROVED),
+                changes.countDelta(AttributeDecision.REJECTED),
+                changes.countDelta(AttributeDecision.RECLASS),
+                changes.countDelta(AttributeDecision.REPURCHASE));
+    }
+}
@@ -0,0 +1,36 @@
+package com.ldc.workflow.repository;
+
+import com.ldc.workflow.business.DecisionSummary;
+import com.ldc.workflow.types.AttributeDecision;
+
+/**
+ * Loan decision and attribute decision counters of one workflow_state row, read
+ * without the attributes JSON. The counters are written with the attributes, so they
+ * are null only on rows that have no attributes or predate the counter columns.
+ */
+public record DecisionCounts(String loanDecision, Integer attributeCount, Integer pendingCount,
+        Integer approvedCount, Integer rejectedCount, Integer reclassCount, Integer repurchaseCount) {
+
+    public static DecisionCounts of(String loanDecision, DecisionSummary summary) {
+        return new DecisionCounts(loanDecision, summary.total(), summary.count(AttributeDecision.PENDING),
+                summary.count(AttributeDecision.APPROVED), summary.count(AttributeDecision.REJECTED),
+                summary.count(AttributeDecision.RECLASS), summary.count(AttributeDecision.REPURCHASE));
+    }
+
+    /**
+     * True when the row carries counters for its attributes.
+     */
+    public boolean isMaintained() {
+        return attributeCount != null && pendingCount != null && approvedCount != null && rejectedCount != null
+                && reclassCount != null && repurchaseCount != null;
+    }
+
+    /**
+     * The counters as a summary for the completion and status rules. Call only when
+     * {@link #isMaintained()}.
+     */
+    public DecisionSummary toSummary() {
+        return DecisionSummary.fromCounts(attributeCount, pendingCount, approvedCount, rejectedCount, reclassCount,
+                repurchaseCount);
+    }
+}
@@ -0,0 +1,384 @@
+package com.ldc.workflow.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ldc.workflow.entity.StateTransitionEntity;
+import com.ldc.workflow.entity.WorkflowStateEntity;
+import com.ldc.workflow.util.WorkflowJson;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * WorkflowStateStore on plain JDBC (workflow.persistence.mode=jdbc).
+ *
+ * Uses the same SQL the JPA repositories generate or declare, with hand-written row
+ * mappers. attributes is bound as text and cast to jsonb, and read back through the
+ * shared ObjectMapper. In this mode the JPA autoconfiguration is excluded (see
+ * PersistenceModeEnvironmentPostProcessor), so no Hibernate metamodel is built at startup.
+ */
+@Repository
+@ConditionalOnProperty(name = "workflow.persistence.mode", havingValue = "jdbc")
+public class JdbcWorkflowStateStore implements WorkflowStateStore {
+
+    private static final ObjectMapper objectMapper = WorkflowJson.mapper();
+
+    private static final String STATE_COLUMNS = "id, request_number, loan_number, review_type, "
+            + "current_workflow_stage, execution_status, loan_decision, loan_status, current_assigned_username, "
+            + "task_token, retry_count, is_reclass_confirmation, attributes, attribute_count, pending_count, "
+            + "approved_count, rejected_count, reclass_count, repurchase_count, created_at, updated_at";
+
+    private static final String COUNTER_COLUMNS = "attribute_count, pending_count, approved_count, rejected_count, "
+            + "reclass_count, repurchase_count";
+
+    private static final String COUNTER_PARAMS = ":attributeCount, :pendingCount, :approvedCount, :rejectedCount, "
+            + ":reclassCount, :repurchaseCount";
+
+    private static final String FIND_BY_KEY_SQL = "SELECT " + STATE_COLUMNS + " FROM workflow_state "
+            + "WHERE request_number = :requestNumber AND loan_number = :loanNumber";
+
+    private static final String FIND_BY_PAIRS_SQL = "SELECT w.* FROM workflow_state w "
+            + "JOIN unnest(CAST(:requestNumbers AS text[]), CAST(:loanNumbers AS text[])) "
+            + "AS k(request_number, loan_number) "
+            + "ON w.request_number = k.request_number AND w.loan_number = k.loan_number";
+
+    private static final String FIND_MOST_RECENT_SQL = "SELECT " + STATE_COLUMNS + " FROM workflow_state "
+            + "WHERE loan_number = :loanNumber ORDER BY created_at DESC LIMIT 1";
+
+    private static final String FIND_BY_STATUS_SQL = "SELECT " + STATE_COLUMNS + " FROM workflow_state "
+            + "WHERE execution_status = :executionStatus";
+
+    private static final String FIND_COUNTS_SQL = "SELECT loan_decision, " + COUNTER_COLUMNS
+            + " FROM workflow_state WHERE request_number = :requestNumber AND loan_number = :loanNumber";
+
+    private static final String EXISTS_ACTIVE_SQL = "SELECT EXISTS (SELECT 1 FROM workflow_state "
+            + "WHERE request_number = :requestNumber AND loan_number = :loanNumber AND execution_status = 'Active')";
+
+    private static final String INSERT_SQL = "INSERT INTO workflow_state (request_number, loan_number, "
+            + "review_type, current_workflow_stage, execution_status, loan_decision, loan_status, "
+            + "current_assigned_username, task_token, retry_count, is_reclass_confirmation, attributes, "
+            + COUNTER_COLUMNS + ", created_at, updated_at) "
+            + "VALUES (:requestNumber, :loanNumber, :reviewType, :currentWorkflowStage, :executionStatus, "
+            + ":loanDecision, :loanStatus, :currentAssignedUsername, :taskToken, :retryCount, "
+            + ":isReclassConfirmation, CAST(:attributes AS jsonb), " + COUNTER_PARAMS + ", :createdAt, :updatedAt) "
+            + "RETURNING " + STATE_COLUMNS;
+
+    private static final String UPDATE_SQL = "UPDATE workflow_state SET request_number = :requestNumber, "
+            + "loan_number = :loanNumber, review_type = :reviewType, "
+            + "current_workflow_stage = :currentWorkflowStage, execution_status = :executionStatus, "
+            + "loan_decision = :loanDecision, loan_status = :loanStatus, "
+            + "current_assigned_username = :currentAssignedUsername, task_token = :taskToken, "
+            + "retry_count = :retryCount, is_reclass_confirmation = :isReclassConfirmation, "
+            + "attributes = CAST(:attributes AS jsonb), attribute_count = :attributeCount, "
+            + "pending_count = :pendingCount, approved_count = :approvedCount, rejected_count = :rejectedCount, "
+            + "reclass_count = :reclassCount, repurchase_count = :repurchaseCount, updated_at = :updatedAt "
+            + "WHERE id = :id RETURNING " + STATE_COLUMNS;
+
+    private static final String UPSERT_SQL = "INSERT INTO workflow_state (request_number, loan_number, "
+            + "review_type, current_workflow_stage, execution_status, loan_decision, loan_status, "
+            + "current_assigned_username, task_token, attributes, " + COUNTER_COLUMNS + ", created_at, updated_at) "
+            + "VALUES (:requestNumber, :loanNumber, :reviewType, :currentWorkflowStage, :executionStatus, "
+            + ":loanDecision, :loanStatus, :currentAssignedUsername, :taskToken, CAST(:attributes AS jsonb), "
+            + COUNTER_PARAMS + ", :updatedAt, :updatedAt) "
+            + "ON CONFLICT (request_number, loan_number) DO UPDATE SET "
+            + "review_type = EXCLUDED.review_type, "
+            + "current_workflow_stage = EXCLUDED.current_workflow_stage, "
+            + "execution_status = EXCLUDED.execution_status, "
+            + "loan_decision = EXCLUDED.loan_decision, "
+            + "loan_status = EXCLUDED.loan_status, "
+            + "current_assigned_username = EXCLUDED.current_assigned_username, "
+            + "task_token = EXCLUDED.task_token, "
+            + "attributes = COALESCE(EXCLUDED.attributes, workflow_state.attributes), "
+            + "attribute_count = COALESCE(EXCLUDED.attribute_count, workflow_state.attribute_count), "
+            + "pending_count = COALESCE(EXCLUDED.pending_count, workflow_state.pending_count), "
+            + "approved_count = COALESCE(EXCLUDED.approved_count, workflow_state.approved_count), "
+            + "rejected_count = COALESCE(EXCLUDED.rejected_count, workflow_state.rejected_count), "
+            + "reclass_count = COALESCE(EXCLUDED.reclass_count, workflow_state.reclass_count), "
+            + "repurchase_count = COALESCE(EXCLUDED.repurchase_count, workflow_state.repurchase_count), "
+            + "updated_at = EXCLUDED.updated_at "
+            + "RETURNING " + STATE_COLUMNS;
+
+    private static final String PATCH_ATTRIBUTES_SQL = "UPDATE workflow_state w SET "
+            + "review_type = :reviewType, "
+            + "current_workflow_stage = :currentWorkflowStage, "
+            + "execution_status = :executionStatus, "
+            + "loan_decision = :loanDecision, "
+            + "loan_status = :loanStatus, "
+            + "current_assigned_username = :currentAssignedUsername, "
+            + "task_token = :taskToken, "
+            + "attributes = CASE WHEN cardinality(CAST(:indexes AS int[])) = 0 THEN w.attributes ELSE ("
+            + "SELECT COALESCE(jsonb_agg(CASE WHEN p.idx IS NULL THEN e.value "
+            + "ELSE jsonb_set(e.value, ARRAY['Decision'], COALESCE(to_jsonb(p.decision), CAST('null' AS jsonb))) "
+            + "END ORDER BY e.ord), CAST('[]' AS jsonb)) "
+            + "FROM jsonb_array_elements(w.attributes) WITH ORDINALITY AS e(value, ord) "
+            + "LEFT JOIN unnest(CAST(:indexes AS int[]), CAST(:decisions AS text[])) AS p(idx, decision) "
+            + "ON p.idx = e.ord - 1) END || CAST(:appended AS jsonb), "
+            + "attribute_count = w.attribute_count + :attributeDelta, "
+            + "pending_count = w.pending_count + :pendingDelta, "
+            + "approved_count = w.approved_count + :approvedDelta, "
+            + "rejected_count = w.rejected_count + :rejectedDelta, "
+            + "reclass_count = w.reclass_count + :reclassDelta, "
+            + "repurchase_count = w.repurchase_count + :repurchaseDelta, "
+            + "updated_at = :updatedAt "
+            + "WHERE w.request_number = :requestNumber AND w.loan_number = :loanNumber "
+            + "AND w.updated_at = :loadedUpdatedAt AND w.attribute_count IS NOT NULL "
+            + "AND jsonb_typeof(w.attributes) = 'array' "
+            + "RETURNING " + STATE_COLUMNS;
+
+    private static final String TRANSITION_COLUMNS ="id, request_number, loan_number, workflow_state_name, "
+            + "workflow_state_user_id, start_date_time, end_date_time, created_at";
+
+    private static final String INSERT_TRANSITION_SQL = "INSERT INTO state_transition (request_number, "
+            + "loan_number, workflow_state_name, workflow_state_user_id, start_date_time, end_date_time, "
+            + "created_at) VALUES (:requestNumber, :loanNumber, :workflowStateName, :workflowStateUserId, "
+            + ":startDateTime, :endDateTime, :createdAt)";
+
+    private static final String FIND_TRANSITIONS_SQL = "SELECT " + TRANSITION_COLUMNS + " FROM state_transition "
+            + "WHERE request_number = :requestNumber AND loan_number = :loanNumber ORDER BY id %s "
+            + "LIMIT :limit OFFSET :offset";
+
+    static final RowMapper<WorkflowStateEntity> STATE_ROW_MAPPER = JdbcWorkflowStateStore::mapState;
+    static final RowMapper<StateTransitionEntity> TRANSITION_ROW_MAPPER = JdbcWorkflowStateStore::mapTransition;
+    static final RowMapper<DecisionCounts> COUNTS_ROW_MAPPER = (resultSet, rowNum) -> new DecisionCounts(
+            resultSet.getString("loan_decision"),
+            resultSet.getObject("attribute_count", Integer.class),
+            resultSet.getObject("pending_count", Integer.class),
+            resultSet.getObject("approved_count", Integer.class),
+            resultSet.getObject("rejected_count", Integer.class),
+            resultSet.getObject("reclass_count", Integer.class),
+            resultSet.getObject("repurchase_count", Integer.class));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public JdbcWorkflowStateStore(DataSource dataSource) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    @Override
+    public Optional<WorkflowStateEntity> findByRequestNumberAndLoanNumber(String requestNumber, String loanNumber) {
+        return jdbcTemplate.query(FIND_BY_KEY_SQL, keyParams(requestNumber, loanNumber), STATE_ROW_MAPPER)
+                .stream().findFirst();
+    }
+
+    @Override
+    public List<WorkflowStateEntity> findAllByRequestNumberAndLoanNumberPairs(String[] requestNumbers,
+            String[] loanNumbers) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("requestNumbers", requestNumbers)
+                .addValue("loanNumbers", loanNumbers);
+        return jdbcTemplate.query(FIND_BY_PAIRS_SQL, params, STATE_ROW_MAPPER);
+    }
+
+    @Override
+    public Optional<WorkflowStateEntity> findMostRecentByLoanNumber(String loanNumber) {
+        return jdbcTemplate.query(FIND_MOST_RECENT_SQL, new MapSqlParameterSource("loanNumber", loanNumber),
+                STATE_ROW_MAPPER).stream().findFirst();
+    }
+
+    @Override
+    public List<WorkflowStateEntity> findByExecutionStatus(String executionStatus) {
+        return jdbcTemplate.query(FIND_BY_STATUS_SQL, new MapSqlParameterSource("executionStatus", executionStatus),
+                STATE_ROW_MAPPER);
+    }
+
+    @Override
+    public Optional<DecisionCounts> findDecisionCounts(String requestNumber, String loanNumber) {
+        return jdbcTemplate.query(FIND_COUNTS_SQL, keyParams(requestNumber, loanNumber), COUNTS_ROW_MAPPER)
+                .stream().findFirst();
+    }
+
+    @Override
+    public boolean existsActiveExecution(String requestNumber, String loanNumber) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(EXISTS_ACTIVE_SQL,
+                keyParams(requestNumber, loanNumber), Boolean.class));
+    }
+
+    @Override
+    public WorkflowStateEntity save(WorkflowStateEntity entity) {
+        MapSqlParameterSource params = keyParams(entity.getRequestNumber(), entity.getLoanNumber())
+                .addValue("id", entity.getId())
+                .addValue("reviewType", entity.getReviewType())
+                .addValue("currentWorkflowStage", entity.getCurrentWorkflowStage())
+                .addValue("executionStatus", entity.getExecutionStatus())
+                .addValue("loanDecision", entity.getLoanDecision())
+                .addValue("loanStatus", entity.getLoanStatus())
+                .addValue("currentAssignedUsername", entity.getCurrentAssignedUsername())
+                .addValue("taskToken", entity.getTaskToken())
+                .addValue("retryCount", entity.getRetryCount())
+                .addValue("isReclassConfirmation", entity.getIsReclassConfirmation())
+                .addValue("attributes", entity.getAttributes() != null ? entity.getAttributes().toString() : null)
+                .addValue("attributeCount", entity.getAttributeCount())
+                .addValue("pendingCount", entity.getPendingCount())
+                .addValue("approvedCount", entity.getApprovedCount())
+                .addValue("rejectedCount", entity.getRejectedCount())
+                .addValue("reclassCount", entity.getReclassCount())
+                .addValue("repurchaseCount", entity.getRepurchaseCount())
+                .addValue("createdAt", toTimestamp(entity.getCreatedAt()))
+                .addValue("updatedAt", toTimestamp(entity.getUpdatedAt()));
+        String sql = entity.getId() == null ? INSERT_SQL : UPDATE_SQL;
+        return jdbcTemplate.query(sql, params, STATE_ROW_MAPPER).stream().findFirst()
+                .orElseThrow(() -> new DataRetrievalFailureException(
+                        "No workflow_state row with id " + entity.getId()));
+    }
+
+    @Override
+    public WorkflowStateEntity upsert(String requestNumber, String loanNumber, String reviewType,
+            String currentWorkflowStage, String executionStatus, String loanDecision, String loanStatus,
+            String currentAssignedUsername, String taskToken, String attributes, DecisionCounts decisionCounts,
+            Instant updatedAt) {
+        MapSqlParameterSource params = keyParams(requestNumber, loanNumber)
+                .addValue("reviewType", reviewType)
+                .addValue("currentWorkflowStage", currentWorkflowStage)
+                .addValue("executionStatus", executionStatus)
+                .addValue("loanDecision", loanDecision)
+                .addValue("loanStatus", loanStatus)
+                .addValue("currentAssignedUsername", currentAssignedUsername)
+                .addValue("taskToken", taskToken)
+                .addValue("attributes", attributes)
+                .addValue("attributeCount", decisionCounts != null ? decisionCounts.attributeCount() : null)
+                .addValue("pendingCount", decisionCounts != null ? decisionCounts.pendingCount() : null)
+                .addValue("approvedCount", decisionCounts != null ? decisionCounts.approvedCount() : null)
+                .addValue("rejectedCount", decisionCounts != null ? decisionCounts.rejectedCount() : null)
+                .addValue("reclassCount", decisionCounts != null ? decisionCounts.reclassCount() : null)
+                .addValue("repurchaseCount", decisionCounts != null ? decisionCounts.repurchaseCount() : null)
+                .addValue("updatedAt", toTimestamp(updatedAt));
+        return jdbcTemplate.queryForObject(UPSERT_SQL, params, STATE_ROW_MAPPER);
+    }
+
+    @Override
+    public Optional<WorkflowStateEntity> patchAttributes(String requestNumber, String loanNumber, String reviewType,
+            String currentWorkflowStage, String executionStatus, String loanDecision, String loanStatus,
+            String currentAssignedUsername, String taskToken, AttributePatch patch, Instant loadedUpdatedAt,
+            Instant updatedAt) {
+        MapSqlParameterSource params = keyParams(requestNumber, loanNumber)
+                .addValue("reviewType", reviewType)
+                .addValue("currentWorkflowStage", currentWorkflowStage)
+                .addValue("executionStatus", executionStatus)
+                .addValue("loanDecision", loanDecision)
+                .addValue("loanStatus", loanStatus)
+                .addValue("currentAssignedUsername", currentAssignedUsername)
+                .addValue("taskToken", taskToken)
+                .addValue("indexes", patch.indexes())
+                .addValue("decisions", patch.decisions())
+                .addValue("appended", patch.appended())
+                .addValue("attributeDelta", patch.attributeDelta())
+                .addValue("pendingDelta", patch.pendingDelta())
+                .addValue("approvedDelta", patch.approvedDelta())
+                .addValue("rejectedDelta", patch.rejectedDelta())
+                .addValue("reclassDelta", patch.reclassDelta())
+                .addValue("repurchaseDelta", patch.repurchaseDelta())
+                .addValue("loadedUpdatedAt", toTimestamp(loadedUpdatedAt))
+                .addValue("updatedAt", toTimestamp(updatedAt));
+        return jdbcTemplate.query(PATCH_ATTRIBUTES_SQL, params, STATE_ROW_MAPPER).stream().findFirst();
+    }
+
+    @Override
+    public void saveStateTransitions(List<StateTransitionEntity> transitions) {
+        SqlParameterSource[] batch = new SqlParameterSource[transitions.size()];
+        for (int i = 0; i < batch.length; i++) {
+            StateTransitionEntity transition = transitions.get(i);
+            batch[i] = keyParams(transition.getRequestNumber(), transition.getLoanNumber())
+                    .addValue("workflowStateName", transition.getWorkflowStateName())
+                    .addValue("workflowStateUserId", transition.getWorkflowStateUserId())
+                    .addValue("startDateTime", toTimestamp(transition.getStartDateTime()))
+                    .addValue("endDateTime", toTimestamp(transition.getEndDateTime()))
+                    .addValue("createdAt", toTimestamp(transition.getCreatedAt()));
+        }
+        jdbcTemplate.batchUpdate(INSERT_TRANSITION_SQL, batch);
+    }
+
+    @Override
+    public List<StateTransitionEntity> findStateTransitionsNewestFirst(String requestNumber, String loanNumber,
+            Pageable pageable) {
+        return findStateTransitions("DESC", requestNumber, loanNumber, pageable);
+    }
+
+    @Override
+    public List<StateTransitionEntity> findStateTransitionsOldestFirst(String requestNumber, String loanNumber,
+            Pageable pageable) {
+        return findStateTransitions("ASC", requestNumber, loanNumber, pageable);
+    }
+
+    private List<StateTransitionEntity> findStateTransitions(String direction, String requestNumber,
+            String loanNumber, Pageable pageable) {
+        MapSqlParameterSource params = keyParams(requestNumber, loanNumber)
+                .addValue("limit", pageable.getPageSize())
+                .addValue("offset", pageable.getOffset());
+        return jdbcTemplate.query(String.format(FIND_TRANSITIONS_SQL, direction), params, TRANSITION_ROW_MAPPER);
+    }
+
+    private static MapSqlParameterSource keyParams(String requestNumber, String loanNumber) {
+        return new MapSqlParameterSource()
+                .addValue("requestNumber", requestNumber)
+                .addValue("loanNumber", loanNumber);
+    }
+
+    private static WorkflowStateEntity mapState(ResultSet resultSet, int rowNum) throws SQLException {
+        WorkflowStateEntity entity = new WorkflowStateEntity();
+        entity.setId(resultSet.getLong("id"));
+        entity.setRequestNumber(resultSet.getString("request_number"));
+        entity.setLoanNumber(resultSet.getString("loan_number"));
+        entity.setReviewType(resultSet.getString("review_type"));
+        entity.setCurrentWorkflowStage(resultSet.getString("current_workflow_stage"));
+        entity.setExecutionStatus(resultSet.getString("execution_status"));
+        entity.setLoanDecision(resultSet.getString("loan_decision"));
+        entity.setLoanStatus(resultSet.getString("loan_status"));
+        entity.setCurrentAssignedUsername(resultSet.getString("current_assigned_username"));
+        entity.setTaskToken(resultSet.getString("task_token"));
+        entity.setRetryCount(resultSet.getObject("retry_count", Integer.class));
+        entity.setIsReclassConfirmation(resultSet.getObject("is_reclass_confirmation", Boolean.class));
+        String attributes = resultSet.getString("attributes");
+        if (attributes != null) {
+            try {
+                entity.setAttributes(objectMapper.readTree(attributes));
+            } catch (Exception e) {
+                throw new SQLException("Unreadable attributes for workflow_state id " + entity.getId(), e);
+            }
+        } else {
+            entity.setAttributes(null);
+        }
+        entity.setAttributeCount(resultSet.getObject("attribute_count", Integer.class));
+        entity.setPendingCount(resultSet.getObject("pending_count", Integer.class));
+        entity.setApprovedCount(resultSet.getObject("approved_count", Integer.class));
+        entity.setRejectedCount(resultSet.getObject("rejected_count", Integer.class));
+        entity.setReclassCount(resultSet.getObject("reclass_count", Integer.class));
+        entity.setRepurchaseCount(resultSet.getObject("repurchase_count", Integer.class));
+        entity.setCreatedAt(toInstant(resultSet.getTimestamp("created_at")));
+        entity.setUpdatedAt(toInstant(resultSet.getTimestamp("updated_at")));
+        return entity;
+    }
+
+    private static StateTransitionEntity mapTransition(ResultSet resultSet, int rowNum) throws SQLException {
+        StateTransitionEntity entity = new StateTransitionEntity();
+        entity.setId(resultSet.getLong("id"));
+        entity.setRequestNumber(resultSet.getString("request_number"));
+        entity.setLoanNumber(resultSet.getString("loan_number"));
+        entity.setWorkflowStateName(resultSet.getString("workflow_state_name"));
+        entity.setWorkflowStateUserId(resultSet.getString("workflow_state_user_id"));
+        entity.setStartDateTime(toInstant(resultSet.getTimestamp("start_date_time")));
+        entity.setEndDateTime(toInstant(resultSet.getTimestamp("end_date_time")));
+        entity.setCreatedAt(toInstant(resultSet.getTimestamp("created_at")));
+        return entity;
+    }
+
+    // Columns are TIMESTAMP without time zone, written and read in the JVM zone as Hibernate does
+    private static Timestamp toTimestamp(Instant instant) {
+        return instant != null ? Timestamp.from(instant) : null;
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+}
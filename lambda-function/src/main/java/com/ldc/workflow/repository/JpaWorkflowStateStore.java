@@ -0,0 +1,110 @@
+package com.ldc.workflow.repository;
+
+import com.ldc.workflow.entity.StateTransitionEntity;
+import com.ldc.workflow.entity.WorkflowStateEntity;
+import com.ldc.workflow.repositories.StateTransitionJpaRepository;
+import com.ldc.workflow.repositories.WorkflowStateJpaRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * WorkflowStateStore backed by the Spring Data JPA repositories (workflow.persistence.mode=jpa).
+ */
+@Repository
+@ConditionalOnProperty(name = "workflow.persistence.mode", havingValue = "jpa", matchIfMissing = true)
+public class JpaWorkflowStateStore implements WorkflowStateStore {
+
+    private final WorkflowStateJpaRepository jpaRepository;
+    private final StateTransitionJpaRepository stateTransitionJpaRepository;
+
+    public JpaWorkflowStateStore(WorkflowStateJpaRepository jpaRepository,
+            StateTransitionJpaRepository stateTransitionJpaRepository) {
+        this.jpaRepository = jpaRepository;
+        this.stateTransitionJpaRepository = stateTransitionJpaRepository;
+    }
+
+    @Override
+    public Optional<WorkflowStateEntity> findByRequestNumberAndLoanNumber(String requestNumber, String loanNumber) {
+        return jpaRepository.findByRequestNumberAndLoanNumber(requestNumber, loanNumber);
+    }
+
+    @Override
+    public List<WorkflowStateEntity> findAllByRequestNumberAndLoanNumberPairs(String[] requestNumbers,
+            String[] loanNumbers) {
+        return jpaRepository.findAllByRequestNumberAndLoanNumberPairs(requestNumbers, loanNumbers);
+    }
+
+    @Override
+    public Optional<WorkflowStateEntity> findMostRecentByLoanNumber(String loanNumber) {
+        return jpaRepository.findMostRecentByLoanNumber(loanNumber);
+    }
+
+    @Override
+    public List<WorkflowStateEntity> findByExecutionStatus(String executionStatus) {
+        return jpaRepository.findByExecutionStatus(executionStatus);
+    }
+
+    @Override
+    public Optional<DecisionCounts> findDecisionCounts(String requestNumber, String loanNumber) {
+        return jpaRepository.findDecisionCounts(requestNumber, loanNumber);
+    }
+
+    @Override
+    public boolean existsActiveExecution(String requestNumber, String loanNumber) {
+        return jpaRepository.existsActiveExecution(requestNumber, loanNumber);
+    }
+
+    @Override
+    public WorkflowStateEntity save(WorkflowStateEntity entity) {
+        return jpaRepository.save(entity);
+    }
+
+    @Override
+    public WorkflowStateEntity upsert(String requestNumber, String loanNumber, String reviewType,
+            String currentWorkflowStage, String executionStatus, String loanDecision, String loanStatus,
+            String currentAssignedUsername, String taskToken, String attributes, DecisionCounts decisionCounts,
+            Instant updatedAt) {
+        DecisionCounts counts = decisionCounts != null ? decisionCounts
+                : new DecisionCounts(loanDecision, null, null, null, null, null, null);
+        return jpaRepository.upsert(requestNumber, loanNumber, reviewType, currentWorkflowStage, executionStatus,
+                loanDecision, loanStatus, currentAssignedUsername, taskToken, attributes, counts.attributeCount(),
+                counts.pendingCount(), counts.approvedCount(), counts.rejectedCount(), counts.reclassCount(),
+                counts.repurchaseCount(), updatedAt);
+    }
+
+    @Override
+    public Optional<WorkflowStateEntity> patchAttributes(String requestNumber, String loanNumber, String reviewType,
+            String currentWorkflowStage, String executionStatus, String loanDecision, String loanStatus,
+            String currentAssignedUsername, String taskToken, AttributePatch patch, Instant loadedUpdatedAt,
+            Instant updatedAt) {
+        return jpaRepository.patchAttributes(requestNumber, loanNumber, reviewType, currentWorkflowStage,
+                executionStatus, loanDecision, loanStatus, currentAssignedUsername, taskToken, patch.indexes(),
+                patch.decisions(), patch.appended(), patch.attributeDelta(), patch.pendingDelta(),
+                patch.approvedDelta(), patch.rejectedDelta(), patch.reclassDelta(), patch.repurchaseDelta(),
+                loadedUpdatedAt, updatedAt);
+    }
+
+    @Override
+    public void saveStateTransitions(List<StateTransitionEntity> transitions) {
+        stateTransitionJpaRepository.saveAll(transitions);
+    }
+
+    @Override
+    public List<StateTransitionEntity> findStateTransitionsNewestFirst(String requestNumber, String loanNumber,
+            Pageable pageable) {
+        return stateTransitionJpaRepository.findByRequestNumberAndLoanNumberOrderByIdDesc(requestNumber,
+                loanNumber, pageable);
+    }
+
+    @Override
+    public List<StateTransitionEntity> findStateTransitionsOldestFirst(String requestNumber, String loanNumber,
+            Pageable pageable) {
+        return stateTransitionJpaRepository.findByRequestNumberAndLoanNumberOrderByIdAsc(requestNumber,
+                loanNumber, pageable);
+    }
+}
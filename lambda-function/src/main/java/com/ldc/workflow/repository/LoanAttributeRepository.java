@@ -0,0 +1,209 @@
+package com.ldc.workflow.repository;
+
+import com.ldc.workflow.constants.WorkflowConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * JDBC access to loan_attribute, the normalized copy of workflow_state.attributes:
+ * one row per attribute (workflow_state_id, position, name, decision), indexed by
+ * decision and by name and decision so decision-filtered searches need no scan of the
+ * JSON. A null decision is stored as Pending, as AttributeDecision reads it. Rows are
+ * read from the attributes in either storage format (see {@link AttributeEncoding}).
+ *
+ * The JSON stays the source of truth. With {@code workflow.attributes.normalized.enabled}
+ * the writers of workflow_state call {@link #sync} after each attributes write; rows
+ * are rebuilt from the stored JSON, and only rows whose name or decision changed are
+ * written. Inside the writer's transaction the sync runs under a savepoint, so a failed
+ * sync is rolled back on its own and the workflow_state write still commits.
+ * {@link #backfill} does the same over id ranges, for rows written before the
+ * table existed or while dual-write was off.
+ */
+@Repository
+public class LoanAttributeRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoanAttributeRepository.class);
+
+    private static final String BY_PAIRS = "(w.request_number, w.loan_number) IN "
+            + "(SELECT k.request_number, k.loan_number FROM unnest(?, ?) AS k(request_number, loan_number))";
+
+    private static final String BY_IDS = "w.id = ANY(?)";
+
+    private static final String UPSERT_SQL = "INSERT INTO loan_attribute (workflow_state_id, position, name, "
+            + "decision) SELECT w.id, e.ord - 1, e.name, "
+            + "COALESCE(e.decision, '" + WorkflowConstants.STATUS_PENDING + "') "
+            + "FROM workflow_state w CROSS JOIN LATERAL " + AttributeEncoding.ELEMENTS_SQL + " AS e WHERE %s "
+            + "ON CONFLICT (workflow_state_id, position) DO UPDATE SET name = EXCLUDED.name, "
+            + "decision = EXCLUDED.decision "
+            + "WHERE (loan_attribute.name, loan_attribute.decision) "
+            + "IS DISTINCT FROM (EXCLUDED.name, EXCLUDED.decision)";
+
+    private static final String TRIM_SQL = "DELETE FROM loan_attribute a USING workflow_state w "
+            + "WHERE a.workflow_state_id = w.id AND %s "
+            + "AND a.position >= " + AttributeEncoding.LENGTH_SQL;
+
+    private static final String NEXT_IDS_SQL = "SELECT id FROM workflow_state WHERE id > ? ORDER BY id LIMIT ?";
+
+    // DISTINCT over the index order streams, so a page stops reading at the limit
+    private static final String FIND_BY_DECISION_SQL = "SELECT w.id, w.request_number, w.loan_number "
+            + "FROM (SELECT DISTINCT a.workflow_state_id FROM loan_attribute a "
+            + "WHERE a.decision = ? AND a.workflow_state_id > ? ORDER BY a.workflow_state_id LIMIT ?) m "
+            + "JOIN workflow_state w ON w.id = m.workflow_state_id ORDER BY w.id";
+
+    private static final String FIND_BY_NAME_AND_DECISION_SQL = "SELECT w.id, w.request_number, w.loan_number "
+            + "FROM (SELECT DISTINCT a.workflow_state_id FROM loan_attribute a "
+            + "WHERE a.name = ? AND a.decision = ? AND a.workflow_state_id > ? "
+            + "ORDER BY a.workflow_state_id LIMIT ?) m "
+            + "JOIN workflow_state w ON w.id = m.workflow_state_id ORDER BY w.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    public LoanAttributeRepository(DataSource dataSource,
+            @Value("${workflow.attributes.normalized.enabled:false}") boolean enabled) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.enabled = enabled;
+    }
+
+    /**
+     * Whether writers keep loan_attribute in step with the attributes JSON.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Rebuild the loan_attribute rows of the given request/loan pairs from their stored
+     * attributes. Does nothing unless dual-write is enabled. Inside a transaction the
+     * statements run under a savepoint taken on the transaction's JDBC connection (JPA
+     * and JDBC transaction managers alike): on failure it rolls back to the savepoint
+     * and rethrows, leaving the caller's transaction usable.
+     *
+     * @return rows inserted, updated or deleted
+     */
+    public int sync(List<String> requestNumbers, List<String> loanNumbers) {
+        if (!enabled || requestNumbers.isEmpty()) {
+            return 0;
+        }
+        Object[] requests = requestNumbers.toArray();
+        Object[] loans = loanNumbers.toArray();
+        Supplier<Integer> rebuild = () -> update(String.format(UPSERT_SQL, BY_PAIRS), requests, loans)
+                + update(String.format(TRIM_SQL, BY_PAIRS), requests, loans);
+        int written = TransactionSynchronizationManager.isActualTransactionActive()
+                ? underSavepoint(rebuild)
+                : rebuild.get();
+        logger.debug("Synced {} loan_attribute rows for {} workflow states", written, requestNumbers.size());
+        return written;
+    }
+
+    /**
+     * Rebuild the loan_attribute rows of up to limit workflow states with id greater
+     * than afterId, in id order. Runs whether or not dual-write is enabled, so the table
+     * can be filled before switching it on.
+     */
+    public BackfillBatch backfill(long afterId, int limit) {
+        try {
+            List<Long> ids = jdbcTemplate.queryForList(NEXT_IDS_SQL, Long.class, afterId, limit);
+            if (ids.isEmpty()) {
+                return new BackfillBatch(afterId, 0, 0);
+            }
+            Object[] idArray = ids.toArray();
+            int written = jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(String.format(UPSERT_SQL, BY_IDS));
+                statement.setArray(1, connection.createArrayOf("bigint", idArray));
+                return statement;
+            }) + jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(String.format(TRIM_SQL, BY_IDS));
+                statement.setArray(1, connection.createArrayOf("bigint", idArray));
+                return statement;
+            });
+            return new BackfillBatch(ids.get(ids.size() - 1), ids.size(), written);
+        } catch (Exception e) {
+            logger.error("Error backfilling loan_attribute after id {}", afterId, e);
+            throw new RuntimeException("Failed to backfill loan attributes", e);
+        }
+    }
+
+    /**
+     * Find workflow states with at least one attribute carrying the decision, in id
+     * order after afterId. With attributeName, only that attribute is considered.
+     */
+    public List<LoanAttributeMatch> findByDecision(String attributeName, String decision, long afterId,
+            int limit) {
+        try {
+            List<LoanAttributeMatch> matches = new ArrayList<>();
+            if (attributeName != null) {
+                jdbcTemplate.query(FIND_BY_NAME_AND_DECISION_SQL, resultSet -> {
+                    matches.add(new LoanAttributeMatch(resultSet.getLong(1), resultSet.getString(2),
+                            resultSet.getString(3)));
+                }, attributeName, decision, afterId, limit);
+            } else {
+                jdbcTemplate.query(FIND_BY_DECISION_SQL, resultSet -> {
+                    matches.add(new LoanAttributeMatch(resultSet.getLong(1), resultSet.getString(2),
+                            resultSet.getString(3)));
+                }, decision, afterId, limit);
+            }
+            return matches;
+        } catch (Exception e) {
+            logger.error("Error finding loans with attribute {} decision {}", attributeName, decision, e);
+            throw new RuntimeException("Failed to find loans by attribute decision", e);
+        }
+    }
+
+    /**
+     * Run the statements under a savepoint on the connection bound to the current
+     * transaction. JpaTransactionManager with Hibernate does not support nested
+     * transactions, so the savepoint is taken on the JDBC connection directly.
+     */
+    private int underSavepoint(Supplier<Integer> statements) {
+        Integer written = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try {
+                int count = statements.get();
+                connection.releaseSavepoint(savepoint);
+                return count;
+            } catch (RuntimeException e) {
+                connection.rollback(savepoint);
+                throw e;
+            }
+        });
+        return written != null ? written : 0;
+    }
+
+    private int update(String sql, Object[] requestNumbers, Object[] loanNumbers) {
+        return jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            Array requests = connection.createArrayOf("text", requestNumbers);
+            Array loans = connection.createArrayOf("text", loanNumbers);
+            statement.setArray(1, requests);
+            statement.setArray(2, loans);
+            return statement;
+        });
+    }
+
+    /**
+     * Progress of one backfill batch: the last id covered, how many workflow states it
+     * covered and how many loan_attribute rows were written.
+     */
+    public record BackfillBatch(long lastId, int states, int written) {
+    }
+
+    /**
+     * A workflow state found by a decision-filtered search.
+     */
+    public record LoanAttributeMatch(long workflowStateId, String requestNumber, String loanNumber) {
+    }
+}
@@ -0,0 +1,176 @@
+package com.ldc.workflow.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ldc.workflow.util.WorkflowJson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC access to vend_ppa_delivery, the outbox of decisions to deliver to Vend PPA.
+ *
+ * A row is written in the same transaction that marks the workflow complete, so a
+ * decision cannot be recorded without its delivery. Rows stay PENDING until Vend PPA
+ * accepts them (DELIVERED) or they run out of attempts (FAILED). Drain workers claim
+ * due rows with FOR UPDATE SKIP LOCKED and push next_attempt_at out by a lease, so
+ * concurrent drains never send the same row at once and a crashed drain's rows come
+ * back when the lease ends.
+ */
+@Repository
+public class VendPpaDeliveryRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(VendPpaDeliveryRepository.class);
+    private static final ObjectMapper objectMapper = WorkflowJson.mapper();
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_DELIVERED = "DELIVERED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private static final String ENQUEUE_SQL = "INSERT INTO vend_ppa_delivery (request_number, loan_number, "
+            + "execution_id, idempotency_key, payload, status, attempts, next_attempt_at, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, CAST(? AS jsonb), ?, 0, ?, ?, ?) "
+            + "ON CONFLICT (request_number, loan_number) DO UPDATE SET "
+            + "execution_id = EXCLUDED.execution_id, "
+            + "idempotency_key = EXCLUDED.idempotency_key, "
+            + "payload = EXCLUDED.payload, "
+            + "status = EXCLUDED.status, "
+            + "attempts = 0, "
+            + "last_error = NULL, "
+            + "next_attempt_at = EXCLUDED.next_attempt_at, "
+            + "delivered_at = NULL, "
+            + "updated_at = EXCLUDED.updated_at "
+            + "RETURNING id, request_number, loan_number, idempotency_key, payload, attempts";
+
+    private static final String CLAIM_SQL = "UPDATE vend_ppa_delivery SET next_attempt_at = ?, updated_at = ? "
+            + "WHERE id IN (SELECT id FROM vend_ppa_delivery WHERE status = ? AND next_attempt_at <= ? "
+            + "ORDER BY next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED) "
+            + "RETURNING id, request_number, loan_number, idempotency_key, payload, attempts";
+
+    private static final String DELIVERED_SQL = "UPDATE vend_ppa_delivery SET status = ?, delivered_at = ?, "
+            + "last_error = NULL, updated_at = ? WHERE id = ? AND status = ?";
+
+    private static final String FAILED_ATTEMPT_SQL = "UPDATE vend_ppa_delivery SET attempts = attempts + 1, "
+            + "status = CASE WHEN attempts + 1 >= ? THEN ? ELSE status END, "
+            + "last_error = ?, next_attempt_at = ?, updated_at = ? WHERE id = ? AND status = ? "
+            + "RETURNING status";
+
+    private static final RowMapper<Delivery> DELIVERY_ROW_MAPPER = (rs, rowNum) -> new Delivery(
+            rs.getLong("id"),
+            rs.getString("request_number"),
+            rs.getString("loan_number"),
+            rs.getString("idempotency_key"),
+            readPayload(rs.getString("payload")),
+            rs.getInt("attempts"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public VendPpaDeliveryRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * A decision waiting to be delivered, as claimed from the outbox.
+     */
+    public record Delivery(long id, String requestNumber, String loanNumber, String idempotencyKey,
+            JsonNode payload, int attempts) {
+    }
+
+    /**
+     * Add the delivery for this loan to the outbox, due now. A loan has one row; a later
+     * decision replaces the payload and starts its attempts again. Runs in the caller's
+     * transaction when there is one.
+     */
+    public Delivery enqueue(String requestNumber, String loanNumber, String executionId, String idempotencyKey,
+            JsonNode payload) {
+        Timestamp now = Timestamp.from(Instant.now());
+        try {
+            return jdbcTemplate.queryForObject(ENQUEUE_SQL, DELIVERY_ROW_MAPPER,
+                    requestNumber, loanNumber, executionId, idempotencyKey,
+                    objectMapper.writeValueAsString(payload), STATUS_PENDING, now, now, now);
+        } catch (Exception e) {
+            logger.error("Error enqueuing Vend PPA delivery for RequestNumber: {}", requestNumber, e);
+            throw new RuntimeException("Failed to enqueue Vend PPA delivery", e);
+        }
+    }
+
+    /**
+     * Claim up to limit due deliveries, oldest first. Claimed rows are not due again
+     * until the lease has passed, so they must be marked delivered or failed before then.
+     */
+    public List<Delivery> claimDue(int limit, Duration lease) {
+        Instant now = Instant.now();
+        try {
+            return jdbcTemplate.query(CLAIM_SQL, DELIVERY_ROW_MAPPER,
+                    Timestamp.from(now.plus(lease)), Timestamp.from(now), STATUS_PENDING,
+                    Timestamp.from(now), limit);
+        } catch (Exception e) {
+            logger.error("Error claiming Vend PPA deliveries", e);
+            throw new RuntimeException("Failed to claim Vend PPA deliveries", e);
+        }
+    }
+
+    public void markDelivered(long id) {
+        markDelivered(List.of(id));
+    }
+
+    /**
+     * Mark deliveries accepted by Vend PPA, in one JDBC batch.
+     */
+    public void markDelivered(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> batch = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            batch.add(new Object[] { STATUS_DELIVERED, now, now, id, STATUS_PENDING });
+        }
+        try {
+            jdbcTemplate.batchUpdate(DELIVERED_SQL, batch);
+        } catch (Exception e) {
+            logger.error("Error marking {} Vend PPA deliveries as delivered", ids.size(), e);
+            throw new RuntimeException("Failed to mark Vend PPA deliveries", e);
+        }
+    }
+
+    /**
+     * Count a failed attempt and schedule the next one. The row becomes FAILED once it
+     * has used maxAttempts attempts.
+     *
+     * @return true if the delivery is still pending
+     */
+    public boolean recordFailedAttempt(long id, String error, Instant nextAttemptAt, int maxAttempts) {
+        Timestamp now = Timestamp.from(Instant.now());
+        try {
+            List<String> status = jdbcTemplate.queryForList(FAILED_ATTEMPT_SQL, String.class,
+                    maxAttempts, STATUS_FAILED, error, Timestamp.from(nextAttemptAt), now, id, STATUS_PENDING);
+            if (!status.isEmpty() && STATUS_FAILED.equals(status.get(0))) {
+                logger.error("Vend PPA delivery {} failed after {} attempts: {}", id, maxAttempts, error);
+                return false;
+            }
+            return !status.isEmpty();
+        } catch (Exception e) {
+            logger.error("Error recording failed Vend PPA delivery attempt for id: {}", id, e);
+            throw new RuntimeException("Failed to record Vend PPA delivery attempt", e);
+        }
+    }
+
+    private static JsonNode readPayload(String payload) {
+        try {
+            return objectMapper.readTree(payload);
+        } catch (IOException e) {
+            throw new IllegalStateException("Invalid vend_ppa_delivery payload", e);
+        }
+    }
+}
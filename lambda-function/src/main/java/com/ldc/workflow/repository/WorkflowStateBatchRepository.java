@@ -0,0 +1,542 @@
+package com.ldc.workflow.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ldc.workflow.business.DecisionSummary;
+import com.ldc.workflow.constants.WorkflowConstants;
+import com.ldc.workflow.types.LoanAttribute;
+import com.ldc.workflow.types.StateTransition;
+import com.ldc.workflow.types.WorkflowState;
+import com.ldc.workflow.util.EmbeddedMetrics;
+import com.ldc.workflow.util.WorkflowJson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Set-based JDBC operations on workflow_state for batch APIs and maintenance jobs.
+ * Complements WorkflowStateRepository, which works one request/loan at a time.
+ * Attributes are written in the format chosen by {@code workflow.attributes.compact.enabled}
+ * (see {@link AttributeEncoding}) and read in either.
+ */
+@Repository
+public class WorkflowStateBatchRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkflowStateBatchRepository.class);
+    private static final ObjectMapper objectMapper = WorkflowJson.mapper();
+
+    private static final String FIND_RUNNING_SQL = "SELECT w.request_number, w.loan_number FROM workflow_state w "
+            + "JOIN unnest(?, ?) AS k(request_number, loan_number) "
+            + "ON w.request_number = k.request_number AND w.loan_number = k.loan_number "
+            + "WHERE w.execution_status = ?";
+
+    private static final String UPSERT_SQL = "INSERT INTO workflow_state (request_number, loan_number, review_type, "
+            + "current_workflow_stage, execution_status, loan_decision, loan_status, current_assigned_username, "
+            + "task_token, attributes, attribute_count, pending_count, approved_count, rejected_count, "
+            + "reclass_count, repurchase_count, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, CAST(? AS jsonb), ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (request_number, loan_number) DO UPDATE SET "
+            + "review_type = EXCLUDED.review_type, "
+            + "current_workflow_stage = EXCLUDED.current_workflow_stage, "
+            + "execution_status = EXCLUDED.execution_status, "
+            + "loan_decision = EXCLUDED.loan_decision, "
+            + "loan_status = EXCLUDED.loan_status, "
+            + "current_assigned_username = EXCLUDED.current_assigned_username, "
+            + "task_token = EXCLUDED.task_token, "
+            + "attributes = COALESCE(EXCLUDED.attributes, workflow_state.attributes), "
+            + "attribute_count = COALESCE(EXCLUDED.attribute_count, workflow_state.attribute_count), "
+            + "pending_count = COALESCE(EXCLUDED.pending_count, workflow_state.pending_count), "
+            + "approved_count = COALESCE(EXCLUDED.approved_count, workflow_state.approved_count), "
+            + "rejected_count = COALESCE(EXCLUDED.rejected_count, workflow_state.rejected_count), "
+            + "reclass_count = COALESCE(EXCLUDED.reclass_count, workflow_state.reclass_count), "
+            + "repurchase_count = COALESCE(EXCLUDED.repurchase_count, workflow_state.repurchase_count), "
+            + "updated_at = EXCLUDED.updated_at";
+
+    // Only a row still at the updated_at it was loaded with is written; execution columns are left alone
+    private static final String PATCH_DECISIONS_SQL = "UPDATE workflow_state SET current_workflow_stage = ?, "
+            + "loan_decision = ?, "
+            + "attributes = COALESCE(CAST(? AS jsonb), attributes), "
+            + "attribute_count = COALESCE(?, attribute_count), "
+            + "pending_count = COALESCE(?, pending_count), "
+            + "approved_count = COALESCE(?, approved_count), "
+            + "rejected_count = COALESCE(?, rejected_count), "
+            + "reclass_count = COALESCE(?, reclass_count), "
+            + "repurchase_count = COALESCE(?, repurchase_count), "
+            + "updated_at = ? "
+            + "WHERE request_number = ? AND loan_number = ? AND updated_at = ?";
+
+    private static final String INSERT_TRANSITION_SQL = "INSERT INTO state_transition (request_number, "
+            + "loan_number, workflow_state_name, workflow_state_user_id, start_date_time, end_date_time, "
+            + "created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    // Resets a finished execution's row to the initial state; a RUNNING row belongs to its execution
+    private static final String INSERT_OR_RESET_SQL = "INSERT INTO workflow_state (request_number, loan_number, "
+            + "review_type, current_workflow_stage, execution_status, loan_decision, loan_status, "
+            + "current_assigned_username, task_token, attributes, attribute_count, pending_count, approved_count, "
+            + "rejected_count, reclass_count, repurchase_count, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, CAST(? AS jsonb), ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (request_number, loan_number) DO UPDATE SET "
+            + "review_type = EXCLUDED.review_type, "
+            + "current_workflow_stage = EXCLUDED.current_workflow_stage, "
+            + "execution_status = EXCLUDED.execution_status, "
+            + "loan_decision = EXCLUDED.loan_decision, "
+            + "loan_status = EXCLUDED.loan_status, "
+            + "current_assigned_username = EXCLUDED.current_assigned_username, "
+            + "task_token = EXCLUDED.task_token, "
+            + "attributes = EXCLUDED.attributes, "
+            + "attribute_count = EXCLUDED.attribute_count, "
+            + "pending_count = EXCLUDED.pending_count, "
+            + "approved_count = EXCLUDED.approved_count, "
+            + "rejected_count = EXCLUDED.rejected_count, "
+            + "reclass_count = EXCLUDED.reclass_count, "
+            + "repurchase_count = EXCLUDED.repurchase_count, "
+            + "updated_at = EXCLUDED.updated_at "
+            + "WHERE workflow_state.execution_status IS DISTINCT FROM '" + WorkflowConstants.STATUS_RUNNING + "'";
+
+    private static final String DELETE_NOT_STARTED_SQL = "DELETE FROM workflow_state w "
+            + "USING unnest(?, ?) AS k(request_number, loan_number) "
+            + "WHERE w.request_number = k.request_number AND w.loan_number = k.loan_number "
+            + "AND w.updated_at = ? AND w.task_token IS NULL";
+
+    // Decision counts of one row's attributes JSON, in counter column order
+    private static final String COUNT_ATTRIBUTES = "SELECT count(*)::int, "
+            + "count(*) FILTER (WHERE e.decision IS NULL OR e.decision = '"
+            + WorkflowConstants.STATUS_PENDING + "')::int, "
+            + "count(*) FILTER (WHERE e.decision = '" + WorkflowConstants.DECISION_APPROVED + "')::int, "
+            + "count(*) FILTER (WHERE e.decision = '" + WorkflowConstants.DECISION_REJECTED + "')::int, "
+            + "count(*) FILTER (WHERE e.decision = '" + WorkflowConstants.DECISION_RECLASS + "')::int, "
+            + "count(*) FILTER (WHERE e.decision = '" + WorkflowConstants.DECISION_REPURCHASE + "')::int "
+            + "FROM " + AttributeEncoding.ELEMENTS_SQL + " AS e";
+
+    private static final String CHECK_COUNTS_SQL = "SELECT w.id, w.request_number, w.loan_number, "
+            + "w.loan_decision, w.attribute_count, w.pending_count, w.approved_count, w.rejected_count, "
+            + "w.reclass_count, w.repurchase_count, a.* FROM workflow_state w "
+            + "CROSS JOIN LATERAL (" + COUNT_ATTRIBUTES + ") AS a(actual_attribute, actual_pending, "
+            + "actual_approved, actual_rejected, actual_reclass, actual_repurchase) "
+            + "WHERE w.id > ? AND w.attributes IS NOT NULL ORDER BY w.id LIMIT ?";
+
+    // Recounts from the row version being updated, so a concurrent decision update is never overwritten
+    private static final String REPAIR_COUNTS_SQL = "UPDATE workflow_state w SET (attribute_count, pending_count, "
+            + "approved_count, rejected_count, reclass_count, repurchase_count) = (" + COUNT_ATTRIBUTES + ") "
+            + "WHERE w.id = ANY(?) AND w.attributes IS NOT NULL";
+
+    // Rows whose attributes are stored in the other format; jsonb_typeof is 'array' or 'object'
+    private static final String FIND_TO_REENCODE_SQL = "SELECT w.id, w.updated_at, w.attributes::text "
+            + "FROM workflow_state w WHERE w.id > ? AND jsonb_typeof(w.attributes) = ? ORDER BY w.id LIMIT ?";
+
+    // Leaves updated_at alone: the content is unchanged, and a row written since it was read is skipped
+    private static final String REENCODE_SQL = "UPDATE workflow_state SET attributes = CAST(? AS jsonb) "
+            + "WHERE id = ? AND updated_at = ?";
+
+    private static final int WRITE_BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LoanAttributeRepository loanAttributes;
+    private final boolean compactAttributes;
+
+    public WorkflowStateBatchRepository(DataSource dataSource, LoanAttributeRepository loanAttributes,
+            @Value("${workflow.attributes.compact.enabled:false}") boolean compactAttributes) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.loanAttributes = loanAttributes;
+        this.compactAttributes = compactAttributes;
+    }
+
+    /**
+     * Find which of the given request/loan pairs already have a RUNNING execution,
+     * in a single query.
+     *
+     * @return keys in the form produced by {@link #key(String, String)}
+     */
+    public Set<String> findRunningKeys(List<String> requestNumbers, List<String> loanNumbers) {
+        Set<String> running = new HashSet<>();
+        if (requestNumbers.isEmpty()) {
+            return running;
+        }
+
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(FIND_RUNNING_SQL);
+                statement.setArray(1, connection.createArrayOf("text", requestNumbers.toArray()));
+                statement.setArray(2, connection.createArrayOf("text", loanNumbers.toArray()));
+                statement.setString(3, WorkflowConstants.STATUS_RUNNING);
+                return statement;
+            }, resultSet -> {
+                running.add(key(resultSet.getString(1), resultSet.getString(2)));
+            });
+            logger.debug("Found {} running executions among {} requested loans", running.size(),
+                    requestNumbers.size());
+            return running;
+        } catch (Exception e) {
+            logger.error("Error checking running executions for {} loans", requestNumbers.size(), e);
+            throw new RuntimeException("Failed to check active executions", e);
+        }
+    }
+
+    /**
+     * Insert or update workflow states with JDBC batches of up to 1000 rows, in a
+     * single transaction. Columns match WorkflowStateRepository.save(). When dual-write
+     * is enabled, loan_attribute is synced for the states with attributes under a
+     * savepoint in the same transaction; a failed sync does not fail the write.
+     */
+    @Transactional
+    public void upsertAll(List<WorkflowState> states) {
+        if (states.isEmpty()) {
+            return;
+        }
+
+        try {
+            write(UPSERT_SQL, states, Timestamp.from(Instant.now()));
+            logger.info("Batch saved {} workflow states", states.size());
+        } catch (Exception e) {
+            logger.error("Error batch saving {} workflow states", states.size(), e);
+            throw new RuntimeException("Failed to save workflow states", e);
+        }
+    }
+
+    /**
+     * Write the loan decision, attributes and workflow stage of states loaded with
+     * WorkflowStateRepository, in JDBC batches of up to 1000 rows in a single transaction.
+     * Each row is only written while its updated_at is still the one its state was loaded
+     * with, and its task token, execution status and assignee are left as stored. The
+     * pending state transitions of the written states are appended, and loan_attribute is
+     * synced as in {@link #upsertAll}.
+     *
+     * @return keys, in the form produced by {@link #key(String, String)}, of the states
+     *         whose row changed since they were loaded and was left as it is
+     */
+    @Transactional
+    public Set<String> patchDecisions(List<WorkflowState> states) {
+        Set<String> conflicts = new HashSet<>();
+        if (states.isEmpty()) {
+            return conflicts;
+        }
+
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        try {
+            int[][] counts = jdbcTemplate.batchUpdate(PATCH_DECISIONS_SQL, states, WRITE_BATCH_SIZE,
+                    (statement, state) -> {
+                        statement.setString(1, state.getWorkflowStateName());
+                        statement.setString(2, state.getLoanDecision());
+                        statement.setString(3, toJson(state));
+                        DecisionCounts decisionCounts = state.getAttributes() != null
+                                ? DecisionCounts.of(state.getLoanDecision(),
+                                        DecisionSummary.of(state.getAttributes()))
+                                : new DecisionCounts(state.getLoanDecision(), null, null, null, null, null, null);
+                        statement.setObject(4, decisionCounts.attributeCount(), Types.INTEGER);
+                        statement.setObject(5, decisionCounts.pendingCount(), Types.INTEGER);
+                        statement.setObject(6, decisionCounts.approvedCount(), Types.INTEGER);
+                        statement.setObject(7, decisionCounts.rejectedCount(), Types.INTEGER);
+                        statement.setObject(8, decisionCounts.reclassCount(), Types.INTEGER);
+                        statement.setObject(9, decisionCounts.repurchaseCount(), Types.INTEGER);
+                        statement.setTimestamp(10, Timestamp.from(now));
+                        statement.setString(11, state.getRequestNumber());
+                        statement.setString(12, state.getLoanNumber());
+                        Instant loadedAt = parseInstant(state.getUpdatedAt());
+                        statement.setTimestamp(13, loadedAt != null ? Timestamp.from(loadedAt) : null);
+                    });
+
+            List<WorkflowState> written = new ArrayList<>(states.size());
+            int index = 0;
+            for (int[] batch : counts) {
+                for (int count : batch) {
+                    WorkflowState state = states.get(index++);
+                    if (count > 0) {
+                        state.setUpdatedAt(now.toString());
+                        written.add(state);
+                    } else {
+                        conflicts.add(key(state.getRequestNumber(), state.getLoanNumber()));
+                    }
+                }
+            }
+            appendStateTransitions(written, now);
+            syncLoanAttributes(written);
+            logger.info("Batch patched decisions for {} workflow states, {} changed since loaded", written.size(),
+                    conflicts.size());
+            return conflicts;
+        } catch (Exception e) {
+            logger.error("Error batch patching decisions for {} workflow states", states.size(), e);
+            throw new RuntimeException("Failed to save workflow states", e);
+        }
+    }
+
+    /**
+     * Write the initial state of new executions, in JDBC batches of up to 1000 rows in a
+     * single transaction. A request/loan without a row gets one; a row left by a finished
+     * execution is reset to the initial state, dropping its decision, task token and
+     * assignee. A RUNNING row is left as it is.
+     *
+     * @return the updated_at of the written rows, to pass to {@link #deleteNotStarted}
+     */
+    @Transactional
+    public Instant insertOrReset(List<WorkflowState> states) {
+        Instant writtenAt = Instant.now();
+        if (states.isEmpty()) {
+            return writtenAt;
+        }
+
+        try {
+            write(INSERT_OR_RESET_SQL, states, Timestamp.from(writtenAt));
+            logger.info("Batch wrote up to {} initial workflow states", states.size());
+            return writtenAt;
+        } catch (Exception e) {
+            logger.error("Error batch writing {} initial workflow states", states.size(), e);
+            throw new RuntimeException("Failed to write initial workflow states", e);
+        }
+    }
+
+    /**
+     * Delete rows written by {@link #insertOrReset} at writtenAt for executions that never
+     * started, so a later start for the same loan is not taken for a running one. A row
+     * that already holds a task token, or was written again since, is kept.
+     *
+     * @return the number of rows deleted
+     */
+    public int deleteNotStarted(List<String> requestNumbers, List<String> loanNumbers, Instant writtenAt) {
+        if (requestNumbers.isEmpty()) {
+            return 0;
+        }
+        try {
+            return jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(DELETE_NOT_STARTED_SQL);
+                statement.setArray(1, connection.createArrayOf("text", requestNumbers.toArray()));
+                statement.setArray(2, connection.createArrayOf("text", loanNumbers.toArray()));
+                statement.setTimestamp(3, Timestamp.from(writtenAt));
+                return statement;
+            });
+        } catch (Exception e) {
+            logger.error("Error deleting {} workflow states that never started", requestNumbers.size(), e);
+            throw new RuntimeException("Failed to delete workflow states", e);
+        }
+    }
+
+    private void write(String sql, List<WorkflowState> states, Timestamp now) {
+        jdbcTemplate.batchUpdate(sql, states, WRITE_BATCH_SIZE, (statement, state) -> {
+            statement.setString(1, state.getRequestNumber());
+            statement.setString(2, state.getLoanNumber());
+            statement.setString(3, state.getReviewType());
+            statement.setString(4, state.getWorkflowStateName());
+            statement.setString(5, state.getStatus());
+            statement.setString(6, state.getLoanDecision());
+            statement.setString(7, state.getLoanStatus());
+            statement.setString(8, state.getCurrentAssignedUsername());
+            statement.setString(9, state.getTaskToken());
+            statement.setString(10, toJson(state));
+            DecisionCounts counts = state.getAttributes() != null
+                    ? DecisionCounts.of(state.getLoanDecision(), DecisionSummary.of(state.getAttributes()))
+                    : new DecisionCounts(state.getLoanDecision(), null, null, null, null, null, null);
+            statement.setObject(11, counts.attributeCount(), Types.INTEGER);
+            statement.setObject(12, counts.pendingCount(), Types.INTEGER);
+            statement.setObject(13, counts.approvedCount(), Types.INTEGER);
+            statement.setObject(14, counts.rejectedCount(), Types.INTEGER);
+            statement.setObject(15, counts.reclassCount(), Types.INTEGER);
+            statement.setObject(16, counts.repurchaseCount(), Types.INTEGER);
+            statement.setTimestamp(17, now);
+            statement.setTimestamp(18, now);
+        });
+        syncLoanAttributes(states);
+    }
+
+    private void appendStateTransitions(List<WorkflowState> states, Instant now) {
+        List<Object[]> rows = new ArrayList<>();
+        for (WorkflowState state : states) {
+            for (StateTransition transition : state.getPendingStateTransitions()) {
+                rows.add(new Object[] { state.getRequestNumber(), state.getLoanNumber(),
+                        transition.getWorkflowStateName(), transition.getWorkflowStateUserId(),
+                        toTimestamp(transition.getWorkflowStateStartDateTime()),
+                        toTimestamp(transition.getWorkflowStateEndDateTime()), Timestamp.from(now) });
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_TRANSITION_SQL, rows);
+        for (WorkflowState state : states) {
+            state.clearPendingStateTransitions();
+        }
+    }
+
+    private void syncLoanAttributes(List<WorkflowState> states) {
+        List<String> requestNumbers = new ArrayList<>(states.size());
+        List<String> loanNumbers = new ArrayList<>(states.size());
+        for (WorkflowState state : states) {
+            if (state.getAttributes() != null) {
+                requestNumbers.add(state.getRequestNumber());
+                loanNumbers.add(state.getLoanNumber());
+            }
+        }
+        try {
+            loanAttributes.sync(requestNumbers, loanNumbers);
+        } catch (Exception e) {
+            // The JSON is the source of truth; the loanAttributeBackfill handler repairs the rows
+            logger.warn("Could not sync loan_attribute for {} workflow states", requestNumbers.size(), e);
+            EmbeddedMetrics.emit(Map.of("Table", "loan_attribute"),
+                    Map.of("LoanAttributeSyncFailures", requestNumbers.size()), "Count");
+        }
+    }
+
+    /**
+     * Compare the stored decision counters of up to limit rows with id greater than
+     * afterId against counts taken from their attributes JSON, in id order. Rows without
+     * attributes are skipped; rows without counters are reported as mismatches.
+     */
+    public DecisionCountsCheck checkDecisionCounts(long afterId, int limit) {
+        List<DecisionCountsMismatch> mismatches = new ArrayList<>();
+        long[] lastId = { afterId };
+        int[] checked = { 0 };
+        try {
+            jdbcTemplate.query(CHECK_COUNTS_SQL, resultSet -> {
+                lastId[0] = resultSet.getLong("id");
+                checked[0]++;
+                String loanDecision = resultSet.getString("loan_decision");
+                DecisionCounts stored = new DecisionCounts(loanDecision,
+                        resultSet.getObject("attribute_count", Integer.class),
+                        resultSet.getObject("pending_count", Integer.class),
+                        resultSet.getObject("approved_count", Integer.class),
+                        resultSet.getObject("rejected_count", Integer.class),
+                        resultSet.getObject("reclass_count", Integer.class),
+                        resultSet.getObject("repurchase_count", Integer.class));
+                DecisionCounts actual = new DecisionCounts(loanDecision,
+                        resultSet.getInt("actual_attribute"),
+                        resultSet.getInt("actual_pending"),
+                        resultSet.getInt("actual_approved"),
+                        resultSet.getInt("actual_rejected"),
+                        resultSet.getInt("actual_reclass"),
+                        resultSet.getInt("actual_repurchase"));
+                if (!stored.equals(actual)) {
+                    mismatches.add(new DecisionCountsMismatch(lastId[0], resultSet.getString("request_number"),
+                            resultSet.getString("loan_number"), stored, actual));
+                }
+            }, afterId, limit);
+            return new DecisionCountsCheck(lastId[0], checked[0], mismatches);
+        } catch (Exception e) {
+            logger.error("Error checking decision counts after id {}", afterId, e);
+            throw new RuntimeException("Failed to check decision counts", e);
+        }
+    }
+
+    /**
+     * Recount the decision counters of the given rows from their attributes JSON.
+     *
+     * @return the number of rows updated
+     */
+    public int repairDecisionCounts(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        try {
+            return jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(REPAIR_COUNTS_SQL);
+                statement.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+                return statement;
+            });
+        } catch (Exception e) {
+            logger.error("Error repairing decision counts for {} rows", ids.size(), e);
+            throw new RuntimeException("Failed to repair decision counts", e);
+        }
+    }
+
+    /**
+     * Rewrite up to limit rows with id greater than afterId whose attributes are not in
+     * the configured format, in id order: compact when compact writes are on, the array
+     * format otherwise, so the same job also rolls a migration back. A row written
+     * between the read and the rewrite is skipped; the writer stored it in the configured
+     * format already.
+     */
+    public AttributeEncodingBatch reencodeAttributes(long afterId, int limit) {
+        List<Object[]> rewrites = new ArrayList<>();
+        long[] lastId = { afterId };
+        try {
+            jdbcTemplate.query(FIND_TO_REENCODE_SQL, resultSet -> {
+                lastId[0] = resultSet.getLong(1);
+                String attributes;
+                try {
+                    List<LoanAttribute> decoded = AttributeEncoding.read(objectMapper.readTree(resultSet.getString(3)));
+                    attributes = AttributeEncoding.write(decoded, compactAttributes);
+                } catch (IOException e) {
+                    throw new SQLException("Unreadable attributes for workflow_state id " + lastId[0], e);
+                }
+                rewrites.add(new Object[] { attributes, lastId[0], resultSet.getTimestamp(2) });
+            }, afterId, compactAttributes ? "array" : "object", limit);
+            int rewritten = 0;
+            for (int count : jdbcTemplate.batchUpdate(REENCODE_SQL, rewrites)) {
+                rewritten += count > 0 ? 1 : 0;
+            }
+            return new AttributeEncodingBatch(lastId[0], rewrites.size(), rewritten);
+        } catch (Exception e) {
+            logger.error("Error re-encoding attributes after id {}", afterId, e);
+            throw new RuntimeException("Failed to re-encode attributes", e);
+        }
+    }
+
+    /**
+     * One batch of {@link #checkDecisionCounts}. lastId is the cursor for the next batch;
+     * fewer than limit rows checked means the end of the table was reached.
+     */
+    public record DecisionCountsCheck(long lastId, int checked, List<DecisionCountsMismatch> mismatches) {
+    }
+
+    /**
+     * A row whose stored counters differ from its attributes JSON.
+     */
+    public record DecisionCountsMismatch(long id, String requestNumber, String loanNumber, DecisionCounts stored,
+            DecisionCounts actual) {
+    }
+
+    /**
+     * One batch of {@link #reencodeAttributes}: the cursor for the next batch, rows found
+     * in the other format and rows rewritten. Fewer than limit found means the end of
+     * the table was reached.
+     */
+    public record AttributeEncodingBatch(long lastId, int found, int rewritten) {
+    }
+
+    private String toJson(WorkflowState state) {
+        if (state.getAttributes() == null) {
+            return null;
+        }
+        try {
+            return AttributeEncoding.write(state.getAttributes(), compactAttributes);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to serialize attributes for RequestNumber: "
+                    + state.getRequestNumber(), e);
+        }
+    }
+
+    private static Timestamp toTimestamp(String value) {
+        Instant instant = parseInstant(value);
+        return instant != null ? Timestamp.from(instant) : null;
+    }
+
+    private static Instant parseInstant(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            logger.warn("Ignoring unparseable timestamp: {}", value);
+            return null;
+        }
+    }
+
+    public static String key(String requestNumber, String loanNumber) {
+        return requestNumber + ":" + loanNumber;
+    }
+}
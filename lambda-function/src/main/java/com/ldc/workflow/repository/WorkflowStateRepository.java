@@ -1,41 +1,152 @@
 package com.ldc.workflow.repository;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ldc.workflow.business.AttributeChanges;
+import com.ldc.workflow.business.DecisionSummary;
+import com.ldc.workflow.config.ReadReplicaRoutingDataSource;
+import com.ldc.workflow.entity.StateTransitionEntity;
 import com.ldc.workflow.entity.WorkflowStateEntity;
+import com.ldc.workflow.repositories.StateTransitionJpaRepository;
 import com.ldc.workflow.repositories.WorkflowStateJpaRepository;
-import com.ldc.workflow.types.LoanAttribute;
+import com.ldc.workflow.types.StateTransition;
 import com.ldc.workflow.types.WorkflowState;
+import com.ldc.workflow.util.EmbeddedMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * Repository for persisting and retrieving workflow state from PostgreSQL.
  * Handles all database operations for the loan review workflow.
+ *
+ * Within a unit of work (one Lambda invocation, see {@link #beginUnitOfWork()})
+ * loaded states are kept in an identity cache, so repeated lookups of the same
+ * request/loan in one handler hit the database once. Writes refresh the cache
+ * with the written row; a failed or rolled-back write evicts it.
+ *
+ * {@link #save}, {@link #upsert} and {@link #saveAttributeChanges} each write the
+ * state row, its new transitions and the loan_attribute sync in one transaction,
+ * joining the caller's transaction if there is one. Instances constructed directly
+ * rather than by Spring are not proxied, and each statement commits on its own.
+ *
+ * State transition history lives in the append-only state_transition table.
+ * A write inserts only the transitions added since the state was loaded, and
+ * history reads are bounded by {@code workflow.history.read.limit} or paged.
+ *
+ * SQL goes through a {@link WorkflowStateStore}, JPA or plain JDBC depending on
+ * {@code workflow.persistence.mode}.
+ *
+ * Every write that carries attributes also writes their decision counts
+ * (attribute_count, pending_count and siblings) in the same statement, so
+ * {@link #findDecisionCounts} can answer completion checks from narrow columns.
+ * Decision updates merged by attribute Name go through {@link #saveAttributeChanges},
+ * which patches the changed elements and moves the counters instead of rewriting both.
+ * With {@code workflow.attributes.normalized.enabled}, attribute writes are also copied
+ * to loan_attribute (see {@link LoanAttributeRepository}), which serves
+ * {@link #findByAttributeDecision}. With {@code workflow.attributes.compact.enabled},
+ * attributes are written in the compact format (see {@link AttributeEncoding}); both
+ * formats are read.
+ *
+ * Lookups by loan, by status and of transition history may be served by the read
+ * replica (see {@link ReadReplicaRoutingDataSource}) inside a unit of work, unless the
+ * loan was written in that unit of work. Replica results are not put in the identity
+ * cache, so a state that is going to be written is always loaded from the primary.
+ * {@link #findByRequestNumberAndLoanNumber} and {@link #findDecisionCounts} always read
+ * the primary: the Step Functions tasks that call them act on a write made moments
+ * earlier by another invocation, which the replica may not have replayed yet.
  */
 @Repository
 public class WorkflowStateRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(WorkflowStateRepository.class);
-    private static final ObjectMapper objectMapper = new ObjectMapper();
 
-    private final WorkflowStateJpaRepository jpaRepository;
+    private final WorkflowStateStore store;
+    private final LoanAttributeRepository loanAttributes;
+    private final boolean compactAttributes;
+    private final int historyReadLimit;
+    private final ThreadLocal<UnitOfWork> unitOfWork = new ThreadLocal<>();
 
-    public WorkflowStateRepository(WorkflowStateJpaRepository jpaRepository) {
-        this.jpaRepository = jpaRepository;
+    @Autowired
+    public WorkflowStateRepository(WorkflowStateStore store, LoanAttributeRepository loanAttributes,
+            @Value("${workflow.attributes.compact.enabled:false}") boolean compactAttributes,
+            @Value("${workflow.history.read.limit:50}") int historyReadLimit) {
+        this.store = store;
+        this.loanAttributes = loanAttributes;
+        this.compactAttributes = compactAttributes;
+        this.historyReadLimit = historyReadLimit;
+    }
+
+    public WorkflowStateRepository(WorkflowStateStore store, int historyReadLimit) {
+        this(store, null, false, historyReadLimit);
+    }
+
+    public WorkflowStateRepository(WorkflowStateJpaRepository jpaRepository,
+            StateTransitionJpaRepository stateTransitionJpaRepository, int historyReadLimit) {
+        this(new JpaWorkflowStateStore(jpaRepository, stateTransitionJpaRepository), historyReadLimit);
+    }
+
+    /**
+     * Start a unit of work on the current thread. Lookups are cached until
+     * {@link #endUnitOfWork()} is called.
+     */
+    public void beginUnitOfWork() {
+        unitOfWork.set(new UnitOfWork());
+    }
+
+    /**
+     * End the current unit of work, dropping its cache.
+     *
+     * @return query counts for the unit of work, or empty stats if none was active
+     */
+    public UnitOfWorkStats endUnitOfWork() {
+        UnitOfWork current = unitOfWork.get();
+        unitOfWork.remove();
+        if (current == null) {
+            return new UnitOfWorkStats(0, 0, 0);
+        }
+        UnitOfWorkStats stats = new UnitOfWorkStats(current.reads, current.cacheHits, current.writes);
+        logger.info("Workflow state unit of work finished - reads: {}, cacheHits: {}, writes: {}",
+                stats.reads(), stats.cacheHits(), stats.writes());
+        return stats;
     }
 
     /**
      * Save or update workflow state in PostgreSQL.
      */
+    @Transactional
     public void save(WorkflowState state) {
+        UnitOfWork current = unitOfWork.get();
+        String key = cacheKey(state.getRequestNumber(), state.getLoanNumber());
+        markWritten(current, state.getLoanNumber());
+
+        // The row was loaded in this unit of work, so it exists: write it without re-reading
+        if (current != null && current.isPersisted(key)) {
+            upsert(state);
+            return;
+        }
+
         try {
             WorkflowStateEntity entity;
-            Optional<WorkflowStateEntity> existingOpt = jpaRepository.findByRequestNumberAndLoanNumber(
+            countRead(current);
+            Optional<WorkflowStateEntity> existingOpt = store.findByRequestNumberAndLoanNumber(
                     state.getRequestNumber(), state.getLoanNumber());
 
             if (existingOpt.isPresent()) {
@@ -55,34 +166,173 @@ public class WorkflowStateRepository {
             entity.setExecutionStatus(state.getStatus());
 
             if (state.getAttributes() != null) {
-                entity.setAttributes(objectMapper.valueToTree(state.getAttributes()));
+                entity.setAttributes(AttributeEncoding.toTree(state.getAttributes(), compactAttributes));
+                setDecisionCounts(entity, decisionCounts(state));
             }
 
             entity.setUpdatedAt(Instant.now());
 
-            jpaRepository.save(entity);
+            WorkflowStateEntity saved = store.save(entity);
+            appendStateTransitions(state, current);
+            syncLoanAttributes(state);
+            if (current != null) {
+                current.writes++;
+                current.put(key, saved != null ? convertEntityToWorkflowState(saved) : state);
+                evictOnRollback(current, key);
+            }
             logger.info("Saved workflow state for requestNumber: {}, loanNumber: {}",
                     state.getRequestNumber(), state.getLoanNumber());
         } catch (Exception e) {
+            evict(current, key);
             logger.error("Error saving workflow state for requestNumber: {}", state.getRequestNumber(), e);
             throw new RuntimeException("Failed to save workflow state", e);
         }
     }
 
+    /**
+     * Save or update workflow state in a single INSERT ... ON CONFLICT round trip.
+     * Unlike {@link #save}, this skips the SELECT and JPA dirty checking, so it suits
+     * Step Functions task handlers that write the state they just loaded.
+     *
+     * @return the workflow state as stored after the write
+     */
+    @Transactional
+    public WorkflowState upsert(WorkflowState state) {
+        UnitOfWork current = unitOfWork.get();
+        String key = cacheKey(state.getRequestNumber(), state.getLoanNumber());
+        markWritten(current, state.getLoanNumber());
+        try {
+            String attributes = state.getAttributes() != null
+                    ? AttributeEncoding.write(state.getAttributes(), compactAttributes)
+                    : null;
+
+            WorkflowStateEntity entity = store.upsert(
+                    state.getRequestNumber(),
+                    state.getLoanNumber(),
+                    state.getReviewType(),
+                    state.getWorkflowStateName(),
+                    state.getStatus(),
+                    state.getLoanDecision(),
+                    state.getLoanStatus(),
+                    state.getCurrentAssignedUsername(),
+                    state.getTaskToken(),
+                    attributes,
+                    state.getAttributes() != null ? decisionCounts(state) : null,
+                    Instant.now());
+            appendStateTransitions(state, current);
+            syncLoanAttributes(state);
+
+            logger.info("Upserted workflow state for requestNumber: {}, loanNumber: {}",
+                    state.getRequestNumber(), state.getLoanNumber());
+            WorkflowState saved = convertEntityToWorkflowState(entity);
+            if (current != null) {
+                current.writes++;
+                current.put(key, saved);
+                evictOnRollback(current, key);
+            }
+            return saved;
+        } catch (Exception e) {
+            evict(current, key);
+            logger.error("Error upserting workflow state for requestNumber: {}", state.getRequestNumber(), e);
+            throw new RuntimeException("Failed to save workflow state", e);
+        }
+    }
+
+    /**
+     * Save a state with attribute decision changes merged in by Name (see
+     * {@link AttributeChanges#merge}). The state's attributes become the merged list, but
+     * only the changed decisions and appended attributes are sent: the stored JSON and
+     * counters are patched in one UPDATE guarded by the updated_at the state was loaded
+     * with. If the row has changed since, has no counters yet, is stored in the compact
+     * format, or the state was never loaded, the full list is written through
+     * {@link #save}. With compact writes on, the full list is always written, which also
+     * moves the row to the compact format.
+     */
+    @Transactional
+    public void saveAttributeChanges(WorkflowState state, AttributeChanges changes) {
+        state.setAttributes(changes.merged());
+        Instant loadedUpdatedAt = parseInstant(state.getUpdatedAt());
+        if (loadedUpdatedAt == null || compactAttributes) {
+            save(state);
+            return;
+        }
+
+        UnitOfWork current = unitOfWork.get();
+        String key = cacheKey(state.getRequestNumber(), state.getLoanNumber());
+        markWritten(current, state.getLoanNumber());
+        Optional<WorkflowStateEntity> entity;
+        try {
+            entity = store.patchAttributes(
+                    state.getRequestNumber(),
+                    state.getLoanNumber(),
+                    state.getReviewType(),
+                    state.getWorkflowStateName(),
+                    state.getStatus(),
+                    state.getLoanDecision(),
+                    state.getLoanStatus(),
+                    state.getCurrentAssignedUsername(),
+                    state.getTaskToken(),
+                    AttributePatch.of(changes),
+                    loadedUpdatedAt,
+                    Instant.now().truncatedTo(ChronoUnit.MICROS));
+            if (entity.isPresent()) {
+                appendStateTransitions(state, current);
+                syncLoanAttributes(state);
+                WorkflowState saved = convertEntityToWorkflowState(entity.get());
+                state.setUpdatedAt(saved.getUpdatedAt());
+                if (current != null) {
+                    current.writes++;
+                    current.put(key, saved);
+                    evictOnRollback(current, key);
+                }
+                logger.info("Patched {} attribute decisions and appended {} attributes for requestNumber: {}, "
+                        + "loanNumber: {}", changes.changedIndexes().size(), changes.appended().size(),
+                        state.getRequestNumber(), state.getLoanNumber());
+                return;
+            }
+        } catch (Exception e) {
+            evict(current, key);
+            logger.error("Error patching attributes for requestNumber: {}", state.getRequestNumber(), e);
+            throw new RuntimeException("Failed to save workflow state", e);
+        }
+
+        logger.info("Workflow state for requestNumber: {}, loanNumber: {} changed since it was loaded, has no "
+                + "decision counters or is stored compact; writing full attributes", state.getRequestNumber(),
+                state.getLoanNumber());
+        save(state);
+    }
+
     /**
      * Retrieve workflow state by requestNumber and loanNumber.
      */
     public Optional<WorkflowState> findByRequestNumberAndLoanNumber(String requestNumber, String loanNumber) {
+        UnitOfWork current = unitOfWork.get();
+        String key = cacheKey(requestNumber, loanNumber);
+        if (current != null && current.states.containsKey(key)) {
+            current.cacheHits++;
+            logger.debug("Workflow state cache hit for requestNumber: {}, loanNumber: {}",
+                    requestNumber, loanNumber);
+            return current.states.get(key);
+        }
+
         try {
-            Optional<WorkflowStateEntity> entity = jpaRepository.findByRequestNumberAndLoanNumber(requestNumber,
+            countRead(current);
+            Optional<WorkflowStateEntity> entity = store.findByRequestNumberAndLoanNumber(requestNumber,
                     loanNumber);
             if (entity.isPresent()) {
                 logger.debug("Retrieved workflow state for requestNumber: {}, loanNumber: {}",
                         requestNumber, loanNumber);
-                return Optional.of(convertEntityToWorkflowState(entity.get()));
+                WorkflowState state = convertEntityToWorkflowState(entity.get());
+                if (current != null) {
+                    current.put(key, state);
+                }
+                return Optional.of(state);
             }
             logger.debug("No workflow state found for requestNumber: {}, loanNumber: {}",
                     requestNumber, loanNumber);
+            if (current != null) {
+                current.states.put(key, Optional.empty());
+            }
             return Optional.empty();
         } catch (Exception e) {
             logger.error("Error retrieving workflow state for requestNumber: {}, loanNumber: {}",
@@ -91,15 +341,102 @@ public class WorkflowStateRepository {
         }
     }
 
+    /**
+     * Read the loan decision and attribute decision counts of a workflow state without
+     * deserializing its attributes. A state loaded in this unit of work is counted from
+     * memory, so in-flight changes are seen; a row without counters (written before the
+     * counter columns existed) is loaded in full and counted.
+     */
+    public Optional<DecisionCounts> findDecisionCounts(String requestNumber, String loanNumber) {
+        UnitOfWork current = unitOfWork.get();
+        String key = cacheKey(requestNumber, loanNumber);
+        if (current != null && current.states.containsKey(key)) {
+            current.cacheHits++;
+            return current.states.get(key).map(WorkflowStateRepository::decisionCounts);
+        }
+
+        Optional<DecisionCounts> counts;
+        try {
+            countRead(current);
+            counts = store.findDecisionCounts(requestNumber, loanNumber);
+        } catch (Exception e) {
+            logger.error("Error retrieving decision counts for requestNumber: {}, loanNumber: {}",
+                    requestNumber, loanNumber, e);
+            throw new RuntimeException("Failed to retrieve workflow state", e);
+        }
+        if (counts.isEmpty() || counts.get().isMaintained()) {
+            return counts;
+        }
+        logger.debug("No decision counters stored for requestNumber: {}, loanNumber: {}; counting attributes",
+                requestNumber, loanNumber);
+        return findByRequestNumberAndLoanNumber(requestNumber, loanNumber)
+                .map(WorkflowStateRepository::decisionCounts);
+    }
+
+    /**
+     * Retrieve workflow states for many request/loan pairs with at most one query.
+     * Pairs already loaded in the unit of work are served from its cache.
+     *
+     * @return states keyed by "requestNumber:loanNumber"; missing pairs are absent
+     */
+    public Map<String, WorkflowState> findAllByRequestNumberAndLoanNumber(List<String> requestNumbers,
+            List<String> loanNumbers) {
+        UnitOfWork current = unitOfWork.get();
+        Map<String, WorkflowState> found = new HashMap<>();
+        List<String> missingRequests = new ArrayList<>();
+        List<String> missingLoans = new ArrayList<>();
+        for (int i = 0; i < requestNumbers.size(); i++) {
+            String key = cacheKey(requestNumbers.get(i), loanNumbers.get(i));
+            if (current != null && current.states.containsKey(key)) {
+                current.cacheHits++;
+                current.states.get(key).ifPresent(state -> found.put(key, state));
+            } else {
+                missingRequests.add(requestNumbers.get(i));
+                missingLoans.add(loanNumbers.get(i));
+            }
+        }
+        if (missingRequests.isEmpty()) {
+            return found;
+        }
+
+        try {
+            countRead(current);
+            List<WorkflowStateEntity> entities = store.findAllByRequestNumberAndLoanNumberPairs(
+                    missingRequests.toArray(new String[0]), missingLoans.toArray(new String[0]));
+            for (WorkflowStateEntity entity : entities) {
+                String key = cacheKey(entity.getRequestNumber(), entity.getLoanNumber());
+                WorkflowState state = convertEntityToWorkflowState(entity);
+                found.put(key, state);
+                if (current != null) {
+                    current.put(key, state);
+                }
+            }
+            logger.debug("Retrieved {} of {} requested workflow states", entities.size(), missingRequests.size());
+            return found;
+        } catch (Exception e) {
+            logger.error("Error retrieving {} workflow states", missingRequests.size(), e);
+            throw new RuntimeException("Failed to retrieve workflow states", e);
+        }
+    }
+
     /**
      * Retrieve the most recent workflow state by loanNumber.
      */
     public Optional<WorkflowState> findMostRecentByLoanNumber(String loanNumber) {
+        UnitOfWork current = unitOfWork.get();
         try {
-            Optional<WorkflowStateEntity> entity = jpaRepository.findMostRecentByLoanNumber(loanNumber);
+            countRead(current);
+            boolean replica = canReadFromReplica(current, loanNumber);
+            Optional<WorkflowStateEntity> entity = replica
+                    ? ReadReplicaRoutingDataSource.readFromReplica(() -> store.findMostRecentByLoanNumber(loanNumber))
+                    : store.findMostRecentByLoanNumber(loanNumber);
             if (entity.isPresent()) {
                 logger.debug("Retrieved most recent workflow state for loanNumber: {}", loanNumber);
-                return Optional.of(convertEntityToWorkflowState(entity.get()));
+                WorkflowState state = convertEntityToWorkflowState(entity.get());
+                if (current != null && !replica) {
+                    current.put(cacheKey(state.getRequestNumber(), state.getLoanNumber()), state);
+                }
+                return Optional.of(state);
             }
             logger.debug("No workflow state found for loanNumber: {}", loanNumber);
             return Optional.empty();
@@ -109,12 +446,102 @@ public class WorkflowStateRepository {
         }
     }
 
+    /**
+     * Load the most recent transitions of a workflow, oldest first, bounded by
+     * {@code workflow.history.read.limit}.
+     */
+    public List<StateTransition> findRecentStateTransitions(String requestNumber, String loanNumber) {
+        try {
+            UnitOfWork current = unitOfWork.get();
+            countRead(current);
+            List<StateTransitionEntity> entities = read(current, loanNumber, () -> store
+                    .findStateTransitionsNewestFirst(requestNumber, loanNumber, PageRequest.of(0, historyReadLimit)));
+            List<StateTransition> transitions = new ArrayList<>(entities.size());
+            for (StateTransitionEntity entity : entities) {
+                transitions.add(convertEntityToStateTransition(entity));
+            }
+            Collections.reverse(transitions);
+            return transitions;
+        } catch (Exception e) {
+            logger.error("Error retrieving state transitions for requestNumber: {}, loanNumber: {}",
+                    requestNumber, loanNumber, e);
+            throw new RuntimeException("Failed to retrieve state transitions", e);
+        }
+    }
+
+    /**
+     * Page through the full transition history of a workflow in recorded order.
+     *
+     * @param page zero-based page index
+     * @param size page size
+     */
+    public List<StateTransition> findStateTransitions(String requestNumber, String loanNumber, int page, int size) {
+        try {
+            UnitOfWork current = unitOfWork.get();
+            countRead(current);
+            List<StateTransitionEntity> entities = read(current, loanNumber, () -> store
+                    .findStateTransitionsOldestFirst(requestNumber, loanNumber, PageRequest.of(page, size)));
+            List<StateTransition> transitions = new ArrayList<>(entities.size());
+            for (StateTransitionEntity entity : entities) {
+                transitions.add(convertEntityToStateTransition(entity));
+            }
+            return transitions;
+        } catch (Exception e) {
+            logger.error("Error retrieving state transitions for requestNumber: {}, loanNumber: {}",
+                    requestNumber, loanNumber, e);
+            throw new RuntimeException("Failed to retrieve state transitions", e);
+        }
+    }
+
+    /**
+     * Retrieve all workflow states with the given execution status. Served by the read
+     * replica unless the unit of work has already written.
+     */
+    public List<WorkflowState> findByExecutionStatus(String executionStatus) {
+        UnitOfWork current = unitOfWork.get();
+        try {
+            countRead(current);
+            List<WorkflowStateEntity> entities = current != null && current.writtenLoans.isEmpty()
+                    ? ReadReplicaRoutingDataSource.readFromReplica(() -> store.findByExecutionStatus(executionStatus))
+                    : store.findByExecutionStatus(executionStatus);
+            List<WorkflowState> states = new ArrayList<>(entities.size());
+            for (WorkflowStateEntity entity : entities) {
+                states.add(convertEntityToWorkflowState(entity));
+            }
+            return states;
+        } catch (Exception e) {
+            logger.error("Error retrieving workflow states with executionStatus: {}", executionStatus, e);
+            throw new RuntimeException("Failed to retrieve workflow states", e);
+        }
+    }
+
+    /**
+     * Find workflow states with an attribute carrying the decision (Pending also matches
+     * attributes with no decision), optionally only the named attribute, one page at a
+     * time in workflow state id order: pass the last id of a page as afterId for the next.
+     * Served from loan_attribute, which must be enabled and backfilled; read from the
+     * replica unless the unit of work has already written.
+     */
+    public List<LoanAttributeRepository.LoanAttributeMatch> findByAttributeDecision(String attributeName,
+            String decision, long afterId, int limit) {
+        if (loanAttributes == null || !loanAttributes.isEnabled()) {
+            throw new IllegalStateException("Normalized loan attributes are not enabled");
+        }
+        UnitOfWork current = unitOfWork.get();
+        countRead(current);
+        return current != null && current.writtenLoans.isEmpty()
+                ? ReadReplicaRoutingDataSource.readFromReplica(
+                        () -> loanAttributes.findByDecision(attributeName, decision, afterId, limit))
+                : loanAttributes.findByDecision(attributeName, decision, afterId, limit);
+    }
+
     /**
      * Check if an active execution exists.
      */
     public boolean existsActiveExecution(String requestNumber, String loanNumber) {
         try {
-            return jpaRepository.existsActiveExecution(requestNumber, loanNumber);
+            countRead(unitOfWork.get());
+            return store.existsActiveExecution(requestNumber, loanNumber);
         } catch (Exception e) {
             logger.error("Error checking active execution for requestNumber: {}, loanNumber: {}",
                     requestNumber, loanNumber, e);
@@ -134,11 +561,11 @@ public class WorkflowStateRepository {
         state.setLoanStatus(entity.getLoanStatus());
         state.setCurrentAssignedUsername(entity.getCurrentAssignedUsername());
         state.setTaskToken(entity.getTaskToken());
+        state.setWorkflowStateName(entity.getCurrentWorkflowStage());
+        state.setStatus(entity.getExecutionStatus());
 
         if (entity.getAttributes() != null) {
-            List<LoanAttribute> attributes = objectMapper.convertValue(entity.getAttributes(),
-                    objectMapper.getTypeFactory().constructCollectionType(List.class, LoanAttribute.class));
-            state.setAttributes(attributes);
+            state.setAttributes(AttributeEncoding.read(entity.getAttributes()));
         }
 
         state.setCreatedAt(entity.getCreatedAt().toString());
@@ -146,4 +573,168 @@ public class WorkflowStateRepository {
 
         return state;
     }
+
+    private static DecisionCounts decisionCounts(WorkflowState state) {
+        return DecisionCounts.of(state.getLoanDecision(), DecisionSummary.of(state.getAttributes()));
+    }
+
+    private static void setDecisionCounts(WorkflowStateEntity entity, DecisionCounts counts) {
+        entity.setAttributeCount(counts.attributeCount());
+        entity.setPendingCount(counts.pendingCount());
+        entity.setApprovedCount(counts.approvedCount());
+        entity.setRejectedCount(counts.rejectedCount());
+        entity.setReclassCount(counts.reclassCount());
+        entity.setRepurchaseCount(counts.repurchaseCount());
+    }
+
+    /**
+     * Bring loan_attribute in step with the attributes just written. The JSON is the
+     * source of truth, so a failure here does not fail the write; the loanAttributeBackfill
+     * handler repairs the rows.
+     */
+    private void syncLoanAttributes(WorkflowState state) {
+        if (loanAttributes == null || state.getAttributes() == null) {
+            return;
+        }
+        try {
+            loanAttributes.sync(List.of(state.getRequestNumber()), List.of(state.getLoanNumber()));
+        } catch (Exception e) {
+            logger.warn("Could not sync loan_attribute for requestNumber: {}, loanNumber: {}",
+                    state.getRequestNumber(), state.getLoanNumber(), e);
+            EmbeddedMetrics.emit(Map.of("Table", "loan_attribute"), Map.of("LoanAttributeSyncFailures", 1),
+                    "Count");
+        }
+    }
+
+    /**
+     * Insert the transitions added to the state since it was loaded.
+     */
+    private void appendStateTransitions(WorkflowState state, UnitOfWork current) {
+        List<StateTransition> pending = state.getPendingStateTransitions();
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<StateTransitionEntity> entities = new ArrayList<>(pending.size());
+        for (StateTransition transition : pending) {
+            StateTransitionEntity entity = new StateTransitionEntity();
+            entity.setRequestNumber(state.getRequestNumber());
+            entity.setLoanNumber(state.getLoanNumber());
+            entity.setWorkflowStateName(transition.getWorkflowStateName());
+            entity.setWorkflowStateUserId(transition.getWorkflowStateUserId());
+            entity.setStartDateTime(parseInstant(transition.getWorkflowStateStartDateTime()));
+            entity.setEndDateTime(parseInstant(transition.getWorkflowStateEndDateTime()));
+            entities.add(entity);
+        }
+
+        store.saveStateTransitions(entities);
+        state.clearPendingStateTransitions();
+        if (current != null) {
+            current.writes++;
+        }
+        logger.debug("Appended {} state transitions for requestNumber: {}, loanNumber: {}",
+                entities.size(), state.getRequestNumber(), state.getLoanNumber());
+    }
+
+    private StateTransition convertEntityToStateTransition(StateTransitionEntity entity) {
+        return new StateTransition(
+                entity.getWorkflowStateName(),
+                entity.getWorkflowStateUserId(),
+                entity.getStartDateTime() != null ? entity.getStartDateTime().toString() : null,
+                entity.getEndDateTime() != null ? entity.getEndDateTime().toString() : null);
+    }
+
+    private Instant parseInstant(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            logger.warn("Ignoring unparseable state transition timestamp: {}", value);
+            return null;
+        }
+    }
+
+    /**
+     * Run a lag-tolerant read on the replica, or on the primary when the loan was
+     * written in this unit of work or no unit of work is active.
+     */
+    private <T> T read(UnitOfWork current, String loanNumber, Supplier<T> query) {
+        return canReadFromReplica(current, loanNumber)
+                ? ReadReplicaRoutingDataSource.readFromReplica(query)
+                : query.get();
+    }
+
+    private boolean canReadFromReplica(UnitOfWork current, String loanNumber) {
+        return current != null && !current.writtenLoans.contains(loanNumber);
+    }
+
+    private void markWritten(UnitOfWork current, String loanNumber) {
+        if (current != null) {
+            current.writtenLoans.add(loanNumber);
+        }
+    }
+
+    private void countRead(UnitOfWork current) {
+        if (current != null) {
+            current.reads++;
+        }
+    }
+
+    private void evict(UnitOfWork current, String key) {
+        if (current != null) {
+            current.states.remove(key);
+            current.persisted.remove(key);
+        }
+    }
+
+    /**
+     * Drop a cached write again if the transaction it was made in rolls back.
+     */
+    private void evictOnRollback(UnitOfWork current, String key) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    evict(current, key);
+                }
+            }
+        });
+    }
+
+    private String cacheKey(String requestNumber, String loanNumber) {
+        return requestNumber + ":" + loanNumber;
+    }
+
+    /**
+     * Query counts for one unit of work.
+     */
+    public record UnitOfWorkStats(int reads, int cacheHits, int writes) {
+    }
+
+    /**
+     * Identity cache for one invocation. Cached states are the instances handed to
+     * callers, so a handler sees its own in-flight changes on a repeated lookup.
+     */
+    private static class UnitOfWork {
+        final Map<String, Optional<WorkflowState>> states = new HashMap<>();
+        final Set<String> persisted = new HashSet<>();
+        final Set<String> writtenLoans = new HashSet<>();
+        int reads;
+        int cacheHits;
+        int writes;
+
+        void put(String key, WorkflowState state) {
+            states.put(key, Optional.of(state));
+            persisted.add(key);
+        }
+
+        boolean isPersisted(String key) {
+            return persisted.contains(key);
+        }
+    }
 }
@@ -0,0 +1,102 @@
+package com.ldc.workflow.repository;
+
+import com.ldc.workflow.entity.StateTransitionEntity;
+import com.ldc.workflow.entity.WorkflowStateEntity;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Row-level access to workflow_state and state_transition, used by WorkflowStateRepository.
+ *
+ * Two implementations are selected by {@code workflow.persistence.mode}:
+ * - jpa (default): JpaWorkflowStateStore, backed by the Spring Data JPA repositories
+ * - jdbc: JdbcWorkflowStateStore, plain JDBC with no Hibernate bootstrap at startup
+ */
+public interface WorkflowStateStore {
+
+    /**
+     * Find workflow state by request number and loan number.
+     */
+    Optional<WorkflowStateEntity> findByRequestNumberAndLoanNumber(String requestNumber, String loanNumber);
+
+    /**
+     * Find the workflow states for many request/loan pairs in one query.
+     * The arrays are matched pairwise: requestNumbers[i] goes with loanNumbers[i].
+     */
+    List<WorkflowStateEntity> findAllByRequestNumberAndLoanNumberPairs(String[] requestNumbers,
+            String[] loanNumbers);
+
+    /**
+     * Find the most recent workflow state by loan number.
+     */
+    Optional<WorkflowStateEntity> findMostRecentByLoanNumber(String loanNumber);
+
+    /**
+     * Find all workflow states with the given execution status.
+     */
+    List<WorkflowStateEntity> findByExecutionStatus(String executionStatus);
+
+    /**
+     * Read the loan decision and attribute decision counters of a workflow state,
+     * without the attributes JSON.
+     */
+    Optional<DecisionCounts> findDecisionCounts(String requestNumber, String loanNumber);
+
+    /**
+     * Check if an active execution exists for the given request and loan.
+     */
+    boolean existsActiveExecution(String requestNumber, String loanNumber);
+
+    /**
+     * Insert a new row (no id) or update the row with the entity's id.
+     *
+     * @return the row as written
+     */
+    WorkflowStateEntity save(WorkflowStateEntity entity);
+
+    /**
+     * Insert or update a workflow state in one round trip using the unique
+     * (request_number, loan_number) index. Null attributes keep the stored value and
+     * counters; otherwise decisionCounts are the counts of the attributes written.
+     *
+     * @return the row as written
+     */
+    WorkflowStateEntity upsert(String requestNumber, String loanNumber, String reviewType,
+            String currentWorkflowStage, String executionStatus, String loanDecision, String loanStatus,
+            String currentAssignedUsername, String taskToken, String attributes, DecisionCounts decisionCounts,
+            Instant updatedAt);
+
+    /**
+     * Write the scalar columns as {@link #upsert} does and apply an attribute patch to the
+     * stored attributes and counters, in one UPDATE. Only a row whose updated_at is still
+     * loadedUpdatedAt and that carries counters is written, so positions and deltas apply
+     * to the list they were computed from. The patch works on the array format only; a
+     * row stored compact (see {@link AttributeEncoding}) never matches.
+     *
+     * @return the row as written, or empty when no row matched
+     */
+    Optional<WorkflowStateEntity> patchAttributes(String requestNumber, String loanNumber, String reviewType,
+            String currentWorkflowStage, String executionStatus, String loanDecision, String loanStatus,
+            String currentAssignedUsername, String taskToken, AttributePatch patch, Instant loadedUpdatedAt,
+            Instant updatedAt);
+
+    /**
+     * Append state transitions.
+     */
+    void saveStateTransitions(List<StateTransitionEntity> transitions);
+
+    /**
+     * Find transitions for a request and loan, newest first.
+     */
+    List<StateTransitionEntity> findStateTransitionsNewestFirst(String requestNumber, String loanNumber,
+            Pageable pageable);
+
+    /**
+     * Find transitions for a request and loan in the order they were recorded.
+     */
+    List<StateTransitionEntity> findStateTransitionsOldestFirst(String requestNumber, String loanNumber,
+            Pageable pageable);
+}
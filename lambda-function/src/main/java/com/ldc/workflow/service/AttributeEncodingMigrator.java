@@ -0,0 +1,71 @@
+package com.ldc.workflow.service;
+
+import com.ldc.workflow.repository.WorkflowStateBatchRepository;
+import com.ldc.workflow.repository.WorkflowStateBatchRepository.AttributeEncodingBatch;
+import com.ldc.workflow.util.EmbeddedMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Moves stored workflow_state attributes to the format writers use.
+ *
+ * Walks workflow_state in id order, {@code workflow.attributes.compact.migration.batch.size}
+ * rows in the other format per batch, and rewrites them: to the compact format while
+ * {@code workflow.attributes.compact.enabled} is on, back to the array format when it is
+ * off. A run stops when its time budget is spent and returns the cursor to resume from.
+ */
+@Service
+public class AttributeEncodingMigrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttributeEncodingMigrator.class);
+
+    private final WorkflowStateBatchRepository batchRepository;
+    private final int batchSize;
+
+    public AttributeEncodingMigrator(WorkflowStateBatchRepository batchRepository,
+            @Value("${workflow.attributes.compact.migration.batch.size:500}") int batchSize) {
+        this.batchRepository = batchRepository;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Outcome of one run. complete is false when the budget ran out before the end of
+     * the table; pass lastId as afterId to continue. found counts rows in the other
+     * format, rewritten those actually changed.
+     */
+    public record MigrationResult(int found, int rewritten, long lastId, boolean complete, Duration elapsed) {
+    }
+
+    public MigrationResult migrate(long afterId, Duration budget) {
+        long start = System.nanoTime();
+        long deadline = start + budget.toNanos();
+        long cursor = afterId;
+        int found = 0;
+        int rewritten = 0;
+        boolean complete = false;
+
+        while (System.nanoTime() < deadline) {
+            AttributeEncodingBatch batch = batchRepository.reencodeAttributes(cursor, batchSize);
+            found += batch.found();
+            rewritten += batch.rewritten();
+            cursor = batch.lastId();
+            if (batch.found() < batchSize) {
+                complete = true;
+                break;
+            }
+        }
+
+        MigrationResult result = new MigrationResult(found, rewritten, cursor, complete,
+                Duration.ofNanos(System.nanoTime() - start));
+        logger.info("Attributes re-encoded: found={}, rewritten={}, lastId={}, complete={}",
+                found, rewritten, cursor, complete);
+        EmbeddedMetrics.emit(Map.of("Table", "workflow_state"), Map.of("AttributeEncodingRewrites", rewritten),
+                "Count");
+        return result;
+    }
+}
@@ -0,0 +1,238 @@
+package com.ldc.workflow.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.ldc.workflow.types.AuditEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous, batched writer for the audit_trail table.
+ *
+ * Handlers record events into a bounded in-memory queue, which costs a queue offer
+ * on the request thread. A background thread drains the queue every
+ * {@code audit.trail.flush.interval.millis} and writes each batch with one
+ * multi-row INSERT. The background thread does not run while Lambda freezes the
+ * sandbox, so LambdaHandler flushes whatever is still pending at the end of each
+ * invocation. Whatever is still queued when the application context closes (the JVM
+ * shutdown hook) is written by {@link #destroy()}.
+ *
+ * Queued payloads are copies with task tokens redacted and arrays cut to
+ * {@code audit.trail.payload.max.items} elements, so a full queue of bulk requests
+ * does not hold their whole payloads in memory.
+ *
+ * When the queue is full new events are dropped and counted rather than blocking
+ * the workflow. Disabled entirely by {@code feature.flags.enable.audit.logging=false}.
+ */
+@Service
+public class AuditTrailWriter implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditTrailWriter.class);
+
+    private static final String INSERT_PREFIX = "INSERT INTO audit_trail (request_number, loan_number, task_number, "
+            + "event_type, workflow_stage, status, request_payload, response_payload, error_message, "
+            + "timestamp, created_at) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UNKNOWN = "unknown";
+    private static final String TASK_TOKEN_FIELD = "TaskToken";
+    private static final String REDACTED = "[redacted]";
+
+    private final DataSource dataSource;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxPayloadItems;
+    private final BlockingQueue<AuditEvent> queue;
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final ScheduledExecutorService flushScheduler;
+
+    public AuditTrailWriter(DataSource dataSource,
+            @Value("${feature.flags.enable.audit.logging:true}") boolean enabled,
+            @Value("${audit.trail.queue.capacity:10000}") int queueCapacity,
+            @Value("${audit.trail.batch.size:500}") int batchSize,
+            @Value("${audit.trail.flush.interval.millis:1000}") long flushIntervalMillis,
+            @Value("${audit.trail.payload.max.items:10}") int maxPayloadItems) {
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxPayloadItems = Math.max(0, maxPayloadItems);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        if (enabled) {
+            this.flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "audit-trail-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flushScheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            this.flushScheduler = null;
+            logger.info("Audit logging disabled; audit events will not be recorded");
+        }
+    }
+
+    /**
+     * Queue an event, with its payloads capped, for the next flush. Never blocks and
+     * never throws.
+     */
+    public void record(AuditEvent event) {
+        if (!enabled) {
+            return;
+        }
+        AuditEvent capped = event.withPayloads(cap(event.getRequestPayload()), cap(event.getResponsePayload()));
+        if (!queue.offer(capped)) {
+            long dropped = droppedEvents.incrementAndGet();
+            // Log the first drop and then every 1000th, so a backlog does not flood the logs
+            if (dropped == 1 || dropped % 1000 == 0) {
+                logger.warn("Audit trail queue full, {} events dropped so far", dropped);
+            }
+        }
+    }
+
+    /**
+     * Write every queued event now. Returns without touching the database when
+     * nothing is queued.
+     *
+     * @return number of events written
+     */
+    public synchronized int flush() {
+        if (!enabled || queue.isEmpty()) {
+            return 0;
+        }
+
+        int written = 0;
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            try {
+                insertBatch(batch);
+                written += batch.size();
+            } catch (SQLException e) {
+                // Auditing must not fail the workflow; the batch is dropped and counted
+                droppedEvents.addAndGet(batch.size());
+                logger.error("Failed to write {} audit trail events", batch.size(), e);
+            }
+            batch.clear();
+        }
+
+        if (written > 0) {
+            logger.debug("Flushed {} audit trail events", written);
+        }
+        return written;
+    }
+
+    /**
+     * Number of events dropped because the queue was full or a write failed.
+     */
+    public long getDroppedEventCount() {
+        return droppedEvents.get();
+    }
+
+    /**
+     * Number of events waiting for the next flush.
+     */
+    public int getPendingEventCount() {
+        return queue.size();
+    }
+
+    @Override
+    public void destroy() {
+        if (flushScheduler != null) {
+            flushScheduler.shutdownNow();
+        }
+        flush();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Scheduled audit trail flush failed", e);
+        }
+    }
+
+    private void insertBatch(List<AuditEvent> batch) throws SQLException {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + batch.size() * (ROW_PLACEHOLDERS.length() + 2));
+        sql.append(INSERT_PREFIX);
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDERS);
+        }
+
+        Timestamp createdAt = Timestamp.from(Instant.now());
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+            int index = 1;
+            for (AuditEvent event : batch) {
+                statement.setString(index++, valueOrUnknown(event.getRequestNumber()));
+                statement.setString(index++, valueOrUnknown(event.getLoanNumber()));
+                statement.setString(index++, event.getTaskNumber());
+                statement.setString(index++, valueOrUnknown(event.getEventType()));
+                statement.setString(index++, event.getWorkflowStage());
+                statement.setString(index++, event.getStatus());
+                statement.setString(index++, event.getRequestPayload() != null ? event.getRequestPayload().toString() : null);
+                statement.setString(index++, event.getResponsePayload() != null ? event.getResponsePayload().toString() : null);
+                statement.setString(index++, event.getErrorMessage());
+                statement.setTimestamp(index++, Timestamp.from(event.getTimestamp()));
+                statement.setTimestamp(index++, createdAt);
+            }
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Copy of the payload with task tokens redacted and arrays cut to maxPayloadItems
+     * elements, followed by a note of how many were left out.
+     */
+    private JsonNode cap(JsonNode payload) {
+        if (payload == null) {
+            return null;
+        }
+        if (payload.isObject()) {
+            ObjectNode copy = JsonNodeFactory.instance.objectNode();
+            payload.fields().forEachRemaining(field -> copy.set(field.getKey(),
+                    TASK_TOKEN_FIELD.equalsIgnoreCase(field.getKey()) && !field.getValue().isNull()
+                            ? TextNode.valueOf(REDACTED)
+                            : cap(field.getValue())));
+            return copy;
+        }
+        if (payload.isArray()) {
+            ArrayNode copy = JsonNodeFactory.instance.arrayNode();
+            int kept = Math.min(payload.size(), maxPayloadItems);
+            for (int i = 0; i < kept; i++) {
+                copy.add(cap(payload.get(i)));
+            }
+            if (payload.size() > kept) {
+                copy.add("... " + (payload.size() - kept) + " more items");
+            }
+            return copy;
+        }
+        return payload;
+    }
+
+    private static String valueOrUnknown(String value) {
+        return value != null && !value.isEmpty() ? value : UNKNOWN;
+    }
+}
@@ -0,0 +1,30 @@
+package com.ldc.workflow.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Transport used by {@link WorkflowCallbackService} to deliver "workflow advanced"
+ * signals from Step Functions task handlers to waiting API handlers.
+ *
+ * Callbacks are keyed by requestNumber:loanNumber. Implementations decide whether
+ * a published key can reach waiters in other Lambda instances.
+ */
+public interface CallbackTransport {
+
+    /**
+     * Register a listener for callback keys published by any instance.
+     * Implementations must be idempotent and should return only once
+     * delivery is active, so a key published afterwards is not missed.
+     */
+    void subscribe(Consumer<String> listener);
+
+    /**
+     * Publish that the workflow identified by the callback key has advanced.
+     */
+    void publish(String callbackKey);
+
+    /**
+     * Whether published keys can reach waiters in other processes.
+     */
+    boolean isDistributed();
+}
@@ -1,28 +1,125 @@
 package com.ldc.workflow.service;
 
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.services.ssm.SsmClient;
 import software.amazon.awssdk.services.ssm.model.GetParameterRequest;
 import software.amazon.awssdk.services.ssm.model.GetParameterResponse;
+import software.amazon.awssdk.services.ssm.model.GetParametersByPathRequest;
+import software.amazon.awssdk.services.ssm.model.GetParametersByPathResponse;
+import software.amazon.awssdk.services.ssm.model.Parameter;
+import software.amazon.awssdk.services.ssm.model.ParameterNotFoundException;
+import software.amazon.awssdk.services.ssm.model.ParameterType;
 
-import java.util.HashMap;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Service for retrieving configuration from AWS Systems Manager Parameter Store.
- * Caches parameters to reduce API calls.
+ *
+ * Parameters are cached for {@code workflow.config.cache.ttl.seconds}. For a further
+ * {@code workflow.config.cache.stale.seconds} an expired value is still returned while
+ * one background refresh reloads it, so rotated values are picked up without callers
+ * waiting on SSM. Older entries are reloaded synchronously. Concurrent loads of the
+ * same parameter share one GetParameter call, and the cache keeps at most
+ * {@code workflow.config.cache.max.entries} parameters, evicting the oldest loads.
+ *
+ * With {@code workflow.config.cache.prefetch.enabled} (off by default, and needing
+ * ssm:GetParametersByPath on the prefix) the plain parameters under
+ * {@code parameter.store.prefix} are loaded at startup, so typical lookups never reach
+ * SSM during an invocation. SecureStrings are never prefetched: startup runs before the
+ * SnapStart checkpoint, and a decrypted value would be stored in the snapshot. They are
+ * loaded on first use.
  */
 @Service
-public class ConfigurationService {
+public class ConfigurationService implements DisposableBean {
 
     private static final Logger logger = LoggerFactory.getLogger(ConfigurationService.class);
+
     private final SsmClient ssmClient;
-    private final Map<String, String> parameterCache = new HashMap<>();
+    private final String prefix;
+    private final Duration ttl;
+    private final Duration staleWindow;
+    private final int maxEntries;
+    private final boolean prefetch;
+    private final Clock clock;
+    private final Map<String, CachedParameter> parameterCache = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "parameter-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public ConfigurationService(SsmClient ssmClient,
+            @Value("${parameter.store.prefix:/ldc-workflow}") String prefix,
+            @Value("${workflow.config.cache.ttl.seconds:300}") long ttlSeconds,
+            @Value("${workflow.config.cache.stale.seconds:600}") long staleSeconds,
+            @Value("${workflow.config.cache.max.entries:256}") int maxEntries,
+            @Value("${workflow.config.cache.prefetch.enabled:false}") boolean prefetch) {
+        this(ssmClient, prefix, Duration.ofSeconds(ttlSeconds), Duration.ofSeconds(staleSeconds), maxEntries,
+                prefetch, Clock.systemUTC());
+    }
 
-    public ConfigurationService(SsmClient ssmClient) {
+    ConfigurationService(SsmClient ssmClient, String prefix, Duration ttl, Duration staleWindow, int maxEntries,
+            boolean prefetch, Clock clock) {
         this.ssmClient = ssmClient;
+        this.prefix = prefix;
+        this.ttl = ttl;
+        this.staleWindow = staleWindow;
+        this.maxEntries = maxEntries;
+        this.prefetch = prefetch;
+        this.clock = clock;
+    }
+
+    /**
+     * Load every plain parameter under the prefix in as few GetParametersByPath calls
+     * as paging allows, without decryption. SecureStrings are skipped. Failures are
+     * logged; parameters are then loaded on first use.
+     */
+    @PostConstruct
+    public void prefetch() {
+        if (!prefetch) {
+            return;
+        }
+        try {
+            int loaded = 0;
+            String nextToken = null;
+            do {
+                GetParametersByPathResponse response = ssmClient.getParametersByPath(
+                        GetParametersByPathRequest.builder()
+                                .path(prefix)
+                                .recursive(true)
+                                .withDecryption(false)
+                                .nextToken(nextToken)
+                                .build());
+                for (Parameter parameter : response.parameters()) {
+                    if (parameter.type() == ParameterType.SECURE_STRING) {
+                        continue;
+                    }
+                    cache(parameter.name(), parameter.value());
+                    loaded++;
+                }
+                nextToken = response.nextToken();
+            } while (nextToken != null && !nextToken.isEmpty());
+            logger.info("Prefetched {} parameters under {}", loaded, prefix);
+        } catch (Exception e) {
+            logger.warn("Failed to prefetch parameters under {}: {}", prefix, e.getMessage());
+        }
     }
 
     /**
@@ -53,30 +150,90 @@ public class ConfigurationService {
      * Get any parameter from Parameter Store with caching.
      */
     public String getParameter(String parameterName) {
-        try {
-            // Check cache first
-            if (parameterCache.containsKey(parameterName)) {
+        CachedParameter cached = parameterCache.get(parameterName);
+        if (cached != null) {
+            Duration age = Duration.between(cached.loadedAt(), clock.instant());
+            if (age.compareTo(ttl) < 0) {
                 logger.debug("Retrieved parameter from cache: {}", parameterName);
-                return parameterCache.get(parameterName);
+                return cached.value();
+            }
+            if (age.compareTo(ttl.plus(staleWindow)) < 0) {
+                logger.debug("Serving stale parameter while refreshing: {}", parameterName);
+                refreshInBackground(parameterName);
+                return cached.value();
             }
+        }
+        try {
+            return load(parameterName).join();
+        } catch (CompletionException e) {
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    /**
+     * Clear the parameter cache (useful for testing or forcing refresh).
+     */
+    public void clearCache() {
+        parameterCache.clear();
+        logger.debug("Parameter cache cleared");
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
 
-            // Retrieve from Parameter Store
+    int cacheSize() {
+        return parameterCache.size();
+    }
+
+    /**
+     * Load a parameter from SSM on the calling thread, or join the load already in
+     * flight for it.
+     */
+    private CompletableFuture<String> load(String parameterName) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(parameterName, future);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            String value = fetch(parameterName);
+            cache(parameterName, value);
+            future.complete(value);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        } finally {
+            inFlight.remove(parameterName, future);
+        }
+        return future;
+    }
+
+    private void refreshInBackground(String parameterName) {
+        if (inFlight.containsKey(parameterName)) {
+            return;
+        }
+        refreshExecutor.execute(() -> load(parameterName).exceptionally(e -> {
+            // Keep serving the stale value until it ages out
+            logger.warn("Failed to refresh parameter {}: {}", parameterName, e.getMessage());
+            return null;
+        }));
+    }
+
+    private String fetch(String parameterName) {
+        try {
             GetParameterRequest request = GetParameterRequest.builder()
                     .name(parameterName)
                     .withDecryption(true)
                     .build();
 
             GetParameterResponse response = ssmClient.getParameter(request);
-            String value = response.parameter().value();
-
-            // Cache the result
-            parameterCache.put(parameterName, value);
             logger.debug("Retrieved parameter from Parameter Store: {}", parameterName);
-
-            return value;
+            return response.parameter().value();
         } catch (Exception e) {
             // Check if it's a ParameterNotFound error
-            if (e.getMessage() != null && e.getMessage().contains("ParameterNotFound")) {
+            if (e instanceof ParameterNotFoundException
+                    || (e.getMessage() != null && e.getMessage().contains("ParameterNotFound"))) {
                 logger.error("Parameter not found in Parameter Store: {}", parameterName);
                 throw new RuntimeException("Configuration parameter not found: " + parameterName, e);
             }
@@ -85,11 +242,21 @@ public class ConfigurationService {
         }
     }
 
-    /**
-     * Clear the parameter cache (useful for testing or forcing refresh).
-     */
-    public void clearCache() {
-        parameterCache.clear();
-        logger.debug("Parameter cache cleared");
+    private void cache(String parameterName, String value) {
+        parameterCache.put(parameterName, new CachedParameter(value, clock.instant()));
+        if (parameterCache.size() > maxEntries) {
+            evictOldest();
+        }
+    }
+
+    private void evictOldest() {
+        while (parameterCache.size() > maxEntries) {
+            parameterCache.entrySet().stream()
+                    .min(Comparator.comparing(entry -> entry.getValue().loadedAt()))
+                    .ifPresent(oldest -> parameterCache.remove(oldest.getKey(), oldest.getValue()));
+        }
+    }
+
+    private record CachedParameter(String value, Instant loadedAt) {
     }
 }
@@ -0,0 +1,94 @@
+package com.ldc.workflow.service;
+
+import com.ldc.workflow.repository.WorkflowStateBatchRepository;
+import com.ldc.workflow.repository.WorkflowStateBatchRepository.DecisionCountsCheck;
+import com.ldc.workflow.repository.WorkflowStateBatchRepository.DecisionCountsMismatch;
+import com.ldc.workflow.util.EmbeddedMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consistency check of the workflow_state decision counters against the attributes JSON.
+ *
+ * Walks the table in id order, {@code workflow.decision.counts.reconcile.batch.size} rows
+ * per query, and reports rows whose counters disagree with their attributes. With repair
+ * on, those rows are recounted from the JSON; this also backfills rows written before the
+ * counter columns existed. A run stops when its time budget is spent and returns the
+ * cursor to resume from.
+ */
+@Service
+public class DecisionCountsReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(DecisionCountsReconciler.class);
+    private static final int MAX_SAMPLES = 20;
+
+    private final WorkflowStateBatchRepository batchRepository;
+    private final int batchSize;
+
+    public DecisionCountsReconciler(WorkflowStateBatchRepository batchRepository,
+            @Value("${workflow.decision.counts.reconcile.batch.size:1000}") int batchSize) {
+        this.batchRepository = batchRepository;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Outcome of one run. complete is false when the budget ran out before the end of
+     * the table; pass lastId as afterId to continue. samples holds the first mismatched
+     * loans as "requestNumber:loanNumber".
+     */
+    public record ReconcileResult(int checked, int mismatched, int repaired, long lastId, boolean complete,
+            List<String> samples, Duration elapsed) {
+    }
+
+    public ReconcileResult reconcile(long afterId, boolean repair, Duration budget) {
+        long start = System.nanoTime();
+        long deadline = start + budget.toNanos();
+        long cursor = afterId;
+        int checked = 0;
+        int mismatched = 0;
+        int repaired = 0;
+        boolean complete = false;
+        List<String> samples = new ArrayList<>();
+
+        while (System.nanoTime() < deadline) {
+            DecisionCountsCheck check = batchRepository.checkDecisionCounts(cursor, batchSize);
+            checked += check.checked();
+            cursor = check.lastId();
+
+            List<Long> ids = new ArrayList<>(check.mismatches().size());
+            for (DecisionCountsMismatch mismatch : check.mismatches()) {
+                ids.add(mismatch.id());
+                if (samples.size() < MAX_SAMPLES) {
+                    samples.add(mismatch.requestNumber() + ":" + mismatch.loanNumber());
+                    logger.warn("Decision counters out of step for RequestNumber: {}, LoanNumber: {} - stored {}, "
+                            + "attributes {}", mismatch.requestNumber(), mismatch.loanNumber(), mismatch.stored(),
+                            mismatch.actual());
+                }
+            }
+            mismatched += ids.size();
+            if (repair) {
+                repaired += batchRepository.repairDecisionCounts(ids);
+            }
+
+            if (check.checked() < batchSize) {
+                complete = true;
+                break;
+            }
+        }
+
+        ReconcileResult result = new ReconcileResult(checked, mismatched, repaired, cursor, complete, samples,
+                Duration.ofNanos(System.nanoTime() - start));
+        logger.info("Decision counts reconciled: checked={}, mismatched={}, repaired={}, lastId={}, complete={}",
+                checked, mismatched, repaired, cursor, complete);
+        EmbeddedMetrics.emit(Map.of("Check", "DecisionCounts"),
+                Map.of("DecisionCountMismatches", mismatched, "DecisionCountRepairs", repaired), "Count");
+        return result;
+    }
+}
@@ -0,0 +1,35 @@
+package com.ldc.workflow.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Callback transport that only reaches waiters in the current JVM.
+ * This is the default and matches the original single-instance behaviour.
+ */
+@Component
+@ConditionalOnProperty(name = "workflow.callback.transport", havingValue = "memory", matchIfMissing = true)
+public class InMemoryCallbackTransport implements CallbackTransport {
+
+    private final CopyOnWriteArrayList<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    @Override
+    public void publish(String callbackKey) {
+        for (Consumer<String> listener : listeners) {
+            listener.accept(callbackKey);
+        }
+    }
+
+    @Override
+    public boolean isDistributed() {
+        return false;
+    }
+}
@@ -0,0 +1,70 @@
+package com.ldc.workflow.service;
+
+import com.ldc.workflow.repository.LoanAttributeRepository;
+import com.ldc.workflow.repository.LoanAttributeRepository.BackfillBatch;
+import com.ldc.workflow.util.EmbeddedMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Fills loan_attribute from the workflow_state attributes JSON.
+ *
+ * Walks workflow_state in id order, {@code workflow.attributes.normalized.backfill.batch.size}
+ * rows per batch, rebuilding each row's loan_attribute rows; rows already in step are
+ * left untouched, so a run doubles as a consistency repair. A run stops when its time
+ * budget is spent and returns the cursor to resume from.
+ */
+@Service
+public class LoanAttributeBackfiller {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoanAttributeBackfiller.class);
+
+    private final LoanAttributeRepository loanAttributeRepository;
+    private final int batchSize;
+
+    public LoanAttributeBackfiller(LoanAttributeRepository loanAttributeRepository,
+            @Value("${workflow.attributes.normalized.backfill.batch.size:1000}") int batchSize) {
+        this.loanAttributeRepository = loanAttributeRepository;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Outcome of one run. complete is false when the budget ran out before the end of
+     * the table; pass lastId as afterId to continue.
+     */
+    public record BackfillResult(int states, int written, long lastId, boolean complete, Duration elapsed) {
+    }
+
+    public BackfillResult backfill(long afterId, Duration budget) {
+        long start = System.nanoTime();
+        long deadline = start + budget.toNanos();
+        long cursor = afterId;
+        int states = 0;
+        int written = 0;
+        boolean complete = false;
+
+        while (System.nanoTime() < deadline) {
+            BackfillBatch batch = loanAttributeRepository.backfill(cursor, batchSize);
+            states += batch.states();
+            written += batch.written();
+            cursor = batch.lastId();
+            if (batch.states() < batchSize) {
+                complete = true;
+                break;
+            }
+        }
+
+        BackfillResult result = new BackfillResult(states, written, cursor, complete,
+                Duration.ofNanos(System.nanoTime() - start));
+        logger.info("Loan attributes backfilled: states={}, written={}, lastId={}, complete={}",
+                states, written, cursor, complete);
+        EmbeddedMetrics.emit(Map.of("Table", "loan_attribute"), Map.of("LoanAttributeBackfillRows", written),
+                "Count");
+        return result;
+    }
+}
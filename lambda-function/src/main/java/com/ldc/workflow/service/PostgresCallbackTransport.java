@@ -0,0 +1,196 @@
+package com.ldc.workflow.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Callback transport backed by PostgreSQL LISTEN/NOTIFY on the workflow datasource.
+ *
+ * Step Functions task handlers usually run in a different Lambda instance than the
+ * API handler waiting for them. Publishing the callback key with pg_notify wakes
+ * waiters on every instance listening on the channel within milliseconds.
+ *
+ * The listener connection is opened lazily on the first subscription so instances
+ * that never wait (Step Functions task invocations) do not hold one. When the workflow
+ * datasource is a Hikari pool, the listener opens its own connection with the pool's
+ * URL, credentials and driver properties, so it never takes one of the pooled
+ * connections the handlers need.
+ */
+@Component
+@ConditionalOnProperty(name = "workflow.callback.transport", havingValue = "postgres")
+public class PostgresCallbackTransport implements CallbackTransport, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresCallbackTransport.class);
+
+    static final String CHANNEL = "workflow_callback";
+    private static final long SUBSCRIBE_TIMEOUT_MILLIS = 2000;
+    private static final long RECONNECT_BACKOFF_MILLIS = 500;
+
+    private final DataSource dataSource;
+    private final HikariDataSource pool;
+    private final int pollMillis;
+    private final CopyOnWriteArrayList<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running;
+    private volatile CountDownLatch listening = new CountDownLatch(1);
+    private Thread listenerThread;
+
+    public PostgresCallbackTransport(DataSource dataSource,
+            @Value("${workflow.callback.postgres.poll.millis:250}") int pollMillis) {
+        this.dataSource = dataSource;
+        this.pool = hikariPool(dataSource);
+        this.pollMillis = pollMillis;
+        if (pool == null) {
+            logger.warn("Callback transport 'postgres' holds one connection of the workflow datasource for LISTEN "
+                    + "while the instance is waiting on callbacks; size the datasource for it");
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listeners.addIfAbsent(listener);
+        startListener();
+
+        try {
+            if (!listening.await(SUBSCRIBE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                logger.warn("LISTEN on channel {} not active after {}ms; callbacks may fall back to timeout",
+                        CHANNEL, SUBSCRIBE_TIMEOUT_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void publish(String callbackKey) {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            statement.setString(1, CHANNEL);
+            statement.setString(2, callbackKey);
+            statement.execute();
+            logger.debug("Published callback notification for key: {}", callbackKey);
+        } catch (SQLException e) {
+            logger.error("Error publishing callback notification for key: {}", callbackKey, e);
+            throw new RuntimeException("Failed to publish callback notification", e);
+        }
+    }
+
+    @Override
+    public boolean isDistributed() {
+        return true;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+            listenerThread = null;
+        }
+    }
+
+    private synchronized void startListener() {
+        if (running) {
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listenLoop, "workflow-callback-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = openListenConnection()) {
+                connection.setAutoCommit(true);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                listening.countDown();
+                logger.info("Listening for workflow callbacks on channel: {}", CHANNEL);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollMillis);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        dispatch(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                logger.error("Callback listener connection lost, reconnecting in {}ms", RECONNECT_BACKOFF_MILLIS, e);
+                listening = new CountDownLatch(1);
+                sleepBeforeReconnect();
+            }
+        }
+    }
+
+    /**
+     * Open the LISTEN connection outside the pool when there is one.
+     */
+    private Connection openListenConnection() throws SQLException {
+        if (pool == null) {
+            return dataSource.getConnection();
+        }
+        Properties properties = new Properties();
+        properties.putAll(pool.getDataSourceProperties());
+        if (pool.getUsername() != null) {
+            properties.setProperty("user", pool.getUsername());
+        }
+        if (pool.getPassword() != null) {
+            properties.setProperty("password", pool.getPassword());
+        }
+        return DriverManager.getConnection(pool.getJdbcUrl(), properties);
+    }
+
+    private static HikariDataSource hikariPool(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    private void dispatch(String callbackKey) {
+        for (Consumer<String> listener : listeners) {
+            try {
+                listener.accept(callbackKey);
+            } catch (Exception e) {
+                logger.error("Callback listener failed for key: {}", callbackKey, e);
+            }
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(RECONNECT_BACKOFF_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
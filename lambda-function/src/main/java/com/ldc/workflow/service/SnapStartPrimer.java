@@ -0,0 +1,249 @@
+package com.ldc.workflow.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ldc.workflow.config.ReadReplicaRoutingDataSource;
+import com.ldc.workflow.constants.WorkflowConstants;
+import com.ldc.workflow.handlers.LoanReviewRouter;
+import com.ldc.workflow.util.WorkflowJson;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PostConstruct;
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * SnapStart (CRaC) hooks that warm the application before the snapshot is taken.
+ *
+ * Before checkpoint, one synthetic request per LoanReviewRouter route is run through
+ * its handler, so Jackson (de)serializers, Hibernate query plans and the handler graph
+ * are already built in the snapshot. Each request runs in its own transaction that is
+ * always rolled back, and uses a reserved request/loan number that has no workflow
+ * state, so no handler reaches Step Functions or Vend PPA. The routes in
+ * {@link #UNPRIMED_ROUTES} are left out: the explicit audit trail and the maintenance
+ * jobs, which write or call out beyond the reserved loan. Pooled JDBC connections are
+ * then closed, since sockets do not survive a restore.
+ *
+ * After restore the pool is resumed and one connection is opened, and the Step
+ * Functions client is primed, so the first real invocation does not pay for either.
+ *
+ * Disabled by {@code workflow.snapstart.priming.enabled=false}.
+ */
+@Service
+public class SnapStartPrimer implements Resource {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapStartPrimer.class);
+
+    static final String PRIMING_REQUEST_NUMBER = "SNAPSTART-PRIMING";
+    static final String PRIMING_LOAN_NUMBER = "0000000000";
+    /**
+     * Routes never primed. auditTrail writes its event outside the transaction, the outbox
+     * drain delivers queued decisions to Vend PPA, and the maintenance jobs scan and
+     * rewrite rows of other loans.
+     */
+    static final Set<String> UNPRIMED_ROUTES = Set.of(
+            WorkflowConstants.HANDLER_AUDIT_TRAIL,
+            WorkflowConstants.HANDLER_VEND_PPA_OUTBOX_DRAIN,
+            WorkflowConstants.HANDLER_DECISION_COUNTS_RECONCILE,
+            WorkflowConstants.HANDLER_LOAN_ATTRIBUTE_BACKFILL,
+            WorkflowConstants.HANDLER_ATTRIBUTE_ENCODING_MIGRATION);
+
+    private static final String PRIMING_INVALID_REVIEW_TYPE = "SnapStartPriming";
+    private static final int CONNECTION_VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final LoanReviewRouter loanReviewRouter;
+    private final StepFunctionsService stepFunctionsService;
+    private final DataSource dataSource;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final String stateMachineArn;
+
+    public SnapStartPrimer(LoanReviewRouter loanReviewRouter,
+            StepFunctionsService stepFunctionsService,
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            @Value("${workflow.snapstart.priming.enabled:true}") boolean enabled,
+            @Value("${STATE_MACHINE_ARN:}") String stateMachineArn) {
+        this.loanReviewRouter = loanReviewRouter;
+        this.stepFunctionsService = stepFunctionsService;
+        this.dataSource = dataSource;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.stateMachineArn = stateMachineArn;
+    }
+
+    @PostConstruct
+    public void register() {
+        if (!enabled) {
+            logger.info("SnapStart priming disabled");
+            return;
+        }
+        // The global context holds resources weakly; this bean keeps itself reachable
+        Core.getGlobalContext().register(this);
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) {
+        long start = System.nanoTime();
+        WorkflowJson.warmUp();
+        int primed = primeRoutes();
+        suspendPool();
+        logger.info("SnapStart priming ran {} routes in {}ms", primed, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+        long start = System.nanoTime();
+        resumePool();
+        if (!stateMachineArn.isEmpty()) {
+            stepFunctionsService.prime(stateMachineArn);
+        }
+        logger.info("SnapStart restore hooks completed in {}ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Run every priming request through the router, each in a rolled-back transaction.
+     * Returns the number of requests that completed without throwing.
+     */
+    int primeRoutes() {
+        int primed = 0;
+        for (JsonNode request : primingRequests()) {
+            String handlerType = request.path(WorkflowConstants.KEY_HANDLER_TYPE).asText();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    status.setRollbackOnly();
+                    loanReviewRouter.prime(request);
+                });
+                primed++;
+            } catch (Exception e) {
+                logger.warn("Failed to prime route {}: {}", handlerType, e.getMessage());
+            }
+        }
+        return primed;
+    }
+
+    /**
+     * One request per routed handler type outside {@link #UNPRIMED_ROUTES}.
+     */
+    static List<JsonNode> primingRequests() {
+        List<JsonNode> requests = new ArrayList<>();
+
+        ObjectNode reviewTypeValidation = primingRequest(WorkflowConstants.HANDLER_REVIEW_TYPE_VALIDATION);
+        reviewTypeValidation.put(WorkflowConstants.KEY_REVIEW_TYPE, WorkflowConstants.REVIEW_TYPE_LDC);
+        addPendingAttribute(reviewTypeValidation);
+        requests.add(reviewTypeValidation);
+
+        requests.add(primingRequest(WorkflowConstants.HANDLER_COMPLETION_CRITERIA));
+        requests.add(primingRequest(WorkflowConstants.HANDLER_LOAN_STATUS_DETERMINATION));
+        requests.add(primingRequest(WorkflowConstants.HANDLER_VEND_PPA_INTEGRATION));
+        requests.add(primingRequest(WorkflowConstants.HANDLER_REGISTER_CALLBACK).put("TaskToken", "priming"));
+
+        ObjectNode loanDecisionUpdate = primingRequest(WorkflowConstants.HANDLER_LOAN_DECISION_UPDATE_API);
+        loanDecisionUpdate.put(WorkflowConstants.KEY_LOAN_DECISION, WorkflowConstants.STATUS_PENDING);
+        addPendingAttribute(loanDecisionUpdate);
+        requests.add(loanDecisionUpdate);
+
+        requests.add(primingRequest(WorkflowConstants.HANDLER_REVIEW_TYPE_UPDATE_API)
+                .put(WorkflowConstants.KEY_REVIEW_TYPE, WorkflowConstants.REVIEW_TYPE_LDC));
+
+        // Start requests stop at validation, before any execution is started
+        requests.add(primingRequest(WorkflowConstants.HANDLER_START_PPA_REVIEW_API)
+                .put(WorkflowConstants.KEY_REVIEW_TYPE, PRIMING_INVALID_REVIEW_TYPE));
+
+        ObjectNode batchStart = primingRequest(WorkflowConstants.HANDLER_BATCH_START_PPA_REVIEW_API);
+        batchStart.putArray(WorkflowConstants.KEY_REQUESTS).add(primingItem()
+                .put(WorkflowConstants.KEY_REVIEW_TYPE, PRIMING_INVALID_REVIEW_TYPE));
+        requests.add(batchStart);
+
+        ObjectNode bulkDecision = primingRequest(WorkflowConstants.HANDLER_BULK_LOAN_DECISION_UPDATE_API);
+        ObjectNode bulkItem = primingItem().put(WorkflowConstants.KEY_LOAN_DECISION,
+                WorkflowConstants.STATUS_PENDING);
+        addPendingAttribute(bulkItem);
+        bulkDecision.putArray(WorkflowConstants.KEY_REQUESTS).add(bulkItem);
+        requests.add(bulkDecision);
+
+        requests.add(primingRequest(WorkflowConstants.HANDLER_ATTRIBUTE_DECISION_SEARCH_API)
+                .put(WorkflowConstants.KEY_NAME, "Priming")
+                .put(WorkflowConstants.KEY_DECISION, WorkflowConstants.STATUS_PENDING)
+                .put("Limit", 1));
+
+        return requests;
+    }
+
+    private static ObjectNode primingRequest(String handlerType) {
+        return primingItem().put(WorkflowConstants.KEY_HANDLER_TYPE, handlerType);
+    }
+
+    private static ObjectNode primingItem() {
+        ObjectNode item = WorkflowJson.mapper().createObjectNode();
+        item.put(WorkflowConstants.KEY_REQUEST_NUMBER, PRIMING_REQUEST_NUMBER);
+        item.put(WorkflowConstants.KEY_LOAN_NUMBER, PRIMING_LOAN_NUMBER);
+        return item;
+    }
+
+    private static void addPendingAttribute(ObjectNode request) {
+        ArrayNode attributes = request.putArray(WorkflowConstants.KEY_ATTRIBUTES);
+        attributes.addObject()
+                .put(WorkflowConstants.KEY_NAME, "Priming")
+                .put(WorkflowConstants.KEY_DECISION, WorkflowConstants.STATUS_PENDING);
+    }
+
+    /**
+     * Stop the pool from opening new connections and close the idle ones, so the
+     * snapshot holds no sockets.
+     */
+    private void suspendPool() {
+        for (HikariPoolMXBean pool : poolBeans()) {
+            pool.suspendPool();
+            pool.softEvictConnections();
+            logger.info("Suspended connection pool for checkpoint ({} connections still active)",
+                    pool.getActiveConnections());
+        }
+    }
+
+    /**
+     * Resume the pool and open one connection ahead of the first invocation.
+     * Connections still in use at checkpoint hold dead sockets, so they are evicted
+     * as soon as they are returned.
+     */
+    private void resumePool() {
+        for (HikariPoolMXBean pool : poolBeans()) {
+            pool.softEvictConnections();
+            pool.resumePool();
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            connection.isValid(CONNECTION_VALIDATION_TIMEOUT_SECONDS);
+        } catch (Exception e) {
+            // The first invocation opens its own connection if this one could not
+            logger.warn("Failed to open a connection after restore: {}", e.getMessage());
+        }
+    }
+
+    private List<HikariPoolMXBean> poolBeans() {
+        List<DataSource> targets = dataSource instanceof ReadReplicaRoutingDataSource routing
+                ? routing.getTargets()
+                : List.of(dataSource);
+        List<HikariPoolMXBean> pools = new ArrayList<>(targets.size());
+        for (DataSource target : targets) {
+            if (target instanceof HikariDataSource hikari && hikari.isAllowPoolSuspension()
+                    && hikari.getHikariPoolMXBean() != null) {
+                pools.add(hikari.getHikariPoolMXBean());
+            }
+        }
+        return pools;
+    }
+}
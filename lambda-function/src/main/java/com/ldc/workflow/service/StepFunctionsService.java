@@ -3,45 +3,77 @@ package com.ldc.workflow.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import software.amazon.awssdk.services.sfn.SfnClient;
+import software.amazon.awssdk.services.sfn.SfnAsyncClient;
+import software.amazon.awssdk.services.sfn.model.ListExecutionsRequest;
 import software.amazon.awssdk.services.sfn.model.StartExecutionRequest;
-import software.amazon.awssdk.services.sfn.model.StartExecutionResponse;
 import software.amazon.awssdk.services.sfn.model.SendTaskSuccessRequest;
 import software.amazon.awssdk.services.sfn.model.SendTaskFailureRequest;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
 /**
  * Service for interacting with AWS Step Functions API.
  * Uses AWS SDK v2 for proper authentication and authorization.
+ *
+ * Calls go through the shared SfnAsyncClient. The *Async methods return as soon as
+ * the request is queued so callers can pipeline many of them; failures complete the
+ * future with the same RuntimeException the blocking methods throw.
  */
 @Service
 public class StepFunctionsService {
 
     private static final Logger logger = LoggerFactory.getLogger(StepFunctionsService.class);
-    private final SfnClient sfnClient;
+    private final SfnAsyncClient sfnClient;
 
-    public StepFunctionsService() {
-        // AWS SDK v2 automatically handles credentials from Lambda environment
-        this.sfnClient = SfnClient.builder().build();
+    public StepFunctionsService(SfnAsyncClient sfnClient) {
+        this.sfnClient = sfnClient;
     }
 
     /**
      * Start a new Step Function execution.
      */
     public String startExecution(String stateMachineArn, String executionName, String input) {
-        try {
-            StartExecutionRequest request = StartExecutionRequest.builder()
-                    .stateMachineArn(stateMachineArn)
-                    .name(executionName)
-                    .input(input)
-                    .build();
+        return join(startExecutionAsync(stateMachineArn, executionName, input));
+    }
 
-            StartExecutionResponse response = sfnClient.startExecution(request);
+    /**
+     * Start a new Step Function execution without waiting for the response.
+     *
+     * @return the execution ARN
+     */
+    public CompletableFuture<String> startExecutionAsync(String stateMachineArn, String executionName,
+            String input) {
+        return call(() -> sfnClient.startExecution(StartExecutionRequest.builder()
+                .stateMachineArn(stateMachineArn)
+                .name(executionName)
+                .input(input)
+                .build()))
+                .handle((response, error) -> {
+                    if (error != null) {
+                        logger.error("Error starting Step Function execution", unwrap(error));
+                        throw new RuntimeException("Failed to start Step Function execution", unwrap(error));
+                    }
+                    logger.info("Step Function execution started: {}", response.executionArn());
+                    return response.executionArn();
+                });
+    }
 
-            logger.info("Step Function execution started: {}", response.executionArn());
-            return response.executionArn();
+    /**
+     * Issue a cheap read-only call so the client has resolved credentials, loaded its
+     * marshallers and opened a TLS connection before the first real request.
+     */
+    public void prime(String stateMachineArn) {
+        try {
+            sfnClient.listExecutions(ListExecutionsRequest.builder()
+                    .stateMachineArn(stateMachineArn)
+                    .maxResults(1)
+                    .build()).join();
+            logger.info("Step Functions client primed");
         } catch (Exception e) {
-            logger.error("Error starting Step Function execution", e);
-            throw new RuntimeException("Failed to start Step Function execution", e);
+            // Priming is an optimization only; the first real call retries the connection
+            logger.warn("Failed to prime Step Functions client: {}", unwrap(e).getMessage());
         }
     }
 
@@ -49,36 +81,78 @@ public class StepFunctionsService {
      * Send task success to Step Functions to resume execution.
      */
     public void sendTaskSuccess(String taskToken, String output) {
-        try {
-            SendTaskSuccessRequest request = SendTaskSuccessRequest.builder()
-                    .taskToken(taskToken)
-                    .output(output)
-                    .build();
+        join(sendTaskSuccessAsync(taskToken, output));
+    }
 
-            sfnClient.sendTaskSuccess(request);
-            logger.info("Task success sent to Step Functions");
-        } catch (Exception e) {
-            logger.error("Error sending task success to Step Functions", e);
-            throw new RuntimeException("Failed to send task success", e);
-        }
+    /**
+     * Send task success to Step Functions without waiting for the response.
+     */
+    public CompletableFuture<Void> sendTaskSuccessAsync(String taskToken, String output) {
+        return call(() -> sfnClient.sendTaskSuccess(SendTaskSuccessRequest.builder()
+                .taskToken(taskToken)
+                .output(output)
+                .build()))
+                .handle((response, error) -> {
+                    if (error != null) {
+                        logger.error("Error sending task success to Step Functions", unwrap(error));
+                        throw new RuntimeException("Failed to send task success", unwrap(error));
+                    }
+                    logger.info("Task success sent to Step Functions");
+                    return null;
+                });
     }
 
     /**
      * Send task failure to Step Functions.
      */
     public void sendTaskFailure(String taskToken, String error, String cause) {
-        try {
-            SendTaskFailureRequest request = SendTaskFailureRequest.builder()
-                    .taskToken(taskToken)
-                    .error(error)
-                    .cause(cause)
-                    .build();
+        join(sendTaskFailureAsync(taskToken, error, cause));
+    }
 
-            sfnClient.sendTaskFailure(request);
-            logger.info("Task failure sent to Step Functions");
+    /**
+     * Send task failure to Step Functions without waiting for the response.
+     */
+    public CompletableFuture<Void> sendTaskFailureAsync(String taskToken, String error, String cause) {
+        return call(() -> sfnClient.sendTaskFailure(SendTaskFailureRequest.builder()
+                .taskToken(taskToken)
+                .error(error)
+                .cause(cause)
+                .build()))
+                .handle((response, failure) -> {
+                    if (failure != null) {
+                        logger.error("Error sending task failure to Step Functions", unwrap(failure));
+                        throw new RuntimeException("Failed to send task failure to Step Functions", unwrap(failure));
+                    }
+                    logger.info("Task failure sent to Step Functions");
+                    return null;
+                });
+    }
+
+    /**
+     * Unwrap the CompletionException around a failed future's cause.
+     */
+    public static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Request building and marshalling can fail before a future exists; report that
+     * through the future like any other failure.
+     */
+    private static <T> CompletableFuture<T> call(Supplier<CompletableFuture<T>> request) {
+        try {
+            return request.get();
         } catch (Exception e) {
-            logger.error("Error sending task failure to Step Functions", e);
-            throw new RuntimeException("Failed to send task failure to Step Functions", e);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = unwrap(e);
+            throw cause instanceof RuntimeException runtime ? runtime : new RuntimeException(cause);
         }
     }
 }
@@ -0,0 +1,255 @@
+package com.ldc.workflow.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ldc.workflow.config.VendPpaResilienceProperties;
+import com.ldc.workflow.util.CircuitBreaker;
+import com.ldc.workflow.util.WorkflowJson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP client for the Vend PPA API.
+ *
+ * One HttpClient is shared across invocations so warm containers reuse the TCP/TLS
+ * connection, negotiating HTTP/2 when the server offers it. Every call is bounded by
+ * {@code vend.ppa.connect.timeout.millis} and {@code vend.ppa.timeout.seconds}.
+ * Connection failures, timeouts, 429 and 5xx responses are retried up to
+ * {@code vend.ppa.retry.attempts} times in total with full-jitter exponential backoff;
+ * other responses fail immediately.
+ *
+ * Each attempt goes through a circuit breaker, and at most
+ * {@code vend.ppa.resilience.max-concurrent-calls} calls run at once. When the breaker
+ * is open, the bulkhead is full or the retries run out, {@link UnavailableException}
+ * is thrown with a hint for when to try again, instead of spending more of the
+ * invocation on a dependency that is down.
+ */
+@Service
+public class VendPpaClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(VendPpaClient.class);
+    private static final ObjectMapper objectMapper = WorkflowJson.mapper();
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private final URI endpoint;
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final int maxAttempts;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+    private final CircuitBreaker circuitBreaker;
+    private final Semaphore bulkhead;
+    private final Duration bulkheadWait;
+
+    @Autowired
+    public VendPpaClient(@Value("${vend.ppa.endpoint:}") String endpoint,
+            @Value("${vend.ppa.connect.timeout.millis:2000}") long connectTimeoutMillis,
+            @Value("${vend.ppa.timeout.seconds:30}") long timeoutSeconds,
+            @Value("${vend.ppa.retry.attempts:5}") int maxAttempts,
+            @Value("${vend.ppa.retry.base.backoff.millis:100}") long baseBackoffMillis,
+            @Value("${vend.ppa.retry.max.backoff.millis:2000}") long maxBackoffMillis,
+            VendPpaResilienceProperties resilience) {
+        this(endpoint == null || endpoint.isEmpty() ? null : URI.create(endpoint),
+                HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_2)
+                        .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                        .build(),
+                Duration.ofSeconds(timeoutSeconds), maxAttempts, Duration.ofMillis(baseBackoffMillis),
+                Duration.ofMillis(maxBackoffMillis),
+                new CircuitBreaker("VendPpa", resilience.toCircuitBreakerSettings()),
+                resilience.getMaxConcurrentCalls(), Duration.ofMillis(resilience.getMaxWaitMillis()));
+    }
+
+    VendPpaClient(URI endpoint, HttpClient httpClient, Duration requestTimeout, int maxAttempts,
+            Duration baseBackoff, Duration maxBackoff, CircuitBreaker circuitBreaker, int maxConcurrentCalls,
+            Duration bulkheadWait) {
+        this.endpoint = endpoint;
+        this.httpClient = httpClient;
+        this.requestTimeout = requestTimeout;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseBackoff = baseBackoff;
+        this.maxBackoff = maxBackoff;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = new Semaphore(Math.max(1, maxConcurrentCalls));
+        this.bulkheadWait = bulkheadWait;
+    }
+
+    /**
+     * Whether an endpoint is configured; without one the integration is skipped.
+     */
+    public boolean isConfigured() {
+        return endpoint != null;
+    }
+
+    public CircuitBreaker.State circuitState() {
+        return circuitBreaker.state();
+    }
+
+    /**
+     * POST the request body to the Vend PPA endpoint and return the parsed response.
+     *
+     * @throws UnavailableException if Vend PPA is down or overloaded and the call
+     *                              should be retried later
+     */
+    public JsonNode post(JsonNode requestBody) {
+        return post(requestBody, null);
+    }
+
+    /**
+     * As {@link #post(JsonNode)}, sending an Idempotency-Key header so Vend PPA can
+     * recognise a delivery it has already accepted when it is sent again.
+     */
+    public JsonNode post(JsonNode requestBody, String idempotencyKey) {
+        return post(requestBody, idempotencyKey, maxAttempts);
+    }
+
+    /**
+     * As {@link #post(JsonNode, String)} with a single attempt, for callers that schedule
+     * their own retries, so a call takes at most one request timeout.
+     */
+    public JsonNode postOnce(JsonNode requestBody, String idempotencyKey) {
+        return post(requestBody, idempotencyKey, 1);
+    }
+
+    private JsonNode post(JsonNode requestBody, String idempotencyKey, int attempts) {
+        if (endpoint == null) {
+            throw new IllegalStateException("Vend PPA endpoint is not configured");
+        }
+        HttpRequest request;
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(endpoint)
+                    .timeout(requestTimeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(requestBody)));
+            if (idempotencyKey != null) {
+                builder.header(IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+            }
+            request = builder.build();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to serialize Vend PPA request", e);
+        }
+
+        if (!acquireBulkhead()) {
+            throw new UnavailableException("Vend PPA bulkhead full", maxBackoff);
+        }
+        try {
+            return send(request, attempts);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private JsonNode send(HttpRequest request, int attempts) {
+        for (int attempt = 1; ; attempt++) {
+            if (!circuitBreaker.tryAcquire()) {
+                throw new UnavailableException("Vend PPA circuit open", circuitBreaker.retryAfter());
+            }
+            String failure;
+            long start = System.nanoTime();
+            try {
+                HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                int status = response.statusCode();
+                if (status != 429 && status < 500) {
+                    // The API answered; a 4xx is our problem, not an outage
+                    circuitBreaker.onSuccess(elapsedSince(start));
+                    if (status >= 200 && status < 300) {
+                        return parse(response.body());
+                    }
+                    throw new RuntimeException("Vend PPA API returned error status: " + status);
+                }
+                circuitBreaker.onFailure(elapsedSince(start));
+                failure = "status " + status;
+            } catch (IOException e) {
+                // Connect failures, timeouts and connections closed by the server
+                circuitBreaker.onFailure(elapsedSince(start));
+                failure = e.getClass().getSimpleName() + ": " + e.getMessage();
+            } catch (InterruptedException e) {
+                circuitBreaker.onFailure(elapsedSince(start));
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted calling Vend PPA API", e);
+            }
+
+            if (attempt >= attempts) {
+                Duration retryAfter = circuitBreaker.retryAfter();
+                throw new UnavailableException("No successful response after " + attempt + " attempts ("
+                        + failure + ")", retryAfter.compareTo(maxBackoff) > 0 ? retryAfter : maxBackoff);
+            }
+            long backoffMillis = backoffMillis(attempt);
+            logger.warn("Vend PPA API attempt {} of {} failed ({}); retrying in {}ms",
+                    attempt, attempts, failure, backoffMillis);
+            sleep(backoffMillis);
+        }
+    }
+
+    private boolean acquireBulkhead() {
+        try {
+            return bulkhead.tryAcquire(bulkheadWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Full jitter: a uniform delay up to base * 2^(attempt - 1), capped at maxBackoff.
+     */
+    long backoffMillis(int attempt) {
+        long ceiling = Math.min(maxBackoff.toMillis(), baseBackoff.toMillis() << Math.min(attempt - 1, 20));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static Duration elapsedSince(long startNanos) {
+        return Duration.ofNanos(System.nanoTime() - startNanos);
+    }
+
+    private static JsonNode parse(byte[] body) {
+        if (body.length == 0) {
+            return objectMapper.createObjectNode();
+        }
+        try {
+            return objectMapper.readTree(body);
+        } catch (IOException e) {
+            throw new RuntimeException("Invalid Vend PPA API response: " + e.getMessage(), e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted waiting to retry Vend PPA API", e);
+        }
+    }
+
+    /**
+     * Vend PPA could not be reached now; try again after {@link #getRetryAfter()}.
+     */
+    public static class UnavailableException extends RuntimeException {
+
+        private final Duration retryAfter;
+
+        public UnavailableException(String message, Duration retryAfter) {
+            super(message);
+            this.retryAfter = retryAfter;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+    }
+}
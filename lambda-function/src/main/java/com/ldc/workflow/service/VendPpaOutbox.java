@@ -0,0 +1,229 @@
+package com.ldc.workflow.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ldc.workflow.repository.VendPpaDeliveryRepository;
+import com.ldc.workflow.repository.VendPpaDeliveryRepository.Delivery;
+import com.ldc.workflow.util.CircuitBreaker;
+import com.ldc.workflow.util.EmbeddedMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Outbox of Vend PPA deliveries.
+ *
+ * The integration step enqueues the decision in the transaction that completes the
+ * workflow and then makes one best-effort send. Anything not delivered there is sent
+ * by {@link #drain}, which claims due rows in batches of {@code vend.ppa.outbox.batch.size}
+ * and sends them {@code vend.ppa.outbox.concurrency} at a time. Each delivery carries an
+ * idempotency key built from the request, loan and execution, so a row sent twice (a
+ * drain that died before recording the outcome, or a retried step) is accepted once.
+ *
+ * Every send is a single attempt bounded by the client's request timeout. Failed sends
+ * are retried with exponential backoff, never sooner than the circuit breaker allows,
+ * until {@code vend.ppa.outbox.max.attempts} attempts are used and the row is marked
+ * FAILED. Rows that are delivered are recorded in one batch per claim.
+ */
+@Service
+public class VendPpaOutbox {
+
+    private static final Logger logger = LoggerFactory.getLogger(VendPpaOutbox.class);
+
+    private final VendPpaDeliveryRepository deliveryRepository;
+    private final VendPpaClient vendPpaClient;
+    private final int maxAttempts;
+    private final int batchSize;
+    private final int concurrency;
+    private final Duration lease;
+    private final Duration retryBase;
+    private final Duration retryMax;
+
+    public VendPpaOutbox(VendPpaDeliveryRepository deliveryRepository, VendPpaClient vendPpaClient,
+            @Value("${vend.ppa.outbox.max.attempts:20}") int maxAttempts,
+            @Value("${vend.ppa.outbox.batch.size:200}") int batchSize,
+            @Value("${vend.ppa.outbox.concurrency:8}") int concurrency,
+            @Value("${vend.ppa.outbox.lease.seconds:120}") long leaseSeconds,
+            @Value("${vend.ppa.outbox.retry.base.seconds:30}") long retryBaseSeconds,
+            @Value("${vend.ppa.outbox.retry.max.seconds:3600}") long retryMaxSeconds) {
+        this.deliveryRepository = deliveryRepository;
+        this.vendPpaClient = vendPpaClient;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.batchSize = Math.max(1, batchSize);
+        this.concurrency = Math.max(1, concurrency);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.retryBase = Duration.ofSeconds(retryBaseSeconds);
+        this.retryMax = Duration.ofSeconds(retryMaxSeconds);
+    }
+
+    /**
+     * Outcome of one drain run. Pending rows remain when the budget ran out or the
+     * circuit opened before the backlog was empty.
+     */
+    public record DrainResult(int claimed, int delivered, int retried, int failed, boolean backlogRemaining,
+            Duration elapsed) {
+    }
+
+    /**
+     * The key Vend PPA uses to recognise a delivery it has already accepted.
+     */
+    public static String idempotencyKey(String requestNumber, String loanNumber, String executionId) {
+        return requestNumber + ":" + loanNumber + ":" + executionId;
+    }
+
+    /**
+     * Add a delivery to the outbox. Call inside the transaction that records the decision.
+     */
+    public Delivery enqueue(String requestNumber, String loanNumber, String executionId, JsonNode payload) {
+        return deliveryRepository.enqueue(requestNumber, loanNumber, executionId,
+                idempotencyKey(requestNumber, loanNumber, executionId), payload);
+    }
+
+    /**
+     * Send one delivery now, in a single attempt, and record the outcome. On failure the
+     * attempt is counted, the next one scheduled, and the error rethrown; the row stays
+     * in the outbox.
+     *
+     * @return the Vend PPA response
+     */
+    public JsonNode deliverNow(Delivery delivery) {
+        JsonNode response;
+        try {
+            response = vendPpaClient.postOnce(delivery.payload(), delivery.idempotencyKey());
+        } catch (RuntimeException e) {
+            recordFailure(new Attempt(delivery, null, e));
+            throw e;
+        }
+        deliveryRepository.markDelivered(delivery.id());
+        return response;
+    }
+
+    /**
+     * Deliver due rows until none are left, the circuit opens or the budget is spent.
+     * Sends still in flight when the budget runs out are cancelled; their rows are
+     * claimed again once the lease expires.
+     */
+    public DrainResult drain(Duration budget) {
+        long start = System.nanoTime();
+        long deadline = start + budget.toNanos();
+        int claimed = 0;
+        int delivered = 0;
+        int retried = 0;
+        int failed = 0;
+        boolean backlogRemaining = false;
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService senders = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "vend-ppa-outbox-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            while (true) {
+                if (System.nanoTime() >= deadline || vendPpaClient.circuitState() == CircuitBreaker.State.OPEN) {
+                    backlogRemaining = true;
+                    break;
+                }
+                List<Delivery> batch = deliveryRepository.claimDue(batchSize, lease);
+                claimed += batch.size();
+
+                List<Callable<Attempt>> sends = new ArrayList<>(batch.size());
+                for (Delivery delivery : batch) {
+                    sends.add(() -> send(delivery));
+                }
+                List<Long> deliveredIds = new ArrayList<>(batch.size());
+                List<Future<Attempt>> futures = senders.invokeAll(sends, deadline - System.nanoTime(),
+                        TimeUnit.NANOSECONDS);
+                for (Future<Attempt> future : futures) {
+                    if (future.isCancelled()) {
+                        backlogRemaining = true;
+                        continue;
+                    }
+                    Attempt attempt = future.get();
+                    if (attempt.error() == null && attempt.response() != null) {
+                        deliveredIds.add(attempt.delivery().id());
+                    } else if (attempt.error() != null) {
+                        if (recordFailure(attempt)) {
+                            retried++;
+                        } else {
+                            failed++;
+                        }
+                    }
+                    // Neither: skipped because the circuit opened; the lease brings it back
+                }
+                deliveryRepository.markDelivered(deliveredIds);
+                delivered += deliveredIds.size();
+
+                if (batch.size() < batchSize) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted draining Vend PPA outbox", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Vend PPA outbox send failed", e.getCause());
+        } finally {
+            senders.shutdownNow();
+        }
+
+        DrainResult result = new DrainResult(claimed, delivered, retried, failed, backlogRemaining,
+                Duration.ofNanos(System.nanoTime() - start));
+        logger.info("Vend PPA outbox drained: {}", result);
+        EmbeddedMetrics.emit(Map.of("Outbox", "VendPpa"),
+                Map.of("OutboxDelivered", delivered, "OutboxRetried", retried, "OutboxFailed", failed), "Count");
+        return result;
+    }
+
+    private Attempt send(Delivery delivery) {
+        if (vendPpaClient.circuitState() == CircuitBreaker.State.OPEN) {
+            return new Attempt(delivery, null, null);
+        }
+        try {
+            return new Attempt(delivery, vendPpaClient.postOnce(delivery.payload(), delivery.idempotencyKey()),
+                    null);
+        } catch (RuntimeException e) {
+            return new Attempt(delivery, null, e);
+        }
+    }
+
+    /**
+     * @return true if the delivery will be retried
+     */
+    private boolean recordFailure(Attempt attempt) {
+        Delivery delivery = attempt.delivery();
+        Duration delay = backoff(delivery.attempts() + 1);
+        if (attempt.error() instanceof VendPpaClient.UnavailableException unavailable
+                && unavailable.getRetryAfter().compareTo(delay) > 0) {
+            delay = unavailable.getRetryAfter();
+        }
+        logger.warn("Vend PPA delivery failed for RequestNumber: {}, LoanNumber: {} (attempt {}): {}",
+                delivery.requestNumber(), delivery.loanNumber(), delivery.attempts() + 1,
+                attempt.error().getMessage());
+        return deliveryRepository.recordFailedAttempt(delivery.id(), attempt.error().getMessage(),
+                Instant.now().plus(delay), maxAttempts);
+    }
+
+    /**
+     * retryBase * 2^(attempt - 1), capped at retryMax.
+     */
+    Duration backoff(int attempt) {
+        long seconds = retryBase.getSeconds() << Math.min(attempt - 1, 20);
+        return Duration.ofSeconds(Math.min(seconds, retryMax.getSeconds()));
+    }
+
+    private record Attempt(Delivery delivery, JsonNode response, RuntimeException error) {
+    }
+}
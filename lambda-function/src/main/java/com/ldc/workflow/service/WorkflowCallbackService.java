@@ -1,79 +1,159 @@
 package com.ldc.workflow.service;
 
+import com.ldc.workflow.repository.WorkflowStateRepository;
 import com.ldc.workflow.types.WorkflowState;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Service for handling asynchronous workflow callbacks.
- * 
+ *
  * Implements a wait-for-completion pattern where API handlers can wait for
  * Step Functions to complete processing before returning a response.
- * 
+ *
  * This ensures clients receive up-to-date workflow state after async processing.
+ * Delivery goes through a {@link CallbackTransport}, so with a distributed transport
+ * the waiter is woken even when the Step Functions task runs on another instance.
+ *
+ * Waits are exposed as CompletableFutures whose timeouts run on one shared scheduler
+ * thread, so in-flight waits do not each hold a parked thread. Stages composed on a
+ * wait run on a small completion pool, never on the notifying or timeout thread.
  */
 @Service
 public class WorkflowCallbackService {
 
     private static final Logger logger = LoggerFactory.getLogger(WorkflowCallbackService.class);
+    private static final int COMPLETION_THREADS = 4;
 
     @Value("${workflow.callback.timeout.seconds:5}")
     private long callbackTimeoutSeconds;
 
+    private final CallbackTransport callbackTransport;
+    private final WorkflowStateRepository workflowStateRepository;
+    private final Consumer<String> deliveryListener = this::onCallbackDelivered;
+    private final ScheduledExecutorService timeoutScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "workflow-callback-timeout");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService completionExecutor = Executors.newFixedThreadPool(COMPLETION_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "workflow-callback-completion");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     // Map to store pending callbacks: key = requestNumber:loanNumber, value = callback result
     private final ConcurrentHashMap<String, WorkflowCallbackResult> pendingCallbacks = new ConcurrentHashMap<>();
 
+    public WorkflowCallbackService(CallbackTransport callbackTransport,
+            WorkflowStateRepository workflowStateRepository) {
+        this.callbackTransport = callbackTransport;
+        this.workflowStateRepository = workflowStateRepository;
+    }
+
     /**
-     * Register a callback and wait for Step Functions to complete.
-     * 
+     * Register interest in a callback before resuming Step Functions.
+     * Registering first guarantees a notification published while the resume call
+     * is still in flight is not missed.
+     */
+    public void registerCallback(String requestNumber, String loanNumber) {
+        String callbackKey = generateCallbackKey(requestNumber, loanNumber);
+        pendingCallbacks.computeIfAbsent(callbackKey,
+                key -> new WorkflowCallbackResult(requestNumber, loanNumber));
+        callbackTransport.subscribe(deliveryListener);
+    }
+
+    /**
+     * Drop a registration that will never be waited on (e.g. the resume call failed).
+     */
+    public void cancelCallback(String requestNumber, String loanNumber) {
+        WorkflowCallbackResult result = pendingCallbacks.remove(generateCallbackKey(requestNumber, loanNumber));
+        if (result != null) {
+            result.future.complete(null);
+        }
+    }
+
+    /**
+     * Register a callback and complete when Step Functions has processed the update.
+     * The future completes with null on timeout and never completes exceptionally.
+     * Dependent stages run on the completion pool, so they may read the database.
+     *
      * @param requestNumber The request number
      * @param loanNumber The loan number
      * @param timeoutSeconds Timeout in seconds (overrides default if provided)
-     * @return The updated WorkflowState from Step Functions, or null if timeout
+     * @return Future of the updated WorkflowState from Step Functions, or null if timeout
      */
-    public WorkflowState waitForCallback(String requestNumber, String loanNumber, Long timeoutSeconds) {
+    public CompletableFuture<WorkflowState> awaitCallback(String requestNumber, String loanNumber,
+            Long timeoutSeconds) {
         String callbackKey = generateCallbackKey(requestNumber, loanNumber);
         long timeout = timeoutSeconds != null ? timeoutSeconds : callbackTimeoutSeconds;
 
-        logger.info("Registering callback for Request: {}, Loan: {}, Timeout: {}s", 
+        logger.info("Registering callback for Request: {}, Loan: {}, Timeout: {}s",
                 requestNumber, loanNumber, timeout);
 
-        // Create a new callback result holder
-        WorkflowCallbackResult result = new WorkflowCallbackResult();
-        pendingCallbacks.put(callbackKey, result);
+        // Reuse the holder created by registerCallback(), if any
+        WorkflowCallbackResult result = pendingCallbacks.computeIfAbsent(callbackKey,
+                key -> new WorkflowCallbackResult(requestNumber, loanNumber));
+        callbackTransport.subscribe(deliveryListener);
 
-        try {
-            // Wait for Step Functions to call notifyCallback()
-            boolean completed = result.latch.await(timeout, TimeUnit.SECONDS);
+        ScheduledFuture<?> timeoutTask = timeoutScheduler.schedule(() -> {
+            if (result.future.complete(null)) {
+                logger.warn("Callback timeout for Request: {}, Loan: {} after {}s",
+                        requestNumber, loanNumber, timeout);
+            }
+        }, timeout, TimeUnit.SECONDS);
 
-            if (completed) {
+        return result.future.whenCompleteAsync((state, error) -> {
+            // Clean up
+            timeoutTask.cancel(false);
+            pendingCallbacks.remove(callbackKey, result);
+        }, completionExecutor);
+    }
+
+    /**
+     * Register a callback and block until Step Functions completes.
+     * Prefer {@link #awaitCallback} where the caller can compose on the result.
+     *
+     * @return The updated WorkflowState from Step Functions, or null if timeout
+     */
+    public WorkflowState waitForCallback(String requestNumber, String loanNumber, Long timeoutSeconds) {
+        try {
+            WorkflowState state = awaitCallback(requestNumber, loanNumber, timeoutSeconds).get();
+            if (state != null) {
                 logger.info("Callback completed for Request: {}, Loan: {}", requestNumber, loanNumber);
-                return result.workflowState;
-            } else {
-                logger.warn("Callback timeout for Request: {}, Loan: {} after {}s", 
-                        requestNumber, loanNumber, timeout);
-                return null;
             }
+            return state;
         } catch (InterruptedException e) {
             logger.error("Callback wait interrupted for Request: {}, Loan: {}", requestNumber, loanNumber, e);
             Thread.currentThread().interrupt();
+            cancelCallback(requestNumber, loanNumber);
+            return null;
+        } catch (ExecutionException e) {
+            logger.error("Callback wait failed for Request: {}, Loan: {}", requestNumber, loanNumber, e);
             return null;
-        } finally {
-            // Clean up
-            pendingCallbacks.remove(callbackKey);
         }
     }
 
     /**
      * Notify that Step Functions has completed processing.
      * Called by Step Functions handlers to signal completion.
-     * 
+     *
+     * A waiter in this JVM receives the state directly; with a distributed transport
+     * the key is also published so waiters on other instances re-read the saved state.
+     *
      * @param requestNumber The request number
      * @param loanNumber The loan number
      * @param updatedState The updated workflow state from Step Functions
@@ -85,11 +165,19 @@ public class WorkflowCallbackService {
 
         WorkflowCallbackResult result = pendingCallbacks.get(callbackKey);
         if (result != null) {
-            result.workflowState = updatedState;
-            result.latch.countDown();
+            result.complete(updatedState);
             logger.info("Callback notified successfully for Request: {}, Loan: {}", requestNumber, loanNumber);
-        } else {
-            logger.warn("No pending callback found for Request: {}, Loan: {}. " +
+        }
+
+        if (callbackTransport.isDistributed()) {
+            try {
+                callbackTransport.publish(callbackKey);
+            } catch (Exception e) {
+                // The waiter falls back to its timeout; never fail the workflow step over this
+                logger.error("Failed to publish callback for Request: {}, Loan: {}", requestNumber, loanNumber, e);
+            }
+        } else if (result == null) {
+            logger.debug("No pending callback found for Request: {}, Loan: {}. " +
                     "API handler may have already timed out.", requestNumber, loanNumber);
         }
     }
@@ -109,15 +197,57 @@ public class WorkflowCallbackService {
         return callbackTimeoutSeconds;
     }
 
+    @PreDestroy
+    public void shutdown() {
+        timeoutScheduler.shutdownNow();
+        completionExecutor.shutdownNow();
+    }
+
+    /**
+     * Handle a callback key delivered by the transport, possibly from another instance.
+     * Remote notifications carry only the key, so the committed state is re-read.
+     */
+    private void onCallbackDelivered(String callbackKey) {
+        WorkflowCallbackResult result = pendingCallbacks.get(callbackKey);
+        if (result == null || result.isDone()) {
+            return;
+        }
+
+        try {
+            WorkflowState state = workflowStateRepository
+                    .findByRequestNumberAndLoanNumber(result.requestNumber, result.loanNumber)
+                    .orElse(null);
+            result.complete(state);
+            logger.info("Remote callback delivered for Request: {}, Loan: {}",
+                    result.requestNumber, result.loanNumber);
+        } catch (Exception e) {
+            logger.error("Failed to load workflow state for delivered callback: {}", callbackKey, e);
+        }
+    }
+
     private String generateCallbackKey(String requestNumber, String loanNumber) {
         return requestNumber + ":" + loanNumber;
     }
 
     /**
-     * Internal class to hold callback result and synchronization latch.
+     * Internal class to hold the pending callback and its completion future.
      */
     private static class WorkflowCallbackResult {
-        WorkflowState workflowState;
-        CountDownLatch latch = new CountDownLatch(1);
+        final String requestNumber;
+        final String loanNumber;
+        final CompletableFuture<WorkflowState> future = new CompletableFuture<>();
+
+        WorkflowCallbackResult(String requestNumber, String loanNumber) {
+            this.requestNumber = requestNumber;
+            this.loanNumber = loanNumber;
+        }
+
+        void complete(WorkflowState state) {
+            future.complete(state);
+        }
+
+        boolean isDone() {
+            return future.isDone();
+        }
     }
 }
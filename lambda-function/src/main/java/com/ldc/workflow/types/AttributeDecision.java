@@ -0,0 +1,54 @@
+package com.ldc.workflow.types;
+
+import com.ldc.workflow.constants.WorkflowConstants;
+
+/**
+ * Decision recorded on a loan attribute. A null decision is PENDING; any value
+ * outside the known set parses as OTHER, which counts as decided but never
+ * influences the loan status.
+ */
+public enum AttributeDecision {
+
+    PENDING(WorkflowConstants.STATUS_PENDING),
+    APPROVED(WorkflowConstants.DECISION_APPROVED),
+    REJECTED(WorkflowConstants.DECISION_REJECTED),
+    RECLASS(WorkflowConstants.DECISION_RECLASS),
+    REPURCHASE(WorkflowConstants.DECISION_REPURCHASE),
+    OTHER(null);
+
+    private static final AttributeDecision[] VALUES = values();
+
+    private final String label;
+
+    AttributeDecision(String label) {
+        this.label = label;
+    }
+
+    /**
+     * The decision string as stored on the attribute; null for OTHER.
+     */
+    public String label() {
+        return label;
+    }
+
+    public static AttributeDecision parse(String decision) {
+        if (decision == null) {
+            return PENDING;
+        }
+        return switch (decision) {
+            case WorkflowConstants.STATUS_PENDING -> PENDING;
+            case WorkflowConstants.DECISION_APPROVED -> APPROVED;
+            case WorkflowConstants.DECISION_REJECTED -> REJECTED;
+            case WorkflowConstants.DECISION_RECLASS -> RECLASS;
+            case WorkflowConstants.DECISION_REPURCHASE -> REPURCHASE;
+            default -> OTHER;
+        };
+    }
+
+    /**
+     * Number of constants, for arrays indexed by ordinal.
+     */
+    public static int count() {
+        return VALUES.length;
+    }
+}
@@ -0,0 +1,87 @@
+package com.ldc.workflow.types;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.Instant;
+
+/**
+ * A single audit_trail row captured from a handler invocation.
+ * Payloads are kept as JSON trees and only serialized when the batch is written,
+ * so recording an event costs no serialization on the request thread.
+ */
+public class AuditEvent {
+
+    private final String requestNumber;
+    private final String loanNumber;
+    private final String taskNumber;
+    private final String eventType;
+    private final String workflowStage;
+    private final String status;
+    private final JsonNode requestPayload;
+    private final JsonNode responsePayload;
+    private final String errorMessage;
+    private final Instant timestamp;
+
+    public AuditEvent(String requestNumber, String loanNumber, String taskNumber, String eventType,
+            String workflowStage, String status, JsonNode requestPayload, JsonNode responsePayload,
+            String errorMessage, Instant timestamp) {
+        this.requestNumber = requestNumber;
+        this.loanNumber = loanNumber;
+        this.taskNumber = taskNumber;
+        this.eventType = eventType;
+        this.workflowStage = workflowStage;
+        this.status = status;
+        this.requestPayload = requestPayload;
+        this.responsePayload = responsePayload;
+        this.errorMessage = errorMessage;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * This event with its payloads replaced.
+     */
+    public AuditEvent withPayloads(JsonNode requestPayload, JsonNode responsePayload) {
+        return new AuditEvent(requestNumber, loanNumber, taskNumber, eventType, workflowStage, status,
+                requestPayload, responsePayload, errorMessage, timestamp);
+    }
+
+    public String getRequestNumber() {
+        return requestNumber;
+    }
+
+    public String getLoanNumber() {
+        return loanNumber;
+    }
+
+    public String getTaskNumber() {
+        return taskNumber;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public String getWorkflowStage() {
+        return workflowStage;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public JsonNode getRequestPayload() {
+        return requestPayload;
+    }
+
+    public JsonNode getResponsePayload() {
+        return responsePayload;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+}
@@ -1,5 +1,6 @@
 package com.ldc.workflow.types;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.ArrayList;
 import java.util.List;
@@ -55,6 +56,10 @@ public class WorkflowState {
     @JsonProperty("stateTransitionHistory")
     private List<StateTransition> stateTransitionHistory = new ArrayList<>();
 
+    // Transitions added since the state was loaded; only these are written on save
+    @JsonIgnore
+    private List<StateTransition> pendingStateTransitions = new ArrayList<>();
+
     // Constructors
     public WorkflowState() {
     }
@@ -197,6 +202,16 @@ public class WorkflowState {
             this.stateTransitionHistory = new ArrayList<>();
         }
         this.stateTransitionHistory.add(transition);
+        this.pendingStateTransitions.add(transition);
+    }
+
+    @JsonIgnore
+    public List<StateTransition> getPendingStateTransitions() {
+        return pendingStateTransitions;
+    }
+
+    public void clearPendingStateTransitions() {
+        this.pendingStateTransitions = new ArrayList<>();
     }
 
     // New Getters and Setters
@@ -0,0 +1,177 @@
+package com.ldc.workflow.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Count-based circuit breaker for calls to a remote dependency.
+ *
+ * Outcomes of the last {@code windowSize} calls are kept. Once at least
+ * {@code minimumCalls} are recorded, the breaker opens when the failure rate or the
+ * rate of calls slower than {@code slowCallDuration} reaches its threshold. While open,
+ * calls are rejected for {@code openDuration}; then up to {@code halfOpenProbes} calls
+ * are let through. A failed or slow probe reopens the breaker, and all probes
+ * succeeding closes it with an empty window.
+ *
+ * State changes and rejections are published as Embedded Metric Format records
+ * ({@code CircuitState}: 0 closed, 1 half open, 2 open).
+ */
+public class CircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    /**
+     * Thresholds are percentages of the calls in the window.
+     */
+    public record Settings(int windowSize, int minimumCalls, int failureRateThreshold, int slowCallRateThreshold,
+            Duration slowCallDuration, Duration openDuration, int halfOpenProbes) {
+    }
+
+    private final String name;
+    private final Settings settings;
+    private final Clock clock;
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int recorded;
+    private int next;
+    private State state = State.CLOSED;
+    private Instant openedAt;
+    private int probesIssued;
+    private int probesSucceeded;
+    private long rejectedCalls;
+
+    public CircuitBreaker(String name, Settings settings) {
+        this(name, settings, Clock.systemUTC());
+    }
+
+    public CircuitBreaker(String name, Settings settings, Clock clock) {
+        this.name = name;
+        this.settings = settings;
+        this.clock = clock;
+        this.failed = new boolean[Math.max(1, settings.windowSize())];
+        this.slow = new boolean[failed.length];
+    }
+
+    /**
+     * Ask to make a call. Every permitted call must be followed by
+     * {@link #onSuccess} or {@link #onFailure}.
+     *
+     * @return false if the breaker is open and the call must not be made
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && !clock.instant().isBefore(openedAt.plus(settings.openDuration()))) {
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.HALF_OPEN && probesIssued < settings.halfOpenProbes()) {
+            probesIssued++;
+            return true;
+        }
+        rejectedCalls++;
+        publish("CircuitRejectedCalls", 1, "Count");
+        return false;
+    }
+
+    /**
+     * Record a call that got a usable answer; it still counts as slow if it took
+     * {@code slowCallDuration} or longer.
+     */
+    public synchronized void onSuccess(Duration elapsed) {
+        record(false, isSlow(elapsed));
+    }
+
+    /**
+     * Record a call that failed (connection error, timeout or server error).
+     */
+    public synchronized void onFailure(Duration elapsed) {
+        record(true, isSlow(elapsed));
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    public synchronized long rejectedCalls() {
+        return rejectedCalls;
+    }
+
+    /**
+     * How long until the breaker lets calls through again; zero unless open.
+     */
+    public synchronized Duration retryAfter() {
+        if (state != State.OPEN) {
+            return Duration.ZERO;
+        }
+        Duration remaining = Duration.between(clock.instant(), openedAt.plus(settings.openDuration()));
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    private boolean isSlow(Duration elapsed) {
+        return elapsed.compareTo(settings.slowCallDuration()) >= 0;
+    }
+
+    private void record(boolean callFailed, boolean callSlow) {
+        if (state == State.HALF_OPEN) {
+            if (callFailed || callSlow) {
+                transition(State.OPEN);
+            } else if (++probesSucceeded >= settings.halfOpenProbes()) {
+                transition(State.CLOSED);
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            // A call permitted before the breaker opened finished late
+            return;
+        }
+
+        failed[next] = callFailed;
+        slow[next] = callSlow;
+        next = (next + 1) % failed.length;
+        recorded = Math.min(recorded + 1, failed.length);
+        if (recorded < settings.minimumCalls()) {
+            return;
+        }
+        int failures = 0;
+        int slowCalls = 0;
+        for (int i = 0; i < recorded; i++) {
+            failures += failed[i] ? 1 : 0;
+            slowCalls += slow[i] ? 1 : 0;
+        }
+        if (failures * 100 >= settings.failureRateThreshold() * recorded
+                || slowCalls * 100 >= settings.slowCallRateThreshold() * recorded) {
+            logger.warn("Circuit {} opening: {} failed and {} slow of the last {} calls",
+                    name, failures, slowCalls, recorded);
+            transition(State.OPEN);
+        }
+    }
+
+    private void transition(State target) {
+        logger.info("Circuit {} {} -> {}", name, state, target);
+        state = target;
+        probesIssued = 0;
+        probesSucceeded = 0;
+        if (target == State.OPEN) {
+            openedAt = clock.instant();
+        }
+        if (target == State.CLOSED) {
+            recorded = 0;
+            next = 0;
+        }
+        publish("CircuitState", target.ordinal(), "None");
+    }
+
+    private void publish(String metric, int value, String unit) {
+        EmbeddedMetrics.emit(Map.of("Circuit", name), Map.of(metric, value), unit);
+    }
+}
@@ -0,0 +1,57 @@
+package com.ldc.workflow.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.PrintStream;
+import java.util.Map;
+
+/**
+ * Writes CloudWatch Embedded Metric Format records.
+ *
+ * Lambda ships stdout to CloudWatch Logs, which extracts any line in this format as
+ * metrics without an API call, so publishing costs nothing on the request path.
+ * Records are written straight to stdout rather than through the logger so that no
+ * pattern prefix breaks the JSON.
+ */
+public final class EmbeddedMetrics {
+
+    public static final String NAMESPACE = "LdcWorkflow";
+
+    private static final ObjectMapper objectMapper = WorkflowJson.mapper();
+    private static volatile PrintStream out = System.out;
+
+    private EmbeddedMetrics() {
+    }
+
+    /**
+     * Emit one record with the given dimensions and metric values.
+     */
+    public static void emit(Map<String, String> dimensions, Map<String, ? extends Number> metrics, String unit) {
+        ObjectNode record = objectMapper.createObjectNode();
+        ObjectNode directive = record.putObject("_aws")
+                .put("Timestamp", System.currentTimeMillis())
+                .putArray("CloudWatchMetrics")
+                .addObject()
+                .put("Namespace", NAMESPACE);
+        ArrayNode dimensionNames = directive.putArray("Dimensions").addArray();
+        dimensions.forEach((name, value) -> {
+            dimensionNames.add(name);
+            record.put(name, value);
+        });
+        ArrayNode definitions = directive.putArray("Metrics");
+        metrics.forEach((name, value) -> {
+            definitions.addObject().put("Name", name).put("Unit", unit);
+            record.putPOJO(name, value);
+        });
+        out.println(record);
+    }
+
+    /**
+     * Redirect records, e.g. to capture them in tests.
+     */
+    static void setOut(PrintStream stream) {
+        out = stream;
+    }
+}
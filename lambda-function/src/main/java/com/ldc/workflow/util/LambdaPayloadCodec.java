@@ -0,0 +1,133 @@
+package com.ldc.workflow.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * Streaming JSON codec for Lambda invocation payloads.
+ *
+ * Requests are parsed straight from the invocation InputStream and responses are
+ * generated straight into the OutputStream, so a payload is never copied into an
+ * intermediate byte[] or String. The Lambda runtime owns both streams; they are
+ * flushed but never closed here.
+ *
+ * Payloads written to logs are capped at a maximum length; serialization stops
+ * once the cap is reached rather than rendering the whole payload first.
+ */
+public class LambdaPayloadCodec {
+
+    private static final String TRUNCATED_SUFFIX = "...(truncated)";
+
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+    private final int maxLoggedChars;
+
+    public LambdaPayloadCodec(ObjectMapper objectMapper, int maxLoggedChars) {
+        // Per-reader/writer features keep the shared mapper and its warmed caches untouched
+        this.reader = objectMapper.reader().without(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        this.writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.maxLoggedChars = maxLoggedChars;
+    }
+
+    /**
+     * Parse the invocation payload directly from the input stream.
+     */
+    public JsonNode read(InputStream input) throws IOException {
+        return reader.readTree(input);
+    }
+
+    /**
+     * Write the response directly to the output stream.
+     */
+    public void write(JsonNode response, OutputStream output) throws IOException {
+        writer.writeValue(output, response);
+        output.flush();
+    }
+
+    /**
+     * A log argument that renders the payload, capped at the configured length, only
+     * when the log statement is actually emitted.
+     */
+    public Object forLog(JsonNode payload) {
+        return new Object() {
+            @Override
+            public String toString() {
+                return abbreviate(payload);
+            }
+        };
+    }
+
+    /**
+     * Render at most maxLoggedChars characters of the payload.
+     */
+    public String abbreviate(JsonNode payload) {
+        if (payload == null) {
+            return "null";
+        }
+        CappedWriter capped = new CappedWriter(maxLoggedChars);
+        try {
+            writer.writeValue(capped, payload);
+        } catch (CapReachedException e) {
+            return capped.toString() + TRUNCATED_SUFFIX;
+        } catch (IOException e) {
+            return "<unprintable payload: " + e.getMessage() + ">";
+        }
+        return capped.toString();
+    }
+
+    /**
+     * Writer that collects up to a fixed number of characters, then aborts the write.
+     */
+    private static class CappedWriter extends Writer {
+        private final StringBuilder buffer;
+        private final int limit;
+
+        CappedWriter(int limit) {
+            this.limit = Math.max(0, limit);
+            this.buffer = new StringBuilder(Math.min(this.limit, 1024));
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            int remaining = limit - buffer.length();
+            if (length > remaining) {
+                buffer.append(chars, offset, remaining);
+                throw new CapReachedException();
+            }
+            buffer.append(chars, offset, length);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            return buffer.toString();
+        }
+    }
+
+    private static class CapReachedException extends IOException {
+        CapReachedException() {
+            super("Log payload cap reached", null);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
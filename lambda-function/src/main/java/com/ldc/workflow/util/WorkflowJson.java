@@ -0,0 +1,121 @@
+package com.ldc.workflow.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.ldc.workflow.types.LoanAttribute;
+import com.ldc.workflow.types.LoanPpaRequest;
+import com.ldc.workflow.types.StateTransition;
+import com.ldc.workflow.types.WorkflowContext;
+import com.ldc.workflow.types.WorkflowState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * The single Jackson ObjectMapper shared by handlers, repositories and the Lambda
+ * entry point, together with pre-built readers and writers for the workflow types.
+ *
+ * One mapper means one set of serializer/deserializer caches to build at cold start.
+ * ObjectReader/ObjectWriter instances are immutable and thread-safe, and resolve
+ * their root (de)serializer once instead of on every call. {@link #warmUp()} builds
+ * those caches eagerly so the first invocation does not pay for them.
+ *
+ * The mapper is also exposed as the primary Spring ObjectMapper bean (see JacksonConfig).
+ */
+public final class WorkflowJson {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkflowJson.class);
+
+    // Inbound payloads carry fields for other handlers; tolerate them as Spring's default mapper does
+    private static final ObjectMapper MAPPER = JsonMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private static final TypeReference<List<LoanAttribute>> LOAN_ATTRIBUTE_LIST = new TypeReference<>() {
+    };
+
+    private static final ObjectReader WORKFLOW_CONTEXT_READER = MAPPER.readerFor(WorkflowContext.class);
+    private static final ObjectReader LOAN_PPA_REQUEST_READER = MAPPER.readerFor(LoanPpaRequest.class);
+    private static final ObjectWriter LOAN_PPA_REQUEST_WRITER = MAPPER.writerFor(LoanPpaRequest.class);
+    private static final ObjectReader WORKFLOW_STATE_READER = MAPPER.readerFor(WorkflowState.class);
+    private static final ObjectWriter WORKFLOW_STATE_WRITER = MAPPER.writerFor(WorkflowState.class);
+    private static final ObjectReader LOAN_ATTRIBUTES_READER = MAPPER.readerFor(LOAN_ATTRIBUTE_LIST);
+    private static final ObjectWriter LOAN_ATTRIBUTES_WRITER = MAPPER.writerFor(LOAN_ATTRIBUTE_LIST);
+
+    private static volatile boolean warmedUp;
+
+    private WorkflowJson() {
+    }
+
+    public static ObjectMapper mapper() {
+        return MAPPER;
+    }
+
+    public static ObjectReader workflowContextReader() {
+        return WORKFLOW_CONTEXT_READER;
+    }
+
+    public static ObjectReader loanPpaRequestReader() {
+        return LOAN_PPA_REQUEST_READER;
+    }
+
+    public static ObjectWriter loanPpaRequestWriter() {
+        return LOAN_PPA_REQUEST_WRITER;
+    }
+
+    public static ObjectReader workflowStateReader() {
+        return WORKFLOW_STATE_READER;
+    }
+
+    public static ObjectWriter workflowStateWriter() {
+        return WORKFLOW_STATE_WRITER;
+    }
+
+    public static ObjectReader loanAttributesReader() {
+        return LOAN_ATTRIBUTES_READER;
+    }
+
+    public static ObjectWriter loanAttributesWriter() {
+        return LOAN_ATTRIBUTES_WRITER;
+    }
+
+    /**
+     * Round-trip a sample of each workflow type through its reader and writer, so
+     * serializers, deserializers and the tree model are built before the first request.
+     * Safe to call more than once; only the first call does any work.
+     */
+    public static synchronized void warmUp() {
+        if (warmedUp) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            LoanPpaRequest request = new LoanPpaRequest();
+            request.setRequestNumber("warm-up");
+            request.setLoanNumber("warm-up");
+            request.setAttributes(List.of(new LoanPpaRequest.Attribute()));
+            JsonNode requestNode = MAPPER.valueToTree(request);
+            LOAN_PPA_REQUEST_READER.readValue(LOAN_PPA_REQUEST_WRITER.writeValueAsString(request));
+            WORKFLOW_CONTEXT_READER.readValue(requestNode);
+
+            WorkflowState state = new WorkflowState("warm-up", "warm-up", "LDC");
+            state.setAttributes(List.of(new LoanAttribute("warm-up", "Pending")));
+            state.setStateTransitionHistory(List.of(new StateTransition("warm-up", "warm-up", null, null)));
+            WORKFLOW_STATE_READER.readValue(WORKFLOW_STATE_WRITER.writeValueAsString(state));
+            LOAN_ATTRIBUTES_READER.readValue(LOAN_ATTRIBUTES_WRITER.writeValueAsString(state.getAttributes()));
+            MAPPER.readTree(MAPPER.writeValueAsString(MAPPER.valueToTree(state)));
+
+            warmedUp = true;
+            logger.info("Jackson warm-up completed in {}ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            // Warm-up is an optimization only; the first real request builds whatever is missing
+            logger.warn("Jackson warm-up failed", e);
+        }
+    }
+}
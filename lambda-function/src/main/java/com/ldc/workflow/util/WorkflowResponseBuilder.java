@@ -20,7 +20,7 @@ import org.springframework.stereotype.Component;
 public class WorkflowResponseBuilder {
 
     private static final Logger logger = LoggerFactory.getLogger(WorkflowResponseBuilder.class);
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectMapper objectMapper = WorkflowJson.mapper();
 
     /**
      * Build a success response with workflow state.
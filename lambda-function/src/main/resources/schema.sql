@@ -13,6 +13,12 @@ CREATE TABLE IF NOT EXISTS workflow_state (
     retry_count INTEGER,
     is_reclass_confirmation BOOLEAN,
     attributes JSONB,
+    attribute_count INTEGER,
+    pending_count INTEGER,
+    approved_count INTEGER,
+    rejected_count INTEGER,
+    reclass_count INTEGER,
+    repurchase_count INTEGER,
     created_at TIMESTAMP NOT NULL,
     updated_at TIMESTAMP NOT NULL
 );
@@ -20,3 +26,82 @@ CREATE TABLE IF NOT EXISTS workflow_state (
 CREATE UNIQUE INDEX IF NOT EXISTS idx_request_loan ON workflow_state(request_number, loan_number);
 CREATE INDEX IF NOT EXISTS idx_loan_number ON workflow_state(loan_number);
 CREATE INDEX IF NOT EXISTS idx_created_at ON workflow_state(created_at);
+
+-- Databases created before the decision counters: add them, then backfill with
+-- the decisionCountsReconcile handler ({"handlerType": "decisionCountsReconcile", "Repair": true})
+ALTER TABLE workflow_state ADD COLUMN IF NOT EXISTS attribute_count INTEGER;
+ALTER TABLE workflow_state ADD COLUMN IF NOT EXISTS pending_count INTEGER;
+ALTER TABLE workflow_state ADD COLUMN IF NOT EXISTS approved_count INTEGER;
+ALTER TABLE workflow_state ADD COLUMN IF NOT EXISTS rejected_count INTEGER;
+ALTER TABLE workflow_state ADD COLUMN IF NOT EXISTS reclass_count INTEGER;
+ALTER TABLE workflow_state ADD COLUMN IF NOT EXISTS repurchase_count INTEGER;
+
+-- Databases built from the former root schema.sql had a trigger that rewrote updated_at on
+-- every UPDATE, but writers set updated_at themselves and compare it in guarded writes
+DROP TRIGGER IF EXISTS update_workflow_state_updated_at ON workflow_state;
+
+-- Normalized copy of workflow_state.attributes for decision-filtered searches, written when
+-- workflow.attributes.normalized.enabled is on. Fill existing rows with the loanAttributeBackfill
+-- handler ({"handlerType": "loanAttributeBackfill"}) after enabling dual-write.
+CREATE TABLE IF NOT EXISTS loan_attribute (
+    workflow_state_id BIGINT NOT NULL REFERENCES workflow_state(id) ON DELETE CASCADE,
+    position INTEGER NOT NULL,
+    name VARCHAR(255),
+    decision VARCHAR(255) NOT NULL,
+    PRIMARY KEY (workflow_state_id, position)
+);
+
+CREATE INDEX IF NOT EXISTS idx_loan_attribute_decision ON loan_attribute(decision, workflow_state_id);
+CREATE INDEX IF NOT EXISTS idx_loan_attribute_name_decision ON loan_attribute(name, decision, workflow_state_id);
+
+CREATE TABLE IF NOT EXISTS audit_trail (
+    id BIGSERIAL PRIMARY KEY,
+    request_number VARCHAR(255) NOT NULL,
+    loan_number VARCHAR(255) NOT NULL,
+    task_number VARCHAR(255),
+    event_type VARCHAR(255) NOT NULL,
+    workflow_stage VARCHAR(255),
+    status VARCHAR(255),
+    request_payload TEXT,
+    response_payload TEXT,
+    error_message TEXT,
+    timestamp TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_audit_request_loan ON audit_trail(request_number, loan_number);
+CREATE INDEX IF NOT EXISTS idx_audit_timestamp ON audit_trail(timestamp);
+CREATE INDEX IF NOT EXISTS idx_audit_event_type ON audit_trail(event_type);
+
+CREATE TABLE IF NOT EXISTS state_transition (
+    id BIGSERIAL PRIMARY KEY,
+    request_number VARCHAR(255) NOT NULL,
+    loan_number VARCHAR(255) NOT NULL,
+    workflow_state_name VARCHAR(255) NOT NULL,
+    workflow_state_user_id VARCHAR(255),
+    start_date_time TIMESTAMP,
+    end_date_time TIMESTAMP,
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_transition_request_loan ON state_transition(request_number, loan_number, id);
+
+CREATE TABLE IF NOT EXISTS vend_ppa_delivery (
+    id BIGSERIAL PRIMARY KEY,
+    request_number VARCHAR(255) NOT NULL,
+    loan_number VARCHAR(255) NOT NULL,
+    execution_id TEXT,
+    idempotency_key VARCHAR(512) NOT NULL,
+    payload JSONB NOT NULL,
+    status VARCHAR(32) NOT NULL,
+    attempts INTEGER NOT NULL,
+    last_error TEXT,
+    next_attempt_at TIMESTAMP NOT NULL,
+    delivered_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_vend_ppa_delivery_request_loan ON vend_ppa_delivery(request_number, loan_number);
+CREATE INDEX IF NOT EXISTS idx_vend_ppa_delivery_pending ON vend_ppa_delivery(next_attempt_at)
+    WHERE status = 'PENDING';
@@ -0,0 +1,163 @@
+package com.ldc.workflow.benchmark;
+
+import com.ldc.workflow.business.AttributeChanges;
+import com.ldc.workflow.business.DecisionSummary;
+import com.ldc.workflow.entity.WorkflowStateEntity;
+import com.ldc.workflow.repository.AttributePatch;
+import com.ldc.workflow.repository.DecisionCounts;
+import com.ldc.workflow.repository.JdbcWorkflowStateStore;
+import com.ldc.workflow.types.LoanAttribute;
+import com.ldc.workflow.util.WorkflowJson;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Write amplification and latency of one attribute decision change, written as the full
+ * attributes list (upsert) and as a patch of the changed element (patchAttributes).
+ *
+ * For each attribute count, seeds one workflow_state row with that many attributes, then
+ * flips one decision per iteration through each path. Reports bytes of attributes JSON
+ * sent per write, WAL bytes generated per write (pg_current_wal_lsn), and median and p95
+ * latency. Both paths rewrite the row version and its TOASTed jsonb datum in Postgres,
+ * so the WAL column shows what the patch does and does not save.
+ *
+ * Usage: AttributeDeltaBenchmark [attribute-counts,...] [iterations]
+ */
+public class AttributeDeltaBenchmark {
+
+    private static final String REQUEST_NUMBER = "DELTA-BENCH";
+    private static final String WAL_LSN_SQL = "SELECT pg_current_wal_lsn()::text";
+
+    public static void main(String[] args) throws Exception {
+        String[] sizes = (args.length > 0 ? args[0] : "1,100,1000").split(",");
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(env("DATABASE_URL", "jdbc:postgresql://localhost:5432/postgres"));
+        dataSource.setUsername(env("DATABASE_USER", "postgres"));
+        dataSource.setPassword(env("DATABASE_PASSWORD", "postgres"));
+        dataSource.setMaximumPoolSize(2);
+        JdbcWorkflowStateStore store = new JdbcWorkflowStateStore(dataSource);
+
+        System.out.printf("iterations=%d%n", iterations);
+        System.out.printf("%-11s %-6s %12s %12s %10s %10s%n", "attributes", "path", "sent-bytes", "wal-bytes",
+                "p50-ms", "p95-ms");
+        try {
+            for (String size : sizes) {
+                int attributeCount = Integer.parseInt(size.trim());
+                String loanNumber = "LOAN-" + attributeCount;
+                List<LoanAttribute> attributes = new ArrayList<>(attributeCount);
+                for (int i = 0; i < attributeCount; i++) {
+                    attributes.add(new LoanAttribute("Attribute-" + i, "Pending"));
+                }
+                deleteRow(dataSource, loanNumber);
+
+                runFull(dataSource, store, loanNumber, attributes, iterations);
+                runPatch(dataSource, store, loanNumber, attributes, iterations);
+            }
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    private static void runFull(HikariDataSource dataSource, JdbcWorkflowStateStore store, String loanNumber,
+            List<LoanAttribute> attributes, int iterations) throws Exception {
+        long[] nanos = new long[iterations];
+        long sent = 0;
+        upsert(store, loanNumber, WorkflowJson.loanAttributesWriter().writeValueAsString(attributes), attributes);
+        long walStart = walLsn(dataSource);
+        for (int i = 0; i < iterations; i++) {
+            List<LoanAttribute> merged = AttributeChanges.merge(attributes, List.of(flip(attributes, i))).merged();
+            String json = WorkflowJson.loanAttributesWriter().writeValueAsString(merged);
+            long start = System.nanoTime();
+            upsert(store, loanNumber, json, merged);
+            nanos[i] = System.nanoTime() - start;
+            sent += json.length();
+            attributes = merged;
+        }
+        report(attributes.size(), "full", sent, walDiff(dataSource, walStart), iterations, nanos);
+    }
+
+    private static void runPatch(HikariDataSource dataSource, JdbcWorkflowStateStore store, String loanNumber,
+            List<LoanAttribute> attributes, int iterations) throws Exception {
+        long[] nanos = new long[iterations];
+        long sent = 0;
+        Instant loadedUpdatedAt = upsert(store, loanNumber,
+                WorkflowJson.loanAttributesWriter().writeValueAsString(attributes), attributes).getUpdatedAt();
+        long walStart = walLsn(dataSource);
+        for (int i = 0; i < iterations; i++) {
+            AttributeChanges changes = AttributeChanges.merge(attributes, List.of(flip(attributes, i)));
+            AttributePatch patch = AttributePatch.of(changes);
+            Instant updatedAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+            long start = System.nanoTime();
+            WorkflowStateEntity written = store.patchAttributes(REQUEST_NUMBER, loanNumber, "LDC", "Review",
+                    "Active", null, null, null, null, patch, loadedUpdatedAt, updatedAt)
+                    .orElseThrow(() -> new IllegalStateException("Patch matched no row"));
+            nanos[i] = System.nanoTime() - start;
+            sent += patch.appended().length() + Arrays.toString(patch.indexes()).length()
+                    + Arrays.toString(patch.decisions()).length();
+            loadedUpdatedAt = written.getUpdatedAt();
+            attributes = changes.merged();
+        }
+        report(attributes.size(), "patch", sent, walDiff(dataSource, walStart), iterations, nanos);
+    }
+
+    private static LoanAttribute flip(List<LoanAttribute> attributes, int iteration) {
+        LoanAttribute target = attributes.get(iteration % attributes.size());
+        String decision = "Approved".equals(target.getAttributeDecision()) ? "Rejected" : "Approved";
+        return new LoanAttribute(target.getAttributeName(), decision);
+    }
+
+    private static WorkflowStateEntity upsert(JdbcWorkflowStateStore store, String loanNumber, String json,
+            List<LoanAttribute> attributes) {
+        return store.upsert(REQUEST_NUMBER, loanNumber, "LDC", "Review", "Active", null, null, null, null, json,
+                DecisionCounts.of(null, DecisionSummary.of(attributes)), Instant.now().truncatedTo(ChronoUnit.MICROS));
+    }
+
+    private static void report(int attributeCount, String path, long sent, long wal, int iterations,
+            long[] nanos) {
+        Arrays.sort(nanos);
+        System.out.printf("%-11d %-6s %12d %12d %10.3f %10.3f%n", attributeCount, path, sent / iterations,
+                wal / iterations, nanos[iterations / 2] / 1e6, nanos[(int) (iterations * 0.95)] / 1e6);
+    }
+
+    private static void deleteRow(HikariDataSource dataSource, String loanNumber) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM workflow_state WHERE request_number = '" + REQUEST_NUMBER
+                    + "' AND loan_number = '" + loanNumber + "'");
+        }
+    }
+
+    private static long walLsn(HikariDataSource dataSource) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(WAL_LSN_SQL)) {
+            resultSet.next();
+            return parseLsn(resultSet.getString(1));
+        }
+    }
+
+    private static long walDiff(HikariDataSource dataSource, long start) throws Exception {
+        return walLsn(dataSource) - start;
+    }
+
+    // An LSN prints as two hex halves, e.g. 0/16B3748
+    private static long parseLsn(String lsn) {
+        String[] parts = lsn.split("/");
+        return (Long.parseLong(parts[0], 16) << 32) + Long.parseLong(parts[1], 16);
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isEmpty() ? value : defaultValue;
+    }
+}
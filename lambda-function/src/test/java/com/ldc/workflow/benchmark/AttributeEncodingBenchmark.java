@@ -0,0 +1,179 @@
+package com.ldc.workflow.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ldc.workflow.repository.AttributeEncoding;
+import com.ldc.workflow.repository.LoanAttributeRepository;
+import com.ldc.workflow.repository.WorkflowStateBatchRepository;
+import com.ldc.workflow.repository.WorkflowStateBatchRepository.AttributeEncodingBatch;
+import com.ldc.workflow.util.WorkflowJson;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Storage size and read latency of workflow_state.attributes in the array format and
+ * the compact format (see AttributeEncoding).
+ *
+ * For each attribute count, seeds loans rows in the array format, then moves them to the
+ * compact format with WorkflowStateBatchRepository#reencodeAttributes, the same batch the
+ * attributeEncodingMigration handler runs. After each format, VACUUM FULL compacts the
+ * table and the run reports the heap and TOAST sizes, the average stored datum
+ * (pg_column_size, after compression) and text size of attributes, and the latency of
+ * loading and decoding one row's attributes by id, plus decoding alone. The two formats
+ * are read through the same AttributeEncoding.read.
+ *
+ * Usage: AttributeEncodingBenchmark [loans] [attribute-counts,...] [iterations]
+ */
+public class AttributeEncodingBenchmark {
+
+    private static final ObjectMapper objectMapper = WorkflowJson.mapper();
+    private static final int SEED_CHUNK = 10_000;
+    private static final int MIGRATION_BATCH = 500;
+
+    // One attribute in ten is Pending, one in fifty has no decision yet, the rest are decided
+    private static final String SEED_SQL = "INSERT INTO workflow_state (request_number, loan_number, review_type, "
+            + "execution_status, attributes, created_at, updated_at) "
+            + "SELECT 'ENCODING-' || i, 'LOAN-' || i, 'LDC', 'Active', "
+            + "(SELECT jsonb_agg(jsonb_build_object('Name', 'Income Verification Attribute ' || j, 'Decision', "
+            + "CASE WHEN (i + j) % 50 = 0 THEN NULL WHEN (i + j) % 10 = 0 THEN 'Pending' "
+            + "WHEN (i + j) % 7 = 0 THEN 'Rejected' ELSE 'Approved' END) ORDER BY j) "
+            + "FROM generate_series(1, ?) AS j), now(), now() "
+            + "FROM generate_series(?, ?) AS i";
+
+    private static final String SIZES_SQL = "SELECT pg_relation_size(c.oid), "
+            + "COALESCE(pg_relation_size(NULLIF(c.reltoastrelid, 0)), 0), "
+            + "(SELECT avg(pg_column_size(attributes))::bigint FROM workflow_state "
+            + "WHERE request_number LIKE 'ENCODING-%'), "
+            + "(SELECT avg(octet_length(attributes::text))::bigint FROM workflow_state "
+            + "WHERE request_number LIKE 'ENCODING-%') "
+            + "FROM pg_class c WHERE c.relname = 'workflow_state'";
+
+    private static final String IDS_SQL = "SELECT id FROM workflow_state WHERE request_number LIKE 'ENCODING-%' "
+            + "ORDER BY id";
+
+    private static final String READ_SQL = "SELECT attributes::text FROM workflow_state WHERE id = ?";
+
+    public static void main(String[] args) throws Exception {
+        int loans = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        String[] sizes = (args.length > 1 ? args[1] : "10,100,1000").split(",");
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(env("DATABASE_URL", "jdbc:postgresql://localhost:5432/postgres"));
+        dataSource.setUsername(env("DATABASE_USER", "postgres"));
+        dataSource.setPassword(env("DATABASE_PASSWORD", "postgres"));
+        dataSource.setMaximumPoolSize(2);
+        WorkflowStateBatchRepository compactWriter = new WorkflowStateBatchRepository(dataSource,
+                new LoanAttributeRepository(dataSource, false), true);
+
+        System.out.printf("loans=%d iterations=%d%n", loans, iterations);
+        System.out.printf("%-11s %-8s %10s %10s %11s %11s %10s %10s %11s%n", "attributes", "format", "heap-MB",
+                "toast-MB", "datum-bytes", "text-bytes", "p50-ms", "p95-ms", "decode-us");
+        try {
+            for (String size : sizes) {
+                int attributeCount = Integer.parseInt(size.trim());
+                seed(dataSource, loans, attributeCount);
+                report(dataSource, attributeCount, "array", iterations);
+
+                long start = System.nanoTime();
+                long cursor = 0;
+                int rewritten = 0;
+                AttributeEncodingBatch batch;
+                do {
+                    batch = compactWriter.reencodeAttributes(cursor, MIGRATION_BATCH);
+                    cursor = batch.lastId();
+                    rewritten += batch.rewritten();
+                } while (batch.found() == MIGRATION_BATCH);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                report(dataSource, attributeCount, "compact", iterations);
+                System.out.printf("%-11d migrated %d rows in %.1f s (%.0f rows/s)%n", attributeCount, rewritten,
+                        seconds, rewritten / seconds);
+            }
+        } finally {
+            execute(dataSource, "DELETE FROM workflow_state WHERE request_number LIKE 'ENCODING-%'");
+            dataSource.close();
+        }
+    }
+
+    private static void seed(HikariDataSource dataSource, int loans, int attributes) throws Exception {
+        execute(dataSource, "DELETE FROM workflow_state WHERE request_number LIKE 'ENCODING-%'");
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(SEED_SQL)) {
+            for (int from = 1; from <= loans; from += SEED_CHUNK) {
+                statement.setInt(1, attributes);
+                statement.setInt(2, from);
+                statement.setInt(3, Math.min(loans, from + SEED_CHUNK - 1));
+                statement.executeUpdate();
+            }
+        }
+    }
+
+    private static void report(HikariDataSource dataSource, int attributeCount, String format, int iterations)
+            throws Exception {
+        execute(dataSource, "VACUUM FULL ANALYZE workflow_state");
+        long[] sizes = new long[4];
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(SIZES_SQL)) {
+            resultSet.next();
+            for (int i = 0; i < sizes.length; i++) {
+                sizes[i] = resultSet.getLong(i + 1);
+            }
+        }
+
+        List<Long> ids = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(IDS_SQL)) {
+            while (resultSet.next()) {
+                ids.add(resultSet.getLong(1));
+            }
+        }
+
+        Random random = new Random(42);
+        long[] nanos = new long[iterations];
+        long decodeNanos = 0;
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(READ_SQL)) {
+            for (int i = 0; i < iterations; i++) {
+                statement.setLong(1, ids.get(random.nextInt(ids.size())));
+                long start = System.nanoTime();
+                String json;
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    json = resultSet.getString(1);
+                }
+                long decodeStart = System.nanoTime();
+                if (AttributeEncoding.read(objectMapper.readTree(json)).size() != attributeCount) {
+                    throw new IllegalStateException("Decoded the wrong number of attributes");
+                }
+                long end = System.nanoTime();
+                nanos[i] = end - start;
+                decodeNanos += end - decodeStart;
+            }
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%-11d %-8s %10.1f %10.1f %11d %11d %10.3f %10.3f %11.1f%n", attributeCount, format,
+                sizes[0] / 1048576.0, sizes[1] / 1048576.0, sizes[2], sizes[3], nanos[iterations / 2] / 1e6,
+                nanos[(int) (iterations * 0.95)] / 1e6, decodeNanos / 1e3 / iterations);
+    }
+
+    private static void execute(HikariDataSource dataSource, String sql) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isEmpty() ? value : defaultValue;
+    }
+}
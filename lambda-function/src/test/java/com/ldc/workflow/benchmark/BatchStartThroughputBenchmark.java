@@ -0,0 +1,206 @@
+package com.ldc.workflow.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ldc.workflow.handlers.BatchStartPpaReviewApiHandler;
+import com.ldc.workflow.handlers.StartPpaReviewApiHandler;
+import com.ldc.workflow.repository.JdbcWorkflowStateStore;
+import com.ldc.workflow.repository.LoanAttributeRepository;
+import com.ldc.workflow.repository.WorkflowStateBatchRepository;
+import com.ldc.workflow.repository.WorkflowStateRepository;
+import com.ldc.workflow.service.StepFunctionsService;
+import com.ldc.workflow.util.WorkflowJson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.zaxxer.hikari.HikariDataSource;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.sfn.SfnAsyncClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Throughput of starting PPA reviews one startPPAreview call per loan against one
+ * batchStartPpaReviewApi call, on Postgres and a local Step Functions stand-in that
+ * answers StartExecution after a fixed latency.
+ *
+ * Runs three rounds over fresh request numbers: single starts, a batch of new loans,
+ * and the same batch again after its rows were marked COMPLETED with a decision and a
+ * stale task token (a re-review). Prints loans per second for each round and checks
+ * that every loan ended with one RUNNING row holding no decision or task token.
+ *
+ * Usage: BatchStartThroughputBenchmark [loans] [latency-millis] [parallelism]
+ */
+public class BatchStartThroughputBenchmark {
+
+    private static final ObjectMapper objectMapper = WorkflowJson.mapper();
+
+    private static final String CLEANUP_SQL = "DELETE FROM workflow_state WHERE request_number LIKE 'BENCH-%'";
+    private static final String FINISH_SQL = "UPDATE workflow_state SET execution_status = 'COMPLETED', "
+            + "loan_decision = 'Approved', task_token = 'stale-token', current_assigned_username = 'reviewer' "
+            + "WHERE request_number LIKE ?";
+    private static final String COUNT_INITIAL_SQL = "SELECT count(*) FROM workflow_state "
+            + "WHERE request_number LIKE ? AND execution_status = 'RUNNING' AND loan_decision IS NULL "
+            + "AND task_token IS NULL";
+
+    public static void main(String[] args) throws Exception {
+        int loans = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        long latencyMillis = args.length > 1 ? Long.parseLong(args[1]) : 20;
+        int parallelism = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(env("DATABASE_URL", "jdbc:postgresql://localhost:5432/postgres"));
+        dataSource.setUsername(env("DATABASE_USER", "postgres"));
+        dataSource.setPassword(env("DATABASE_PASSWORD", "postgres"));
+        dataSource.setMaximumPoolSize(2);
+
+        AtomicInteger executions = new AtomicInteger();
+        ExecutorService serverThreads = Executors.newCachedThreadPool();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        server.createContext("/", exchange -> respond(exchange, executions, latencyMillis));
+        server.setExecutor(serverThreads);
+        server.start();
+
+        SdkAsyncHttpClient httpClient = NettyNioAsyncHttpClient.builder().maxConcurrency(parallelism).build();
+        SfnAsyncClient sfnClient = SfnAsyncClient.builder()
+                .httpClient(httpClient)
+                .endpointOverride(URI.create("http://localhost:" + server.getAddress().getPort()))
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+                .build();
+
+        try {
+            StepFunctionsService stepFunctionsService = new StepFunctionsService(sfnClient);
+            LoanAttributeRepository loanAttributes = new LoanAttributeRepository(dataSource, false);
+            WorkflowStateRepository repository = new WorkflowStateRepository(new JdbcWorkflowStateStore(dataSource),
+                    loanAttributes, false, 50);
+            StartPpaReviewApiHandler startHandler = new StartPpaReviewApiHandler(objectMapper, repository,
+                    stepFunctionsService);
+            BatchStartPpaReviewApiHandler batchHandler = new BatchStartPpaReviewApiHandler(objectMapper,
+                    startHandler, stepFunctionsService,
+                    new WorkflowStateBatchRepository(dataSource, loanAttributes, false), parallelism, loans);
+
+            execute(dataSource, CLEANUP_SQL, null);
+            System.out.printf("loans=%d latencyMillis=%d parallelism=%d%n", loans, latencyMillis, parallelism);
+            System.out.printf("%-12s %10s %10s%n", "round", "seconds", "loans/s");
+
+            long start = System.nanoTime();
+            for (int i = 0; i < loans; i++) {
+                JsonNode response = startHandler.apply(request("BENCH-S", i));
+                if (response.has("Error")) {
+                    throw new IllegalStateException("Single start failed: " + response);
+                }
+            }
+            print("single", loans, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            runBatch(batchHandler, loans);
+            print("batch", loans, System.nanoTime() - start);
+            check(dataSource, loans);
+
+            execute(dataSource, FINISH_SQL, "BENCH-B%");
+            start = System.nanoTime();
+            runBatch(batchHandler, loans);
+            print("re-review", loans, System.nanoTime() - start);
+            check(dataSource, loans);
+        } finally {
+            execute(dataSource, CLEANUP_SQL, null);
+            sfnClient.close();
+            httpClient.close();
+            server.stop(0);
+            serverThreads.shutdownNow();
+            dataSource.close();
+        }
+    }
+
+    private static void runBatch(BatchStartPpaReviewApiHandler batchHandler, int loans) {
+        ObjectNode input = objectMapper.createObjectNode();
+        ArrayNode requests = input.putArray("Requests");
+        for (int i = 0; i < loans; i++) {
+            requests.add(request("BENCH-B", i));
+        }
+        for (JsonNode result : batchHandler.apply(input).path("Results")) {
+            if (result.has("Error")) {
+                throw new IllegalStateException("Batch start failed: " + result);
+            }
+        }
+    }
+
+    private static ObjectNode request(String prefix, int index) {
+        ObjectNode request = objectMapper.createObjectNode();
+        request.put("RequestNumber", prefix + "-" + index);
+        request.put("LoanNumber", "LOAN-" + index);
+        request.put("ReviewType", "LDC");
+        request.putArray("Attributes").addObject().put("Name", "Income").put("Decision", "Pending");
+        return request;
+    }
+
+    private static void check(HikariDataSource dataSource, int loans) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(COUNT_INITIAL_SQL)) {
+            statement.setString(1, "BENCH-B%");
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                long initial = resultSet.getLong(1);
+                if (initial != loans) {
+                    throw new IllegalStateException("Expected " + loans + " rows in the initial state, got "
+                            + initial);
+                }
+            }
+        }
+    }
+
+    private static void execute(HikariDataSource dataSource, String sql, String pattern) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(sql)) {
+            if (pattern != null) {
+                statement.setString(1, pattern);
+            }
+            statement.executeUpdate();
+        }
+    }
+
+    private static void print(String round, int loans, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("%-12s %10.2f %10.0f%n", round, seconds, loans / seconds);
+    }
+
+    private static void respond(HttpExchange exchange, AtomicInteger executions, long latencyMillis)
+            throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            body.readAllBytes();
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] bytes = ("{\"executionArn\":\"arn:aws:states:us-east-1:123456789012:execution:local:exec-"
+                + executions.incrementAndGet() + "\",\"startDate\":" + System.currentTimeMillis() / 1000 + "}")
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/x-amz-json-1.0");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isEmpty() ? value : defaultValue;
+    }
+}
@@ -0,0 +1,163 @@
+package com.ldc.workflow.benchmark;
+
+import com.ldc.workflow.service.InMemoryCallbackTransport;
+import com.ldc.workflow.service.WorkflowCallbackService;
+import com.ldc.workflow.types.WorkflowState;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads and notify-to-completion latency of in-flight Step Functions callback waits.
+ *
+ * Registers N concurrent waits on WorkflowCallbackService, first as futures from
+ * awaitCallback (what the update handlers compose on) and then as one blocked thread
+ * per waitForCallback, notifies each wait once and prints the number of threads added
+ * while the waits were in flight and the p50/p99 latency from notify to completion.
+ * Fails if any wait is not delivered its own state.
+ *
+ * Usage: CallbackWaitBenchmark [waits] [timeout-seconds]
+ */
+public class CallbackWaitBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int waits = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        long timeoutSeconds = args.length > 1 ? Long.parseLong(args[1]) : 60;
+
+        // Remote deliveries re-read the state; the in-memory transport never delivers remotely
+        WorkflowCallbackService service = new WorkflowCallbackService(new InMemoryCallbackTransport(), null);
+        try {
+            // Warm both paths so class loading is not counted against either
+            runFutureWaits(service, 100, timeoutSeconds);
+            runBlockingWaits(service, 100, timeoutSeconds);
+
+            System.out.printf("waits=%d timeoutSeconds=%d%n", waits, timeoutSeconds);
+            System.out.printf("%-10s %12s %10s %10s%n", "mode", "threads+", "p50(us)", "p99(us)");
+            print("future", runFutureWaits(service, waits, timeoutSeconds));
+            print("blocking", runBlockingWaits(service, waits, timeoutSeconds));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private static WaitStats runFutureWaits(WorkflowCallbackService service, int waits, long timeoutSeconds)
+            throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        int threadsBefore = threads.getThreadCount();
+
+        long[] notifiedAt = new long[waits];
+        long[] completedAt = new long[waits];
+        AtomicInteger delivered = new AtomicInteger();
+        List<CompletableFuture<?>> futures = new ArrayList<>(waits);
+        for (int i = 0; i < waits; i++) {
+            int index = i;
+            String requestNumber = "REQ-F" + i;
+            futures.add(service.awaitCallback(requestNumber, "LOAN-F" + i, timeoutSeconds)
+                    .thenAccept(state -> {
+                        completedAt[index] = System.nanoTime();
+                        if (state != null && requestNumber.equals(state.getRequestNumber())) {
+                            delivered.incrementAndGet();
+                        }
+                    }));
+        }
+        int threadDelta = threads.getThreadCount() - threadsBefore;
+
+        for (int i = 0; i < waits; i++) {
+            notifiedAt[i] = System.nanoTime();
+            service.notifyCallback("REQ-F" + i, "LOAN-F" + i, new WorkflowState("REQ-F" + i, "LOAN-F" + i, "LDC"));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(timeoutSeconds, TimeUnit.SECONDS);
+        // Completion pool threads are started by the first deliveries
+        threadDelta = Math.max(threadDelta, threads.getThreadCount() - threadsBefore);
+
+        checkDelivered(delivered, waits);
+        return new WaitStats(threadDelta, notifiedAt, completedAt);
+    }
+
+    private static WaitStats runBlockingWaits(WorkflowCallbackService service, int waits, long timeoutSeconds)
+            throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        int threadsBefore = threads.getThreadCount();
+
+        long[] notifiedAt = new long[waits];
+        long[] completedAt = new long[waits];
+        AtomicInteger delivered = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(waits);
+        List<Thread> waiters = new ArrayList<>(waits);
+        for (int i = 0; i < waits; i++) {
+            int index = i;
+            String requestNumber = "REQ-B" + i;
+            Thread waiter = new Thread(null, () -> {
+                WorkflowState state = service.waitForCallback(requestNumber, "LOAN-B" + index, timeoutSeconds);
+                completedAt[index] = System.nanoTime();
+                if (state != null && requestNumber.equals(state.getRequestNumber())) {
+                    delivered.incrementAndGet();
+                }
+                done.countDown();
+            }, "blocking-waiter-" + i, 256 * 1024);
+            waiter.setDaemon(true);
+            waiter.start();
+            waiters.add(waiter);
+        }
+
+        // Every waiter must be registered before notifying, otherwise the notify is dropped
+        for (int i = 0; i < waits; i++) {
+            while (!service.hasPendingCallback("REQ-B" + i, "LOAN-B" + i)) {
+                Thread.sleep(1);
+            }
+        }
+        int threadDelta = threads.getThreadCount() - threadsBefore;
+
+        for (int i = 0; i < waits; i++) {
+            notifiedAt[i] = System.nanoTime();
+            service.notifyCallback("REQ-B" + i, "LOAN-B" + i, new WorkflowState("REQ-B" + i, "LOAN-B" + i, "LDC"));
+        }
+        if (!done.await(timeoutSeconds, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Blocking waits did not complete within " + timeoutSeconds + "s");
+        }
+        for (Thread waiter : waiters) {
+            waiter.join();
+        }
+
+        checkDelivered(delivered, waits);
+        return new WaitStats(threadDelta, notifiedAt, completedAt);
+    }
+
+    private static void checkDelivered(AtomicInteger delivered, int waits) {
+        if (delivered.get() != waits) {
+            throw new IllegalStateException("Expected " + waits + " deliveries, got " + delivered.get());
+        }
+    }
+
+    private static void print(String mode, WaitStats stats) {
+        System.out.printf("%-10s %12d %10d %10d%n", mode, stats.threadDelta(), stats.percentileMicros(0.50),
+                stats.percentileMicros(0.99));
+    }
+
+    private record WaitStats(int threadDelta, long[] latencyMicros) {
+
+        WaitStats(int threadDelta, long[] notifiedAt, long[] completedAt) {
+            this(threadDelta, latencies(notifiedAt, completedAt));
+        }
+
+        long percentileMicros(double percentile) {
+            return latencyMicros[(int) Math.ceil(latencyMicros.length * percentile) - 1];
+        }
+
+        private static long[] latencies(long[] notifiedAt, long[] completedAt) {
+            long[] latencies = new long[notifiedAt.length];
+            for (int i = 0; i < notifiedAt.length; i++) {
+                latencies[i] = Math.max(0, completedAt[i] - notifiedAt[i]) / 1000;
+            }
+            Arrays.sort(latencies);
+            return latencies;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.ldc.workflow.benchmark;
+
+import com.ldc.workflow.config.DataSourceConfig;
+import com.ldc.workflow.config.DataSourcePoolProperties;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local load test of the Lambda connection pool settings against a connection ceiling.
+ *
+ * Simulates N Lambda containers, each with its own pool configured exactly as
+ * DataSourceConfig does and one invocation in flight at a time, plus a background
+ * audit-style insert every few invocations. A monitor connection samples
+ * pg_stat_activity for this run's application_name; the run fails if the peak
+ * exceeds the ceiling (default containers x maximum-pool-size).
+ *
+ * Pool settings are read from workflow.datasource.pool.* system properties, e.g.
+ * -Dworkflow.datasource.pool.pooler=pgbouncer with DATABASE_URL pointing at PgBouncer.
+ * The monitor connects to MONITOR_DATABASE_URL (default DATABASE_URL), which must be
+ * Postgres itself, so PgBouncer's server connections are counted.
+ * scripts/perf/connection-ceiling.sh starts Postgres with a matching max_connections.
+ *
+ * Usage: ConnectionCeilingLoadHarness [containers] [seconds] [ceiling]
+ */
+public class ConnectionCeilingLoadHarness {
+
+    private static final String APPLICATION_NAME = "connection-ceiling-load";
+    private static final String INVOCATION_SQL = "SELECT id, attributes FROM workflow_state "
+            + "WHERE request_number = ? AND loan_number = ?";
+    private static final String COUNT_SQL = "SELECT count(*) FROM pg_stat_activity WHERE application_name = ?";
+
+    public static void main(String[] args) throws Exception {
+        int containers = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        DataSourcePoolProperties pool = poolProperties();
+        int ceiling = args.length > 2 ? Integer.parseInt(args[2]) : containers * pool.getMaximumPoolSize();
+
+        String url = env("DATABASE_URL", "jdbc:postgresql://localhost:5432/postgres");
+        String user = env("DATABASE_USER", "postgres");
+        String password = env("DATABASE_PASSWORD", "postgres");
+        String monitorUrl = env("MONITOR_DATABASE_URL", url);
+
+        System.out.printf("containers=%d seconds=%d ceiling=%d pooler=%s maximumPoolSize=%d%n",
+                containers, seconds, ceiling, pool.getPooler(), pool.getMaximumPoolSize());
+
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (int i = 0; i < containers; i++) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl(url);
+            dataSource.setUsername(user);
+            dataSource.setPassword(password);
+            DataSourceConfig.configurePool(dataSource, pool, APPLICATION_NAME);
+            pools.add(dataSource);
+        }
+
+        AtomicInteger peak = new AtomicInteger();
+        AtomicLong invocations = new AtomicLong();
+        AtomicLong failures = new AtomicLong();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        ExecutorService workers = Executors.newFixedThreadPool(containers * 2);
+        for (int i = 0; i < containers; i++) {
+            HikariDataSource dataSource = pools.get(i);
+            String requestNumber = "LOAD-" + i;
+            workers.submit(() -> {
+                long n = 0;
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        invoke(dataSource, requestNumber);
+                        if (++n % 5 == 0) {
+                            // Background work (audit flush) overlapping the next invocation
+                            workers.submit(() -> invokeQuietly(dataSource, requestNumber, failures));
+                        }
+                        invocations.incrementAndGet();
+                        latencies.add(System.nanoTime() - start);
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        try (Connection monitor = DriverManager.getConnection(monitorUrl, user, password);
+                PreparedStatement count = monitor.prepareStatement(COUNT_SQL)) {
+            count.setString(1, APPLICATION_NAME);
+            while (System.nanoTime() < deadline) {
+                try (ResultSet resultSet = count.executeQuery()) {
+                    resultSet.next();
+                    peak.accumulateAndGet(resultSet.getInt(1), Math::max);
+                }
+                Thread.sleep(100);
+            }
+        }
+
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+        pools.forEach(HikariDataSource::close);
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        System.out.printf("invocations=%d failures=%d p50=%.1fms p99=%.1fms peakConnections=%d%n",
+                invocations.get(), failures.get(), percentile(sorted, 0.50), percentile(sorted, 0.99), peak.get());
+
+        if (peak.get() > ceiling) {
+            System.out.printf("FAIL: %d connections exceeds ceiling %d%n", peak.get(), ceiling);
+            System.exit(1);
+        }
+        System.out.println("PASS: connections stayed within ceiling");
+    }
+
+    private static void invoke(HikariDataSource dataSource, String requestNumber) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(INVOCATION_SQL)) {
+            statement.setString(1, requestNumber);
+            statement.setString(2, "0000000000");
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    resultSet.getString(2);
+                }
+            }
+        }
+    }
+
+    private static void invokeQuietly(HikariDataSource dataSource, String requestNumber, AtomicLong failures) {
+        try {
+            invoke(dataSource, requestNumber);
+        } catch (Exception e) {
+            failures.incrementAndGet();
+        }
+    }
+
+    private static DataSourcePoolProperties poolProperties() {
+        DataSourcePoolProperties pool = new DataSourcePoolProperties();
+        String pooler = System.getProperty("workflow.datasource.pool.pooler");
+        if (pooler != null) {
+            pool.setPooler(DataSourcePoolProperties.Pooler.valueOf(pooler.toUpperCase().replace('-', '_')));
+        }
+        pool.setMaximumPoolSize(Integer.getInteger("workflow.datasource.pool.maximum-pool-size",
+                pool.getMaximumPoolSize()));
+        pool.setMinimumIdle(Integer.getInteger("workflow.datasource.pool.minimum-idle", pool.getMinimumIdle()));
+        return pool;
+    }
+
+    private static double percentile(List<Long> sorted, double percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        return sorted.get((int) Math.min(sorted.size() - 1, sorted.size() * percentile)) / 1e6;
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? value : defaultValue;
+    }
+}
@@ -0,0 +1,145 @@
+package com.ldc.workflow.benchmark;
+
+import com.ldc.workflow.business.DecisionSummary;
+import com.ldc.workflow.types.AttributeDecision;
+import com.ldc.workflow.types.LoanAttribute;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the attribute decision questions asked per loan: the previous
+ * per-question scans (chained String.equals in determineStatus, a stream per
+ * areAllApproved/hasApprovedAndRejected/hasRepurchase/hasReclass, and two more scans
+ * for completion) against one DecisionSummary pass answering all of them.
+ *
+ * Decisions are strings freshly read from JSON, as after a database load, with a mix
+ * of Approved, Rejected and a few Pending, Reclass and Repurchase values.
+ *
+ * <pre>
+ * mvn -pl lambda-function test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.ldc.workflow.benchmark.DecisionAggregationBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecisionAggregationBenchmark {
+
+    private static final String[] DECISIONS = {"Approved", "Approved", "Approved", "Rejected", "Approved",
+        "Rejected", "Approved", "Pending", "Approved", "Reclass", "Approved", "Repurchase"};
+
+    @Param({"10", "100", "1000", "10000"})
+    public int attributeCount;
+
+    private List<LoanAttribute> attributes;
+
+    @Setup
+    public void setUp() {
+        attributes = new ArrayList<>(attributeCount);
+        for (int i = 0; i < attributeCount; i++) {
+            // new String so equals cannot short-circuit on identity, as with parsed JSON
+            attributes.add(new LoanAttribute("Attribute-" + i, new String(DECISIONS[i % DECISIONS.length])));
+        }
+    }
+
+    @Benchmark
+    public void perQuestionScans(Blackhole blackhole) {
+        blackhole.consume(legacyDetermineStatus(attributes));
+        blackhole.consume(attributes.stream().allMatch(attr -> "Approved".equals(attr.getAttributeDecision())));
+        blackhole.consume(attributes.stream().anyMatch(attr -> "Approved".equals(attr.getAttributeDecision()))
+                && attributes.stream().anyMatch(attr -> "Rejected".equals(attr.getAttributeDecision())));
+        blackhole.consume(attributes.stream().anyMatch(attr -> "Repurchase".equals(attr.getAttributeDecision())));
+        blackhole.consume(attributes.stream().anyMatch(attr -> "Reclass".equals(attr.getAttributeDecision())));
+        blackhole.consume(attributes.stream().allMatch(attr -> attr.getAttributeDecision() != null
+                && !"Pending".equals(attr.getAttributeDecision())));
+        blackhole.consume(attributes.stream()
+                .filter(attr -> attr.getAttributeDecision() == null || "Pending".equals(attr.getAttributeDecision()))
+                .toList());
+    }
+
+    @Benchmark
+    public void singlePassSummary(Blackhole blackhole) {
+        DecisionSummary summary = DecisionSummary.of(attributes);
+        blackhole.consume(status(summary));
+        blackhole.consume(summary.allApproved());
+        blackhole.consume(summary.hasApprovedAndRejected());
+        blackhole.consume(summary.hasRepurchase());
+        blackhole.consume(summary.hasReclass());
+        blackhole.consume(summary.isComplete());
+        blackhole.consume(summary.pendingAttributeNames());
+    }
+
+    /**
+     * LoanStatusDeterminer.determineStatus before DecisionSummary, without logging.
+     */
+    private static String legacyDetermineStatus(List<LoanAttribute> attributes) {
+        int approvedCount = 0;
+        int rejectedCount = 0;
+        int reclassCount = 0;
+        int repurchaseCount = 0;
+        for (LoanAttribute attr : attributes) {
+            String decision = attr.getAttributeDecision();
+            if (decision == null || "Pending".equals(decision)) {
+                continue;
+            } else if ("Approved".equals(decision)) {
+                approvedCount++;
+            } else if ("Rejected".equals(decision)) {
+                rejectedCount++;
+            } else if ("Reclass".equals(decision)) {
+                reclassCount++;
+            } else if ("Repurchase".equals(decision)) {
+                repurchaseCount++;
+            }
+        }
+        return status(repurchaseCount, reclassCount, approvedCount, rejectedCount);
+    }
+
+    /**
+     * LoanStatusDeterminer.determineStatus on a summary, without logging.
+     */
+    private static String status(DecisionSummary summary) {
+        return status(summary.count(AttributeDecision.REPURCHASE), summary.count(AttributeDecision.RECLASS),
+                summary.count(AttributeDecision.APPROVED), summary.count(AttributeDecision.REJECTED));
+    }
+
+    private static String status(int repurchase, int reclass, int approved, int rejected) {
+        if (repurchase > 0) {
+            return "Repurchase";
+        }
+        if (reclass > 0) {
+            return "Reclass Approved";
+        }
+        if (approved > 0) {
+            return rejected > 0 ? "Partially Approved" : "Approved";
+        }
+        return rejected > 0 ? "Rejected" : "Unknown";
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(DecisionAggregationBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,56 @@
+package com.ldc.workflow.benchmark;
+
+import com.ldc.workflow.LambdaHandler;
+import org.crac.CheckpointException;
+import org.crac.Core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Measures first-invoke latency after a CRaC restore, the local stand-in for a
+ * SnapStart cold start.
+ *
+ * Run on a CRaC-enabled JDK with -XX:CRaCCheckpointTo=DIR: the handler is initialized,
+ * SnapStartPrimer's beforeCheckpoint runs, and the process checkpoints and exits.
+ * Restoring with -XX:CRaCRestoreFrom=DIR continues after the checkpoint and times the
+ * invocations. Compare runs with -Dworkflow.snapstart.priming.enabled=true and false;
+ * scripts/perf/snapstart-first-invoke.sh does both.
+ *
+ * Without CRaC the checkpoint is skipped and the numbers are plain cold-JVM latencies.
+ *
+ * Usage: FirstInvokeHarness [payload.json] [invocations]
+ */
+public class FirstInvokeHarness {
+
+    private static final String DEFAULT_PAYLOAD = "{\"handlerType\":\"completionCriteria\","
+            + "\"RequestNumber\":\"HARNESS-REQ\",\"LoanNumber\":\"0000000001\"}";
+
+    public static void main(String[] args) throws Exception {
+        byte[] payload = args.length > 0 ? Files.readAllBytes(Path.of(args[0]))
+                : DEFAULT_PAYLOAD.getBytes(StandardCharsets.UTF_8);
+        int invocations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        long initStart = System.nanoTime();
+        LambdaHandler handler = new LambdaHandler();
+        System.out.printf("init: %.1f ms%n", (System.nanoTime() - initStart) / 1e6);
+
+        try {
+            Core.checkpointRestore();
+            System.out.println("restored from checkpoint");
+        } catch (UnsupportedOperationException | CheckpointException e) {
+            System.out.println("checkpoint skipped (" + e.getClass().getSimpleName() + "); measuring without restore");
+        }
+
+        for (int i = 1; i <= invocations; i++) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            long start = System.nanoTime();
+            handler.handleRequest(new ByteArrayInputStream(payload), output, null);
+            System.out.printf("invoke %d: %.1f ms (%d response bytes)%n", i, (System.nanoTime() - start) / 1e6,
+                    output.size());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.ldc.workflow.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ldc.workflow.util.LambdaPayloadCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the LambdaHandler payload path: the previous copy-based path
+ * (InputStream -> byte[] -> String -> JsonNode, JsonNode -> String -> byte[], full
+ * payload rendered for INFO logging) against the streaming LambdaPayloadCodec path.
+ *
+ * Payloads are startPPAreview requests with large Attributes lists, echoed back as a
+ * Workflows response. Run with the GC profiler to see allocation per operation:
+ *
+ * <pre>
+ * mvn -pl lambda-function test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.ldc.workflow.benchmark.LambdaPayloadBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LambdaPayloadBenchmark {
+
+    @Param({"10", "500", "5000"})
+    public int attributeCount;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private LambdaPayloadCodec codec;
+    private byte[] requestBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        codec = new LambdaPayloadCodec(objectMapper, 2048);
+        ObjectNode request = objectMapper.createObjectNode();
+        request.put("handlerType", "startPpaReviewApi");
+        request.put("RequestNumber", "REQ-2026-000123");
+        request.put("LoanNumber", "1234567890");
+        request.put("ReviewType", "LDC");
+        request.put("ReviewStepUserId", "reviewer.one");
+        ArrayNode attributes = request.putArray("Attributes");
+        for (int i = 0; i < attributeCount; i++) {
+            attributes.addObject().put("Name", "Attribute-" + i).put("Decision", i % 3 == 0 ? "Approved" : "Pending");
+        }
+        requestBytes = objectMapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public void copyingPath(Blackhole blackhole) throws IOException {
+        InputStream input = new ByteArrayInputStream(requestBytes);
+        OutputStream output = new ByteArrayOutputStream(requestBytes.length + 256);
+
+        String inputStr = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        blackhole.consume(inputStr);
+        JsonNode inputNode = objectMapper.readTree(inputStr);
+        JsonNode response = respond(inputNode);
+        blackhole.consume(response.toString());
+        String responseStr = objectMapper.writeValueAsString(response);
+        output.write(responseStr.getBytes(StandardCharsets.UTF_8));
+        output.flush();
+        blackhole.consume(output);
+    }
+
+    @Benchmark
+    public void streamingPath(Blackhole blackhole) throws IOException {
+        InputStream input = new ByteArrayInputStream(requestBytes);
+        OutputStream output = new ByteArrayOutputStream(requestBytes.length + 256);
+
+        JsonNode inputNode = codec.read(input);
+        blackhole.consume(codec.abbreviate(inputNode));
+        JsonNode response = respond(inputNode);
+        blackhole.consume(codec.abbreviate(response));
+        codec.write(response, output);
+        blackhole.consume(output);
+    }
+
+    private JsonNode respond(JsonNode request) {
+        ObjectNode response = objectMapper.createObjectNode();
+        ObjectNode workflow = response.putArray("Workflows").addObject();
+        workflow.set("RequestNumber", request.get("RequestNumber"));
+        workflow.set("LoanNumber", request.get("LoanNumber"));
+        workflow.put("LoanDecision", "Pending Review");
+        workflow.set("Attributes", request.get("Attributes"));
+        workflow.put("WorkflowStateName", "ValidateReviewType");
+        return response;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(LambdaPayloadBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
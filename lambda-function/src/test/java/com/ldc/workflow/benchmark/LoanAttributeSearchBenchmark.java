@@ -0,0 +1,156 @@
+package com.ldc.workflow.benchmark;
+
+import com.ldc.workflow.repository.LoanAttributeRepository;
+import com.ldc.workflow.repository.LoanAttributeRepository.BackfillBatch;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+
+/**
+ * Decision-filtered loan searches over the attributes JSON and over loan_attribute.
+ *
+ * Seeds workflow_state with loans x attributes attribute rows (defaults give 10M):
+ * one loan in a thousand has a Repurchase attribute, and one attribute in ten is
+ * Pending. Backfills loan_attribute with LoanAttributeRepository and reports its rate
+ * and size, then times the first page of two searches both ways: loans with any
+ * Repurchase attribute (rare) and loans pending on one attribute (common). The JSON
+ * searches use @> containment with no index on attributes, as the table has today.
+ *
+ * Usage: LoanAttributeSearchBenchmark [loans] [attributes-per-loan] [page-size] [iterations]
+ */
+public class LoanAttributeSearchBenchmark {
+
+    private static final int SEED_CHUNK = 10_000;
+
+    private static final String SEED_SQL = "INSERT INTO workflow_state (request_number, loan_number, review_type, "
+            + "execution_status, attributes, created_at, updated_at) "
+            + "SELECT 'SEARCH-' || i, 'LOAN-' || i, 'LDC', 'Active', "
+            + "(SELECT jsonb_agg(jsonb_build_object('Name', 'Attribute-' || j, 'Decision', "
+            + "CASE WHEN i % 1000 = 0 AND j = 1 THEN 'Repurchase' WHEN (i + j) % 10 = 0 THEN 'Pending' "
+            + "ELSE 'Approved' END) ORDER BY j) FROM generate_series(1, ?) AS j), now(), now() "
+            + "FROM generate_series(?, ?) AS i";
+
+    private static final String JSON_ANY_SQL = "SELECT id, request_number, loan_number FROM workflow_state "
+            + "WHERE attributes @> CAST(? AS jsonb) ORDER BY id LIMIT ?";
+
+    public static void main(String[] args) throws Exception {
+        int loans = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int attributes = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int pageSize = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int iterations = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(env("DATABASE_URL", "jdbc:postgresql://localhost:5432/postgres"));
+        dataSource.setUsername(env("DATABASE_USER", "postgres"));
+        dataSource.setPassword(env("DATABASE_PASSWORD", "postgres"));
+        dataSource.setMaximumPoolSize(2);
+        LoanAttributeRepository repository = new LoanAttributeRepository(dataSource, true);
+
+        try {
+            System.out.printf("loans=%d attributesPerLoan=%d attributeRows=%d pageSize=%d%n", loans, attributes,
+                    (long) loans * attributes, pageSize);
+            seed(dataSource, loans, attributes);
+
+            long start = System.nanoTime();
+            long cursor = 0;
+            long written = 0;
+            BackfillBatch batch;
+            do {
+                batch = repository.backfill(cursor, 1000);
+                cursor = batch.lastId();
+                written += batch.written();
+            } while (batch.states() == 1000);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            execute(dataSource, "ANALYZE loan_attribute");
+            System.out.printf("backfill: %d rows in %.1f s (%.0f rows/s)%n", written, seconds, written / seconds);
+            printSizes(dataSource);
+
+            System.out.printf("%-34s %10s %10s %10s%n", "search", "matches", "p50-ms", "p95-ms");
+            time("any Repurchase, attributes JSON", iterations,
+                    () -> jsonSearch(dataSource, "[{\"Decision\": \"Repurchase\"}]", pageSize));
+            time("any Repurchase, loan_attribute", iterations,
+                    () -> repository.findByDecision(null, "Repurchase", 0, pageSize).size());
+            time("Attribute-7 Pending, attributes JSON", iterations,
+                    () -> jsonSearch(dataSource, "[{\"Name\": \"Attribute-7\", \"Decision\": \"Pending\"}]",
+                            pageSize));
+            time("Attribute-7 Pending, loan_attribute", iterations,
+                    () -> repository.findByDecision("Attribute-7", "Pending", 0, pageSize).size());
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    private static void seed(HikariDataSource dataSource, int loans, int attributes) throws Exception {
+        execute(dataSource, "DELETE FROM workflow_state WHERE request_number LIKE 'SEARCH-%'");
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(SEED_SQL)) {
+            for (int from = 1; from <= loans; from += SEED_CHUNK) {
+                statement.setInt(1, attributes);
+                statement.setInt(2, from);
+                statement.setInt(3, Math.min(loans, from + SEED_CHUNK - 1));
+                statement.executeUpdate();
+            }
+        }
+        execute(dataSource, "ANALYZE workflow_state");
+        System.out.printf("seeded %d loans in %.1f s%n", loans, (System.nanoTime() - start) / 1e9);
+    }
+
+    private static int jsonSearch(HikariDataSource dataSource, String containment, int pageSize) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(JSON_ANY_SQL)) {
+            statement.setString(1, containment);
+            statement.setInt(2, pageSize);
+            int matches = 0;
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    matches++;
+                }
+            }
+            return matches;
+        }
+    }
+
+    private static void time(String name, int iterations, Callable<Integer> search) throws Exception {
+        long[] nanos = new long[iterations];
+        int matches = 0;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            matches = search.call();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%-34s %10d %10.2f %10.2f%n", name, matches, nanos[iterations / 2] / 1e6,
+                nanos[(int) (iterations * 0.95)] / 1e6);
+    }
+
+    private static void printSizes(HikariDataSource dataSource) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("SELECT c.relname, "
+                        + "pg_size_pretty(pg_total_relation_size(c.oid)) FROM pg_class c WHERE c.relname IN "
+                        + "('workflow_state', 'loan_attribute', 'loan_attribute_pkey', 'idx_loan_attribute_decision', "
+                        + "'idx_loan_attribute_name_decision') ORDER BY c.relname")) {
+            while (resultSet.next()) {
+                System.out.printf("size %-34s %s%n", resultSet.getString(1), resultSet.getString(2));
+            }
+        }
+    }
+
+    private static void execute(HikariDataSource dataSource, String sql) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isEmpty() ? value : defaultValue;
+    }
+}
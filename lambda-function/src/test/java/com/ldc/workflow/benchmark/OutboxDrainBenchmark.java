@@ -0,0 +1,150 @@
+package com.ldc.workflow.benchmark;
+
+import com.ldc.workflow.config.VendPpaResilienceProperties;
+import com.ldc.workflow.repository.VendPpaDeliveryRepository;
+import com.ldc.workflow.service.VendPpaClient;
+import com.ldc.workflow.service.VendPpaOutbox;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Throughput of draining a Vend PPA outbox backlog.
+ *
+ * For each concurrency level, seeds vend_ppa_delivery with a backlog of PENDING rows
+ * (generate_series), then drains it with VendPpaOutbox against an in-process Vend PPA
+ * stand-in that answers 200 after a fixed latency. Prints rows per second and checks
+ * that every row ended DELIVERED and every idempotency key was sent exactly once.
+ *
+ * Usage: OutboxDrainBenchmark [rows] [latency-millis] [batch-size] [concurrency,...]
+ */
+public class OutboxDrainBenchmark {
+
+    private static final String SEED_SQL = "INSERT INTO vend_ppa_delivery (request_number, loan_number, "
+            + "execution_id, idempotency_key, payload, status, attempts, next_attempt_at, created_at, updated_at) "
+            + "SELECT 'DRAIN-' || i, 'LOAN-' || i, 'exec-' || i, 'DRAIN-' || i || ':LOAN-' || i || ':exec-' || i, "
+            + "jsonb_build_object('requestNumber', 'DRAIN-' || i, 'loanNumber', 'LOAN-' || i, "
+            + "'loanDecision', 'Approved', 'reviewType', 'LDC'), "
+            + "'PENDING', 0, now() - interval '1 minute', now(), now() FROM generate_series(1, ?) AS i";
+    private static final String COUNT_SQL = "SELECT count(*) FROM vend_ppa_delivery "
+            + "WHERE request_number LIKE 'DRAIN-%' AND status = 'DELIVERED'";
+
+    static {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        long latencyMillis = args.length > 1 ? Long.parseLong(args[1]) : 20;
+        int batchSize = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        String[] levels = (args.length > 3 ? args[3] : "8,32,64").split(",");
+
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(env("DATABASE_URL", "jdbc:postgresql://localhost:5432/postgres"));
+        dataSource.setUsername(env("DATABASE_USER", "postgres"));
+        dataSource.setPassword(env("DATABASE_PASSWORD", "postgres"));
+        dataSource.setMaximumPoolSize(2);
+
+        Set<String> keys = ConcurrentHashMap.newKeySet();
+        ExecutorService serverThreads = Executors.newCachedThreadPool();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        server.createContext("/ppa", exchange -> respond(exchange, keys, latencyMillis));
+        server.setExecutor(serverThreads);
+        server.start();
+        String endpoint = "http://localhost:" + server.getAddress().getPort() + "/ppa";
+
+        System.out.printf("rows=%d latencyMillis=%d batchSize=%d%n", rows, latencyMillis, batchSize);
+        System.out.printf("%-12s %10s %10s %12s %12s%n", "concurrency", "delivered", "seconds", "rows/s",
+                "duplicates");
+        try {
+            for (String level : levels) {
+                int concurrency = Integer.parseInt(level.trim());
+                seed(dataSource, rows);
+                keys.clear();
+
+                VendPpaResilienceProperties resilience = new VendPpaResilienceProperties();
+                resilience.setMaxConcurrentCalls(concurrency);
+                VendPpaClient client = new VendPpaClient(endpoint, 2000, 30, 3, 100, 2000, resilience);
+                VendPpaOutbox outbox = new VendPpaOutbox(new VendPpaDeliveryRepository(dataSource), client,
+                        20, batchSize, concurrency, 120, 30, 3600);
+
+                VendPpaOutbox.DrainResult result = outbox.drain(Duration.ofHours(1));
+                double seconds = result.elapsed().toNanos() / 1e9;
+                long delivered = countDelivered(dataSource);
+                System.out.printf("%-12d %10d %10.1f %12.0f %12d%n", concurrency, delivered, seconds,
+                        result.delivered() / seconds, result.delivered() - keys.size());
+                if (delivered != rows || keys.size() != rows) {
+                    throw new IllegalStateException("Expected " + rows + " deliveries, got " + delivered
+                            + " rows and " + keys.size() + " keys");
+                }
+            }
+        } finally {
+            server.stop(0);
+            serverThreads.shutdownNow();
+            dataSource.close();
+        }
+    }
+
+    private static void seed(HikariDataSource dataSource, int rows) throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DELETE FROM vend_ppa_delivery WHERE request_number LIKE 'DRAIN-%'");
+            }
+            try (PreparedStatement statement = connection.prepareStatement(SEED_SQL)) {
+                statement.setInt(1, rows);
+                statement.executeUpdate();
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE vend_ppa_delivery");
+            }
+        }
+    }
+
+    private static long countDelivered(HikariDataSource dataSource) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(COUNT_SQL)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, Set<String> keys, long latencyMillis) throws IOException {
+        String key = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+        if (key != null) {
+            keys.add(key);
+        }
+        try (InputStream body = exchange.getRequestBody()) {
+            body.readAllBytes();
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] bytes = "{\"status\":\"SUCCESS\"}".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isEmpty() ? value : defaultValue;
+    }
+}
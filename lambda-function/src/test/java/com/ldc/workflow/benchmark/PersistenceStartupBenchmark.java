@@ -0,0 +1,38 @@
+package com.ldc.workflow.benchmark;
+
+import com.ldc.workflow.LambdaApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+/**
+ * Measures Spring context startup time and heap after init for one persistence mode.
+ *
+ * Start a fresh JVM per mode, since class loading dominates and is only paid once:
+ * -Dworkflow.persistence.mode=jpa or jdbc. Hibernate validates the schema in jpa mode,
+ * so both modes run against a database with the workflow schema.
+ * scripts/perf/persistence-startup.sh runs both modes several times.
+ *
+ * Usage: PersistenceStartupBenchmark
+ */
+public class PersistenceStartupBenchmark {
+
+    public static void main(String[] args) {
+        String mode = System.getProperty("workflow.persistence.mode", "jpa");
+
+        long start = System.nanoTime();
+        ConfigurableApplicationContext context = SpringApplication.run(LambdaApplication.class);
+        long startupMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.gc();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long heapUsedKb = memory.getHeapMemoryUsage().getUsed() / 1024;
+        long loadedClasses = ManagementFactory.getClassLoadingMXBean().getLoadedClassCount();
+
+        System.out.printf("mode=%s startup=%dms heapAfterGc=%dKB loadedClasses=%d beans=%d%n",
+                mode, startupMillis, heapUsedKb, loadedClasses, context.getBeanDefinitionCount());
+        context.close();
+    }
+}
@@ -0,0 +1,111 @@
+package com.ldc.workflow.benchmark;
+
+import com.ldc.workflow.config.DataSourceConfig;
+import com.ldc.workflow.config.DataSourcePoolProperties;
+import com.ldc.workflow.config.ReadReplicaRoutingDataSource;
+import com.ldc.workflow.repository.JdbcWorkflowStateStore;
+import com.ldc.workflow.repository.WorkflowStateRepository;
+import com.ldc.workflow.types.StateTransition;
+import com.ldc.workflow.types.WorkflowState;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Checks read/write routing against a real primary and a streaming replica.
+ *
+ * With WAL replay paused on the replica, a transition written in one unit of work
+ * must be visible to a history read in the same unit of work (read-your-writes on the
+ * primary) and invisible to the same read in a fresh unit of work (served by the
+ * replica). Replay is then resumed and the time until the replica catches up is printed.
+ *
+ * DATABASE_URL points at the primary and DATABASE_REPLICA_URL at the replica; the user
+ * must be allowed to call pg_wal_replay_pause(). scripts/perf/read-replica.sh starts
+ * both containers.
+ *
+ * Usage: ReadReplicaRoutingCheck
+ */
+public class ReadReplicaRoutingCheck {
+
+    private static final String LOAN_NUMBER = "1234567890";
+
+    public static void main(String[] args) throws Exception {
+        String user = env("DATABASE_USER", "postgres");
+        String password = env("DATABASE_PASSWORD", "postgres");
+        HikariDataSource primary = pool(env("DATABASE_URL", "jdbc:postgresql://localhost:5432/postgres"),
+                user, password);
+        HikariDataSource replica = pool(env("DATABASE_REPLICA_URL", "jdbc:postgresql://localhost:5433/postgres"),
+                user, password);
+        ReadReplicaRoutingDataSource routing = new ReadReplicaRoutingDataSource(primary, replica);
+        JdbcTemplate routingJdbc = new JdbcTemplate(routing);
+        JdbcTemplate replicaJdbc = new JdbcTemplate(replica);
+        WorkflowStateRepository repository = new WorkflowStateRepository(new JdbcWorkflowStateStore(routing), 50);
+
+        boolean passed = true;
+        passed &= check("unmarked reads use the primary",
+                !routingJdbc.queryForObject("SELECT pg_is_in_recovery()", Boolean.class));
+        passed &= check("marked reads use the replica", ReadReplicaRoutingDataSource.readFromReplica(
+                () -> routingJdbc.queryForObject("SELECT pg_is_in_recovery()", Boolean.class)));
+
+        String requestNumber = "REPLICA-CHECK-" + System.currentTimeMillis();
+        replicaJdbc.execute("SELECT pg_wal_replay_pause()");
+        try {
+            repository.beginUnitOfWork();
+            WorkflowState state = new WorkflowState();
+            state.setRequestNumber(requestNumber);
+            state.setLoanNumber(LOAN_NUMBER);
+            state.setReviewType("LDCReview");
+            state.setStatus("Completed");
+            state.addStateTransition(new StateTransition("ReplicaCheck", "system", Instant.now().toString(), null));
+            repository.upsert(state);
+            List<StateTransition> ownWrite = repository.findRecentStateTransitions(requestNumber, LOAN_NUMBER);
+            repository.endUnitOfWork();
+            passed &= check("loan written in the unit of work is read from the primary", ownWrite.size() == 1);
+
+            repository.beginUnitOfWork();
+            List<StateTransition> lagging = repository.findRecentStateTransitions(requestNumber, LOAN_NUMBER);
+            repository.endUnitOfWork();
+            passed &= check("fresh unit of work reads the paused replica", lagging.isEmpty());
+        } finally {
+            replicaJdbc.execute("SELECT pg_wal_replay_resume()");
+        }
+
+        long start = System.nanoTime();
+        while (true) {
+            repository.beginUnitOfWork();
+            int visible = repository.findRecentStateTransitions(requestNumber, LOAN_NUMBER).size();
+            repository.endUnitOfWork();
+            if (visible == 1) {
+                break;
+            }
+            Thread.sleep(10);
+        }
+        System.out.printf("replica caught up %.1f ms after replay resumed%n", (System.nanoTime() - start) / 1e6);
+
+        primary.close();
+        replica.close();
+        System.out.println(passed ? "PASS" : "FAIL");
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static boolean check(String description, boolean result) {
+        System.out.printf("%s: %s%n", result ? "ok  " : "FAIL", description);
+        return result;
+    }
+
+    private static HikariDataSource pool(String url, String user, String password) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(user);
+        dataSource.setPassword(password);
+        DataSourceConfig.configurePool(dataSource, new DataSourcePoolProperties(), "read-replica-check");
+        return dataSource;
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? value : defaultValue;
+    }
+}
@@ -0,0 +1,93 @@
+package com.ldc.workflow.business;
+
+import com.ldc.workflow.types.AttributeDecision;
+import com.ldc.workflow.types.LoanAttribute;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests merging attribute decision updates by Name and the patch and counter deltas
+ * recorded for the write.
+ */
+@DisplayName("AttributeChanges Tests")
+class AttributeChangesTest {
+
+    @Test
+    @DisplayName("Should update named attributes in place and keep the others")
+    void testMergeKeepsUnnamedAttributes() {
+        List<LoanAttribute> current = List.of(attribute("Income", "Pending"), attribute("Assets", "Approved"),
+                attribute("Credit", null));
+
+        AttributeChanges changes = AttributeChanges.merge(current, List.of(attribute("Credit", "Rejected")));
+
+        assertEquals(3, changes.merged().size());
+        assertEquals("Pending", changes.merged().get(0).getAttributeDecision());
+        assertEquals("Approved", changes.merged().get(1).getAttributeDecision());
+        assertEquals("Rejected", changes.merged().get(2).getAttributeDecision());
+        assertEquals(List.of(2), changes.changedIndexes());
+        assertTrue(changes.appended().isEmpty());
+        assertEquals(-1, changes.countDelta(AttributeDecision.PENDING));
+        assertEquals(1, changes.countDelta(AttributeDecision.REJECTED));
+        assertNull(current.get(2).getAttributeDecision());
+    }
+
+    @Test
+    @DisplayName("Should append attributes with new names and count them")
+    void testMergeAppendsNewNames() {
+        AttributeChanges changes = AttributeChanges.merge(List.of(attribute("Income", "Approved")),
+                List.of(attribute("Assets", "Reclass"), attribute("Assets", "Repurchase")));
+
+        assertEquals(2, changes.merged().size());
+        assertTrue(changes.changedIndexes().isEmpty());
+        assertEquals(1, changes.appended().size());
+        assertEquals("Repurchase", changes.appended().get(0).getAttributeDecision());
+        assertEquals(0, changes.countDelta(AttributeDecision.RECLASS));
+        assertEquals(1, changes.countDelta(AttributeDecision.REPURCHASE));
+    }
+
+    @Test
+    @DisplayName("Should record nothing when the decision is unchanged")
+    void testMergeIgnoresSameDecision() {
+        AttributeChanges changes = AttributeChanges.merge(List.of(attribute("Income", "Approved")),
+                List.of(attribute("Income", "Approved")));
+
+        assertTrue(changes.isEmpty());
+        assertEquals(0, changes.countDelta(AttributeDecision.APPROVED));
+    }
+
+    @Test
+    @DisplayName("Should keep counters consistent with a recount of the merged list")
+    void testDeltasMatchRecount() {
+        List<LoanAttribute> current = List.of(attribute("A", "Pending"), attribute("B", "Approved"),
+                attribute("A", null), attribute("C", "Waived"));
+        AttributeChanges changes = AttributeChanges.merge(current, List.of(attribute("A", "Approved"),
+                attribute("C", "Rejected"), attribute("D", null), attribute("B", "Reclass")));
+
+        DecisionSummary before = DecisionSummary.of(current);
+        DecisionSummary after = DecisionSummary.of(changes.merged());
+        for (AttributeDecision decision : AttributeDecision.values()) {
+            assertEquals(after.count(decision) - before.count(decision), changes.countDelta(decision),
+                    decision.name());
+        }
+        assertEquals(List.of(0, 1, 2, 3), changes.changedIndexes());
+        assertEquals(after.total() - before.total(), changes.appended().size());
+    }
+
+    @Test
+    @DisplayName("Should treat missing current attributes as an empty list")
+    void testMergeIntoNull() {
+        AttributeChanges changes = AttributeChanges.merge(null, List.of(attribute("Income", "Approved")));
+
+        assertEquals(1, changes.merged().size());
+        assertEquals(1, changes.appended().size());
+        assertEquals(1, changes.countDelta(AttributeDecision.APPROVED));
+    }
+
+    private static LoanAttribute attribute(String name, String decision) {
+        return new LoanAttribute(name, decision);
+    }
+}
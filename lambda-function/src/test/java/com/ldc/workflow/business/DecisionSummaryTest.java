@@ -0,0 +1,89 @@
+package com.ldc.workflow.business;
+
+import com.ldc.workflow.types.AttributeDecision;
+import com.ldc.workflow.types.LoanAttribute;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that one DecisionSummary pass answers the completion and status questions
+ * the same way the per-question scans did.
+ */
+@DisplayName("DecisionSummary Tests")
+class DecisionSummaryTest {
+
+    private final LoanStatusDeterminer determiner = new LoanStatusDeterminer();
+    private final CompletionCriteriaChecker checker = new CompletionCriteriaChecker();
+
+    @Test
+    @DisplayName("Should count each decision, treating null as Pending and unknown values as Other")
+    void testCounts() {
+        DecisionSummary summary = DecisionSummary.of(List.of(
+                attribute("A", "Approved"), attribute("B", null), attribute("C", "Pending"),
+                attribute("D", "Rejected"), attribute("E", "Waived")));
+
+        assertEquals(5, summary.total());
+        assertEquals(1, summary.count(AttributeDecision.APPROVED));
+        assertEquals(2, summary.count(AttributeDecision.PENDING));
+        assertEquals(1, summary.count(AttributeDecision.REJECTED));
+        assertEquals(1, summary.count(AttributeDecision.OTHER));
+        assertEquals(List.of("B", "C"), summary.pendingAttributeNames());
+        assertFalse(summary.isComplete());
+        assertTrue(summary.hasApprovedAndRejected());
+        assertFalse(summary.allApproved());
+    }
+
+    @Test
+    @DisplayName("Should determine status with the existing priority rules")
+    void testStatusRules() {
+        assertEquals("Approved", determiner.determineStatus(List.of(attribute("A", "Approved"))));
+        assertEquals("Rejected", determiner.determineStatus(List.of(attribute("A", "Rejected"))));
+        assertEquals("Partially Approved", determiner.determineStatus(List.of(
+                attribute("A", "Approved"), attribute("B", "Rejected"))));
+        assertEquals("Reclass Approved", determiner.determineStatus(List.of(
+                attribute("A", "Approved"), attribute("B", "Reclass"))));
+        assertEquals("Repurchase", determiner.determineStatus(List.of(
+                attribute("A", "Reclass"), attribute("B", "Repurchase"))));
+        assertEquals("Approved", determiner.determineStatus(List.of(
+                attribute("A", "Approved"), attribute("B", "Pending"))));
+        assertEquals("Unknown", determiner.determineStatus(List.of(attribute("A", "Pending"))));
+        assertEquals("Unknown", determiner.determineStatus(List.of()));
+    }
+
+    @Test
+    @DisplayName("Should treat empty attributes as complete and list pending names in the reason")
+    void testCompletion() {
+        assertTrue(checker.isLoanDecisionComplete(null, List.of()));
+        assertTrue(checker.isLoanDecisionComplete("Approved", List.of(attribute("A", "Waived"))));
+
+        List<LoanAttribute> attributes = List.of(attribute("A", "Approved"), attribute("B", null),
+                attribute("C", "Pending"));
+        assertFalse(checker.isLoanDecisionComplete("Pending Review", attributes));
+        assertEquals("The following attributes are incomplete (Pending or null): B, C",
+                checker.getIncompleteReason("Pending Review", attributes));
+        assertEquals("Loan decision is not set", checker.getIncompleteReason(null, attributes));
+    }
+
+    @Test
+    @DisplayName("Should answer the same questions from stored counts, without pending names")
+    void testFromCounts() {
+        DecisionSummary counted = DecisionSummary.of(List.of(
+                attribute("A", "Approved"), attribute("B", null), attribute("C", "Reclass"),
+                attribute("D", "Waived")));
+        DecisionSummary stored = DecisionSummary.fromCounts(4, 1, 1, 0, 1, 0);
+
+        assertEquals(counted.toString(), stored.toString());
+        assertEquals(determiner.determineStatus(counted), determiner.determineStatus(stored));
+        assertTrue(stored.pendingAttributeNames().isEmpty());
+        assertEquals("1 of 4 attributes are incomplete (Pending or null)",
+                checker.getIncompleteReason("Pending Review", stored));
+    }
+
+    private static LoanAttribute attribute(String name, String decision) {
+        return new LoanAttribute(name, decision);
+    }
+}
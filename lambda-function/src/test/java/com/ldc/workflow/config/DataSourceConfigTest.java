@@ -0,0 +1,67 @@
+package com.ldc.workflow.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Lambda connection pool settings.
+ */
+@DisplayName("DataSourceConfig Tests")
+class DataSourceConfigTest {
+
+    @Test
+    @DisplayName("Should size the pool for one invocation per container")
+    void testDefaultPoolSettings() {
+        HikariDataSource dataSource = new HikariDataSource();
+
+        DataSourceConfig.configurePool(dataSource, new DataSourcePoolProperties(), "test-function");
+
+        assertEquals(2, dataSource.getMaximumPoolSize());
+        assertEquals(1, dataSource.getMinimumIdle());
+        assertEquals(0, dataSource.getKeepaliveTime());
+        assertEquals("1", dataSource.getDataSourceProperties().getProperty("prepareThreshold"));
+        assertEquals("true", dataSource.getDataSourceProperties().getProperty("reWriteBatchedInserts"));
+        assertEquals("test-function", dataSource.getDataSourceProperties().getProperty("ApplicationName"));
+    }
+
+    @Test
+    @DisplayName("Should disable named prepared statements behind PgBouncer")
+    void testPgBouncerDisablesPreparedStatements() {
+        DataSourcePoolProperties properties = new DataSourcePoolProperties();
+        properties.setPooler(DataSourcePoolProperties.Pooler.PGBOUNCER);
+        HikariDataSource dataSource = new HikariDataSource();
+
+        DataSourceConfig.configurePool(dataSource, properties, "test-function");
+
+        assertEquals("0", dataSource.getDataSourceProperties().getProperty("prepareThreshold"));
+    }
+
+    @Test
+    @DisplayName("Should disable named prepared statements behind RDS Proxy")
+    void testRdsProxyDisablesPreparedStatements() {
+        DataSourcePoolProperties properties = new DataSourcePoolProperties();
+        properties.setPooler(DataSourcePoolProperties.Pooler.RDS_PROXY);
+        HikariDataSource dataSource = new HikariDataSource();
+
+        DataSourceConfig.configurePool(dataSource, properties, "test-function");
+
+        assertEquals("0", dataSource.getDataSourceProperties().getProperty("prepareThreshold"));
+    }
+
+    @Test
+    @DisplayName("Should never keep more idle connections than the pool allows")
+    void testMinimumIdleCappedAtPoolSize() {
+        DataSourcePoolProperties properties = new DataSourcePoolProperties();
+        properties.setMaximumPoolSize(1);
+        properties.setMinimumIdle(4);
+        HikariDataSource dataSource = new HikariDataSource();
+
+        DataSourceConfig.configurePool(dataSource, properties, "test-function");
+
+        assertEquals(1, dataSource.getMaximumPoolSize());
+        assertEquals(1, dataSource.getMinimumIdle());
+    }
+}
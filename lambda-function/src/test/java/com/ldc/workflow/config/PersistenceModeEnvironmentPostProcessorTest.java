@@ -0,0 +1,63 @@
+package com.ldc.workflow.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the JPA autoconfiguration exclusion in jdbc persistence mode.
+ */
+@DisplayName("PersistenceModeEnvironmentPostProcessor Tests")
+class PersistenceModeEnvironmentPostProcessorTest {
+
+    private final PersistenceModeEnvironmentPostProcessor postProcessor = new PersistenceModeEnvironmentPostProcessor();
+
+    @Test
+    @DisplayName("Should leave JPA autoconfiguration in place by default")
+    void testJpaModeExcludesNothing() {
+        ConfigurableEnvironment environment = environment(Map.of());
+
+        postProcessor.postProcessEnvironment(environment, null);
+
+        assertNull(environment.getProperty(PersistenceModeEnvironmentPostProcessor.EXCLUDE_PROPERTY));
+    }
+
+    @Test
+    @DisplayName("Should exclude JPA autoconfiguration in jdbc mode")
+    void testJdbcModeExcludesJpa() {
+        ConfigurableEnvironment environment = environment(Map.of(
+                PersistenceModeEnvironmentPostProcessor.MODE_PROPERTY, "jdbc"));
+
+        postProcessor.postProcessEnvironment(environment, null);
+
+        String excludes = environment.getProperty(PersistenceModeEnvironmentPostProcessor.EXCLUDE_PROPERTY);
+        assertEquals(String.join(",", PersistenceModeEnvironmentPostProcessor.JPA_AUTO_CONFIGURATIONS), excludes);
+    }
+
+    @Test
+    @DisplayName("Should keep existing autoconfiguration exclusions")
+    void testJdbcModeKeepsExistingExcludes() {
+        ConfigurableEnvironment environment = environment(Map.of(
+                PersistenceModeEnvironmentPostProcessor.MODE_PROPERTY, "JDBC",
+                PersistenceModeEnvironmentPostProcessor.EXCLUDE_PROPERTY, "com.example.FooAutoConfiguration"));
+
+        postProcessor.postProcessEnvironment(environment, null);
+
+        String excludes = environment.getProperty(PersistenceModeEnvironmentPostProcessor.EXCLUDE_PROPERTY);
+        assertTrue(excludes.startsWith("com.example.FooAutoConfiguration,"));
+        PersistenceModeEnvironmentPostProcessor.JPA_AUTO_CONFIGURATIONS
+                .forEach(name -> assertTrue(excludes.contains(name)));
+    }
+
+    private static ConfigurableEnvironment environment(Map<String, Object> properties) {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addLast(new MapPropertySource("test", properties));
+        return environment;
+    }
+}
@@ -0,0 +1,60 @@
+package com.ldc.workflow.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for read replica routing.
+ */
+@DisplayName("ReadReplicaRoutingDataSource Tests")
+class ReadReplicaRoutingDataSourceTest {
+
+    private final ReadReplicaRoutingDataSource dataSource = new ReadReplicaRoutingDataSource(
+            new SimpleDriverDataSource(), new SimpleDriverDataSource());
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    @DisplayName("Should route to the primary by default")
+    void testDefaultsToPrimary() {
+        assertEquals(ReadReplicaRoutingDataSource.PRIMARY, dataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    @DisplayName("Should route marked reads to the replica and restore afterwards")
+    void testMarkedReadUsesReplica() {
+        Object key = ReadReplicaRoutingDataSource.readFromReplica(dataSource::determineCurrentLookupKey);
+
+        assertEquals(ReadReplicaRoutingDataSource.REPLICA, key);
+        assertEquals(ReadReplicaRoutingDataSource.PRIMARY, dataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    @DisplayName("Should keep marked reads on the primary inside a transaction")
+    void testTransactionKeepsPrimary() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        Object key = ReadReplicaRoutingDataSource.readFromReplica(dataSource::determineCurrentLookupKey);
+
+        assertEquals(ReadReplicaRoutingDataSource.PRIMARY, key);
+    }
+
+    @Test
+    @DisplayName("Should keep the replica marker for nested reads")
+    void testNestedReadsKeepMarker() {
+        Object key = ReadReplicaRoutingDataSource.readFromReplica(() -> {
+            ReadReplicaRoutingDataSource.readFromReplica(() -> null);
+            return dataSource.determineCurrentLookupKey();
+        });
+
+        assertEquals(ReadReplicaRoutingDataSource.REPLICA, key);
+    }
+}
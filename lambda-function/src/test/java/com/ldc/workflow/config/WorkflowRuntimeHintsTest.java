@@ -0,0 +1,48 @@
+package com.ldc.workflow.config;
+
+import com.ldc.workflow.entity.WorkflowStateEntity;
+import com.ldc.workflow.types.LoanPpaRequest;
+import com.ldc.workflow.types.WorkflowState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the native-image hints.
+ */
+@DisplayName("WorkflowRuntimeHints Tests")
+class WorkflowRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    WorkflowRuntimeHintsTest() {
+        new WorkflowRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    @DisplayName("Should register Jackson binding hints for workflow types and nested types")
+    void testJsonTypesRegistered() throws Exception {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(WorkflowState.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(LoanPpaRequest.Attribute.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(LoanPpaRequest.class.getMethod("setRequestNumber", String.class)).test(hints));
+    }
+
+    @Test
+    @DisplayName("Should register JPA entities with all members")
+    void testEntitiesRegistered() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(WorkflowStateEntity.class)
+                .withMemberCategories(MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)
+                .test(hints));
+    }
+
+    @Test
+    @DisplayName("Should include the schema resource")
+    void testSchemaResourceRegistered() {
+        assertTrue(RuntimeHintsPredicates.resource().forResource("schema.sql").test(hints));
+    }
+}
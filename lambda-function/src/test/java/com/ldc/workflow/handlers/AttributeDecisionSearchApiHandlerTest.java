@@ -0,0 +1,78 @@
+package com.ldc.workflow.handlers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ldc.workflow.constants.WorkflowConstants;
+import com.ldc.workflow.repository.LoanAttributeRepository.LoanAttributeMatch;
+import com.ldc.workflow.repository.WorkflowStateRepository;
+import com.ldc.workflow.validation.AttributeDecisionValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AttributeDecisionSearchApiHandler Tests")
+class AttributeDecisionSearchApiHandlerTest {
+
+    @Mock
+    private WorkflowStateRepository workflowStateRepository;
+
+    private AttributeDecisionSearchApiHandler handler;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        handler = new AttributeDecisionSearchApiHandler(workflowStateRepository, new AttributeDecisionValidator(), 2);
+    }
+
+    @Test
+    @DisplayName("Should return a page of matching loans with the cursor for the next page")
+    void testReturnsPage() {
+        when(workflowStateRepository.findByAttributeDecision("Income", "Pending", 10, 2)).thenReturn(List.of(
+                new LoanAttributeMatch(11, "REQ-11", "LOAN-11"), new LoanAttributeMatch(14, "REQ-14", "LOAN-14")));
+        ObjectNode input = objectMapper.createObjectNode()
+                .put("Decision", "Pending").put("Name", "Income").put("AfterId", 10).put("Limit", 50);
+
+        JsonNode result = handler.apply(input);
+
+        assertTrue(result.get(WorkflowConstants.KEY_SUCCESS).asBoolean());
+        assertEquals(2, result.get("Loans").size());
+        assertEquals("LOAN-14", result.get("Loans").get(1).get(WorkflowConstants.KEY_LOAN_NUMBER).asText());
+        assertEquals(14, result.get("LastId").asLong());
+        assertTrue(result.get("HasMore").asBoolean());
+    }
+
+    @Test
+    @DisplayName("Should search every attribute when no name is given")
+    void testSearchesAnyAttribute() {
+        when(workflowStateRepository.findByAttributeDecision(null, "Repurchase", 0, 2)).thenReturn(List.of());
+
+        JsonNode result = handler.apply(objectMapper.createObjectNode().put("Decision", "Repurchase"));
+
+        assertTrue(result.get(WorkflowConstants.KEY_SUCCESS).asBoolean());
+        assertEquals(0, result.get("LastId").asLong());
+        assertFalse(result.get("HasMore").asBoolean());
+    }
+
+    @Test
+    @DisplayName("Should reject a missing or unknown decision without querying")
+    void testRejectsInvalidDecision() {
+        assertFalse(handler.apply(objectMapper.createObjectNode()).get(WorkflowConstants.KEY_SUCCESS).asBoolean());
+        assertFalse(handler.apply(objectMapper.createObjectNode().put("Decision", "Maybe"))
+                .get(WorkflowConstants.KEY_SUCCESS).asBoolean());
+        verify(workflowStateRepository, never()).findByAttributeDecision(any(), any(), anyLong(), anyInt());
+    }
+}
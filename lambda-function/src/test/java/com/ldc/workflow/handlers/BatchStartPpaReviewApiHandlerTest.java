@@ -0,0 +1,253 @@
+package com.ldc.workflow.handlers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ldc.workflow.repository.WorkflowStateBatchRepository;
+import com.ldc.workflow.repository.WorkflowStateRepository;
+import com.ldc.workflow.service.StepFunctionsService;
+import com.ldc.workflow.types.WorkflowState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BatchStartPpaReviewApiHandler. The Step Functions stand-in completes
+ * async starts after 10ms on a delayed executor.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BatchStartPpaReviewApiHandler Tests")
+class BatchStartPpaReviewApiHandlerTest {
+
+    private static final int PARALLELISM = 16;
+    private static final long START_LATENCY_MILLIS = 10;
+    private static final int BATCH_LOANS = 200;
+    private static final Instant WRITTEN_AT = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Mock
+    private WorkflowStateRepository workflowStateRepository;
+
+    @Mock
+    private WorkflowStateBatchRepository workflowStateBatchRepository;
+
+    @Mock
+    private StepFunctionsService stepFunctionsService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger executionCount = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private StartPpaReviewApiHandler startHandler;
+    private BatchStartPpaReviewApiHandler batchHandler;
+
+    @BeforeEach
+    void setUp() {
+        startHandler = new StartPpaReviewApiHandler(objectMapper, workflowStateRepository, stepFunctionsService);
+        batchHandler = new BatchStartPpaReviewApiHandler(objectMapper, startHandler, stepFunctionsService,
+                workflowStateBatchRepository, PARALLELISM, 1000);
+        lenient().when(stepFunctionsService.startExecutionAsync(any(), anyString(), anyString()))
+                .thenAnswer(invocation -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    return CompletableFuture.supplyAsync(() -> {
+                        inFlight.decrementAndGet();
+                        return executionArn();
+                    }, CompletableFuture.delayedExecutor(START_LATENCY_MILLIS, TimeUnit.MILLISECONDS));
+                });
+        lenient().when(workflowStateBatchRepository.findRunningKeys(anyList(), anyList())).thenReturn(Set.of());
+        lenient().when(workflowStateBatchRepository.insertOrReset(anyList())).thenReturn(WRITTEN_AT);
+    }
+
+    @Test
+    @DisplayName("Should start every loan and persist the states in one batch")
+    @SuppressWarnings("unchecked")
+    void testBatchStartsAllLoans() {
+        JsonNode response = batchHandler.apply(batchInput(3));
+
+        assertTrue(response.get("Success").asBoolean());
+        JsonNode results = response.get("Results");
+        assertEquals(3, results.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals("REQ-" + i, results.get(i).get("RequestNumber").asText());
+            assertEquals("LOAN-" + i, results.get(i).get("LoanNumber").asText());
+            assertTrue(results.get(i).get("Success").asBoolean());
+            assertTrue(results.get(i).get("ExecutionId").asText().startsWith("arn:aws:states"));
+        }
+
+        verify(workflowStateBatchRepository, times(1)).findRunningKeys(anyList(), anyList());
+        ArgumentCaptor<List<WorkflowState>> states = ArgumentCaptor.forClass(List.class);
+        verify(workflowStateBatchRepository, times(1)).insertOrReset(states.capture());
+        assertEquals(3, states.getValue().size());
+        assertEquals("RUNNING", states.getValue().get(0).getStatus());
+        verify(workflowStateBatchRepository, never()).upsertAll(anyList());
+        verifyNoInteractions(workflowStateRepository);
+    }
+
+    @Test
+    @DisplayName("Should persist initial states before starting, so an early callback token is kept")
+    @SuppressWarnings("unchecked")
+    void testEarlyCallbackTokenIsNotOverwritten() {
+        Map<String, WorkflowState> stored = new ConcurrentHashMap<>();
+        when(workflowStateBatchRepository.insertOrReset(anyList())).thenAnswer(invocation -> {
+            for (WorkflowState state : (List<WorkflowState>) invocation.getArgument(0)) {
+                stored.putIfAbsent(WorkflowStateBatchRepository.key(state.getRequestNumber(),
+                        state.getLoanNumber()), state);
+            }
+            return WRITTEN_AT;
+        });
+        // The execution reaches its first callback and stores its token before the start returns
+        when(stepFunctionsService.startExecutionAsync(any(), anyString(), anyString())).thenAnswer(invocation -> {
+            stored.values().forEach(state -> state.setTaskToken("token-" + state.getLoanNumber()));
+            return CompletableFuture.completedFuture(executionArn());
+        });
+
+        JsonNode results = batchHandler.apply(batchInput(2)).get("Results");
+
+        assertTrue(results.get(0).get("Success").asBoolean());
+        assertTrue(results.get(1).get("Success").asBoolean());
+        InOrder inOrder = inOrder(workflowStateBatchRepository, stepFunctionsService);
+        inOrder.verify(workflowStateBatchRepository).insertOrReset(anyList());
+        inOrder.verify(stepFunctionsService, times(2)).startExecutionAsync(any(), anyString(), anyString());
+        verify(workflowStateBatchRepository, never()).upsertAll(anyList());
+        assertEquals("token-LOAN-0", stored.get(WorkflowStateBatchRepository.key("REQ-0", "LOAN-0")).getTaskToken());
+        assertEquals("token-LOAN-1", stored.get(WorkflowStateBatchRepository.key("REQ-1", "LOAN-1")).getTaskToken());
+    }
+
+    @Test
+    @DisplayName("Should start nothing when the initial states cannot be persisted")
+    void testSkipsStartsWhenPersistFails() {
+        when(workflowStateBatchRepository.insertOrReset(anyList()))
+                .thenThrow(new RuntimeException("connection refused"));
+
+        JsonNode results = batchHandler.apply(batchInput(2)).get("Results");
+
+        assertFalse(results.get(0).get("Success").asBoolean());
+        assertTrue(results.get(0).get("Error").asText().contains("connection refused"));
+        verify(stepFunctionsService, never()).startExecutionAsync(any(), anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Should skip loans that are running or repeated in the batch")
+    void testDedupesRunningAndRepeatedLoans() {
+        when(workflowStateBatchRepository.findRunningKeys(anyList(), anyList()))
+                .thenReturn(Set.of(WorkflowStateBatchRepository.key("REQ-1", "LOAN-1")));
+        ObjectNode input = batchInput(3);
+        ((ArrayNode) input.get("Requests")).add(request(0));
+
+        JsonNode results = batchHandler.apply(input).get("Results");
+
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).get("Success").asBoolean());
+        assertFalse(results.get(1).get("Success").asBoolean());
+        assertTrue(results.get(1).get("Error").asText().contains("Active workflow execution already exists"));
+        assertTrue(results.get(2).get("Success").asBoolean());
+        assertFalse(results.get(3).get("Success").asBoolean());
+        assertTrue(results.get(3).get("Error").asText().contains("Duplicate"));
+        verify(stepFunctionsService, times(2)).startExecutionAsync(any(), anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Should report invalid items and failed starts per loan")
+    void testReportsItemErrors() {
+        ObjectNode input = batchInput(2);
+        ((ArrayNode) input.get("Requests")).addObject()
+                .put("RequestNumber", "REQ-X").put("LoanNumber", "LOAN-X").put("ReviewType", "Unknown");
+        when(stepFunctionsService.startExecutionAsync(any(), anyString(), contains("LOAN-1")))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Throttled")));
+
+        JsonNode results = batchHandler.apply(input).get("Results");
+
+        assertTrue(results.get(0).get("Success").asBoolean());
+        assertFalse(results.get(1).get("Success").asBoolean());
+        assertTrue(results.get(1).get("Error").asText().contains("Throttled"));
+        assertFalse(results.get(2).get("Success").asBoolean());
+        assertTrue(results.get(2).get("Error").asText().contains("Invalid ReviewType"));
+        verify(workflowStateBatchRepository).deleteNotStarted(List.of("REQ-1"), List.of("LOAN-1"), WRITTEN_AT);
+    }
+
+    @Test
+    @DisplayName("Should reject a missing or oversized batch")
+    void testRejectsInvalidBatch() {
+        BatchStartPpaReviewApiHandler smallHandler = new BatchStartPpaReviewApiHandler(objectMapper, startHandler,
+                stepFunctionsService, workflowStateBatchRepository, PARALLELISM, 2);
+        assertFalse(batchHandler.apply(objectMapper.createObjectNode()).get("Success").asBoolean());
+        JsonNode response = smallHandler.apply(batchInput(3));
+        assertFalse(response.get("Success").asBoolean());
+        assertTrue(response.get("Error").asText().contains("exceeds the maximum"));
+        verifyNoInteractions(stepFunctionsService);
+    }
+
+    @Test
+    @DisplayName("Should keep at most the configured number of starts in flight")
+    void testBoundsStartsInFlight() {
+        JsonNode results = batchHandler.apply(batchInput(PARALLELISM * 4)).get("Results");
+
+        assertEquals(PARALLELISM * 4, results.size());
+        for (JsonNode result : results) {
+            assertTrue(result.get("Success").asBoolean());
+        }
+        assertTrue(maxInFlight.get() <= PARALLELISM, "Had " + maxInFlight.get() + " starts in flight");
+        assertTrue(maxInFlight.get() > 1, "Starts were not pipelined");
+    }
+
+    @Test
+    @DisplayName("Should persist one initial state per loan in a single batch call")
+    @SuppressWarnings("unchecked")
+    void testPersistsOneStatePerLoanInOneCall() {
+        JsonNode results = batchHandler.apply(batchInput(BATCH_LOANS)).get("Results");
+
+        assertEquals(BATCH_LOANS, results.size());
+        ArgumentCaptor<List<WorkflowState>> states = ArgumentCaptor.forClass(List.class);
+        verify(workflowStateBatchRepository, times(1)).insertOrReset(states.capture());
+        assertEquals(BATCH_LOANS, states.getValue().size());
+        for (int i = 0; i < BATCH_LOANS; i++) {
+            assertEquals("LOAN-" + i, states.getValue().get(i).getLoanNumber());
+            assertEquals(1, states.getValue().get(i).getAttributes().size());
+        }
+        verify(stepFunctionsService, times(BATCH_LOANS)).startExecutionAsync(any(), anyString(), anyString());
+        verify(stepFunctionsService, never()).startExecution(any(), anyString(), anyString());
+    }
+
+    private String executionArn() {
+        return "arn:aws:states:us-east-1:123456789012:execution:test:exec-" + executionCount.incrementAndGet();
+    }
+
+    private ObjectNode batchInput(int count) {
+        ObjectNode input = objectMapper.createObjectNode();
+        input.put("handlerType", "batchStartPpaReviewApi");
+        ArrayNode requests = input.putArray("Requests");
+        for (int i = 0; i < count; i++) {
+            requests.add(request(i));
+        }
+        return input;
+    }
+
+    private ObjectNode request(int index) {
+        ObjectNode request = objectMapper.createObjectNode();
+        request.put("RequestNumber", "REQ-" + index);
+        request.put("LoanNumber", "LOAN-" + index);
+        request.put("ReviewType", "LDC");
+        request.putArray("Attributes").addObject().put("Name", "Income").put("Decision", "Pending");
+        return request;
+    }
+}
@@ -0,0 +1,209 @@
+package com.ldc.workflow.handlers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ldc.workflow.repository.WorkflowStateBatchRepository;
+import com.ldc.workflow.repository.WorkflowStateRepository;
+import com.ldc.workflow.service.StepFunctionsService;
+import com.ldc.workflow.types.WorkflowState;
+import com.ldc.workflow.validation.AttributeDecisionValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BulkLoanDecisionUpdateApiHandler.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BulkLoanDecisionUpdateApiHandler Tests")
+class BulkLoanDecisionUpdateApiHandlerTest {
+
+    private static final int PARALLELISM = 16;
+    private static final long RESUME_LATENCY_MILLIS = 10;
+
+    @Mock
+    private WorkflowStateRepository workflowStateRepository;
+
+    @Mock
+    private WorkflowStateBatchRepository workflowStateBatchRepository;
+
+    @Mock
+    private StepFunctionsService stepFunctionsService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, WorkflowState> storedStates = new HashMap<>();
+    private BulkLoanDecisionUpdateApiHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        handler = new BulkLoanDecisionUpdateApiHandler(new AttributeDecisionValidator(), workflowStateRepository,
+                workflowStateBatchRepository, stepFunctionsService, PARALLELISM, 1000);
+        lenient().when(workflowStateRepository.findAllByRequestNumberAndLoanNumber(anyList(), anyList()))
+                .thenReturn(storedStates);
+        lenient().when(stepFunctionsService.sendTaskSuccessAsync(anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    @DisplayName("Should write all decisions in one batch and resume every execution")
+    @SuppressWarnings("unchecked")
+    void testBulkUpdateWritesOnceAndResumesAll() {
+        for (int i = 0; i < 3; i++) {
+            storeState(i, "token-" + i);
+        }
+
+        JsonNode response = handler.apply(bulkInput(3));
+
+        assertTrue(response.get("Success").asBoolean());
+        JsonNode results = response.get("Results");
+        assertEquals(3, results.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals("LOAN-" + i, results.get(i).get("LoanNumber").asText());
+            assertTrue(results.get(i).get("Success").asBoolean());
+            assertEquals("Approved", results.get(i).get("LoanDecision").asText());
+            assertTrue(results.get(i).get("Resumed").asBoolean());
+        }
+
+        verify(workflowStateRepository, times(1)).findAllByRequestNumberAndLoanNumber(anyList(), anyList());
+        ArgumentCaptor<List<WorkflowState>> states = ArgumentCaptor.forClass(List.class);
+        verify(workflowStateBatchRepository, times(1)).patchDecisions(states.capture());
+        assertEquals(3, states.getValue().size());
+        assertEquals("Approved", states.getValue().get(0).getAttributes().get(0).getAttributeDecision());
+        verify(stepFunctionsService).sendTaskSuccessAsync(eq("token-0"), contains("LoanDecisionUpdate"));
+        verify(stepFunctionsService, times(3)).sendTaskSuccessAsync(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Should report invalid, missing and unresumable items per loan")
+    void testPerItemErrors() {
+        storeState(0, "token-0");
+        storeState(2, null);
+        ObjectNode input = bulkInput(3);
+        ((ObjectNode) input.get("Requests").get(0)).putArray("Attributes").addObject()
+                .put("Name", "Income").put("Decision", "Maybe");
+
+        JsonNode results = handler.apply(input).get("Results");
+
+        assertFalse(results.get(0).get("Success").asBoolean());
+        assertTrue(results.get(0).get("Error").asText().contains("Invalid attribute decision"));
+        assertFalse(results.get(1).get("Success").asBoolean());
+        assertEquals("Workflow state not found", results.get(1).get("Error").asText());
+        assertTrue(results.get(2).get("Success").asBoolean());
+        assertFalse(results.get(2).get("Resumed").asBoolean());
+        verifyNoInteractions(stepFunctionsService);
+    }
+
+    @Test
+    @DisplayName("Should not resume any execution when the batch write fails")
+    void testFailedWriteResumesNothing() {
+        storeState(0, "token-0");
+        storeState(1, "token-1");
+        when(workflowStateBatchRepository.patchDecisions(anyList()))
+                .thenThrow(new RuntimeException("deadlock detected"));
+
+        JsonNode results = handler.apply(bulkInput(2)).get("Results");
+
+        assertFalse(results.get(0).get("Success").asBoolean());
+        assertFalse(results.get(1).get("Success").asBoolean());
+        assertTrue(results.get(1).get("Error").asText().contains("deadlock detected"));
+        verifyNoInteractions(stepFunctionsService);
+    }
+
+    @Test
+    @DisplayName("Should not resume a loan whose state changed since it was loaded")
+    void testConcurrentlyChangedStateIsNotResumed() {
+        storeState(0, "token-0");
+        storeState(1, "token-1");
+        when(workflowStateBatchRepository.patchDecisions(anyList()))
+                .thenReturn(Set.of(WorkflowStateBatchRepository.key("REQ-1", "LOAN-1")));
+
+        JsonNode results = handler.apply(bulkInput(2)).get("Results");
+
+        assertTrue(results.get(0).get("Resumed").asBoolean());
+        assertFalse(results.get(1).get("Success").asBoolean());
+        assertTrue(results.get(1).get("Error").asText().contains("changed"));
+        verify(stepFunctionsService).sendTaskSuccessAsync(eq("token-0"), anyString());
+        verify(stepFunctionsService, never()).sendTaskSuccessAsync(eq("token-1"), anyString());
+    }
+
+    @Test
+    @DisplayName("Should report a failed resume on its item only")
+    void testFailedResumeIsPerItem() {
+        storeState(0, "token-0");
+        storeState(1, "token-1");
+        when(stepFunctionsService.sendTaskSuccessAsync(eq("token-1"), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Throttled")));
+
+        JsonNode results = handler.apply(bulkInput(2)).get("Results");
+
+        assertTrue(results.get(0).get("Resumed").asBoolean());
+        assertFalse(results.get(1).get("Success").asBoolean());
+        assertTrue(results.get(1).get("Error").asText().contains("Throttled"));
+    }
+
+    @Test
+    @DisplayName("Should pipeline resumes with a bounded number in flight")
+    void testResumesFanOut() {
+        int loans = 160;
+        for (int i = 0; i < loans; i++) {
+            storeState(i, "token-" + i);
+        }
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(stepFunctionsService.sendTaskSuccessAsync(anyString(), anyString())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return CompletableFuture.runAsync(inFlight::decrementAndGet,
+                    CompletableFuture.delayedExecutor(RESUME_LATENCY_MILLIS, TimeUnit.MILLISECONDS));
+        });
+
+        JsonNode results = handler.apply(bulkInput(loans)).get("Results");
+
+        assertEquals(loans, results.size());
+        for (JsonNode result : results) {
+            assertTrue(result.get("Resumed").asBoolean());
+        }
+        assertTrue(maxInFlight.get() <= PARALLELISM, "Had " + maxInFlight.get() + " resumes in flight");
+        verify(workflowStateBatchRepository, times(1)).patchDecisions(anyList());
+        verify(stepFunctionsService, times(loans)).sendTaskSuccessAsync(anyString(), anyString());
+    }
+
+    private void storeState(int index, String taskToken) {
+        WorkflowState state = new WorkflowState("REQ-" + index, "LOAN-" + index, "LDC");
+        state.setTaskToken(taskToken);
+        state.setStatus("RUNNING");
+        storedStates.put(WorkflowStateBatchRepository.key("REQ-" + index, "LOAN-" + index), state);
+    }
+
+    private ObjectNode bulkInput(int count) {
+        ObjectNode input = objectMapper.createObjectNode();
+        input.put("handlerType", "bulkLoanDecisionUpdateApi");
+        ArrayNode requests = input.putArray("Requests");
+        for (int i = 0; i < count; i++) {
+            ObjectNode request = requests.addObject();
+            request.put("RequestNumber", "REQ-" + i);
+            request.put("LoanNumber", "LOAN-" + i);
+            request.put("LoanDecision", "Approved");
+            request.putArray("Attributes").addObject().put("Name", "Income").put("Decision", "Approved");
+        }
+        return input;
+    }
+}
@@ -5,6 +5,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.ldc.workflow.business.CompletionCriteriaChecker;
+import com.ldc.workflow.business.DecisionSummary;
+import com.ldc.workflow.repository.DecisionCounts;
 import com.ldc.workflow.repository.WorkflowStateRepository;
 import com.ldc.workflow.constants.WorkflowConstants;
 import com.ldc.workflow.service.WorkflowCallbackService;
@@ -18,6 +20,9 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -72,13 +77,16 @@ class CompletionCriteriaHandlerTest {
         }
         state.setAttributes(attributeList);
 
-        when(workflowStateRepository.findByRequestNumberAndLoanNumber(anyString(), anyString()))
+        when(workflowStateRepository.findDecisionCounts(anyString(), anyString()))
+                .thenReturn(java.util.Optional.of(DecisionCounts.of(state.getLoanDecision(),
+                        DecisionSummary.of(attributeList))));
+        lenient().when(workflowStateRepository.findByRequestNumberAndLoanNumber(anyString(), anyString()))
                 .thenReturn(java.util.Optional.of(state));
     }
 
     // Helper to mock empty state (not found)
     private void mockWorkflowStateNotFound() {
-        when(workflowStateRepository.findByRequestNumberAndLoanNumber(anyString(), anyString()))
+        when(workflowStateRepository.findDecisionCounts(anyString(), anyString()))
                 .thenReturn(java.util.Optional.empty());
     }
 
@@ -339,6 +347,20 @@ class CompletionCriteriaHandlerTest {
         assertFalse(result.get(WorkflowConstants.KEY_COMPLETE).asBoolean());
     }
 
+    @Test
+    @DisplayName("Should decide an incomplete loan from the counters without loading its state")
+    void testIncompleteDecidedFromCounters() {
+        when(workflowStateRepository.findDecisionCounts("REQ-001", "LOAN-001"))
+                .thenReturn(java.util.Optional.of(new DecisionCounts("Approved", 3, 2, 1, 0, 0, 0)));
+
+        JsonNode result = handler.apply(createBaseInput());
+
+        assertFalse(result.get(WorkflowConstants.KEY_COMPLETE).asBoolean());
+        assertEquals("2 of 3 attributes are incomplete (Pending or null)",
+                result.get(WorkflowConstants.KEY_BLOCKING_REASONS).asText());
+        verify(workflowStateRepository, never()).findByRequestNumberAndLoanNumber(anyString(), anyString());
+    }
+
     // Helper methods
     private ObjectNode createBaseInput() {
         ObjectNode input = objectMapper.createObjectNode();
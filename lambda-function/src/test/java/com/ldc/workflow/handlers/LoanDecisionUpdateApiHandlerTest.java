@@ -17,7 +17,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -52,6 +54,8 @@ public class LoanDecisionUpdateApiHandlerTest {
         lenient().when(attributeDecisionValidator.isValid(anyString())).thenReturn(true);
         lenient().doNothing().when(workflowStateRepository).save(any(WorkflowState.class));
         lenient().doNothing().when(stepFunctionsService).sendTaskSuccess(anyString(), anyString());
+        lenient().when(workflowCallbackService.awaitCallback(anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
     }
 
     @Test
@@ -115,6 +119,27 @@ public class LoanDecisionUpdateApiHandlerTest {
         assertEquals("Income", state.getAttributes().get(0).getAttributeName());
     }
 
+    @Test
+    void testAttributeUpdatesMergeByName() {
+        ObjectNode input = objectMapper.createObjectNode();
+        input.put("RequestNumber", "REQ-123");
+        input.put("LoanNumber", "LOAN-123");
+        input.putArray("Attributes").addObject().put("Name", "Income").put("Decision", "Approved");
+
+        WorkflowState state = new WorkflowState();
+        state.setAttributes(List.of(new LoanAttribute("Income", "Pending"), new LoanAttribute("Assets", "Approved")));
+        when(workflowStateRepository.findByRequestNumberAndLoanNumber("REQ-123", "LOAN-123"))
+                .thenReturn(Optional.of(state));
+
+        handler.apply(input);
+
+        verify(workflowStateRepository).saveAttributeChanges(eq(state), any());
+        verify(workflowStateRepository, never()).save(any());
+        assertEquals(2, state.getAttributes().size());
+        assertEquals("Approved", state.getAttributes().get(0).getAttributeDecision());
+        assertEquals("Assets", state.getAttributes().get(1).getAttributeName());
+    }
+
     @Test
     void testWorkflowStateNotFound() {
         // Prepare input
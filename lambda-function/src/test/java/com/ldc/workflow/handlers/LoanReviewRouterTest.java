@@ -213,6 +213,22 @@ class LoanReviewRouterTest {
         assertTrue(result.has(WorkflowConstants.KEY_ERROR));
     }
 
+    @Test
+    @DisplayName("Should dispatch every declared route")
+    void testDeclaredRoutesAreDispatched() {
+        LoanReviewRouter routerWithoutHandlers = new LoanReviewRouter();
+
+        for (String handlerType : LoanReviewRouter.ROUTES) {
+            ObjectNode input = objectMapper.createObjectNode();
+            input.put(WorkflowConstants.KEY_HANDLER_TYPE, handlerType);
+
+            JsonNode result = routerWithoutHandlers.apply(input);
+
+            assertEquals("Handler not implemented: " + handlerType,
+                    result.get(WorkflowConstants.KEY_ERROR).asText());
+        }
+    }
+
     @Test
     @DisplayName("Should handle exception in handler")
     void testExceptionInHandler() {
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ldc.workflow.business.DecisionSummary;
 import com.ldc.workflow.business.LoanStatusDeterminer;
 import com.ldc.workflow.types.LoanAttribute;
 import com.ldc.workflow.constants.WorkflowConstants;
@@ -19,7 +20,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 
@@ -94,7 +95,7 @@ class LoanStatusDeterminationHandlerTest {
 
         mockWorkflowState(input);
 
-        when(loanStatusDeterminer.determineStatus(anyList())).thenReturn("Approved");
+        when(loanStatusDeterminer.determineStatus(any(DecisionSummary.class))).thenReturn("Approved");
 
         // Act
         JsonNode result = handler.apply(input);
@@ -115,7 +116,7 @@ class LoanStatusDeterminationHandlerTest {
         attributes.add(createAttribute("IncomeVerification", "Rejected"));
         input.set("attributes", attributes);
 
-        when(loanStatusDeterminer.determineStatus(anyList())).thenReturn("Rejected");
+        when(loanStatusDeterminer.determineStatus(any(DecisionSummary.class))).thenReturn("Rejected");
 
         // Act
         JsonNode result = handler.apply(input);
@@ -136,7 +137,7 @@ class LoanStatusDeterminationHandlerTest {
         attributes.add(createAttribute("IncomeVerification", "Approved"));
         input.set("attributes", attributes);
 
-        when(loanStatusDeterminer.determineStatus(anyList())).thenReturn("Partially Approved");
+        when(loanStatusDeterminer.determineStatus(any(DecisionSummary.class))).thenReturn("Partially Approved");
 
         // Act
         JsonNode result = handler.apply(input);
@@ -157,7 +158,7 @@ class LoanStatusDeterminationHandlerTest {
         attributes.add(createAttribute("IncomeVerification", "Approved"));
         input.set("attributes", attributes);
 
-        when(loanStatusDeterminer.determineStatus(anyList())).thenReturn("Repurchase");
+        when(loanStatusDeterminer.determineStatus(any(DecisionSummary.class))).thenReturn("Repurchase");
 
         // Act
         JsonNode result = handler.apply(input);
@@ -178,7 +179,7 @@ class LoanStatusDeterminationHandlerTest {
         attributes.add(createAttribute("IncomeVerification", "Approved"));
         input.set("attributes", attributes);
 
-        when(loanStatusDeterminer.determineStatus(anyList())).thenReturn("Reclass Approved");
+        when(loanStatusDeterminer.determineStatus(any(DecisionSummary.class))).thenReturn("Reclass Approved");
 
         // Act
         JsonNode result = handler.apply(input);
@@ -198,7 +199,7 @@ class LoanStatusDeterminationHandlerTest {
         attributes.add(createAttribute("DebtRatio", "Reclass"));
         input.set("attributes", attributes);
 
-        when(loanStatusDeterminer.determineStatus(anyList())).thenReturn("Repurchase");
+        when(loanStatusDeterminer.determineStatus(any(DecisionSummary.class))).thenReturn("Repurchase");
 
         // Act
         JsonNode result = handler.apply(input);
@@ -233,7 +234,7 @@ class LoanStatusDeterminationHandlerTest {
         attributes.add(createAttribute("CreditScore", "Approved"));
         input.set("attributes", attributes);
 
-        when(loanStatusDeterminer.determineStatus(anyList())).thenReturn("Approved");
+        when(loanStatusDeterminer.determineStatus(any(DecisionSummary.class))).thenReturn("Approved");
 
         // Act
         JsonNode result = handler.apply(input);
@@ -254,7 +255,7 @@ class LoanStatusDeterminationHandlerTest {
         attributes.add(createAttribute("IncomeVerification", "Approved"));
         input.set("attributes", attributes);
 
-        when(loanStatusDeterminer.determineStatus(anyList())).thenReturn("Approved");
+        when(loanStatusDeterminer.determineStatus(any(DecisionSummary.class))).thenReturn("Approved");
 
         // Act
         JsonNode result = handler.apply(input);
@@ -339,7 +340,7 @@ class LoanStatusDeterminationHandlerTest {
         attributes.add(createAttribute("DebtRatio", "Repurchase"));
         input.set("attributes", attributes);
 
-        when(loanStatusDeterminer.determineStatus(anyList())).thenReturn("Repurchase");
+        when(loanStatusDeterminer.determineStatus(any(DecisionSummary.class))).thenReturn("Repurchase");
 
         // Act
         JsonNode result = handler.apply(input);
@@ -359,7 +360,7 @@ class LoanStatusDeterminationHandlerTest {
         attributes.add(createAttribute("DebtRatio", "Reclass"));
         input.set("attributes", attributes);
 
-        when(loanStatusDeterminer.determineStatus(anyList())).thenReturn("Reclass Approved");
+        when(loanStatusDeterminer.determineStatus(any(DecisionSummary.class))).thenReturn("Reclass Approved");
 
         // Act
         JsonNode result = handler.apply(input);
@@ -16,6 +16,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -50,6 +51,8 @@ public class ReviewTypeUpdateApiHandlerTest {
         lenient().when(reviewTypeValidator.isValid(anyString())).thenReturn(true);
         lenient().doNothing().when(workflowStateRepository).save(any(WorkflowState.class));
         lenient().doNothing().when(stepFunctionsService).sendTaskSuccess(anyString(), anyString());
+        lenient().when(workflowCallbackService.awaitCallback(anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
     }
 
     @Test
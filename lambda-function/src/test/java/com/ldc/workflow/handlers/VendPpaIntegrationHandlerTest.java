@@ -3,25 +3,34 @@ package com.ldc.workflow.handlers;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ldc.workflow.repository.VendPpaDeliveryRepository.Delivery;
 import com.ldc.workflow.repository.WorkflowStateRepository;
 import com.ldc.workflow.types.WorkflowState;
 import com.ldc.workflow.constants.WorkflowConstants;
+import com.ldc.workflow.service.VendPpaClient;
+import com.ldc.workflow.service.VendPpaOutbox;
 import com.ldc.workflow.service.WorkflowCallbackService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.Duration;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class VendPpaIntegrationHandlerTest {
 
+    private static final String EXECUTION_ID = "arn:aws:states:us-east-1:123456789012:execution:test:exec-1";
+
     private VendPpaIntegrationHandler handler;
 
     @Mock
@@ -30,11 +39,21 @@ public class VendPpaIntegrationHandlerTest {
     @Mock
     private WorkflowCallbackService workflowCallbackService;
 
+    @Mock
+    private VendPpaClient vendPpaClient;
+
+    @Mock
+    private VendPpaOutbox vendPpaOutbox;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @BeforeEach
     void setUp() {
-        handler = new VendPpaIntegrationHandler(workflowStateRepository, workflowCallbackService);
+        handler = new VendPpaIntegrationHandler(workflowStateRepository, workflowCallbackService, vendPpaClient,
+                vendPpaOutbox, transactionManager);
     }
 
     @Test
@@ -76,4 +95,70 @@ public class VendPpaIntegrationHandlerTest {
         assertFalse(result.get(WorkflowConstants.KEY_SUCCESS).asBoolean());
         assertEquals("Workflow state not found", result.get(WorkflowConstants.KEY_ERROR).asText());
     }
+
+    @Test
+    void testCompletesAndQueuesDeliveryInOneTransaction() {
+        Delivery delivery = stubQueued();
+        when(vendPpaOutbox.deliverNow(delivery))
+                .thenReturn(objectMapper.createObjectNode().put("status", "SUCCESS"));
+
+        JsonNode result = handler.apply(vendPpaInput());
+
+        assertTrue(result.get(WorkflowConstants.KEY_SUCCESS).asBoolean());
+        assertEquals("SUCCESS", result.get(WorkflowConstants.KEY_VEND_PPA_RESPONSE).get("status").asText());
+        verify(workflowStateRepository).upsert(any());
+        verify(vendPpaOutbox).enqueue(eq("REQ-1"), eq("LOAN-1"), eq(EXECUTION_ID), any());
+        verify(transactionManager).commit(any());
+        verify(workflowCallbackService).notifyCallback(eq("REQ-1"), eq("LOAN-1"), any());
+    }
+
+    @Test
+    void testCompletesWhenBestEffortSendFails() {
+        Delivery delivery = stubQueued();
+        when(vendPpaOutbox.deliverNow(delivery)).thenThrow(
+                new VendPpaClient.UnavailableException("Vend PPA circuit open", Duration.ofSeconds(30)));
+
+        JsonNode result = handler.apply(vendPpaInput());
+
+        assertTrue(result.get(WorkflowConstants.KEY_SUCCESS).asBoolean());
+        assertEquals("Queued", result.get(WorkflowConstants.KEY_VEND_PPA_RESPONSE).get("Status").asText());
+        verify(transactionManager).commit(any());
+        verify(workflowCallbackService).notifyCallback(eq("REQ-1"), eq("LOAN-1"), any());
+    }
+
+    @Test
+    void testFailsWhenOutboxWriteFails() {
+        WorkflowState state = new WorkflowState("REQ-1", "LOAN-1", "LDC");
+        when(workflowStateRepository.findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1"))
+                .thenReturn(Optional.of(state));
+        when(vendPpaClient.isConfigured()).thenReturn(true);
+        when(vendPpaOutbox.enqueue(anyString(), anyString(), anyString(), any()))
+                .thenThrow(new RuntimeException("Failed to enqueue Vend PPA delivery"));
+
+        JsonNode result = handler.apply(vendPpaInput());
+
+        assertFalse(result.get(WorkflowConstants.KEY_SUCCESS).asBoolean());
+        assertTrue(result.get(WorkflowConstants.KEY_ERROR).asText().contains("Failed to record Vend PPA delivery"));
+        verify(transactionManager).rollback(any());
+        verify(vendPpaOutbox, never()).deliverNow(any());
+        verifyNoInteractions(workflowCallbackService);
+    }
+
+    private Delivery stubQueued() {
+        WorkflowState state = new WorkflowState("REQ-1", "LOAN-1", "LDC");
+        when(workflowStateRepository.findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1"))
+                .thenReturn(Optional.of(state));
+        when(vendPpaClient.isConfigured()).thenReturn(true);
+        Delivery delivery = new Delivery(1L, "REQ-1", "LOAN-1",
+                VendPpaOutbox.idempotencyKey("REQ-1", "LOAN-1", EXECUTION_ID), objectMapper.createObjectNode(), 0);
+        when(vendPpaOutbox.enqueue(anyString(), anyString(), anyString(), any())).thenReturn(delivery);
+        return delivery;
+    }
+
+    private ObjectNode vendPpaInput() {
+        return objectMapper.createObjectNode()
+                .put("RequestNumber", "REQ-1")
+                .put("LoanNumber", "LOAN-1")
+                .put("ExecutionId", EXECUTION_ID);
+    }
 }
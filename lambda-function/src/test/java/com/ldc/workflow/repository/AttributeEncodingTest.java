@@ -0,0 +1,75 @@
+package com.ldc.workflow.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ldc.workflow.types.LoanAttribute;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests both attributes storage formats and the reader that accepts either.
+ */
+@DisplayName("AttributeEncoding Tests")
+class AttributeEncodingTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Should code known decisions and keep null and unknown decisions")
+    void testCompactFormat() throws Exception {
+        String json = AttributeEncoding.write(List.of(attribute("Income", "Approved"), attribute("Assets", null),
+                attribute("Credit", "Waived"), attribute("Income", "Repurchase")), true);
+
+        assertEquals("{\"v\":2,\"n\":[\"Income\",\"Assets\",\"Credit\",\"Income\"],\"d\":[1,null,\"Waived\",4]}",
+                json);
+    }
+
+    @Test
+    @DisplayName("Should read back the same list from either format")
+    void testRoundTrip() throws Exception {
+        List<LoanAttribute> attributes = List.of(attribute("Income", "Pending"), attribute(null, "Rejected"),
+                attribute("Assets", null), attribute("Assets", "Reclass"), attribute("Credit", "Waived"));
+
+        for (boolean compact : new boolean[] {false, true}) {
+            List<LoanAttribute> read = AttributeEncoding.read(
+                    mapper.readTree(AttributeEncoding.write(attributes, compact)));
+            assertEquals(attributes.size(), read.size());
+            for (int i = 0; i < attributes.size(); i++) {
+                assertEquals(attributes.get(i).getAttributeName(), read.get(i).getAttributeName());
+                assertEquals(attributes.get(i).getAttributeDecision(), read.get(i).getAttributeDecision());
+            }
+            assertEquals(compact, AttributeEncoding.isCompact(AttributeEncoding.toTree(attributes, compact)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should read attributes stored as the original array")
+    void testReadsArrayFormat() throws Exception {
+        List<LoanAttribute> read = AttributeEncoding.read(
+                mapper.readTree("[{\"Name\":\"Income\",\"Decision\":\"Approved\"},{\"Name\":\"Assets\"}]"));
+
+        assertEquals(2, read.size());
+        assertEquals("Approved", read.get(0).getAttributeDecision());
+        assertNull(read.get(1).getAttributeDecision());
+    }
+
+    @Test
+    @DisplayName("Should reject unknown versions and decision codes")
+    void testRejectsUnknownEncoding() throws Exception {
+        JsonNode futureVersion = mapper.readTree("{\"v\":3,\"n\":[\"Income\"],\"d\":[1]}");
+        JsonNode unknownCode = mapper.readTree("{\"v\":2,\"n\":[\"Income\"],\"d\":[99]}");
+        JsonNode mismatched = mapper.readTree("{\"v\":2,\"n\":[\"Income\",\"Assets\"],\"d\":[1]}");
+
+        assertThrows(IllegalArgumentException.class, () -> AttributeEncoding.read(futureVersion));
+        assertThrows(IllegalArgumentException.class, () -> AttributeEncoding.read(unknownCode));
+        assertThrows(IllegalArgumentException.class, () -> AttributeEncoding.read(mismatched));
+    }
+
+    private static LoanAttribute attribute(String name, String decision) {
+        return new LoanAttribute(name, decision);
+    }
+}
@@ -0,0 +1,125 @@
+package com.ldc.workflow.repository;
+
+import com.ldc.workflow.entity.StateTransitionEntity;
+import com.ldc.workflow.entity.WorkflowStateEntity;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the hand-written JDBC row mappers.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("JdbcWorkflowStateStore Tests")
+class JdbcWorkflowStateStoreTest {
+
+    private static final Instant CREATED_AT = Instant.parse("2026-01-15T10:00:00Z");
+    private static final Instant UPDATED_AT = Instant.parse("2026-01-15T10:05:00Z");
+
+    @Mock
+    private ResultSet resultSet;
+
+    @Test
+    @DisplayName("Should map a workflow_state row including JSONB attributes")
+    void testMapWorkflowState() throws Exception {
+        when(resultSet.getLong("id")).thenReturn(42L);
+        when(resultSet.getString("request_number")).thenReturn("REQ-001");
+        when(resultSet.getString("loan_number")).thenReturn("1234567890");
+        when(resultSet.getString("review_type")).thenReturn("LDCReview");
+        when(resultSet.getString("current_workflow_stage")).thenReturn("LoanDecisionUpdate");
+        when(resultSet.getString("execution_status")).thenReturn("Active");
+        when(resultSet.getString("loan_decision")).thenReturn("Approved");
+        when(resultSet.getObject("retry_count", Integer.class)).thenReturn(2);
+        when(resultSet.getObject("is_reclass_confirmation", Boolean.class)).thenReturn(null);
+        when(resultSet.getString("attributes")).thenReturn("[{\"Name\":\"Income\",\"Decision\":\"Approved\"}]");
+        when(resultSet.getTimestamp("created_at")).thenReturn(Timestamp.from(CREATED_AT));
+        when(resultSet.getTimestamp("updated_at")).thenReturn(Timestamp.from(UPDATED_AT));
+
+        WorkflowStateEntity entity = JdbcWorkflowStateStore.STATE_ROW_MAPPER.mapRow(resultSet, 0);
+
+        assertEquals(42L, entity.getId());
+        assertEquals("REQ-001", entity.getRequestNumber());
+        assertEquals("1234567890", entity.getLoanNumber());
+        assertEquals("LDCReview", entity.getReviewType());
+        assertEquals("LoanDecisionUpdate", entity.getCurrentWorkflowStage());
+        assertEquals("Active", entity.getExecutionStatus());
+        assertEquals("Approved", entity.getLoanDecision());
+        assertNull(entity.getLoanStatus());
+        assertEquals(2, entity.getRetryCount());
+        assertNull(entity.getIsReclassConfirmation());
+        assertEquals("Income", entity.getAttributes().get(0).get("Name").asText());
+        assertEquals(CREATED_AT, entity.getCreatedAt());
+        assertEquals(UPDATED_AT, entity.getUpdatedAt());
+    }
+
+    @Test
+    @DisplayName("Should map a row without attributes")
+    void testMapWorkflowStateWithoutAttributes() throws Exception {
+        when(resultSet.getString("attributes")).thenReturn(null);
+        when(resultSet.getTimestamp("created_at")).thenReturn(Timestamp.from(CREATED_AT));
+        when(resultSet.getTimestamp("updated_at")).thenReturn(Timestamp.from(UPDATED_AT));
+
+        WorkflowStateEntity entity = JdbcWorkflowStateStore.STATE_ROW_MAPPER.mapRow(resultSet, 0);
+
+        assertNull(entity.getAttributes());
+    }
+
+    @Test
+    @DisplayName("Should fail the row on unreadable attributes")
+    void testMapWorkflowStateWithInvalidAttributes() throws Exception {
+        when(resultSet.getString("attributes")).thenReturn("{not json");
+
+        assertThrows(SQLException.class, () -> JdbcWorkflowStateStore.STATE_ROW_MAPPER.mapRow(resultSet, 0));
+    }
+
+    @Test
+    @DisplayName("Should map the decision counters of a row")
+    void testMapDecisionCounts() throws Exception {
+        when(resultSet.getString("loan_decision")).thenReturn("Approved");
+        when(resultSet.getObject("attribute_count", Integer.class)).thenReturn(5);
+        when(resultSet.getObject("pending_count", Integer.class)).thenReturn(1);
+        when(resultSet.getObject("approved_count", Integer.class)).thenReturn(3);
+        when(resultSet.getObject("rejected_count", Integer.class)).thenReturn(1);
+        when(resultSet.getObject("reclass_count", Integer.class)).thenReturn(0);
+        when(resultSet.getObject("repurchase_count", Integer.class)).thenReturn(0);
+
+        DecisionCounts counts = JdbcWorkflowStateStore.COUNTS_ROW_MAPPER.mapRow(resultSet, 0);
+
+        assertTrue(counts.isMaintained());
+        assertEquals("Approved", counts.loanDecision());
+        assertFalse(counts.toSummary().isComplete());
+        assertTrue(counts.toSummary().hasApprovedAndRejected());
+    }
+
+    @Test
+    @DisplayName("Should map a state_transition row")
+    void testMapStateTransition() throws Exception {
+        when(resultSet.getLong("id")).thenReturn(7L);
+        when(resultSet.getString("request_number")).thenReturn("REQ-001");
+        when(resultSet.getString("loan_number")).thenReturn("1234567890");
+        when(resultSet.getString("workflow_state_name")).thenReturn("LoanDecisionUpdate");
+        when(resultSet.getString("workflow_state_user_id")).thenReturn("reviewer1");
+        when(resultSet.getTimestamp("start_date_time")).thenReturn(Timestamp.from(CREATED_AT));
+        when(resultSet.getTimestamp("end_date_time")).thenReturn(null);
+        when(resultSet.getTimestamp("created_at")).thenReturn(Timestamp.from(UPDATED_AT));
+
+        StateTransitionEntity entity = JdbcWorkflowStateStore.TRANSITION_ROW_MAPPER.mapRow(resultSet, 0);
+
+        assertEquals(7L, entity.getId());
+        assertEquals("LoanDecisionUpdate", entity.getWorkflowStateName());
+        assertEquals("reviewer1", entity.getWorkflowStateUserId());
+        assertEquals(CREATED_AT, entity.getStartDateTime());
+        assertNull(entity.getEndDateTime());
+        assertEquals(UPDATED_AT, entity.getCreatedAt());
+    }
+}
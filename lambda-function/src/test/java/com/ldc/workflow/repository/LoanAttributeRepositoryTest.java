@@ -0,0 +1,135 @@
+package com.ldc.workflow.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.ConnectionHandle;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SimpleConnectionHandle;
+import org.springframework.orm.jpa.DefaultJpaDialect;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests that a loan_attribute sync failing inside the writer's transaction is rolled
+ * back on its own under both transaction managers, with the JDBC connection mocked.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LoanAttributeRepository Tests")
+class LoanAttributeRepositoryTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private Savepoint savepoint;
+
+    @Mock
+    private Statement statement;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private EntityTransaction entityTransaction;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        lenient().when(dataSource.getConnection()).thenReturn(connection);
+        lenient().when(connection.setSavepoint()).thenReturn(savepoint);
+        lenient().when(connection.createStatement()).thenReturn(statement);
+        lenient().when(statement.executeUpdate(anyString())).thenReturn(1);
+        lenient().when(connection.prepareStatement(anyString()))
+                .thenThrow(new SQLException("relation \"loan_attribute\" does not exist", "42P01"));
+    }
+
+    @Test
+    @DisplayName("Should roll a failed sync back to its savepoint under a JDBC transaction")
+    void testFailedSyncKeepsPrimaryWrite() throws Exception {
+        when(connection.getAutoCommit()).thenReturn(true);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+
+        runPrimaryWriteAndFailingSync(transactionManager);
+
+        InOrder inOrder = inOrder(connection, statement);
+        inOrder.verify(statement).executeUpdate(anyString());
+        inOrder.verify(connection).setSavepoint();
+        inOrder.verify(connection).rollback(savepoint);
+        inOrder.verify(connection).commit();
+        verify(connection, never()).rollback();
+    }
+
+    @Test
+    @DisplayName("Should roll a failed sync back to its savepoint under a JPA transaction")
+    void testFailedSyncKeepsPrimaryWriteUnderJpa() throws Exception {
+        when(entityManagerFactory.createEntityManager()).thenReturn(entityManager);
+        when(entityManager.getTransaction()).thenReturn(entityTransaction);
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        transactionManager.setDataSource(dataSource);
+        // Exposes the session's JDBC connection like HibernateJpaDialect, which has no savepoint support either
+        transactionManager.setJpaDialect(new DefaultJpaDialect() {
+            @Override
+            public ConnectionHandle getJdbcConnection(EntityManager entityManager, boolean readOnly) {
+                return new SimpleConnectionHandle(connection);
+            }
+        });
+
+        runPrimaryWriteAndFailingSync(transactionManager);
+
+        InOrder inOrder = inOrder(connection, statement, entityTransaction);
+        inOrder.verify(statement).executeUpdate(anyString());
+        inOrder.verify(connection).setSavepoint();
+        inOrder.verify(connection).rollback(savepoint);
+        inOrder.verify(entityTransaction).commit();
+        verify(entityTransaction, never()).rollback();
+        // Both statements ran on the transaction's connection, not on one of their own
+        verify(dataSource, never()).getConnection();
+    }
+
+    private void runPrimaryWriteAndFailingSync(PlatformTransactionManager transactionManager) {
+        LoanAttributeRepository repository = new LoanAttributeRepository(dataSource, true);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE workflow_state SET loan_decision = 'Approved' WHERE id = 1");
+            assertThrows(DataAccessException.class,
+                    () -> repository.sync(List.of("REQ-1"), List.of("LOAN-1")));
+        });
+    }
+
+    @Test
+    @DisplayName("Should not touch the database while dual-write is off")
+    void testSyncDisabled() {
+        LoanAttributeRepository repository = new LoanAttributeRepository(dataSource, false);
+
+        assertEquals(0, repository.sync(List.of("REQ-1"), List.of("LOAN-1")));
+        verifyNoInteractions(dataSource);
+    }
+}
@@ -0,0 +1,490 @@
+package com.ldc.workflow.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ldc.workflow.business.AttributeChanges;
+import com.ldc.workflow.config.ReadReplicaRoutingDataSource;
+import com.ldc.workflow.entity.StateTransitionEntity;
+import com.ldc.workflow.entity.WorkflowStateEntity;
+import com.ldc.workflow.repositories.StateTransitionJpaRepository;
+import com.ldc.workflow.repositories.WorkflowStateJpaRepository;
+import com.ldc.workflow.types.LoanAttribute;
+import com.ldc.workflow.types.StateTransition;
+import com.ldc.workflow.types.WorkflowState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.TransactionManager;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the WorkflowStateRepository unit-of-work cache and state transition history.
+ * Query counts come from both the mocked JPA repository and the unit-of-work stats.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WorkflowStateRepository Tests")
+class WorkflowStateRepositoryTest {
+
+    @Mock
+    private WorkflowStateJpaRepository jpaRepository;
+
+    @Mock
+    private StateTransitionJpaRepository stateTransitionJpaRepository;
+
+    @Mock
+    private LoanAttributeRepository loanAttributeRepository;
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    private WorkflowStateRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new WorkflowStateRepository(jpaRepository, stateTransitionJpaRepository, 50);
+        lenient().when(jpaRepository.findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1"))
+                .thenReturn(Optional.of(entity("REQ-1", "LOAN-1")));
+        lenient().when(jpaRepository.upsert(anyString(), anyString(), any(), any(), any(), any(), any(), any(),
+                any(), any(), any(), any(), any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+                    WorkflowStateEntity entity = entity(invocation.getArgument(0), invocation.getArgument(1));
+                    entity.setLoanDecision(invocation.getArgument(5));
+                    return entity;
+                });
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.endUnitOfWork();
+    }
+
+    @Test
+    @DisplayName("Should load a row once per unit of work")
+    void testRepeatedFindHitsDatabaseOnce() {
+        repository.beginUnitOfWork();
+
+        repository.findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1");
+        repository.findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1");
+        repository.findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1");
+
+        WorkflowStateRepository.UnitOfWorkStats stats = repository.endUnitOfWork();
+        verify(jpaRepository, times(1)).findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1");
+        assertEquals(1, stats.reads());
+        assertEquals(2, stats.cacheHits());
+    }
+
+    @Test
+    @DisplayName("Should load, save and re-read a decision update with a single read")
+    void testLoadSaveReloadUsesOneRead() {
+        repository.beginUnitOfWork();
+
+        WorkflowState state = repository.findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1").orElseThrow();
+        state.setLoanDecision("Approved");
+        repository.save(state);
+        Optional<WorkflowState> reloaded = repository.findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1");
+
+        WorkflowStateRepository.UnitOfWorkStats stats = repository.endUnitOfWork();
+        assertTrue(reloaded.isPresent());
+        assertEquals("Approved", reloaded.get().getLoanDecision());
+        verify(jpaRepository, times(1)).findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1");
+        verify(jpaRepository, never()).save(any());
+        assertEquals(1, stats.reads());
+        assertEquals(1, stats.cacheHits());
+        assertEquals(1, stats.writes());
+    }
+
+    @Test
+    @DisplayName("Should cache a missing row and the row created for it")
+    void testInsertRefreshesCache() {
+        when(jpaRepository.findByRequestNumberAndLoanNumber("REQ-2", "LOAN-2")).thenReturn(Optional.empty());
+        when(jpaRepository.save(any(WorkflowStateEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        repository.beginUnitOfWork();
+
+        assertTrue(repository.findByRequestNumberAndLoanNumber("REQ-2", "LOAN-2").isEmpty());
+        repository.save(new WorkflowState("REQ-2", "LOAN-2", "LDC"));
+        Optional<WorkflowState> created = repository.findByRequestNumberAndLoanNumber("REQ-2", "LOAN-2");
+
+        WorkflowStateRepository.UnitOfWorkStats stats = repository.endUnitOfWork();
+        assertTrue(created.isPresent());
+        assertEquals("LDC", created.get().getReviewType());
+        // One lookup by the handler, one inside save() for the insert
+        assertEquals(2, stats.reads());
+        assertEquals(1, stats.cacheHits());
+    }
+
+    @Test
+    @DisplayName("Should evict the cached row when a write fails")
+    void testFailedWriteEvicts() {
+        repository.beginUnitOfWork();
+        WorkflowState state = repository.findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1").orElseThrow();
+        when(jpaRepository.upsert(anyString(), anyString(), any(), any(), any(), any(), any(), any(),
+                any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenThrow(new IllegalStateException("connection reset"));
+
+        assertThrows(RuntimeException.class, () -> repository.save(state));
+        repository.findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1");
+
+        verify(jpaRepository, times(2)).findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1");
+    }
+
+    @Test
+    @DisplayName("Should not cache outside a unit of work")
+    void testNoCachingWithoutUnitOfWork() {
+        repository.findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1");
+        repository.findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1");
+
+        verify(jpaRepository, times(2)).findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1");
+    }
+
+    @Test
+    @DisplayName("Should start each unit of work with an empty cache")
+    void testCacheClearedBetweenUnitsOfWork() {
+        repository.beginUnitOfWork();
+        repository.findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1");
+        repository.endUnitOfWork();
+
+        repository.beginUnitOfWork();
+        repository.findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1");
+
+        verify(jpaRepository, times(2)).findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1");
+    }
+
+    @Test
+    @DisplayName("Should load uncached pairs for a bulk read in one query")
+    void testBulkFindQueriesOnlyUncachedPairs() {
+        when(jpaRepository.findAllByRequestNumberAndLoanNumberPairs(any(String[].class), any(String[].class)))
+                .thenReturn(List.of(entity("REQ-2", "LOAN-2")));
+        repository.beginUnitOfWork();
+        repository.findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1");
+
+        Map<String, WorkflowState> states = repository.findAllByRequestNumberAndLoanNumber(
+                List.of("REQ-1", "REQ-2", "REQ-3"), List.of("LOAN-1", "LOAN-2", "LOAN-3"));
+
+        WorkflowStateRepository.UnitOfWorkStats stats = repository.endUnitOfWork();
+        assertEquals(2, states.size());
+        assertTrue(states.containsKey("REQ-1:LOAN-1"));
+        assertTrue(states.containsKey("REQ-2:LOAN-2"));
+        verify(jpaRepository).findAllByRequestNumberAndLoanNumberPairs(
+                new String[] {"REQ-2", "REQ-3"}, new String[] {"LOAN-2", "LOAN-3"});
+        assertEquals(2, stats.reads());
+        assertEquals(1, stats.cacheHits());
+    }
+
+    @Test
+    @DisplayName("Should insert only the transitions added since the state was loaded")
+    @SuppressWarnings("unchecked")
+    void testOnlyNewTransitionsAreInserted() {
+        WorkflowState state = repository.findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1").orElseThrow();
+        state.setStateTransitionHistory(new ArrayList<>(List.of(
+                new StateTransition("ReviewTypeValidated", "system", "2026-01-01T00:00:00Z", null))));
+        state.addStateTransition(new StateTransition("CompletionCriteriaMet", "system",
+                "2026-01-02T00:00:00Z", "2026-01-02T00:00:01Z"));
+
+        repository.upsert(state);
+        repository.upsert(state);
+
+        ArgumentCaptor<List<StateTransitionEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(stateTransitionJpaRepository, times(1)).saveAll(captor.capture());
+        List<StateTransitionEntity> inserted = captor.getValue();
+        assertEquals(1, inserted.size());
+        assertEquals("CompletionCriteriaMet", inserted.get(0).getWorkflowStateName());
+        assertEquals("LOAN-1", inserted.get(0).getLoanNumber());
+        assertEquals(Instant.parse("2026-01-02T00:00:01Z"), inserted.get(0).getEndDateTime());
+        assertTrue(state.getPendingStateTransitions().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should read a bounded window of recent transitions, oldest first")
+    void testRecentTransitionsAreBounded() {
+        StateTransitionEntity newer = transition("LoanStatusDetermined");
+        StateTransitionEntity older = transition("CompletionCriteriaMet");
+        when(stateTransitionJpaRepository.findByRequestNumberAndLoanNumberOrderByIdDesc(
+                eq("REQ-1"), eq("LOAN-1"), any(Pageable.class))).thenReturn(List.of(newer, older));
+
+        List<StateTransition> history = repository.findRecentStateTransitions("REQ-1", "LOAN-1");
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(stateTransitionJpaRepository).findByRequestNumberAndLoanNumberOrderByIdDesc(
+                eq("REQ-1"), eq("LOAN-1"), pageable.capture());
+        assertEquals(50, pageable.getValue().getPageSize());
+        assertEquals(2, history.size());
+        assertEquals("CompletionCriteriaMet", history.get(0).getWorkflowStateName());
+        assertEquals("LoanStatusDetermined", history.get(1).getWorkflowStateName());
+    }
+
+    @Test
+    @DisplayName("Should read history from the replica when the loan was not written")
+    void testUnwrittenLoanHistoryReadsFromReplica() {
+        List<Boolean> routedToReplica = new ArrayList<>();
+        when(stateTransitionJpaRepository.findByRequestNumberAndLoanNumberOrderByIdDesc(
+                eq("REQ-1"), eq("LOAN-1"), any(Pageable.class))).thenAnswer(invocation -> {
+                    routedToReplica.add(ReadReplicaRoutingDataSource.isReplicaRead());
+                    return List.of();
+                });
+        repository.beginUnitOfWork();
+
+        repository.findRecentStateTransitions("REQ-1", "LOAN-1");
+
+        assertEquals(List.of(true), routedToReplica);
+    }
+
+    @Test
+    @DisplayName("Should read a loan written in the unit of work from the primary")
+    void testWrittenLoanReadsFromPrimary() {
+        List<Boolean> routedToReplica = new ArrayList<>();
+        when(stateTransitionJpaRepository.findByRequestNumberAndLoanNumberOrderByIdDesc(
+                eq("REQ-1"), eq("LOAN-1"), any(Pageable.class))).thenAnswer(invocation -> {
+                    routedToReplica.add(ReadReplicaRoutingDataSource.isReplicaRead());
+                    return List.of();
+                });
+        when(jpaRepository.findMostRecentByLoanNumber("LOAN-1")).thenAnswer(invocation -> {
+            routedToReplica.add(ReadReplicaRoutingDataSource.isReplicaRead());
+            return Optional.empty();
+        });
+        repository.beginUnitOfWork();
+
+        WorkflowState state = repository.findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1").orElseThrow();
+        repository.upsert(state);
+        repository.findRecentStateTransitions("REQ-1", "LOAN-1");
+        repository.findMostRecentByLoanNumber("LOAN-1");
+
+        assertEquals(List.of(false, false), routedToReplica);
+    }
+
+    @Test
+    @DisplayName("Should write decision counters with the attributes")
+    void testUpsertWritesDecisionCounts() {
+        WorkflowState state = repository.findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1").orElseThrow();
+        state.setAttributes(List.of(new LoanAttribute("Income", "Approved"), new LoanAttribute("Appraisal", null),
+                new LoanAttribute("Title", "Repurchase")));
+
+        repository.upsert(state);
+
+        verify(jpaRepository).upsert(eq("REQ-1"), eq("LOAN-1"), any(), any(), any(), any(), any(), any(), any(),
+                any(), eq(3), eq(1), eq(1), eq(0), eq(0), eq(1), any());
+    }
+
+    @Test
+    @DisplayName("Should answer decision counts from the counter columns")
+    void testDecisionCountsReadNarrowly() {
+        when(jpaRepository.findDecisionCounts("REQ-1", "LOAN-1"))
+                .thenReturn(Optional.of(new DecisionCounts("Approved", 2, 1, 1, 0, 0, 0)));
+
+        DecisionCounts counts = repository.findDecisionCounts("REQ-1", "LOAN-1").orElseThrow();
+
+        assertFalse(counts.toSummary().isComplete());
+        verify(jpaRepository, never()).findByRequestNumberAndLoanNumber(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Should count the attributes of a row written before the counters existed")
+    void testDecisionCountsFallBackToAttributes() {
+        WorkflowStateEntity legacy = entity("REQ-1", "LOAN-1");
+        legacy.setAttributes(new ObjectMapper().createArrayNode()
+                .add(new ObjectMapper().createObjectNode().put("Name", "Income").put("Decision", "Approved")));
+        when(jpaRepository.findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1")).thenReturn(Optional.of(legacy));
+        when(jpaRepository.findDecisionCounts("REQ-1", "LOAN-1"))
+                .thenReturn(Optional.of(new DecisionCounts(null, null, null, null, null, null, null)));
+
+        DecisionCounts counts = repository.findDecisionCounts("REQ-1", "LOAN-1").orElseThrow();
+
+        assertTrue(counts.isMaintained());
+        assertTrue(counts.toSummary().allApproved());
+    }
+
+    @Test
+    @DisplayName("Should send only the changed decisions and counter deltas for merged attributes")
+    void testAttributeChangesArePatched() {
+        WorkflowStateEntity stored = withAttributes(entity("REQ-1", "LOAN-1"));
+        when(jpaRepository.findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1")).thenReturn(Optional.of(stored));
+        when(jpaRepository.patchAttributes(anyString(), anyString(), any(), any(), any(), any(), any(), any(), any(),
+                any(), any(), any(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt(), any(), any()))
+                .thenReturn(Optional.of(stored));
+        repository.beginUnitOfWork();
+        WorkflowState state = repository.findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1").orElseThrow();
+
+        repository.saveAttributeChanges(state, AttributeChanges.merge(state.getAttributes(),
+                List.of(new LoanAttribute("Income", "Approved"))));
+
+        verify(jpaRepository).patchAttributes(eq("REQ-1"), eq("LOAN-1"), any(), any(), any(), any(), any(), any(),
+                any(), aryEq(new Integer[] {0}), aryEq(new String[] {"Approved"}), eq("[]"), eq(0), eq(-1), eq(1),
+                eq(0), eq(0), eq(0), eq(stored.getUpdatedAt()), any());
+        verify(jpaRepository, never()).upsert(anyString(), anyString(), any(), any(), any(), any(), any(), any(),
+                any(), any(), any(), any(), any(), any(), any(), any(), any());
+        assertEquals(2, state.getAttributes().size());
+    }
+
+    @Test
+    @DisplayName("Should write the full attributes when the row changed since it was loaded")
+    void testAttributeChangesFallBackToFullWrite() {
+        WorkflowStateEntity stored = withAttributes(entity("REQ-1", "LOAN-1"));
+        when(jpaRepository.findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1")).thenReturn(Optional.of(stored));
+        when(jpaRepository.patchAttributes(anyString(), anyString(), any(), any(), any(), any(), any(), any(), any(),
+                any(), any(), any(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt(), any(), any()))
+                .thenReturn(Optional.empty());
+        repository.beginUnitOfWork();
+        WorkflowState state = repository.findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1").orElseThrow();
+
+        repository.saveAttributeChanges(state, AttributeChanges.merge(state.getAttributes(),
+                List.of(new LoanAttribute("Income", "Approved"))));
+
+        verify(jpaRepository).upsert(eq("REQ-1"), eq("LOAN-1"), any(), any(), any(), any(), any(), any(), any(),
+                any(), eq(2), eq(0), eq(2), eq(0), eq(0), eq(0), any());
+    }
+
+    @Test
+    @DisplayName("Should copy written attributes to loan_attribute without failing the write on error")
+    void testAttributeWritesSyncLoanAttributes() {
+        WorkflowStateRepository dualWrite = new WorkflowStateRepository(
+                new JpaWorkflowStateStore(jpaRepository, stateTransitionJpaRepository), loanAttributeRepository, false,
+                50);
+        when(loanAttributeRepository.sync(List.of("REQ-1"), List.of("LOAN-1")))
+                .thenThrow(new RuntimeException("relation \"loan_attribute\" does not exist"));
+        WorkflowState state = dualWrite.findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1").orElseThrow();
+        state.setAttributes(List.of(new LoanAttribute("Income", "Approved")));
+
+        assertDoesNotThrow(() -> dualWrite.upsert(state));
+
+        verify(loanAttributeRepository).sync(List.of("REQ-1"), List.of("LOAN-1"));
+    }
+
+    @Test
+    @DisplayName("Should refuse decision searches while loan_attribute is not enabled")
+    void testAttributeSearchRequiresNormalizedTable() {
+        assertThrows(IllegalStateException.class,
+                () -> repository.findByAttributeDecision(null, "Repurchase", 0, 10));
+    }
+
+    @Test
+    @DisplayName("Should read array attributes and write them back whole in the compact format")
+    void testCompactWritesReplaceArrayAttributes() {
+        WorkflowStateRepository compact = new WorkflowStateRepository(
+                new JpaWorkflowStateStore(jpaRepository, stateTransitionJpaRepository), null, true, 50);
+        WorkflowStateEntity stored = withAttributes(entity("REQ-1", "LOAN-1"));
+        when(jpaRepository.findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1")).thenReturn(Optional.of(stored));
+        compact.beginUnitOfWork();
+        WorkflowState state = compact.findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1").orElseThrow();
+
+        compact.saveAttributeChanges(state, AttributeChanges.merge(state.getAttributes(),
+                List.of(new LoanAttribute("Income", "Approved"))));
+
+        verify(jpaRepository).upsert(eq("REQ-1"), eq("LOAN-1"), any(), any(), any(), any(), any(), any(), any(),
+                eq("{\"v\":2,\"n\":[\"Income\",\"Assets\"],\"d\":[1,1]}"), eq(2), eq(0), eq(2), eq(0), eq(0), eq(0),
+                any());
+        verify(jpaRepository, never()).patchAttributes(anyString(), anyString(), any(), any(), any(), any(), any(),
+                any(), any(), any(), any(), any(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt(), any(),
+                any());
+        compact.endUnitOfWork();
+    }
+
+    @Test
+    @DisplayName("Should roll the state row back when its transitions cannot be written")
+    void testWriteRunsInOneTransaction() throws Exception {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(stateTransitionJpaRepository.saveAll(anyList())).thenThrow(new RuntimeException("insert failed"));
+        WorkflowStateRepository transactional = transactional(repository,
+                new DataSourceTransactionManager(dataSource));
+        WorkflowState state = transactional.findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1").orElseThrow();
+        state.addStateTransition(new StateTransition("Loan Decision Received", "reviewer",
+                Instant.now().toString(), null));
+
+        assertThrows(RuntimeException.class, () -> transactional.upsert(state));
+
+        InOrder inOrder = inOrder(jpaRepository, stateTransitionJpaRepository, connection);
+        inOrder.verify(jpaRepository).upsert(eq("REQ-1"), eq("LOAN-1"), any(), any(), any(), any(), any(), any(),
+                any(), any(), any(), any(), any(), any(), any(), any(), any());
+        inOrder.verify(stateTransitionJpaRepository).saveAll(anyList());
+        inOrder.verify(connection).rollback();
+        verify(connection, never()).commit();
+    }
+
+    @Test
+    @DisplayName("Should drop a cached write when the caller's transaction rolls back")
+    void testRolledBackWriteIsEvicted() throws Exception {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        WorkflowStateRepository transactional = transactional(repository, transactionManager);
+        repository.beginUnitOfWork();
+        WorkflowState state = transactional.findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1").orElseThrow();
+        state.setLoanDecision("Approved");
+
+        assertThrows(IllegalStateException.class, () -> new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> {
+                    transactional.upsert(state);
+                    throw new IllegalStateException("enqueue failed");
+                }));
+        transactional.findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1");
+
+        verify(connection).rollback();
+        verify(jpaRepository, times(2)).findByRequestNumberAndLoanNumber("REQ-1", "LOAN-1");
+    }
+
+    /**
+     * The repository behind the transactional proxy Spring creates for the bean.
+     */
+    private static WorkflowStateRepository transactional(WorkflowStateRepository target,
+            TransactionManager transactionManager) {
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new TransactionInterceptor(transactionManager,
+                new AnnotationTransactionAttributeSource()));
+        return (WorkflowStateRepository) proxyFactory.getProxy();
+    }
+
+    private static WorkflowStateEntity withAttributes(WorkflowStateEntity entity) {
+        ObjectMapper mapper = new ObjectMapper();
+        entity.setAttributes(mapper.createArrayNode()
+                .add(mapper.createObjectNode().put("Name", "Income").put("Decision", "Pending"))
+                .add(mapper.createObjectNode().put("Name", "Assets").put("Decision", "Approved")));
+        return entity;
+    }
+
+    private static StateTransitionEntity transition(String name) {
+        StateTransitionEntity entity = new StateTransitionEntity();
+        entity.setRequestNumber("REQ-1");
+        entity.setLoanNumber("LOAN-1");
+        entity.setWorkflowStateName(name);
+        entity.setWorkflowStateUserId("system");
+        entity.setStartDateTime(Instant.parse("2026-01-01T00:00:00Z"));
+        return entity;
+    }
+
+    private static WorkflowStateEntity entity(String requestNumber, String loanNumber) {
+        WorkflowStateEntity entity = new WorkflowStateEntity();
+        entity.setId(1L);
+        entity.setRequestNumber(requestNumber);
+        entity.setLoanNumber(loanNumber);
+        entity.setReviewType("LDC");
+        return entity;
+    }
+}
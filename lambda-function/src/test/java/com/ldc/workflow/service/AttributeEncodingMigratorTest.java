@@ -0,0 +1,61 @@
+package com.ldc.workflow.service;
+
+import com.ldc.workflow.repository.WorkflowStateBatchRepository;
+import com.ldc.workflow.repository.WorkflowStateBatchRepository.AttributeEncodingBatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests the attribute encoding migration loop with the table queries mocked.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AttributeEncodingMigrator Tests")
+class AttributeEncodingMigratorTest {
+
+    private static final int BATCH_SIZE = 2;
+
+    @Mock
+    private WorkflowStateBatchRepository batchRepository;
+
+    private AttributeEncodingMigrator migrator;
+
+    @BeforeEach
+    void setUp() {
+        migrator = new AttributeEncodingMigrator(batchRepository, BATCH_SIZE);
+    }
+
+    @Test
+    @DisplayName("Should rewrite batches until a short batch, counting rows skipped as written meanwhile")
+    void testMigratesToEnd() {
+        when(batchRepository.reencodeAttributes(0, BATCH_SIZE)).thenReturn(new AttributeEncodingBatch(9, 2, 1));
+        when(batchRepository.reencodeAttributes(9, BATCH_SIZE)).thenReturn(new AttributeEncodingBatch(9, 0, 0));
+
+        AttributeEncodingMigrator.MigrationResult result = migrator.migrate(0, Duration.ofSeconds(30));
+
+        assertEquals(2, result.found());
+        assertEquals(1, result.rewritten());
+        assertEquals(9, result.lastId());
+        assertTrue(result.complete());
+    }
+
+    @Test
+    @DisplayName("Should stop at the budget and return the cursor to resume from")
+    void testStopsAtBudget() {
+        AttributeEncodingMigrator.MigrationResult result = migrator.migrate(17, Duration.ZERO);
+
+        assertFalse(result.complete());
+        assertEquals(17, result.lastId());
+        verify(batchRepository, never()).reencodeAttributes(anyLong(), anyInt());
+    }
+}
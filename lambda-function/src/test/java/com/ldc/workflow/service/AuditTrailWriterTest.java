@@ -0,0 +1,173 @@
+package com.ldc.workflow.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ldc.workflow.types.AuditEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AuditTrailWriter batching, backpressure and the feature flag.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuditTrailWriter Tests")
+class AuditTrailWriterTest {
+
+    // Long enough that the scheduled flush never runs during a test
+    private static final long FLUSH_INTERVAL_MILLIS = 60_000;
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private AuditTrailWriter writer;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        lenient().when(dataSource.getConnection()).thenReturn(connection);
+        lenient().when(connection.prepareStatement(anyString())).thenReturn(statement);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Should write queued events in multi-row batches")
+    void testFlushWritesMultiRowBatches() throws SQLException {
+        writer = new AuditTrailWriter(dataSource, true, 10_000, 500, FLUSH_INTERVAL_MILLIS, 10);
+        for (int i = 0; i < 1200; i++) {
+            writer.record(event("REQ-" + i));
+        }
+
+        assertEquals(1200, writer.flush());
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(connection, times(3)).prepareStatement(sql.capture());
+        verify(statement, times(3)).executeUpdate();
+        List<String> statements = sql.getAllValues();
+        assertTrue(statements.get(0).startsWith("INSERT INTO audit_trail"));
+        assertEquals(500, countRows(statements.get(0)));
+        assertEquals(500, countRows(statements.get(1)));
+        assertEquals(200, countRows(statements.get(2)));
+        assertEquals(0, writer.getPendingEventCount());
+    }
+
+    @Test
+    @DisplayName("Should drop events instead of blocking when the queue is full")
+    void testFullQueueDropsEvents() {
+        writer = new AuditTrailWriter(dataSource, true, 10, 500, FLUSH_INTERVAL_MILLIS, 10);
+        for (int i = 0; i < 25; i++) {
+            writer.record(event("REQ-" + i));
+        }
+
+        assertEquals(10, writer.getPendingEventCount());
+        assertEquals(15, writer.getDroppedEventCount());
+    }
+
+    @Test
+    @DisplayName("Should not fail the caller when a batch cannot be written")
+    void testFailedBatchIsCountedNotThrown() throws SQLException {
+        when(statement.executeUpdate()).thenThrow(new SQLException("connection reset"));
+        writer = new AuditTrailWriter(dataSource, true, 100, 500, FLUSH_INTERVAL_MILLIS, 10);
+        writer.record(event("REQ-1"));
+        writer.record(event("REQ-2"));
+
+        assertEquals(0, writer.flush());
+        assertEquals(2, writer.getDroppedEventCount());
+    }
+
+    @Test
+    @DisplayName("Should not open a connection when nothing is queued")
+    void testEmptyFlushSkipsDatabase() {
+        writer = new AuditTrailWriter(dataSource, true, 100, 500, FLUSH_INTERVAL_MILLIS, 10);
+
+        assertEquals(0, writer.flush());
+        verifyNoInteractions(dataSource);
+    }
+
+    @Test
+    @DisplayName("Should record nothing when audit logging is disabled")
+    void testDisabledWriterIsNoOp() {
+        writer = new AuditTrailWriter(dataSource, false, 100, 500, FLUSH_INTERVAL_MILLIS, 10);
+        writer.record(event("REQ-1"));
+
+        assertEquals(0, writer.getPendingEventCount());
+        assertEquals(0, writer.flush());
+        verifyNoInteractions(dataSource);
+    }
+
+    @Test
+    @DisplayName("Should keep recording off the database round trip")
+    void testRecordCostIsQueueOfferOnly() throws SQLException {
+        writer = new AuditTrailWriter(dataSource, true, 200_000, 500, FLUSH_INTERVAL_MILLIS, 10);
+        AuditEvent event = event("REQ-1");
+
+        for (int i = 0; i < 100_000; i++) {
+            writer.record(event);
+        }
+
+        verify(dataSource, never()).getConnection();
+        assertEquals(100_000, writer.getPendingEventCount());
+    }
+
+    @Test
+    @DisplayName("Should redact task tokens and cut long arrays from queued payloads")
+    void testQueuedPayloadsAreCapped() throws SQLException {
+        writer = new AuditTrailWriter(dataSource, true, 100, 500, FLUSH_INTERVAL_MILLIS, 2);
+        ObjectNode request = objectMapper.createObjectNode().put("RequestNumber", "REQ-1");
+        ArrayNode requests = request.putArray("Requests");
+        for (int i = 0; i < 5; i++) {
+            requests.addObject().put("LoanNumber", "LOAN-" + i).put("TaskToken", "secret-" + i);
+        }
+        writer.record(new AuditEvent("REQ-1", "LOAN-1", null, "bulkLoanDecisionUpdateApi", null, "SUCCESS",
+                request, null, null, Instant.now()));
+
+        assertEquals(1, writer.flush());
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(statement).setString(eq(7), payload.capture());
+        assertFalse(payload.getValue().contains("secret-"));
+        assertTrue(payload.getValue().contains("LOAN-1"));
+        assertFalse(payload.getValue().contains("LOAN-2"));
+        assertTrue(payload.getValue().contains("3 more items"));
+        assertEquals(5, requests.size());
+    }
+
+    private AuditEvent event(String requestNumber) {
+        return new AuditEvent(requestNumber, "LOAN-1", null, "completionCriteria", "Loan Decision Received",
+                "SUCCESS", objectMapper.createObjectNode().put("RequestNumber", requestNumber),
+                objectMapper.createObjectNode().put("Success", true), null, Instant.now());
+    }
+
+    private static int countRows(String sql) {
+        return sql.split("\\(\\?, \\?", -1).length - 1;
+    }
+}
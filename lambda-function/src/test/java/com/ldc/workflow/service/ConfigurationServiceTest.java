@@ -0,0 +1,192 @@
+package com.ldc.workflow.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Parameter Store cache, run against an in-memory SSM stand-in.
+ */
+@DisplayName("ConfigurationService Tests")
+class ConfigurationServiceTest {
+
+    private static final String ENDPOINT = "/ldc-workflow/vend-ppa/endpoint";
+
+    private LocalSsmClient ssmClient;
+    private MutableClock clock;
+    private ConfigurationService service;
+
+    @BeforeEach
+    void setUp() {
+        ssmClient = new LocalSsmClient(10);
+        ssmClient.put(ENDPOINT, "https://vend-ppa.example.com/v1");
+        ssmClient.put("/ldc-workflow/notifications/review-email", "review@example.com");
+        clock = new MutableClock();
+        service = new ConfigurationService(ssmClient, "/ldc-workflow", Duration.ofMinutes(5),
+                Duration.ofMinutes(10), 256, false, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    @DisplayName("Should prefetch every parameter under the prefix across pages")
+    void testPrefetchLoadsAllPages() {
+        for (int i = 0; i < 25; i++) {
+            ssmClient.put("/ldc-workflow/email-templates/template-" + i, "body-" + i);
+        }
+        ssmClient.put("/other-app/secret", "x");
+        ConfigurationService prefetching = new ConfigurationService(ssmClient, "/ldc-workflow",
+                Duration.ofMinutes(5), Duration.ofMinutes(10), 256, true, clock);
+
+        prefetching.prefetch();
+
+        assertEquals(27, prefetching.cacheSize());
+        assertEquals(3, ssmClient.getParametersByPathCalls());
+        assertEquals("body-7", prefetching.getEmailTemplate("template-7"));
+        assertEquals(0, ssmClient.getParameterCalls("/ldc-workflow/email-templates/template-7"));
+        prefetching.destroy();
+    }
+
+    @Test
+    @DisplayName("Should leave SecureStrings out of the prefetch and load them on first use")
+    void testPrefetchSkipsSecureStrings() {
+        ssmClient.putSecure("/ldc-workflow/vend-ppa/api-key", "secret");
+        ConfigurationService prefetching = new ConfigurationService(ssmClient, "/ldc-workflow",
+                Duration.ofMinutes(5), Duration.ofMinutes(10), 256, true, clock);
+
+        prefetching.prefetch();
+
+        assertEquals(2, prefetching.cacheSize());
+        assertEquals("secret", prefetching.getParameter("/ldc-workflow/vend-ppa/api-key"));
+        assertEquals(1, ssmClient.getParameterCalls("/ldc-workflow/vend-ppa/api-key"));
+        prefetching.destroy();
+    }
+
+    @Test
+    @DisplayName("Should serve a fresh value from cache")
+    void testFreshValueIsCached() {
+        assertEquals("https://vend-ppa.example.com/v1", service.getVendPpaEndpoint());
+        clock.advance(Duration.ofMinutes(4));
+        assertEquals("https://vend-ppa.example.com/v1", service.getVendPpaEndpoint());
+
+        assertEquals(1, ssmClient.getParameterCalls(ENDPOINT));
+    }
+
+    @Test
+    @DisplayName("Should serve a stale value while refreshing it in the background")
+    void testStaleValueIsRefreshed() throws Exception {
+        service.getVendPpaEndpoint();
+        ssmClient.put(ENDPOINT, "https://vend-ppa.example.com/v2");
+        clock.advance(Duration.ofMinutes(6));
+
+        assertEquals("https://vend-ppa.example.com/v1", service.getVendPpaEndpoint());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!"https://vend-ppa.example.com/v2".equals(service.getVendPpaEndpoint())
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("https://vend-ppa.example.com/v2", service.getVendPpaEndpoint());
+    }
+
+    @Test
+    @DisplayName("Should reload synchronously once a value is past the stale window")
+    void testExpiredValueIsReloaded() {
+        service.getVendPpaEndpoint();
+        ssmClient.put(ENDPOINT, "https://vend-ppa.example.com/v2");
+        clock.advance(Duration.ofMinutes(16));
+
+        assertEquals("https://vend-ppa.example.com/v2", service.getVendPpaEndpoint());
+        assertEquals(2, ssmClient.getParameterCalls(ENDPOINT));
+    }
+
+    @Test
+    @DisplayName("Should collapse concurrent misses into one GetParameter call")
+    void testConcurrentMissesCollapse() throws Exception {
+        ssmClient.setLatencyMillis(200);
+        int callers = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return service.getVendPpaEndpoint();
+            }));
+        }
+        start.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("https://vend-ppa.example.com/v1", result.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        assertEquals(1, ssmClient.getParameterCalls(ENDPOINT));
+    }
+
+    @Test
+    @DisplayName("Should evict the oldest entries beyond the size bound")
+    void testCacheIsSizeBounded() {
+        ConfigurationService bounded = new ConfigurationService(ssmClient, "/ldc-workflow", Duration.ofMinutes(5),
+                Duration.ofMinutes(10), 1, false, clock);
+
+        bounded.getVendPpaEndpoint();
+        clock.advance(Duration.ofSeconds(1));
+        bounded.getNotificationEmail("review");
+        bounded.getVendPpaEndpoint();
+
+        assertEquals(1, bounded.cacheSize());
+        assertEquals(2, ssmClient.getParameterCalls(ENDPOINT));
+        bounded.destroy();
+    }
+
+    @Test
+    @DisplayName("Should report a missing parameter")
+    void testMissingParameter() {
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> service.getParameter("/ldc-workflow/missing"));
+
+        assertEquals("Configuration parameter not found: /ldc-workflow/missing", exception.getMessage());
+    }
+
+    private static class MutableClock extends Clock {
+        private volatile Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.ldc.workflow.service;
+
+import com.ldc.workflow.repository.DecisionCounts;
+import com.ldc.workflow.repository.WorkflowStateBatchRepository;
+import com.ldc.workflow.repository.WorkflowStateBatchRepository.DecisionCountsCheck;
+import com.ldc.workflow.repository.WorkflowStateBatchRepository.DecisionCountsMismatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests the decision counter consistency check with the workflow_state queries mocked.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DecisionCountsReconciler Tests")
+class DecisionCountsReconcilerTest {
+
+    private static final int BATCH_SIZE = 2;
+
+    @Mock
+    private WorkflowStateBatchRepository batchRepository;
+
+    private DecisionCountsReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        reconciler = new DecisionCountsReconciler(batchRepository, BATCH_SIZE);
+    }
+
+    @Test
+    @DisplayName("Should walk the table in batches and report mismatches without repairing")
+    void testReportsMismatches() {
+        when(batchRepository.checkDecisionCounts(0, BATCH_SIZE))
+                .thenReturn(new DecisionCountsCheck(7, 2, List.of(mismatch(7))));
+        when(batchRepository.checkDecisionCounts(7, BATCH_SIZE))
+                .thenReturn(new DecisionCountsCheck(9, 1, List.of()));
+
+        DecisionCountsReconciler.ReconcileResult result = reconciler.reconcile(0, false, Duration.ofSeconds(30));
+
+        assertEquals(3, result.checked());
+        assertEquals(1, result.mismatched());
+        assertEquals(0, result.repaired());
+        assertEquals(9, result.lastId());
+        assertTrue(result.complete());
+        assertEquals(List.of("REQ-7:LOAN-7"), result.samples());
+        verify(batchRepository, never()).repairDecisionCounts(anyList());
+    }
+
+    @Test
+    @DisplayName("Should recount mismatched rows when repair is on")
+    void testRepairsMismatches() {
+        when(batchRepository.checkDecisionCounts(0, BATCH_SIZE))
+                .thenReturn(new DecisionCountsCheck(4, 1, List.of(mismatch(4))));
+        when(batchRepository.repairDecisionCounts(List.of(4L))).thenReturn(1);
+
+        DecisionCountsReconciler.ReconcileResult result = reconciler.reconcile(0, true, Duration.ofSeconds(30));
+
+        assertEquals(1, result.repaired());
+        assertTrue(result.complete());
+    }
+
+    @Test
+    @DisplayName("Should stop at the budget and return the cursor to resume from")
+    void testStopsAtBudget() {
+        DecisionCountsReconciler.ReconcileResult result = reconciler.reconcile(42, false, Duration.ZERO);
+
+        assertFalse(result.complete());
+        assertEquals(42, result.lastId());
+        verify(batchRepository, never()).checkDecisionCounts(anyLong(), anyInt());
+    }
+
+    private static DecisionCountsMismatch mismatch(long id) {
+        return new DecisionCountsMismatch(id, "REQ-" + id, "LOAN-" + id,
+                new DecisionCounts("Approved", null, null, null, null, null, null),
+                new DecisionCounts("Approved", 1, 0, 1, 0, 0, 0));
+    }
+}
@@ -0,0 +1,61 @@
+package com.ldc.workflow.service;
+
+import com.ldc.workflow.repository.LoanAttributeRepository;
+import com.ldc.workflow.repository.LoanAttributeRepository.BackfillBatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests the loan_attribute backfill loop with the table queries mocked.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LoanAttributeBackfiller Tests")
+class LoanAttributeBackfillerTest {
+
+    private static final int BATCH_SIZE = 2;
+
+    @Mock
+    private LoanAttributeRepository loanAttributeRepository;
+
+    private LoanAttributeBackfiller backfiller;
+
+    @BeforeEach
+    void setUp() {
+        backfiller = new LoanAttributeBackfiller(loanAttributeRepository, BATCH_SIZE);
+    }
+
+    @Test
+    @DisplayName("Should walk the table in batches until a short batch")
+    void testBackfillsToEnd() {
+        when(loanAttributeRepository.backfill(0, BATCH_SIZE)).thenReturn(new BackfillBatch(5, 2, 30));
+        when(loanAttributeRepository.backfill(5, BATCH_SIZE)).thenReturn(new BackfillBatch(8, 1, 12));
+
+        LoanAttributeBackfiller.BackfillResult result = backfiller.backfill(0, Duration.ofSeconds(30));
+
+        assertEquals(3, result.states());
+        assertEquals(42, result.written());
+        assertEquals(8, result.lastId());
+        assertTrue(result.complete());
+    }
+
+    @Test
+    @DisplayName("Should stop at the budget and return the cursor to resume from")
+    void testStopsAtBudget() {
+        LoanAttributeBackfiller.BackfillResult result = backfiller.backfill(17, Duration.ZERO);
+
+        assertFalse(result.complete());
+        assertEquals(17, result.lastId());
+        verify(loanAttributeRepository, never()).backfill(anyLong(), anyInt());
+    }
+}
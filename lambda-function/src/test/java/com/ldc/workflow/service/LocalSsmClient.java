@@ -0,0 +1,114 @@
+package com.ldc.workflow.service;
+
+import software.amazon.awssdk.services.ssm.SsmClient;
+import software.amazon.awssdk.services.ssm.model.GetParameterRequest;
+import software.amazon.awssdk.services.ssm.model.GetParameterResponse;
+import software.amazon.awssdk.services.ssm.model.GetParametersByPathRequest;
+import software.amazon.awssdk.services.ssm.model.GetParametersByPathResponse;
+import software.amazon.awssdk.services.ssm.model.Parameter;
+import software.amazon.awssdk.services.ssm.model.ParameterNotFoundException;
+import software.amazon.awssdk.services.ssm.model.ParameterType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory Parameter Store stand-in that counts calls. GetParametersByPath pages
+ * through matching parameters pageSize at a time, like SSM's 10-result pages.
+ */
+class LocalSsmClient implements SsmClient {
+
+    private final Map<String, String> parameters = new ConcurrentSkipListMap<>();
+    private final Set<String> secureNames = ConcurrentHashMap.newKeySet();
+    private final Map<String, AtomicInteger> getParameterCalls = new ConcurrentHashMap<>();
+    private final AtomicInteger getParametersByPathCalls = new AtomicInteger();
+    private final int pageSize;
+    private volatile long latencyMillis;
+
+    LocalSsmClient(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    void put(String name, String value) {
+        parameters.put(name, value);
+    }
+
+    void putSecure(String name, String value) {
+        parameters.put(name, value);
+        secureNames.add(name);
+    }
+
+    void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    int getParameterCalls(String name) {
+        AtomicInteger calls = getParameterCalls.get(name);
+        return calls != null ? calls.get() : 0;
+    }
+
+    int getParametersByPathCalls() {
+        return getParametersByPathCalls.get();
+    }
+
+    @Override
+    public GetParameterResponse getParameter(GetParameterRequest request) {
+        getParameterCalls.computeIfAbsent(request.name(), name -> new AtomicInteger()).incrementAndGet();
+        sleep();
+        String value = parameters.get(request.name());
+        if (value == null) {
+            throw ParameterNotFoundException.builder().message("ParameterNotFound: " + request.name()).build();
+        }
+        return GetParameterResponse.builder()
+                .parameter(Parameter.builder().name(request.name()).value(value).build())
+                .build();
+    }
+
+    @Override
+    public GetParametersByPathResponse getParametersByPath(GetParametersByPathRequest request) {
+        getParametersByPathCalls.incrementAndGet();
+        List<String> names = parameters.keySet().stream()
+                .filter(name -> name.startsWith(request.path() + "/"))
+                .toList();
+        int start = request.nextToken() != null ? Integer.parseInt(request.nextToken()) : 0;
+        int end = Math.min(names.size(), start + pageSize);
+        return GetParametersByPathResponse.builder()
+                .parameters(names.subList(start, end).stream()
+                        .map(name -> parameter(name, Boolean.TRUE.equals(request.withDecryption())))
+                        .toList())
+                .nextToken(end < names.size() ? String.valueOf(end) : null)
+                .build();
+    }
+
+    private Parameter parameter(String name, boolean withDecryption) {
+        boolean secure = secureNames.contains(name);
+        return Parameter.builder()
+                .name(name)
+                .value(secure && !withDecryption ? "encrypted:" + name : parameters.get(name))
+                .type(secure ? ParameterType.SECURE_STRING : ParameterType.STRING)
+                .build();
+    }
+
+    @Override
+    public String serviceName() {
+        return "ssm";
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private void sleep() {
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.ldc.workflow.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local Step Functions endpoint speaking the AWS JSON 1.0 protocol, for pointing a
+ * real SfnAsyncClient at with endpointOverride. Every call waits latencyMillis before
+ * answering. Records calls, the peak number of requests in flight and the client
+ * connections used. Task tokens starting with "expired" fail with TaskTimedOut.
+ */
+class LocalStepFunctions implements AutoCloseable {
+
+    private static final String TARGET_PREFIX = "AWSStepFunctions.";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final long latencyMillis;
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger executions = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final Set<InetSocketAddress> connections = ConcurrentHashMap.newKeySet();
+
+    LocalStepFunctions(long latencyMillis) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    URI endpoint() {
+        return URI.create("http://localhost:" + server.getAddress().getPort());
+    }
+
+    int calls() {
+        return calls.get();
+    }
+
+    int maxInFlight() {
+        return maxInFlight.get();
+    }
+
+    int connections() {
+        return connections.size();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        calls.incrementAndGet();
+        connections.add(exchange.getRemoteAddress());
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try (InputStream body = exchange.getRequestBody()) {
+            String request = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+            Thread.sleep(latencyMillis);
+            String target = exchange.getRequestHeaders().getFirst("X-Amz-Target");
+            String operation = target != null && target.startsWith(TARGET_PREFIX)
+                    ? target.substring(TARGET_PREFIX.length()) : "";
+            switch (operation) {
+                case "StartExecution" -> respond(exchange, 200, "{\"executionArn\":\""
+                        + "arn:aws:states:us-east-1:123456789012:execution:local:exec-" + executions.incrementAndGet()
+                        + "\",\"startDate\":" + System.currentTimeMillis() / 1000 + "}");
+                case "SendTaskSuccess", "SendTaskFailure" -> {
+                    if (request.contains("\"taskToken\":\"expired")) {
+                        respond(exchange, 400, "{\"__type\":\"TaskTimedOut\",\"message\":\"Task Timed Out\"}");
+                    } else {
+                        respond(exchange, 200, "{}");
+                    }
+                }
+                case "ListExecutions" -> respond(exchange, 200, "{\"executions\":[]}");
+                default -> respond(exchange, 400,
+                        "{\"__type\":\"UnknownOperationException\",\"message\":\"" + operation + "\"}");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            respond(exchange, 500, "{}");
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/x-amz-json-1.0");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+}
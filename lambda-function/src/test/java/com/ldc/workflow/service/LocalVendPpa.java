@@ -0,0 +1,126 @@
+package com.ldc.workflow.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local Vend PPA endpoint in the style of a WireMock stub. Queued statuses are
+ * answered first, one per request, then every request gets 200 with a fixed body.
+ * Each response waits latencyMillis. Records calls, the client connections used, the
+ * most calls in flight at once and any Idempotency-Key headers sent.
+ */
+class LocalVendPpa implements AutoCloseable {
+
+    static final String SUCCESS_BODY = "{\"status\":\"SUCCESS\"}";
+
+    static {
+        // Without TCP_NODELAY, delayed ACKs add ~40ms to each call on a kept-alive connection
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final ConcurrentLinkedQueue<Integer> queuedStatuses = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final ConcurrentLinkedQueue<String> idempotencyKeys = new ConcurrentLinkedQueue<>();
+    private final Set<InetSocketAddress> connections = ConcurrentHashMap.newKeySet();
+    private volatile long latencyMillis;
+
+    LocalVendPpa() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/ppa", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    URI endpoint() {
+        return URI.create("http://localhost:" + server.getAddress().getPort() + "/ppa");
+    }
+
+    void enqueueStatus(int... statuses) {
+        for (int status : statuses) {
+            queuedStatuses.add(status);
+        }
+    }
+
+    void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    int calls() {
+        return calls.get();
+    }
+
+    int connections() {
+        return connections.size();
+    }
+
+    int maxInFlight() {
+        return maxInFlight.get();
+    }
+
+    List<String> idempotencyKeys() {
+        return List.copyOf(idempotencyKeys);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        calls.incrementAndGet();
+        connections.add(exchange.getRemoteAddress());
+        String idempotencyKey = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+        if (idempotencyKey != null) {
+            idempotencyKeys.add(idempotencyKey);
+        }
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try (InputStream body = exchange.getRequestBody()) {
+            body.readAllBytes();
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            // Before responding, so the client's next call cannot overlap this one
+            inFlight.decrementAndGet();
+        }
+        try {
+            Integer status = queuedStatuses.poll();
+            if (status != null) {
+                respond(exchange, status, "{\"error\":\"stubbed " + status + "\"}");
+            } else {
+                respond(exchange, 200, SUCCESS_BODY);
+            }
+        } catch (IOException e) {
+            // Client gave up (request timeout) before the response was written
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+}
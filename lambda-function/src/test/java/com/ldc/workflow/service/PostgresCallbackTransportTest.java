@@ -0,0 +1,155 @@
+package com.ldc.workflow.service;
+
+import com.ldc.workflow.repository.WorkflowStateRepository;
+import com.ldc.workflow.types.WorkflowState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cross-process wakeup test for the Postgres LISTEN/NOTIFY callback transport.
+ *
+ * A child JVM plays the Step Functions task instance and publishes callback keys;
+ * this JVM plays the API instance and waits on them through WorkflowCallbackService.
+ *
+ * Requires a local PostgreSQL, e.g.
+ * docker run -d -p 5432:5432 -e POSTGRES_PASSWORD=postgres postgres:15-alpine
+ * and CALLBACK_TEST_DATABASE_URL=jdbc:postgresql://localhost:5432/postgres
+ */
+@DisplayName("PostgresCallbackTransport Tests")
+class PostgresCallbackTransportTest {
+
+    private static final int CALLBACKS = 50;
+
+    private String url;
+    private String username;
+    private String password;
+
+    @BeforeEach
+    void setUp() {
+        url = System.getenv("CALLBACK_TEST_DATABASE_URL");
+        assumeTrue(url != null && !url.isEmpty(), "CALLBACK_TEST_DATABASE_URL not set");
+        username = Optional.ofNullable(System.getenv("CALLBACK_TEST_DATABASE_USER")).orElse("postgres");
+        password = Optional.ofNullable(System.getenv("CALLBACK_TEST_DATABASE_PASSWORD")).orElse("postgres");
+    }
+
+    @Test
+    @DisplayName("Should wake a waiter when another JVM publishes the callback")
+    void testCrossProcessWakeup() throws Exception {
+        PostgresCallbackTransport transport = new PostgresCallbackTransport(dataSource(), 50);
+        WorkflowStateRepository repository = mock(WorkflowStateRepository.class);
+        when(repository.findByRequestNumberAndLoanNumber(anyString(), anyString()))
+                .thenAnswer(invocation -> Optional.of(new WorkflowState(
+                        invocation.getArgument(0), invocation.getArgument(1), "LDC")));
+        WorkflowCallbackService service = new WorkflowCallbackService(transport, repository);
+
+        for (int i = 0; i < CALLBACKS; i++) {
+            service.registerCallback("REQ-" + i, "LOAN-" + i);
+        }
+
+        Process publisher = startPublisherJvm();
+        Map<String, Instant> sentAt = new ConcurrentHashMap<>();
+        Thread reader = new Thread(() -> readSentTimestamps(publisher, sentAt));
+        reader.start();
+
+        Map<String, Instant> wokeAt = new ConcurrentHashMap<>();
+        try {
+            for (int i = 0; i < CALLBACKS; i++) {
+                WorkflowState state = service.waitForCallback("REQ-" + i, "LOAN-" + i, 10L);
+                wokeAt.put("REQ-" + i + ":LOAN-" + i, Instant.now());
+                assertNotNull(state, "Waiter " + i + " was not woken by the other JVM");
+                assertEquals("LOAN-" + i, state.getLoanNumber());
+            }
+            assertTrue(publisher.waitFor(10, TimeUnit.SECONDS));
+            reader.join(TimeUnit.SECONDS.toMillis(5));
+        } finally {
+            publisher.destroy();
+            transport.destroy();
+        }
+
+        List<Long> latenciesMicros = new ArrayList<>();
+        wokeAt.forEach((key, woke) -> {
+            Instant sent = sentAt.get(key);
+            if (sent != null) {
+                latenciesMicros.add(Duration.between(sent, woke).toNanos() / 1000);
+            }
+        });
+        assertFalse(latenciesMicros.isEmpty());
+        Collections.sort(latenciesMicros);
+        long p99 = latenciesMicros.get((int) Math.ceil(latenciesMicros.size() * 0.99) - 1);
+
+        // Far below the 5s callback timeout the in-memory transport would burn
+        assertTrue(p99 < TimeUnit.SECONDS.toMicros(1), "p99 wakeup latency too high: " + p99 + "us");
+    }
+
+    private DriverManagerDataSource dataSource() {
+        return new DriverManagerDataSource(url, username, password);
+    }
+
+    private Process startPublisherJvm() throws Exception {
+        String javaBin = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        ProcessBuilder builder = new ProcessBuilder(javaBin,
+                "-cp", System.getProperty("java.class.path"),
+                PublisherMain.class.getName(),
+                url, username, password, String.valueOf(CALLBACKS));
+        builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+        return builder.start();
+    }
+
+    private static void readSentTimestamps(Process process, Map<String, Instant> sentAt) {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(" ");
+                if (parts.length == 2) {
+                    sentAt.put(parts[0], Instant.parse(parts[1]));
+                }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to read publisher output", e);
+        }
+    }
+
+    /**
+     * Entry point for the publishing JVM. Prints "key sentAt" per published callback.
+     */
+    public static class PublisherMain {
+
+        public static void main(String[] args) throws Exception {
+            DriverManagerDataSource dataSource = new DriverManagerDataSource(args[0], args[1], args[2]);
+            PostgresCallbackTransport transport = new PostgresCallbackTransport(dataSource, 50);
+            int callbacks = Integer.parseInt(args[3]);
+
+            for (int i = 0; i < callbacks; i++) {
+                String key = "REQ-" + i + ":LOAN-" + i;
+                Instant sent = Instant.now();
+                transport.publish(key);
+                System.out.println(key + " " + sent);
+                System.out.flush();
+                Thread.sleep(20);
+            }
+        }
+    }
+}
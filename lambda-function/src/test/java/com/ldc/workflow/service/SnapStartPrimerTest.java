@@ -0,0 +1,139 @@
+package com.ldc.workflow.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ldc.workflow.constants.WorkflowConstants;
+import com.ldc.workflow.handlers.LoanReviewRouter;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.sql.Connection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the SnapStart checkpoint and restore hooks.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SnapStartPrimer Tests")
+class SnapStartPrimerTest {
+
+    private static final String STATE_MACHINE_ARN = "arn:aws:states:us-east-1:123456789012:stateMachine:test";
+
+    @Mock
+    private LoanReviewRouter loanReviewRouter;
+
+    @Mock
+    private StepFunctionsService stepFunctionsService;
+
+    @Mock
+    private HikariDataSource dataSource;
+
+    @Mock
+    private HikariPoolMXBean pool;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SnapStartPrimer primer;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        lenient().when(dataSource.isAllowPoolSuspension()).thenReturn(true);
+        lenient().when(dataSource.getHikariPoolMXBean()).thenReturn(pool);
+        primer = new SnapStartPrimer(loanReviewRouter, stepFunctionsService, dataSource, transactionManager,
+                true, STATE_MACHINE_ARN);
+    }
+
+    @Test
+    @DisplayName("Should prime every routed handler except the unprimed routes")
+    void testPrimingRequestsCoverRoutes() {
+        Set<String> handlerTypes = SnapStartPrimer.primingRequests().stream()
+                .map(request -> request.path(WorkflowConstants.KEY_HANDLER_TYPE).asText())
+                .collect(Collectors.toSet());
+
+        Set<String> expected = new HashSet<>(LoanReviewRouter.ROUTES);
+        expected.removeAll(SnapStartPrimer.UNPRIMED_ROUTES);
+        assertEquals(expected, handlerTypes);
+        assertTrue(handlerTypes.contains(WorkflowConstants.HANDLER_ATTRIBUTE_DECISION_SEARCH_API));
+        assertTrue(LoanReviewRouter.ROUTES.containsAll(SnapStartPrimer.UNPRIMED_ROUTES));
+    }
+
+    @Test
+    @DisplayName("Should run each priming request in its own rolled-back transaction")
+    void testRoutesAreRolledBack() {
+        int primed = primer.primeRoutes();
+
+        int expected = SnapStartPrimer.primingRequests().size();
+        assertEquals(expected, primed);
+        verify(loanReviewRouter, times(expected)).prime(any(JsonNode.class));
+        ArgumentCaptor<TransactionStatus> statuses = ArgumentCaptor.forClass(TransactionStatus.class);
+        verify(transactionManager, times(expected)).commit(statuses.capture());
+        assertTrue(statuses.getAllValues().stream().allMatch(TransactionStatus::isRollbackOnly));
+    }
+
+    @Test
+    @DisplayName("Should keep priming the remaining routes when one fails")
+    void testFailedRouteDoesNotStopPriming() {
+        when(loanReviewRouter.prime(any(JsonNode.class)))
+                .thenThrow(new IllegalStateException("connection refused"))
+                .thenReturn(null);
+
+        int primed = primer.primeRoutes();
+
+        assertEquals(SnapStartPrimer.primingRequests().size() - 1, primed);
+    }
+
+    @Test
+    @DisplayName("Should close pooled connections before checkpoint")
+    void testBeforeCheckpointSuspendsPool() {
+        primer.beforeCheckpoint(null);
+
+        verify(pool).suspendPool();
+        verify(pool).softEvictConnections();
+        verify(stepFunctionsService, never()).prime(any());
+    }
+
+    @Test
+    @DisplayName("Should reopen a connection and prime Step Functions after restore")
+    void testAfterRestoreResumesPool() throws Exception {
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        primer.afterRestore(null);
+
+        verify(pool).softEvictConnections();
+        verify(pool).resumePool();
+        verify(connection).isValid(anyInt());
+        verify(connection).close();
+        verify(stepFunctionsService).prime(STATE_MACHINE_ARN);
+    }
+
+    @Test
+    @DisplayName("Should use a loan number that passes format validation")
+    void testPrimingLoanNumberFormat() {
+        List<JsonNode> requests = SnapStartPrimer.primingRequests();
+
+        assertTrue(SnapStartPrimer.PRIMING_LOAN_NUMBER.matches("^[0-9]{10}$"));
+        assertTrue(requests.stream().allMatch(request -> SnapStartPrimer.PRIMING_LOAN_NUMBER
+                .equals(request.path(WorkflowConstants.KEY_LOAN_NUMBER).asText())));
+    }
+}
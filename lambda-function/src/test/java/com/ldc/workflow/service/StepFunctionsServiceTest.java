@@ -0,0 +1,99 @@
+package com.ldc.workflow.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.sfn.SfnAsyncClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the async Step Functions calls through a real SfnAsyncClient on the shared
+ * Netty HTTP client, against a local endpoint that takes 20ms per call.
+ */
+@DisplayName("StepFunctionsService Tests")
+class StepFunctionsServiceTest {
+
+    private static final String STATE_MACHINE_ARN = "arn:aws:states:us-east-1:123456789012:stateMachine:local";
+    private static final long LATENCY_MILLIS = 20;
+    private static final int MAX_CONCURRENCY = 8;
+
+    private LocalStepFunctions stepFunctions;
+    private SdkAsyncHttpClient httpClient;
+    private SfnAsyncClient sfnClient;
+    private StepFunctionsService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stepFunctions = new LocalStepFunctions(LATENCY_MILLIS);
+        httpClient = NettyNioAsyncHttpClient.builder()
+                .maxConcurrency(MAX_CONCURRENCY)
+                .tcpKeepAlive(true)
+                .build();
+        sfnClient = SfnAsyncClient.builder()
+                .httpClient(httpClient)
+                .endpointOverride(stepFunctions.endpoint())
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+                .build();
+        service = new StepFunctionsService(sfnClient);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sfnClient.close();
+        httpClient.close();
+        stepFunctions.close();
+    }
+
+    @Test
+    @DisplayName("Should return the execution ARN from an async start")
+    void testStartExecutionAsync() {
+        String executionArn = service.startExecutionAsync(STATE_MACHINE_ARN, "exec-1", "{}").join();
+
+        assertTrue(executionArn.startsWith("arn:aws:states:us-east-1:123456789012:execution:local:"));
+    }
+
+    @Test
+    @DisplayName("Should pipeline callbacks over at most maxConcurrency reused connections")
+    void testPipelinesCallbacksOnBoundedConnections() {
+        int callbacks = MAX_CONCURRENCY * 8;
+        service.prime(STATE_MACHINE_ARN);
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(callbacks);
+        for (int i = 0; i < callbacks; i++) {
+            futures.add(service.sendTaskSuccessAsync("token-" + i, "{}"));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        assertEquals(callbacks + 1, stepFunctions.calls());
+        assertTrue(stepFunctions.maxInFlight() > 1, "Callbacks were not pipelined");
+        assertTrue(stepFunctions.maxInFlight() <= MAX_CONCURRENCY, "Had " + stepFunctions.maxInFlight()
+                + " requests in flight");
+        assertTrue(stepFunctions.connections() <= MAX_CONCURRENCY, "Opened " + stepFunctions.connections()
+                + " connections");
+    }
+
+    @Test
+    @DisplayName("Should fail async and blocking callbacks with the same RuntimeException")
+    void testFailedCallbackIsWrapped() {
+        CompletionException async = assertThrows(CompletionException.class,
+                () -> service.sendTaskSuccessAsync("expired-token", "{}").join());
+        assertEquals("Failed to send task success", async.getCause().getMessage());
+
+        RuntimeException blocking = assertThrows(RuntimeException.class,
+                () -> service.sendTaskFailure("expired-token", "Error", "cause"));
+        assertEquals("Failed to send task failure to Step Functions", blocking.getMessage());
+    }
+}
@@ -0,0 +1,194 @@
+package com.ldc.workflow.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ldc.workflow.config.VendPpaResilienceProperties;
+import com.ldc.workflow.util.CircuitBreaker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the Vend PPA client's connection reuse, timeouts, retries, circuit breaker and
+ * bulkhead against a local stand-in endpoint.
+ */
+@DisplayName("VendPpaClient Tests")
+class VendPpaClientTest {
+
+    private static final int CALLS = 50;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private LocalVendPpa vendPpa;
+    private VendPpaClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        vendPpa = new LocalVendPpa();
+        client = client(vendPpa.endpoint(), Duration.ofSeconds(2), 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        vendPpa.close();
+    }
+
+    @Test
+    @DisplayName("Should reuse one connection across calls")
+    void testReusesConnection() {
+        for (int i = 0; i < CALLS; i++) {
+            assertEquals("SUCCESS", client.post(body(i)).get("status").asText());
+        }
+
+        assertEquals(1, vendPpa.connections());
+        assertEquals(CALLS, vendPpa.calls());
+    }
+
+    @Test
+    @DisplayName("Should retry 5xx and 429 responses until one succeeds")
+    void testRetriesTransientStatuses() {
+        vendPpa.enqueueStatus(503, 429);
+
+        JsonNode response = client.post(body(1));
+
+        assertEquals("SUCCESS", response.get("status").asText());
+        assertEquals(3, vendPpa.calls());
+    }
+
+    @Test
+    @DisplayName("Should make a single attempt with postOnce")
+    void testPostOnceDoesNotRetry() {
+        vendPpa.enqueueStatus(503);
+
+        assertThrows(VendPpaClient.UnavailableException.class, () -> client.postOnce(body(1), "REQ-1:LOAN-1:exec-1"));
+
+        assertEquals(1, vendPpa.calls());
+    }
+
+    @Test
+    @DisplayName("Should not retry client errors")
+    void testDoesNotRetryClientErrors() {
+        vendPpa.enqueueStatus(400);
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> client.post(body(1)));
+
+        assertTrue(error.getMessage().contains("400"));
+        assertEquals(1, vendPpa.calls());
+    }
+
+    @Test
+    @DisplayName("Should give up after the configured attempts")
+    void testStopsAfterMaxAttempts() {
+        vendPpa.enqueueStatus(500, 502, 503, 504);
+
+        VendPpaClient.UnavailableException error = assertThrows(VendPpaClient.UnavailableException.class,
+                () -> client.post(body(1)));
+
+        assertTrue(error.getMessage().contains("after 3 attempts"));
+        assertFalse(error.getRetryAfter().isNegative());
+        assertEquals(3, vendPpa.calls());
+    }
+
+    @Test
+    @DisplayName("Should bound each attempt by the request timeout")
+    void testTimesOutSlowResponses() {
+        vendPpa.setLatencyMillis(1000);
+        VendPpaClient impatient = client(vendPpa.endpoint(), Duration.ofMillis(100), 2);
+
+        long start = System.nanoTime();
+        RuntimeException error = assertThrows(RuntimeException.class, () -> impatient.post(body(1)));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(error.getMessage().contains("HttpTimeoutException"), error.getMessage());
+        assertTrue(elapsedMillis < 900, "Took " + elapsedMillis + "ms");
+    }
+
+    @Test
+    @DisplayName("Should fail fast without calling Vend PPA while the circuit is open")
+    void testOpenCircuitFailsFast() {
+        vendPpa.enqueueStatus(503, 503);
+        CircuitBreaker breaker = new CircuitBreaker("VendPpaTest", new CircuitBreaker.Settings(4, 2, 50, 100,
+                Duration.ofSeconds(5), Duration.ofSeconds(30), 1));
+        VendPpaClient guarded = new VendPpaClient(vendPpa.endpoint(), HttpClient.newHttpClient(),
+                Duration.ofSeconds(2), 1, Duration.ofMillis(100), Duration.ofMillis(2000), breaker, 8, Duration.ZERO);
+
+        assertThrows(VendPpaClient.UnavailableException.class, () -> guarded.post(body(1)));
+        assertThrows(VendPpaClient.UnavailableException.class, () -> guarded.post(body(2)));
+        long start = System.nanoTime();
+        VendPpaClient.UnavailableException error = assertThrows(VendPpaClient.UnavailableException.class,
+                () -> guarded.post(body(3)));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(CircuitBreaker.State.OPEN, guarded.circuitState());
+        assertEquals("Vend PPA circuit open", error.getMessage());
+        assertTrue(error.getRetryAfter().getSeconds() > 0);
+        assertEquals(2, vendPpa.calls());
+        assertTrue(elapsedMillis < 50, "Rejected call took " + elapsedMillis + "ms");
+    }
+
+    @Test
+    @DisplayName("Should reject calls beyond the bulkhead limit")
+    void testBulkheadRejectsExcessCalls() throws Exception {
+        vendPpa.setLatencyMillis(300);
+        VendPpaClient narrow = new VendPpaClient(vendPpa.endpoint(), HttpClient.newHttpClient(),
+                Duration.ofSeconds(2), 1, Duration.ofMillis(100), Duration.ofMillis(2000),
+                breaker(), 1, Duration.ZERO);
+
+        CompletableFuture<JsonNode> first = CompletableFuture.supplyAsync(() -> narrow.post(body(1)));
+        while (vendPpa.calls() == 0) {
+            Thread.sleep(5);
+        }
+        VendPpaClient.UnavailableException error = assertThrows(VendPpaClient.UnavailableException.class,
+                () -> narrow.post(body(2)));
+
+        assertEquals("Vend PPA bulkhead full", error.getMessage());
+        assertEquals("SUCCESS", first.get().get("status").asText());
+        assertEquals(1, vendPpa.calls());
+    }
+
+    @Test
+    @DisplayName("Should keep jittered backoff within the exponential ceiling")
+    void testBackoffIsBounded() {
+        for (int attempt = 1; attempt <= 10; attempt++) {
+            long ceiling = Math.min(2000, 100L << (attempt - 1));
+            for (int i = 0; i < 100; i++) {
+                long backoff = client.backoffMillis(attempt);
+                assertTrue(backoff >= 0 && backoff <= ceiling, "attempt " + attempt + ": " + backoff);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should report an unset endpoint as not configured")
+    void testUnconfigured() {
+        VendPpaClient unconfigured = new VendPpaClient("", 2000, 30, 5, 100, 2000,
+                new VendPpaResilienceProperties());
+
+        assertFalse(unconfigured.isConfigured());
+        assertThrows(IllegalStateException.class, () -> unconfigured.post(body(1)));
+    }
+
+    private JsonNode body(int index) {
+        return objectMapper.createObjectNode().put("requestNumber", "REQ-" + index).put("loanNumber", "LOAN-" + index);
+    }
+
+    private static VendPpaClient client(URI endpoint, Duration timeout, int attempts) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(1))
+                .build();
+        return new VendPpaClient(endpoint, httpClient, timeout, attempts, Duration.ofMillis(100),
+                Duration.ofMillis(2000), breaker(), 8, Duration.ZERO);
+    }
+
+    private static CircuitBreaker breaker() {
+        return new CircuitBreaker("VendPpaTest", new VendPpaResilienceProperties().toCircuitBreakerSettings());
+    }
+}
@@ -0,0 +1,183 @@
+package com.ldc.workflow.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ldc.workflow.config.VendPpaResilienceProperties;
+import com.ldc.workflow.repository.VendPpaDeliveryRepository;
+import com.ldc.workflow.repository.VendPpaDeliveryRepository.Delivery;
+import com.ldc.workflow.util.CircuitBreaker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests outbox delivery against a local Vend PPA stand-in, with the outbox table mocked.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("VendPpaOutbox Tests")
+class VendPpaOutboxTest {
+
+    private static final int BATCH_SIZE = 10;
+    private static final int CONCURRENCY = 4;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private VendPpaDeliveryRepository deliveryRepository;
+
+    private LocalVendPpa vendPpa;
+    private VendPpaOutbox outbox;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        vendPpa = new LocalVendPpa();
+        VendPpaClient client = new VendPpaClient(vendPpa.endpoint(), HttpClient.newHttpClient(),
+                Duration.ofSeconds(5), 3, Duration.ofMillis(10), Duration.ofMillis(100),
+                new CircuitBreaker("VendPpaOutboxTest", new VendPpaResilienceProperties().toCircuitBreakerSettings()),
+                CONCURRENCY, Duration.ZERO);
+        outbox = new VendPpaOutbox(deliveryRepository, client, 3, BATCH_SIZE, CONCURRENCY, 60, 30, 3600);
+    }
+
+    @AfterEach
+    void tearDown() {
+        vendPpa.close();
+    }
+
+    @Test
+    @DisplayName("Should deliver the backlog in batches with bounded concurrency and idempotency keys")
+    void testDrainsBacklog() {
+        vendPpa.setLatencyMillis(20);
+        List<Delivery> first = deliveries(0, BATCH_SIZE);
+        List<Delivery> second = deliveries(BATCH_SIZE, 3);
+        when(deliveryRepository.claimDue(eq(BATCH_SIZE), any())).thenReturn(first, second);
+
+        VendPpaOutbox.DrainResult result = outbox.drain(Duration.ofSeconds(30));
+
+        assertEquals(BATCH_SIZE + 3, result.claimed());
+        assertEquals(BATCH_SIZE + 3, result.delivered());
+        assertFalse(result.backlogRemaining());
+        assertTrue(vendPpa.maxInFlight() <= CONCURRENCY, "max in flight " + vendPpa.maxInFlight());
+        assertTrue(vendPpa.idempotencyKeys().contains("REQ-0:LOAN-0:exec-0"));
+        assertEquals(BATCH_SIZE + 3, vendPpa.idempotencyKeys().size());
+        verify(deliveryRepository).markDelivered(ids(first));
+        verify(deliveryRepository).markDelivered(ids(second));
+        verify(deliveryRepository, times(2)).claimDue(anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("Should reschedule deliveries Vend PPA rejects")
+    void testReschedulesFailures() {
+        vendPpa.enqueueStatus(400);
+        List<Delivery> batch = deliveries(0, 1);
+        when(deliveryRepository.claimDue(eq(BATCH_SIZE), any())).thenReturn(batch);
+        when(deliveryRepository.recordFailedAttempt(eq(0L), anyString(), any(), eq(3))).thenReturn(true);
+
+        VendPpaOutbox.DrainResult result = outbox.drain(Duration.ofSeconds(30));
+
+        assertEquals(0, result.delivered());
+        assertEquals(1, result.retried());
+        verify(deliveryRepository).markDelivered(List.of());
+    }
+
+    @Test
+    @DisplayName("Should make a single attempt per delivery and leave retries to the outbox")
+    void testSendsOnceWithoutClientRetries() {
+        vendPpa.enqueueStatus(503);
+        List<Delivery> batch = deliveries(0, 1);
+        when(deliveryRepository.claimDue(eq(BATCH_SIZE), any())).thenReturn(batch);
+        when(deliveryRepository.recordFailedAttempt(eq(0L), anyString(), any(), eq(3))).thenReturn(true);
+
+        VendPpaOutbox.DrainResult result = outbox.drain(Duration.ofSeconds(30));
+
+        assertEquals(1, result.retried());
+        assertEquals(1, vendPpa.calls());
+    }
+
+    @Test
+    @DisplayName("Should cancel sends still in flight when the budget runs out")
+    void testCancelsSendsAtBudget() {
+        vendPpa.setLatencyMillis(3000);
+        List<Delivery> batch = deliveries(0, 2);
+        when(deliveryRepository.claimDue(eq(BATCH_SIZE), any())).thenReturn(batch);
+
+        VendPpaOutbox.DrainResult result = outbox.drain(Duration.ofMillis(200));
+
+        assertEquals(2, result.claimed());
+        assertEquals(0, result.delivered());
+        assertTrue(result.backlogRemaining());
+        verify(deliveryRepository).markDelivered(List.of());
+        // Cancelled rows are neither failed nor delivered; the lease brings them back
+        verify(deliveryRepository, never()).recordFailedAttempt(anyLong(), anyString(), any(), anyInt());
+        verify(deliveryRepository, times(1)).claimDue(anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("Should not claim rows once the budget is spent")
+    void testStopsAtBudget() {
+        VendPpaOutbox.DrainResult result = outbox.drain(Duration.ZERO);
+
+        assertTrue(result.backlogRemaining());
+        verify(deliveryRepository, never()).claimDue(anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("Should keep a delivery queued when the immediate send fails")
+    void testDeliverNowRecordsFailure() {
+        vendPpa.enqueueStatus(400);
+        Delivery delivery = deliveries(0, 1).get(0);
+
+        assertThrows(RuntimeException.class, () -> outbox.deliverNow(delivery));
+
+        verify(deliveryRepository).recordFailedAttempt(eq(0L), anyString(), any(), eq(3));
+        verify(deliveryRepository, never()).markDelivered(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should send an immediate delivery once without client retries")
+    void testDeliverNowSendsOnce() {
+        vendPpa.enqueueStatus(503);
+        Delivery delivery = deliveries(0, 1).get(0);
+
+        assertThrows(VendPpaClient.UnavailableException.class, () -> outbox.deliverNow(delivery));
+
+        assertEquals(1, vendPpa.calls());
+        verify(deliveryRepository).recordFailedAttempt(eq(0L), anyString(), any(), eq(3));
+    }
+
+    @Test
+    @DisplayName("Should back off exponentially up to the maximum")
+    void testBackoff() {
+        assertEquals(Duration.ofSeconds(30), outbox.backoff(1));
+        assertEquals(Duration.ofSeconds(120), outbox.backoff(3));
+        assertEquals(Duration.ofSeconds(3600), outbox.backoff(10));
+    }
+
+    private List<Delivery> deliveries(int from, int count) {
+        List<Delivery> deliveries = new ArrayList<>();
+        for (int i = from; i < from + count; i++) {
+            deliveries.add(new Delivery(i, "REQ-" + i, "LOAN-" + i,
+                    VendPpaOutbox.idempotencyKey("REQ-" + i, "LOAN-" + i, "exec-" + i),
+                    objectMapper.createObjectNode().put("loanNumber", "LOAN-" + i), 0));
+        }
+        return deliveries;
+    }
+
+    private static List<Long> ids(List<Delivery> deliveries) {
+        return deliveries.stream().map(Delivery::id).toList();
+    }
+}
@@ -0,0 +1,116 @@
+package com.ldc.workflow.service;
+
+import com.ldc.workflow.repository.WorkflowStateRepository;
+import com.ldc.workflow.types.WorkflowState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for WorkflowCallbackService completion semantics.
+ */
+@DisplayName("WorkflowCallbackService Tests")
+class WorkflowCallbackServiceTest {
+
+    private static final int CONCURRENT_WAITS = 50;
+    private static final long WAIT_TIMEOUT_SECONDS = 60;
+
+    private WorkflowCallbackService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new WorkflowCallbackService(new InMemoryCallbackTransport(), mock(WorkflowStateRepository.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should complete the future with the notified state")
+    void testAwaitCallbackCompletesOnNotify() throws Exception {
+        CompletableFuture<WorkflowState> future = service.awaitCallback("REQ-1", "LOAN-1", WAIT_TIMEOUT_SECONDS);
+        assertFalse(future.isDone());
+
+        WorkflowState state = new WorkflowState("REQ-1", "LOAN-1", "LDC");
+        service.notifyCallback("REQ-1", "LOAN-1", state);
+
+        assertSame(state, future.get(1, TimeUnit.SECONDS));
+        assertFalse(service.hasPendingCallback("REQ-1", "LOAN-1"));
+    }
+
+    @Test
+    @DisplayName("Should complete the future with null on timeout")
+    void testAwaitCallbackTimesOut() throws Exception {
+        CompletableFuture<WorkflowState> future = service.awaitCallback("REQ-2", "LOAN-2", 1L);
+
+        assertNull(future.get(5, TimeUnit.SECONDS));
+        assertFalse(service.hasPendingCallback("REQ-2", "LOAN-2"));
+    }
+
+    @Test
+    @DisplayName("Should run stages composed on a wait off the notifying thread")
+    void testComposedStagesRunOnCompletionPool() throws Exception {
+        CompletableFuture<String> composed = service.awaitCallback("REQ-5", "LOAN-5", WAIT_TIMEOUT_SECONDS)
+                .thenApply(state -> Thread.currentThread().getName());
+
+        service.notifyCallback("REQ-5", "LOAN-5", new WorkflowState("REQ-5", "LOAN-5", "LDC"));
+
+        assertEquals("workflow-callback-completion", composed.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Should complete a registered wait with null when cancelled")
+    void testCancelCallback() throws Exception {
+        service.registerCallback("REQ-3", "LOAN-3");
+        CompletableFuture<WorkflowState> future = service.awaitCallback("REQ-3", "LOAN-3", WAIT_TIMEOUT_SECONDS);
+
+        service.cancelCallback("REQ-3", "LOAN-3");
+
+        assertNull(future.get(1, TimeUnit.SECONDS));
+        assertFalse(service.hasPendingCallback("REQ-3", "LOAN-3"));
+    }
+
+    @Test
+    @DisplayName("Should deliver each of many concurrent waits its own state")
+    void testConcurrentWaitsCompleteIndependently() throws Exception {
+        List<CompletableFuture<WorkflowState>> futures = new ArrayList<>(CONCURRENT_WAITS);
+        for (int i = 0; i < CONCURRENT_WAITS; i++) {
+            futures.add(service.awaitCallback("REQ-C" + i, "LOAN-C" + i, WAIT_TIMEOUT_SECONDS));
+        }
+
+        for (int i = CONCURRENT_WAITS - 1; i >= 0; i--) {
+            service.notifyCallback("REQ-C" + i, "LOAN-C" + i, new WorkflowState("REQ-C" + i, "LOAN-C" + i, "LDC"));
+        }
+
+        for (int i = 0; i < CONCURRENT_WAITS; i++) {
+            assertEquals("REQ-C" + i, futures.get(i).get(1, TimeUnit.SECONDS).getRequestNumber());
+            assertFalse(service.hasPendingCallback("REQ-C" + i, "LOAN-C" + i));
+        }
+    }
+
+    @Test
+    @DisplayName("Should return the notified state from a blocking wait")
+    void testWaitForCallbackReturnsNotifiedState() throws Exception {
+        CompletableFuture<WorkflowState> waiter = CompletableFuture.supplyAsync(
+                () -> service.waitForCallback("REQ-4", "LOAN-4", WAIT_TIMEOUT_SECONDS));
+        while (!service.hasPendingCallback("REQ-4", "LOAN-4")) {
+            Thread.sleep(1);
+        }
+
+        WorkflowState state = new WorkflowState("REQ-4", "LOAN-4", "LDC");
+        service.notifyCallback("REQ-4", "LOAN-4", state);
+
+        assertSame(state, waiter.get(5, TimeUnit.SECONDS));
+    }
+}
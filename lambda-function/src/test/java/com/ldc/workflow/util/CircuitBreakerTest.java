@@ -0,0 +1,162 @@
+package com.ldc.workflow.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the circuit breaker state machine, driven by a manual clock.
+ */
+@DisplayName("CircuitBreaker Tests")
+class CircuitBreakerTest {
+
+    private static final Duration FAST = Duration.ofMillis(10);
+    private static final Duration SLOW = Duration.ofSeconds(6);
+
+    private final ByteArrayOutputStream metrics = new ByteArrayOutputStream();
+    private MutableClock clock;
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        EmbeddedMetrics.setOut(new PrintStream(metrics, true, StandardCharsets.UTF_8));
+        clock = new MutableClock();
+        breaker = new CircuitBreaker("Test", new CircuitBreaker.Settings(10, 4, 50, 75, Duration.ofSeconds(5),
+                Duration.ofSeconds(30), 2), clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        EmbeddedMetrics.setOut(System.out);
+    }
+
+    @Test
+    @DisplayName("Should stay closed until the minimum number of calls is recorded")
+    void testMinimumCalls() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onFailure(FAST);
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    @DisplayName("Should open at the failure rate threshold and reject calls")
+    void testOpensOnFailureRate() {
+        record(2, false, FAST);
+        record(2, true, FAST);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(1, breaker.rejectedCalls());
+        assertEquals(Duration.ofSeconds(30), breaker.retryAfter());
+        String published = metrics.toString(StandardCharsets.UTF_8);
+        assertTrue(published.contains("\"CircuitState\":2"), published);
+        assertTrue(published.contains("\"CircuitRejectedCalls\":1"), published);
+    }
+
+    @Test
+    @DisplayName("Should open when too many successful calls are slow")
+    void testOpensOnSlowCallRate() {
+        record(1, false, FAST);
+        record(3, false, SLOW);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    @DisplayName("Should only count the most recent window of calls")
+    void testSlidingWindow() {
+        record(4, true, FAST);
+        clock.advance(Duration.ofSeconds(30));
+        record(2, false, FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+
+        record(9, false, FAST);
+        record(4, true, FAST);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        record(1, true, FAST);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    @DisplayName("Should let a limited number of probes through once the open period ends")
+    void testHalfOpenProbesClose() {
+        record(4, true, FAST);
+        clock.advance(Duration.ofSeconds(29));
+        assertFalse(breaker.tryAcquire());
+
+        clock.advance(Duration.ofSeconds(1));
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+
+        breaker.onSuccess(FAST);
+        breaker.onSuccess(FAST);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("Should reopen when a probe fails")
+    void testFailedProbeReopens() {
+        record(4, true, FAST);
+        clock.advance(Duration.ofSeconds(30));
+        assertTrue(breaker.tryAcquire());
+
+        breaker.onFailure(FAST);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertEquals(Duration.ofSeconds(30), breaker.retryAfter());
+    }
+
+    private void record(int calls, boolean failed, Duration elapsed) {
+        for (int i = 0; i < calls; i++) {
+            assertTrue(breaker.tryAcquire());
+            if (failed) {
+                breaker.onFailure(elapsed);
+            } else {
+                breaker.onSuccess(elapsed);
+            }
+        }
+    }
+
+    private static class MutableClock extends Clock {
+        private volatile Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.ldc.workflow.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LambdaPayloadCodec streaming and log capping.
+ */
+@DisplayName("LambdaPayloadCodec Tests")
+class LambdaPayloadCodecTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LambdaPayloadCodec codec = new LambdaPayloadCodec(objectMapper, 64);
+
+    @Test
+    @DisplayName("Should round-trip a payload without closing the runtime streams")
+    void testRoundTripLeavesStreamsOpen() throws Exception {
+        ObjectNode payload = payloadWithAttributes(500);
+        AtomicBoolean inputClosed = new AtomicBoolean();
+        AtomicBoolean outputClosed = new AtomicBoolean();
+        ByteArrayInputStream input = new ByteArrayInputStream(objectMapper.writeValueAsBytes(payload)) {
+            @Override
+            public void close() {
+                inputClosed.set(true);
+            }
+        };
+        ByteArrayOutputStream output = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                outputClosed.set(true);
+            }
+        };
+
+        JsonNode parsed = codec.read(input);
+        codec.write(parsed, output);
+
+        assertEquals(payload, parsed);
+        assertEquals(payload, objectMapper.readTree(output.toByteArray()));
+        assertFalse(inputClosed.get());
+        assertFalse(outputClosed.get());
+    }
+
+    @Test
+    @DisplayName("Should cap logged payloads")
+    void testAbbreviateCapsLargePayloads() {
+        String logged = codec.abbreviate(payloadWithAttributes(5000));
+
+        assertTrue(logged.startsWith("{\"RequestNumber\":\"REQ-1\""));
+        assertTrue(logged.endsWith("...(truncated)"));
+        assertEquals(64 + "...(truncated)".length(), logged.length());
+    }
+
+    @Test
+    @DisplayName("Should log small payloads in full")
+    void testAbbreviateKeepsSmallPayloads() {
+        ObjectNode payload = objectMapper.createObjectNode().put("RequestNumber", "REQ-1");
+
+        assertEquals("{\"RequestNumber\":\"REQ-1\"}", codec.forLog(payload).toString());
+        assertEquals("null", codec.abbreviate(null));
+    }
+
+    private ObjectNode payloadWithAttributes(int count) {
+        ObjectNode payload = objectMapper.createObjectNode();
+        payload.put("RequestNumber", "REQ-1");
+        ArrayNode attributes = payload.putArray("Attributes");
+        for (int i = 0; i < count; i++) {
+            attributes.addObject().put("Name", "Attribute-" + i).put("Decision", "Pending");
+        }
+        return payload;
+    }
+}
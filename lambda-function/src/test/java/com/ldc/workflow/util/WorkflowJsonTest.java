@@ -0,0 +1,74 @@
+package com.ldc.workflow.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ldc.workflow.types.LoanAttribute;
+import com.ldc.workflow.types.LoanPpaRequest;
+import com.ldc.workflow.types.WorkflowState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the shared WorkflowJson mapper and its cached readers and writers.
+ */
+@DisplayName("WorkflowJson Tests")
+class WorkflowJsonTest {
+
+    @Test
+    @DisplayName("Should read a request payload that carries fields for other handlers")
+    void testRequestReaderIgnoresUnknownFields() throws Exception {
+        ObjectNode payload = WorkflowJson.mapper().createObjectNode();
+        payload.put("RequestNumber", "REQ-1");
+        payload.put("LoanNumber", "LOAN-1");
+        payload.put("ReviewType", "LDC");
+        payload.put("TaskToken", "token-from-step-functions");
+
+        LoanPpaRequest request = WorkflowJson.loanPpaRequestReader().readValue(payload);
+
+        assertEquals("REQ-1", request.getRequestNumber());
+        assertEquals("LOAN-1", request.getLoanNumber());
+        assertEquals("LDC", request.getReviewType());
+    }
+
+    @Test
+    @DisplayName("Should round-trip a workflow state through the cached writer and reader")
+    void testWorkflowStateRoundTrip() throws Exception {
+        WorkflowState state = new WorkflowState("REQ-1", "LOAN-1", "LDC");
+        state.setAttributes(List.of(new LoanAttribute("Income", "Approved")));
+
+        WorkflowState read = WorkflowJson.workflowStateReader()
+                .readValue(WorkflowJson.workflowStateWriter().writeValueAsString(state));
+
+        assertEquals("REQ-1", read.getRequestNumber());
+        assertEquals("LOAN-1", read.getLoanNumber());
+        assertEquals("Approved", read.getAttributes().get(0).getAttributeDecision());
+    }
+
+    @Test
+    @DisplayName("Should read stored attributes from their jsonb tree")
+    void testLoanAttributesFromTree() throws Exception {
+        List<LoanAttribute> attributes = List.of(new LoanAttribute("Income", "Approved"),
+                new LoanAttribute("Assets", "Pending"));
+        JsonNode tree = WorkflowJson.mapper().readTree(
+                WorkflowJson.loanAttributesWriter().writeValueAsString(attributes));
+
+        List<LoanAttribute> read = WorkflowJson.loanAttributesReader().readValue(tree);
+
+        assertEquals(2, read.size());
+        assertEquals("Assets", read.get(1).getAttributeName());
+        assertEquals("Pending", read.get(1).getAttributeDecision());
+    }
+
+    @Test
+    @DisplayName("Should tolerate repeated warm-up calls")
+    void testWarmUpIsIdempotent() {
+        WorkflowJson.warmUp();
+        WorkflowJson.warmUp();
+
+        assertSame(WorkflowJson.mapper(), WorkflowJson.mapper());
+    }
+}
@@ -0,0 +1,35 @@
+#!/bin/bash
+set -e
+
+# Table and TOAST size and read latency of workflow_state.attributes in the array
+# format and the compact format, using AttributeEncodingBenchmark. Rows are seeded as
+# arrays and moved to compact with the migration batch. Starts a throwaway Postgres
+# with the schema unless DATABASE_URL is set.
+#
+# Usage: scripts/perf/attribute-encoding.sh [loans] [attribute-counts,...] [iterations]
+
+cd "$(dirname "$0")/../../lambda-function"
+
+LOANS=${1:-10000}
+SIZES=${2:-10,100,1000}
+ITERATIONS=${3:-2000}
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+CONTAINER_NAME=ldc-attribute-encoding
+
+if [ -z "$DATABASE_URL" ]; then
+    docker rm -f "$CONTAINER_NAME" &> /dev/null || true
+    docker run -d --name "$CONTAINER_NAME" -p 55432:5432 -e POSTGRES_PASSWORD=postgres \
+        postgres:15-alpine -c shared_buffers=1GB -c max_wal_size=8GB > /dev/null
+    trap 'docker rm -f "$CONTAINER_NAME" > /dev/null' EXIT
+    until docker exec "$CONTAINER_NAME" pg_isready -U postgres &> /dev/null; do sleep 1; done
+    docker exec -i "$CONTAINER_NAME" psql -q -U postgres < src/main/resources/schema.sql
+    export DATABASE_URL=jdbc:postgresql://localhost:55432/postgres
+fi
+export DATABASE_USER=${DATABASE_USER:-postgres}
+export DATABASE_PASSWORD=${DATABASE_PASSWORD:-postgres}
+
+echo "Building test classpath..."
+mvn -B -q test-compile dependency:build-classpath -Dmdep.outputFile=target/harness.classpath
+CLASSPATH="target/test-classes:target/classes:$(cat target/harness.classpath)"
+
+"$JAVA" -cp "$CLASSPATH" com.ldc.workflow.benchmark.AttributeEncodingBenchmark "$LOANS" "$SIZES" "$ITERATIONS"
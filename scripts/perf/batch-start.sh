@@ -0,0 +1,35 @@
+#!/bin/bash
+set -e
+
+# Throughput of one startPPAreview call per loan against batchStartPpaReviewApi, including
+# a re-review batch over finished rows, using BatchStartThroughputBenchmark. Starts a
+# throwaway Postgres with the schema unless DATABASE_URL is set.
+#
+# Usage: scripts/perf/batch-start.sh [loans] [latency-millis] [parallelism]
+
+cd "$(dirname "$0")/../../lambda-function"
+
+LOANS=${1:-1000}
+LATENCY_MILLIS=${2:-20}
+PARALLELISM=${3:-64}
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+CONTAINER_NAME=ldc-batch-start
+
+if [ -z "$DATABASE_URL" ]; then
+    docker rm -f "$CONTAINER_NAME" &> /dev/null || true
+    docker run -d --name "$CONTAINER_NAME" -p 55432:5432 -e POSTGRES_PASSWORD=postgres \
+        postgres:15-alpine > /dev/null
+    trap 'docker rm -f "$CONTAINER_NAME" > /dev/null' EXIT
+    until docker exec "$CONTAINER_NAME" pg_isready -U postgres &> /dev/null; do sleep 1; done
+    docker exec -i "$CONTAINER_NAME" psql -q -U postgres < src/main/resources/schema.sql
+    export DATABASE_URL=jdbc:postgresql://localhost:55432/postgres
+fi
+export DATABASE_USER=${DATABASE_USER:-postgres}
+export DATABASE_PASSWORD=${DATABASE_PASSWORD:-postgres}
+
+echo "Building test classpath..."
+mvn -B -q test-compile dependency:build-classpath -Dmdep.outputFile=target/harness.classpath
+CLASSPATH="target/test-classes:target/classes:$(cat target/harness.classpath)"
+
+"$JAVA" -cp "$CLASSPATH" com.ldc.workflow.benchmark.BatchStartThroughputBenchmark \
+    "$LOANS" "$LATENCY_MILLIS" "$PARALLELISM"
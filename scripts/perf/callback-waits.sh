@@ -0,0 +1,20 @@
+#!/bin/bash
+set -e
+
+# Threads and p99 notify-to-completion latency of concurrent Step Functions callback
+# waits, future-based vs one blocked thread per wait, using CallbackWaitBenchmark.
+# Runs in-process with the in-memory callback transport, so no database is needed.
+#
+# Usage: scripts/perf/callback-waits.sh [waits] [timeout-seconds]
+
+cd "$(dirname "$0")/../../lambda-function"
+
+WAITS=${1:-5000}
+TIMEOUT_SECONDS=${2:-60}
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+
+echo "Building test classpath..."
+mvn -B -q test-compile dependency:build-classpath -Dmdep.outputFile=target/harness.classpath
+CLASSPATH="target/test-classes:target/classes:$(cat target/harness.classpath)"
+
+"$JAVA" -cp "$CLASSPATH" com.ldc.workflow.benchmark.CallbackWaitBenchmark "$WAITS" "$TIMEOUT_SECONDS"
@@ -0,0 +1,42 @@
+#!/bin/bash
+set -e
+
+# Load test of the Lambda connection pool settings against a connection ceiling,
+# using ConnectionCeilingLoadHarness. Starts a throwaway Postgres whose max_connections
+# is the ceiling plus a few superuser slots, so going over it fails loudly.
+#
+# Usage: scripts/perf/connection-ceiling.sh [containers] [seconds] [pool-size]
+#
+# To test behind PgBouncer, start it in transaction pooling mode in front of the
+# container and set DATABASE_URL to PgBouncer, MONITOR_DATABASE_URL to Postgres and
+# POOLER=pgbouncer.
+
+cd "$(dirname "$0")/../../lambda-function"
+
+CONTAINERS=${1:-50}
+SECONDS_TO_RUN=${2:-30}
+POOL_SIZE=${3:-2}
+CEILING=$((CONTAINERS * POOL_SIZE))
+POOLER=${POOLER:-direct}
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+CONTAINER_NAME=ldc-connection-ceiling
+
+if [ -z "$DATABASE_URL" ]; then
+    docker rm -f "$CONTAINER_NAME" &> /dev/null || true
+    docker run -d --name "$CONTAINER_NAME" -p 55432:5432 -e POSTGRES_PASSWORD=postgres \
+        postgres:15-alpine -c max_connections=$((CEILING + 5)) > /dev/null
+    trap 'docker rm -f "$CONTAINER_NAME" > /dev/null' EXIT
+    until docker exec "$CONTAINER_NAME" pg_isready -U postgres &> /dev/null; do sleep 1; done
+    docker exec -i "$CONTAINER_NAME" psql -q -U postgres < src/main/resources/schema.sql
+    export DATABASE_URL=jdbc:postgresql://localhost:55432/postgres
+fi
+export DATABASE_USER=${DATABASE_USER:-postgres}
+export DATABASE_PASSWORD=${DATABASE_PASSWORD:-postgres}
+
+echo "Building test classpath..."
+mvn -B -q test-compile dependency:build-classpath -Dmdep.outputFile=target/harness.classpath
+CLASSPATH="target/test-classes:target/classes:$(cat target/harness.classpath)"
+
+"$JAVA" -Dworkflow.datasource.pool.pooler="$POOLER" \
+    -Dworkflow.datasource.pool.maximum-pool-size="$POOL_SIZE" \
+    -cp "$CLASSPATH" com.ldc.workflow.benchmark.ConnectionCeilingLoadHarness "$CONTAINERS" "$SECONDS_TO_RUN" "$CEILING"
@@ -0,0 +1,36 @@
+#!/bin/bash
+set -e
+
+# Decision-filtered loan searches over the attributes JSON vs the normalized
+# loan_attribute table, using LoanAttributeSearchBenchmark. The defaults seed 10M
+# attribute rows. Starts a throwaway Postgres with the schema unless DATABASE_URL is set.
+#
+# Usage: scripts/perf/loan-attribute-search.sh [loans] [attributes-per-loan] [page-size] [iterations]
+
+cd "$(dirname "$0")/../../lambda-function"
+
+LOANS=${1:-100000}
+ATTRIBUTES=${2:-100}
+PAGE_SIZE=${3:-100}
+ITERATIONS=${4:-20}
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+CONTAINER_NAME=ldc-loan-attribute-search
+
+if [ -z "$DATABASE_URL" ]; then
+    docker rm -f "$CONTAINER_NAME" &> /dev/null || true
+    docker run -d --name "$CONTAINER_NAME" -p 55432:5432 -e POSTGRES_PASSWORD=postgres \
+        postgres:15-alpine -c shared_buffers=1GB -c max_wal_size=8GB > /dev/null
+    trap 'docker rm -f "$CONTAINER_NAME" > /dev/null' EXIT
+    until docker exec "$CONTAINER_NAME" pg_isready -U postgres &> /dev/null; do sleep 1; done
+    docker exec -i "$CONTAINER_NAME" psql -q -U postgres < src/main/resources/schema.sql
+    export DATABASE_URL=jdbc:postgresql://localhost:55432/postgres
+fi
+export DATABASE_USER=${DATABASE_USER:-postgres}
+export DATABASE_PASSWORD=${DATABASE_PASSWORD:-postgres}
+
+echo "Building test classpath..."
+mvn -B -q test-compile dependency:build-classpath -Dmdep.outputFile=target/harness.classpath
+CLASSPATH="target/test-classes:target/classes:$(cat target/harness.classpath)"
+
+"$JAVA" -cp "$CLASSPATH" com.ldc.workflow.benchmark.LoanAttributeSearchBenchmark \
+    "$LOANS" "$ATTRIBUTES" "$PAGE_SIZE" "$ITERATIONS"
@@ -0,0 +1,36 @@
+#!/bin/bash
+set -e
+
+# Throughput of draining a Vend PPA outbox backlog, using OutboxDrainBenchmark.
+# Starts a throwaway Postgres with the schema, seeds the backlog and drains it
+# against an in-process Vend PPA stand-in at each concurrency level.
+#
+# Usage: scripts/perf/outbox-drain.sh [rows] [latency-millis] [batch-size] [concurrency,...]
+
+cd "$(dirname "$0")/../../lambda-function"
+
+ROWS=${1:-100000}
+LATENCY_MILLIS=${2:-20}
+BATCH_SIZE=${3:-200}
+CONCURRENCY=${4:-8,32,64}
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+CONTAINER_NAME=ldc-outbox-drain
+
+if [ -z "$DATABASE_URL" ]; then
+    docker rm -f "$CONTAINER_NAME" &> /dev/null || true
+    docker run -d --name "$CONTAINER_NAME" -p 55432:5432 -e POSTGRES_PASSWORD=postgres \
+        postgres:15-alpine > /dev/null
+    trap 'docker rm -f "$CONTAINER_NAME" > /dev/null' EXIT
+    until docker exec "$CONTAINER_NAME" pg_isready -U postgres &> /dev/null; do sleep 1; done
+    docker exec -i "$CONTAINER_NAME" psql -q -U postgres < src/main/resources/schema.sql
+    export DATABASE_URL=jdbc:postgresql://localhost:55432/postgres
+fi
+export DATABASE_USER=${DATABASE_USER:-postgres}
+export DATABASE_PASSWORD=${DATABASE_PASSWORD:-postgres}
+
+echo "Building test classpath..."
+mvn -B -q test-compile dependency:build-classpath -Dmdep.outputFile=target/harness.classpath
+CLASSPATH="target/test-classes:target/classes:$(cat target/harness.classpath)"
+
+"$JAVA" -cp "$CLASSPATH" com.ldc.workflow.benchmark.OutboxDrainBenchmark \
+    "$ROWS" "$LATENCY_MILLIS" "$BATCH_SIZE" "$CONCURRENCY"
@@ -0,0 +1,51 @@
+#!/bin/bash
+set -e
+
+# Checks read replica routing (ReadReplicaRoutingDataSource) against two local
+# Postgres containers, the second streaming-replicated from the first, using
+# ReadReplicaRoutingCheck.
+#
+# Usage: scripts/perf/read-replica.sh
+
+cd "$(dirname "$0")/../../lambda-function"
+
+NETWORK=ldc-replica-net
+PRIMARY=ldc-replica-primary
+REPLICA=ldc-replica-standby
+IMAGE=postgres:15-alpine
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+
+cleanup() {
+    docker rm -f "$PRIMARY" "$REPLICA" &> /dev/null || true
+    docker network rm "$NETWORK" &> /dev/null || true
+}
+cleanup
+trap cleanup EXIT
+docker network create "$NETWORK" > /dev/null
+
+echo "Starting primary..."
+docker run -d --name "$PRIMARY" --network "$NETWORK" -p 55432:5432 -e POSTGRES_PASSWORD=postgres \
+    "$IMAGE" -c wal_level=replica -c max_wal_senders=5 > /dev/null
+until docker exec "$PRIMARY" pg_isready -U postgres &> /dev/null; do sleep 1; done
+sleep 2
+docker exec "$PRIMARY" sh -c 'echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"'
+docker exec "$PRIMARY" psql -q -U postgres -c "SELECT pg_reload_conf()" > /dev/null
+docker exec -i "$PRIMARY" psql -q -U postgres < src/main/resources/schema.sql
+
+echo "Starting streaming replica..."
+docker run -d --name "$REPLICA" --network "$NETWORK" -p 55433:5432 --user postgres \
+    -e PGPASSWORD=postgres --entrypoint sh "$IMAGE" -c \
+    "pg_basebackup -h $PRIMARY -U postgres -D /var/lib/postgresql/data -R -X stream \
+     && chmod 700 /var/lib/postgresql/data && exec postgres -c hot_standby=on" > /dev/null
+until docker exec "$REPLICA" pg_isready -U postgres &> /dev/null; do sleep 1; done
+
+export DATABASE_URL=jdbc:postgresql://localhost:55432/postgres
+export DATABASE_REPLICA_URL=jdbc:postgresql://localhost:55433/postgres
+export DATABASE_USER=postgres
+export DATABASE_PASSWORD=postgres
+
+echo "Building test classpath..."
+mvn -B -q test-compile dependency:build-classpath -Dmdep.outputFile=target/harness.classpath
+CLASSPATH="target/test-classes:target/classes:$(cat target/harness.classpath)"
+
+"$JAVA" -cp "$CLASSPATH" com.ldc.workflow.benchmark.ReadReplicaRoutingCheck
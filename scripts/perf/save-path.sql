@@ -0,0 +1,14 @@
+-- WorkflowStateRepository.save: SELECT by natural key, then JPA merge (SELECT by id + UPDATE)
+\set n random(1, :rows)
+BEGIN READ ONLY;
+SELECT id FROM workflow_state WHERE request_number = 'REQ-' || :n AND loan_number = 'LOAN-' || :n \gset
+COMMIT;
+BEGIN;
+SELECT * FROM workflow_state WHERE id = :id;
+UPDATE workflow_state SET review_type = 'LDC', current_workflow_stage = 'LoanDecisionReceived',
+    execution_status = 'RUNNING', loan_decision = 'Approved', loan_status = 'Approved',
+    current_assigned_username = 'bench', task_token = 'token-' || :n,
+    attributes = '[{"Name":"Income","Decision":"Approved"}]'::jsonb,
+    updated_at = now()
+WHERE id = :id;
+COMMIT;
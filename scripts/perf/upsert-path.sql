@@ -0,0 +1,18 @@
+-- WorkflowStateRepository.upsert: one INSERT ... ON CONFLICT ... RETURNING
+\set n random(1, :rows)
+INSERT INTO workflow_state (request_number, loan_number, review_type, current_workflow_stage,
+    execution_status, loan_decision, loan_status, current_assigned_username, task_token, attributes,
+    created_at, updated_at)
+VALUES ('REQ-' || :n, 'LOAN-' || :n, 'LDC', 'LoanDecisionReceived', 'RUNNING', 'Approved', 'Approved',
+    'bench', 'token-' || :n, '[{"Name":"Income","Decision":"Approved"}]'::jsonb, now(), now())
+ON CONFLICT (request_number, loan_number) DO UPDATE SET
+    review_type = EXCLUDED.review_type,
+    current_workflow_stage = EXCLUDED.current_workflow_stage,
+    execution_status = EXCLUDED.execution_status,
+    loan_decision = EXCLUDED.loan_decision,
+    loan_status = EXCLUDED.loan_status,
+    current_assigned_username = EXCLUDED.current_assigned_username,
+    task_token = EXCLUDED.task_token,
+    attributes = COALESCE(EXCLUDED.attributes, workflow_state.attributes),
+    updated_at = EXCLUDED.updated_at
+RETURNING *;
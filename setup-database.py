@@ -40,8 +40,9 @@ def get_db_credentials():
     }
 
 def read_schema_file():
-    """Read the schema.sql file"""
-    schema_path = os.path.join(os.path.dirname(__file__), 'schema.sql')
+    """Read the application schema, the same file the Lambda is validated against"""
+    schema_path = os.path.join(os.path.dirname(__file__), 'lambda-function', 'src', 'main', 'resources',
+                               'schema.sql')
     if not os.path.exists(schema_path):
         print(f"Error: schema.sql not found at {schema_path}")
         sys.exit(1)
@@ -64,7 +65,8 @@ def execute_schema(conn, schema_sql):
         cursor.execute("""
             SELECT table_name FROM information_schema.tables 
             WHERE table_schema = 'public' 
-            AND table_name IN ('workflow_state', 'audit_trail')
+            AND table_name IN ('workflow_state', 'state_transition', 'audit_trail', 'loan_attribute',
+                               'vend_ppa_delivery')
             ORDER BY table_name
         """)
         
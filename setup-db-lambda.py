@@ -69,7 +69,8 @@ def lambda_handler(event, context):
         cursor.execute("""
             SELECT table_name FROM information_schema.tables 
             WHERE table_schema = 'public' 
-            AND table_name IN ('workflow_state', 'audit_trail')
+            AND table_name IN ('workflow_state', 'state_transition', 'audit_trail', 'loan_attribute',
+                               'vend_ppa_delivery')
         """)
         
         tables = [row[0] for row in cursor.fetchall()]
@@ -95,7 +96,7 @@ if __name__ == '__main__':
     os.environ['DB_HOST'] = 'ldc-loan-review-db-dev.c5ce0uw0qqgm.us-east-1.rds.amazonaws.com'
     os.environ['DB_PASSWORD'] = 'postgres_password_123'
     
-    with open('schema.sql', 'r') as f:
+    with open('lambda-function/src/main/resources/schema.sql', 'r') as f:
         os.environ['SCHEMA_SQL'] = f.read()
     
     result = lambda_handler({}, None)
@@ -46,9 +46,10 @@ resource "aws_lambda_function" "ldc_loan_review" {
   # Environment variables
   environment {
     variables = merge(var.environment_variables, {
-      DATABASE_URL      = var.database_url
-      DATABASE_USER     = var.database_username
-      DATABASE_PASSWORD = var.database_password
+      DATABASE_URL         = var.database_url
+      DATABASE_REPLICA_URL = var.database_replica_url
+      DATABASE_USER        = var.database_username
+      DATABASE_PASSWORD    = var.database_password
     })
   }
 
@@ -110,6 +111,28 @@ resource "aws_lambda_function_url" "ldc_loan_review" {
   }
 }
 
+# Drain the Vend PPA outbox on a schedule; each run stops before the Lambda timeout
+resource "aws_cloudwatch_event_rule" "vend_ppa_outbox_drain" {
+  name                = "${var.function_name}-vend-ppa-outbox-drain"
+  description         = "Deliver queued Vend PPA decisions"
+  schedule_expression = var.outbox_drain_schedule
+}
+
+resource "aws_cloudwatch_event_target" "vend_ppa_outbox_drain" {
+  rule  = aws_cloudwatch_event_rule.vend_ppa_outbox_drain.name
+  arn   = aws_lambda_alias.live.arn
+  input = jsonencode({ handlerType = "vendPpaOutboxDrain" })
+}
+
+resource "aws_lambda_permission" "vend_ppa_outbox_drain" {
+  statement_id  = "AllowVendPpaOutboxDrain"
+  action        = "lambda:InvokeFunction"
+  function_name = aws_lambda_function.ldc_loan_review.function_name
+  qualifier     = aws_lambda_alias.live.name
+  principal     = "events.amazonaws.com"
+  source_arn    = aws_cloudwatch_event_rule.vend_ppa_outbox_drain.arn
+}
+
 # Outputs
 output "function_arn" {
   value       = aws_lambda_function.ldc_loan_review.arn
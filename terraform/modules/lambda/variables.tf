@@ -26,6 +26,12 @@ variable "timeout" {
   default     = 60
 }
 
+variable "outbox_drain_schedule" {
+  description = "EventBridge schedule for draining the Vend PPA outbox"
+  type        = string
+  default     = "rate(1 minute)"
+}
+
 variable "memory_size" {
   description = "Lambda memory size in MB"
   type        = number
@@ -59,6 +65,12 @@ variable "database_url" {
   type        = string
 }
 
+variable "database_replica_url" {
+  description = "Read replica connection URL; empty routes all reads to the primary"
+  type        = string
+  default     = ""
+}
+
 variable "database_username" {
   description = "Database username"
   type        = string